@@ -0,0 +1,42 @@
+package com.carematchbenchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Entry point of {@code benchmarks.jar}: the standard JMH command line, with the GC
+ * profiler always enabled so every result carries allocation rates
+ * ({@code gc.alloc.rate.norm} = bytes allocated per operation).
+ *
+ * <pre>
+ *   mvn -Pbenchmarks -pl care-match-benchmarks -am package -DskipTests
+ *   java -jar care-match-benchmarks/target/benchmarks.jar                      # everything
+ *   java -jar care-match-benchmarks/target/benchmarks.jar FanOut -p providers=10000
+ *   java -jar care-match-benchmarks/target/benchmarks.jar -rf json -rff result.json
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers()
+                || commandLine.shouldListResultFormats() || commandLine.shouldListWithParams()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        new Runner(new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
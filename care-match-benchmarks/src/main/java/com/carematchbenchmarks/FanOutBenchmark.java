@@ -0,0 +1,95 @@
+package com.carematchbenchmarks;
+
+import com.carematchservice.dto.PatientProfileDTO;
+import com.carematchservice.dto.ProviderProfileDTO;
+import com.carematchservice.service.CandidatePruner;
+import com.carematchservice.service.MatchingAlgorithmService;
+import com.carematchservice.service.ProviderBatch;
+import com.carematchservice.service.scoring.MatchEvaluation;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end scoring of one patient against a provider population of {@code providers}
+ * profiles — the CPU part of a patient fan-out, without I/O. One operation is one patient
+ * scored against all providers, so pairs per second = providers / (seconds per op).
+ *
+ *   - {@link #evaluateAll}: the per-pair fused evaluation and the compact columns the
+ *     fan-out persists (quantized scores, packed explanation facts)
+ *   - {@link #pruneThenEvaluate}: the same after CandidatePruner drops pairs below the floor
+ *   - {@link #scoreBatch}: the columnar kernel over a precompiled ProviderBatch (totals only)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FanOutBenchmark {
+
+    private static final int PATIENTS = 64;
+
+    /** Prune floor of care-match-service's application.properties. */
+    private static final double PRUNE_FLOOR = 40;
+
+    @Param({"1000", "10000"})
+    public int providers;
+
+    private MatchingAlgorithmService algorithm;
+    private CandidatePruner pruner;
+    private PatientProfileDTO[] patients;
+    private List<ProviderProfileDTO> population;
+    private ProviderBatch batch;
+    private double[] scores;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        algorithm = ScoringEngines.matchingAlgorithmService();
+        pruner = new CandidatePruner(algorithm, PRUNE_FLOOR);
+        SyntheticProfiles profiles = new SyntheticProfiles(7);
+        patients = profiles.patients(PATIENTS).toArray(PatientProfileDTO[]::new);
+        population = List.copyOf(profiles.providers(providers));
+        ScoringEngines.ingest(List.of(patients), population);
+        batch = ProviderBatch.compile(population, ScoringEngines.VOCABULARY);
+        scores = new double[population.size()];
+        // Build the pruner's candidate index outside the measurement
+        pruner.selectProviders(patients[0], population);
+    }
+
+    private PatientProfileDTO nextPatient() {
+        PatientProfileDTO patient = patients[next];
+        next = (next + 1) % PATIENTS;
+        return patient;
+    }
+
+    @Benchmark
+    public void evaluateAll(Blackhole blackhole) {
+        PatientProfileDTO patient = nextPatient();
+        for (ProviderProfileDTO provider : population) {
+            MatchEvaluation evaluation = algorithm.evaluate(patient, provider);
+            blackhole.consume(evaluation.quantizedDimensionScores());
+            blackhole.consume(evaluation.packedExplanationFacts());
+        }
+    }
+
+    @Benchmark
+    public void pruneThenEvaluate(Blackhole blackhole) {
+        PatientProfileDTO patient = nextPatient();
+        CandidatePruner.Selection<ProviderProfileDTO> selection = pruner.selectProviders(patient, population);
+        for (ProviderProfileDTO provider : selection.candidates()) {
+            MatchEvaluation evaluation = algorithm.evaluate(patient, provider);
+            blackhole.consume(evaluation.quantizedDimensionScores());
+            blackhole.consume(evaluation.packedExplanationFacts());
+        }
+    }
+
+    @Benchmark
+    public double[] scoreBatch() {
+        algorithm.scoreBatch(nextPatient(), batch, scores);
+        return scores;
+    }
+}
@@ -0,0 +1,90 @@
+package com.carematchbenchmarks;
+
+import com.carematchservice.dto.PatientProfileDTO;
+import com.carematchservice.dto.ProviderProfileDTO;
+import com.carematchservice.service.MatchingAlgorithmService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-pair entry points of {@link MatchingAlgorithmService}.
+ *
+ * Each invocation takes the next pair from a fixed pool of synthetic pairs, so branch
+ * prediction and caches see a realistic mix instead of one pair over and over.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MatchingAlgorithmBenchmark {
+
+    private static final int PAIRS = 4096;
+
+    private MatchingAlgorithmService algorithm;
+    private PatientProfileDTO[] patients;
+    private ProviderProfileDTO[] providers;
+    private BigDecimal[] scores;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        algorithm = ScoringEngines.matchingAlgorithmService();
+        SyntheticProfiles profiles = new SyntheticProfiles(42);
+        patients = profiles.patients(PAIRS).toArray(PatientProfileDTO[]::new);
+        providers = profiles.providers(PAIRS).toArray(ProviderProfileDTO[]::new);
+        ScoringEngines.ingest(List.of(patients), List.of(providers));
+        scores = new BigDecimal[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            scores[i] = algorithm.calculateMatchScore(patients[i], providers[i]);
+        }
+    }
+
+    private int nextPair() {
+        int i = next;
+        next = (i + 1) & (PAIRS - 1);
+        return i;
+    }
+
+    @Benchmark
+    public BigDecimal calculateMatchScore() {
+        int i = nextPair();
+        return algorithm.calculateMatchScore(patients[i], providers[i]);
+    }
+
+    @Benchmark
+    public Map<String, Object> generateExplanation() {
+        int i = nextPair();
+        return algorithm.generateExplanation(patients[i], providers[i], scores[i]);
+    }
+
+    @Benchmark
+    public Map<String, Object> getScoreBreakdown() {
+        int i = nextPair();
+        return algorithm.getScoreBreakdown(patients[i], providers[i]);
+    }
+
+    @Benchmark
+    public double calculateDistance() {
+        int i = nextPair();
+        PatientProfileDTO patient = patients[i];
+        ProviderProfileDTO provider = providers[i];
+        if (patient.getLatitude() == null || provider.getLatitude() == null) {
+            return 0.0;
+        }
+        return algorithm.calculateDistance(patient.getLatitude(), patient.getLongitude(),
+                provider.getLatitude(), provider.getLongitude());
+    }
+
+    /** All three views from one fused pass, as the fan-out uses it. */
+    @Benchmark
+    public Object evaluate() {
+        int i = nextPair();
+        return algorithm.evaluate(patients[i], providers[i]);
+    }
+}
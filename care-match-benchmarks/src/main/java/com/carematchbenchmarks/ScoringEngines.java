@@ -0,0 +1,37 @@
+package com.carematchbenchmarks;
+
+import com.carematchservice.dto.PatientProfileDTO;
+import com.carematchservice.dto.ProviderProfileDTO;
+import com.carematchservice.service.MatchingAlgorithmService;
+import com.carematchservice.service.TermVocabulary;
+import com.carematchservice.service.scoring.*;
+
+import java.util.Collection;
+import java.util.List;
+
+/** Matching engine wired outside Spring, with the weights of care-match-service's application.properties. */
+final class ScoringEngines {
+
+    /** Vocabulary shared by the engine and every compiled ProviderBatch. */
+    static final TermVocabulary VOCABULARY = TermVocabulary.inMemory();
+
+    private ScoringEngines() {
+    }
+
+    static MatchingAlgorithmService matchingAlgorithmService() {
+        return new MatchingAlgorithmService(List.of(
+                new CareLevelDimension(25),
+                new DistanceDimension(20),
+                new SpecializationDimension(20, VOCABULARY),
+                new TierDimension(15),
+                new LifestyleDimension(10),
+                new SocialDimension(5),
+                new QualityDimension(5)));
+    }
+
+    /** Registers the profiles' terms, as ProfileReplica does on ingestion; scoring only looks them up. */
+    static void ingest(Collection<PatientProfileDTO> patients, Collection<ProviderProfileDTO> providers) {
+        patients.forEach(VOCABULARY::ingest);
+        providers.forEach(VOCABULARY::ingest);
+    }
+}
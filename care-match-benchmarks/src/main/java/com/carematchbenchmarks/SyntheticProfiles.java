@@ -0,0 +1,228 @@
+package com.carematchbenchmarks;
+
+import com.carematchservice.dto.PatientProfileDTO;
+import com.carematchservice.dto.ProviderProfileDTO;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Seeded generator of synthetic patient and provider profiles for the benchmarks.
+ *
+ * Distributions are meant to look like the production population rather than uniform noise:
+ *   - care levels (Pflegegrad 1–5) skewed towards 2 and 3
+ *   - service tiers mostly STANDARD, few PREMIUM; providers offer one to three tiers
+ *   - specializations / medical requirements drawn from a fixed catalogue with a long tail
+ *   - coordinates clustered around German cities, with a rural share spread over the country
+ *   - lifestyle flags, quality indicators and service radii present on most, not all, profiles
+ *
+ * The same seed always yields the same profiles.
+ */
+public final class SyntheticProfiles {
+
+    /** Larger cities (lat, lon, relative weight). */
+    private static final double[][] CITIES = {
+            {52.520, 13.405, 10}, // Berlin
+            {53.551, 9.994, 6},   // Hamburg
+            {48.137, 11.575, 6},  // München
+            {50.938, 6.960, 5},   // Köln
+            {50.110, 8.682, 4},   // Frankfurt am Main
+            {48.776, 9.183, 3},   // Stuttgart
+            {51.227, 6.773, 3},   // Düsseldorf
+            {51.340, 12.375, 3},  // Leipzig
+            {51.514, 7.468, 3},   // Dortmund
+            {51.051, 13.738, 3},  // Dresden
+            {52.376, 9.732, 3},   // Hannover
+            {49.452, 11.077, 3},  // Nürnberg
+            {53.079, 8.801, 3},   // Bremen
+    };
+
+    /** Germany's bounding box, for the rural share. */
+    private static final double MIN_LAT = 47.3, MAX_LAT = 55.0, MIN_LON = 5.9, MAX_LON = 15.0;
+    private static final double RURAL_SHARE = 0.25;
+    /** Spread around a city centre, in degrees. */
+    private static final double CITY_SPREAD = 0.15;
+
+    /** Pflegegrad 1..5 */
+    private static final double[] CARE_LEVEL_WEIGHTS = {0.15, 0.40, 0.28, 0.12, 0.05};
+
+    private static final String[] TIERS = {"STANDARD", "COMFORT", "PREMIUM"};
+    private static final double[] TIER_WEIGHTS = {0.60, 0.30, 0.10};
+
+    /** Catalogue in descending frequency. */
+    private static final String[] SPECIALIZATIONS = {
+            "dementia", "diabetes", "wound care", "mobility support", "palliative care",
+            "stroke rehabilitation", "parkinson", "incontinence care", "medication management",
+            "cardiac care", "copd", "multiple sclerosis", "ventilation", "dialysis", "psychiatric care",
+            "intensive care", "autism", "tracheostomy"
+    };
+
+    private static final String[] CARE_TYPES = {"RESIDENTIAL", "AMBULATORY", "DAY_CARE", "SHORT_TERM"};
+    private static final String[] CERTIFICATIONS = {"ISO_9001", "MDK_1.0", "MDK_1.5", "DIN_EN_15224"};
+
+    private final Random random;
+
+    public SyntheticProfiles(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public List<PatientProfileDTO> patients(int count) {
+        List<PatientProfileDTO> patients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            patients.add(patient());
+        }
+        return patients;
+    }
+
+    public List<ProviderProfileDTO> providers(int count) {
+        List<ProviderProfileDTO> providers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            providers.add(provider());
+        }
+        return providers;
+    }
+
+    public PatientProfileDTO patient() {
+        PatientProfileDTO patient = new PatientProfileDTO();
+        patient.setId(UUID.randomUUID());
+        patient.setUserId(UUID.randomUUID());
+        patient.setAge(60 + random.nextInt(36));
+        patient.setGender(random.nextBoolean() ? "FEMALE" : "MALE");
+        patient.setConsentGiven(true);
+        if (random.nextDouble() < 0.95) {
+            double[] location = location();
+            patient.setLatitude(location[0]);
+            patient.setLongitude(location[1]);
+        }
+        if (random.nextDouble() < 0.97) {
+            patient.setCareLevel(1 + weighted(CARE_LEVEL_WEIGHTS));
+        }
+        patient.setCareServiceTier(TIERS[weighted(TIER_WEIGHTS)]);
+        patient.setCareType(List.of(CARE_TYPES[random.nextInt(CARE_TYPES.length)]));
+
+        if (random.nextDouble() < 0.85) {
+            Map<String, Object> requirements = new HashMap<>();
+            int count = 1 + random.nextInt(4);
+            for (int i = 0; i < count; i++) {
+                // Mostly flagged needs; a few explicit "not needed" entries
+                requirements.put(specialization(), random.nextDouble() < 0.85);
+            }
+            patient.setMedicalRequirements(requirements);
+        }
+        if (random.nextDouble() < 0.8) {
+            Map<String, Object> lifestyle = new HashMap<>();
+            if (random.nextDouble() < 0.7) lifestyle.put("petsAllowed", random.nextDouble() < 0.3);
+            if (random.nextDouble() < 0.7) lifestyle.put("smokingAllowed", random.nextDouble() < 0.2);
+            lifestyle.put("dietary", random.nextBoolean() ? "vegetarian" : "none");
+            patient.setLifestyleAttributes(lifestyle);
+        }
+        return patient;
+    }
+
+    public ProviderProfileDTO provider() {
+        ProviderProfileDTO provider = new ProviderProfileDTO();
+        provider.setId(UUID.randomUUID());
+        provider.setUserId(UUID.randomUUID());
+        provider.setFacilityName("Pflege " + provider.getId().toString().substring(0, 8));
+        boolean ambulatory = random.nextDouble() < 0.35;
+        provider.setProviderType(ambulatory ? "AMBULATORY" : "RESIDENTIAL");
+        provider.setIsVisible(true);
+        if (random.nextDouble() < 0.97) {
+            double[] location = location();
+            provider.setLatitude(location[0]);
+            provider.setLongitude(location[1]);
+        }
+        if (ambulatory && random.nextDouble() < 0.8) {
+            provider.setServiceRadius(10 + 5 * random.nextInt(7));
+        }
+        provider.setCapacity(20 + random.nextInt(180));
+        provider.setAvailableRooms(random.nextInt(12));
+        provider.setStaffCount(10 + random.nextInt(90));
+        provider.setStaffToPatientRatio(BigDecimal.valueOf(0.3 + random.nextDouble() * 0.5));
+
+        if (random.nextDouble() < 0.9) {
+            // Contiguous range of accepted Pflegegrade
+            int from = 1 + random.nextInt(3);
+            int to = Math.min(5, from + 1 + random.nextInt(4));
+            List<Integer> levels = new ArrayList<>();
+            for (int level = from; level <= to; level++) levels.add(level);
+            provider.setAcceptedCareLevels(levels);
+        }
+
+        Set<String> tiers = new LinkedHashSet<>();
+        tiers.add(TIERS[weighted(TIER_WEIGHTS)]);
+        int extraTiers = random.nextInt(3);
+        for (int i = 0; i < extraTiers; i++) tiers.add(TIERS[random.nextInt(TIERS.length)]);
+        provider.setOfferedServiceTiers(tiers);
+        if (tiers.contains("PREMIUM")) {
+            provider.setPremiumServices(List.of("private room", "concierge"));
+        }
+
+        if (random.nextDouble() < 0.9) {
+            Set<String> specializations = new LinkedHashSet<>();
+            int count = 1 + random.nextInt(6);
+            for (int i = 0; i < count; i++) {
+                String term = specialization();
+                // Providers capitalise freely; scoring lower-cases
+                specializations.add(random.nextBoolean() ? capitalize(term) : term);
+            }
+            provider.setSpecializations(new ArrayList<>(specializations));
+        }
+        if (random.nextDouble() < 0.75) {
+            Map<String, Object> options = new HashMap<>();
+            if (random.nextDouble() < 0.8) options.put("petsAllowed", random.nextDouble() < 0.4);
+            if (random.nextDouble() < 0.8) options.put("smokingAllowed", random.nextDouble() < 0.25);
+            provider.setLifestyleOptions(options);
+        }
+        if (random.nextDouble() < 0.8) {
+            Map<String, Object> quality = new HashMap<>();
+            quality.put("averageRating", Math.round((2.5 + random.nextDouble() * 2.5) * 10) / 10.0);
+            if (random.nextDouble() < 0.5) quality.put("certifications", CERTIFICATIONS[random.nextInt(CERTIFICATIONS.length)]);
+            provider.setQualityIndicators(quality);
+        }
+        return provider;
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private double[] location() {
+        if (random.nextDouble() < RURAL_SHARE) {
+            return new double[]{
+                    MIN_LAT + random.nextDouble() * (MAX_LAT - MIN_LAT),
+                    MIN_LON + random.nextDouble() * (MAX_LON - MIN_LON)};
+        }
+        double total = 0;
+        for (double[] city : CITIES) total += city[2];
+        double pick = random.nextDouble() * total;
+        double[] city = CITIES[CITIES.length - 1];
+        for (double[] candidate : CITIES) {
+            pick -= candidate[2];
+            if (pick < 0) {
+                city = candidate;
+                break;
+            }
+        }
+        return new double[]{
+                city[0] + random.nextGaussian() * CITY_SPREAD,
+                city[1] + random.nextGaussian() * CITY_SPREAD * 1.5};
+    }
+
+    /** Catalogue entry, biased towards the front of the list. */
+    private String specialization() {
+        double u = random.nextDouble();
+        return SPECIALIZATIONS[(int) (u * u * SPECIALIZATIONS.length)];
+    }
+
+    private int weighted(double[] weights) {
+        double pick = random.nextDouble();
+        for (int i = 0; i < weights.length; i++) {
+            pick -= weights[i];
+            if (pick < 0) return i;
+        }
+        return weights.length - 1;
+    }
+
+    private static String capitalize(String term) {
+        return Character.toUpperCase(term.charAt(0)) + term.substring(1);
+    }
+}
@@ -1,11 +1,51 @@
 package com.carematchservice.config;
 
 
+import com.carematchservice.service.MatchMetrics;
+import feign.Capability;
+import feign.Client;
+import feign.MethodMetadata;
+import feign.Response;
 import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+
 @Configuration
 @EnableFeignClients(basePackages = "com.carematchservice.feign")
 public class FeignConfig {
-    // Feign client configuration
+
+    /**
+     * Times every Feign request per client method ({@code match.profile.client.requests},
+     * tagged with the caller's match trigger, see MatchMetrics).
+     */
+    @Bean
+    public Capability feignRequestMetrics(MatchMetrics matchMetrics) {
+        return new Capability() {
+            @Override
+            public Client enrich(Client client) {
+                return (request, options) -> {
+                    MethodMetadata metadata = request.requestTemplate().methodMetadata();
+                    String method = metadata != null ? metadata.method().getName() : "unknown";
+                    long started = System.nanoTime();
+                    try {
+                        Response response = client.execute(request, options);
+                        matchMetrics.profileClientCall(method, outcome(response.status()), System.nanoTime() - started);
+                        return response;
+                    } catch (IOException | RuntimeException e) {
+                        matchMetrics.profileClientCall(method, "IO_ERROR", System.nanoTime() - started);
+                        throw e;
+                    }
+                };
+            }
+        };
+    }
+
+    private static String outcome(int status) {
+        if (status >= 500) return "SERVER_ERROR";
+        if (status >= 400) return "CLIENT_ERROR";
+        if (status >= 300) return "REDIRECTION";
+        return "SUCCESS";
+    }
 }
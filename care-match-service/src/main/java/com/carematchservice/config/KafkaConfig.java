@@ -4,6 +4,7 @@ import com.carecommon.kafkaEvents.ProfileCreatedEvent;
 import com.carecommon.kafkaEvents.ProfileUpdatedEvent;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
@@ -12,6 +13,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.mapping.DefaultJackson2JavaTypeMapper;
 import org.springframework.kafka.support.serializer.DeserializationException;
@@ -44,6 +46,18 @@ public class KafkaConfig {
     @Value("${kafka.topics.care-request-declined}")
     private String careRequestDeclinedTopic;
 
+    @Value("${app.kafka.profile-events.max-poll-records:500}")
+    private int profileEventsMaxPollRecords;
+
+    @Value("${app.kafka.profile-events.concurrency:3}")
+    private int profileEventsConcurrency;
+
+    @Value("${app.kafka.profile-events.retry-backoff-ms:1000}")
+    private long profileEventsRetryBackoffMs;
+
+    @Value("${app.kafka.profile-events.max-retries:3}")
+    private long profileEventsMaxRetries;
+
     @Bean public NewTopic careRequestSubmittedTopic() {
         return TopicBuilder.name(careRequestSubmittedTopic).partitions(3).replicas(1).build();
     }
@@ -75,6 +89,62 @@ public class KafkaConfig {
     public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(
             KafkaProperties kafkaProperties) {
 
+        // Skip unrecoverable records immediately (no retries).
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
+                (record, exception) -> log.error(
+                        "Skipping unrecoverable record: topic={}, partition={}, offset={}, error={}",
+                        record.topic(), record.partition(), record.offset(),
+                        exception.getMessage()),
+                new FixedBackOff(0L, 0L)
+        );
+        errorHandler.addNotRetryableExceptions(DeserializationException.class);
+
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(jsonConsumerFactory(kafkaProperties, Map.of()));
+        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
+
+    /**
+     * Batch listener factory for the profile topics (see ProfileEventConsumer).
+     *
+     * Polls up to {@code app.kafka.profile-events.max-poll-records} records at a time and
+     * commits a batch's offsets only after the listener returned, i.e. after every event of
+     * the batch has been handed over to its profile's worker. A batch the listener gives up
+     * on is redelivered up to {@code max-retries} times (the work is idempotent per profile:
+     * a repeated run supersedes the previous one), then its records are logged and skipped.
+     *
+     * Concurrency ({@code app.kafka.profile-events.concurrency}) is the number of consumers
+     * in this instance; consumers beyond the topics' partition count stay idle.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> profileEventListenerFactory(
+            KafkaProperties kafkaProperties) {
+
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
+                (record, exception) -> log.error(
+                        "Skipping profile event after retries: topic={}, partition={}, offset={}, error={}",
+                        record.topic(), record.partition(), record.offset(),
+                        exception.getMessage()),
+                new FixedBackOff(profileEventsRetryBackoffMs, profileEventsMaxRetries)
+        );
+        errorHandler.addNotRetryableExceptions(DeserializationException.class);
+
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(jsonConsumerFactory(kafkaProperties,
+                Map.of(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, Math.max(1, profileEventsMaxPollRecords))));
+        factory.setBatchListener(true);
+        factory.setConcurrency(Math.max(1, profileEventsConcurrency));
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
+
+    private DefaultKafkaConsumerFactory<String, Object> jsonConsumerFactory(
+            KafkaProperties kafkaProperties, Map<String, Object> overrides) {
+
         // Map __TypeId__ header values → local classes.
         // Covers: (1) old messages with full producer class name, (2) new messages with logical alias.
         Map<String, Class<?>> idClassMapping = new HashMap<>();
@@ -97,27 +167,13 @@ public class KafkaConfig {
         ErrorHandlingDeserializer<Object> valueDeserializer =
                 new ErrorHandlingDeserializer<>(jsonDeserializer);
 
-        DefaultKafkaConsumerFactory<String, Object> consumerFactory =
-                new DefaultKafkaConsumerFactory<>(
-                        kafkaProperties.buildConsumerProperties(null),
-                        new StringDeserializer(),
-                        valueDeserializer
-                );
+        Map<String, Object> consumerProperties = new HashMap<>(kafkaProperties.buildConsumerProperties(null));
+        consumerProperties.putAll(overrides);
 
-        // Skip unrecoverable records immediately (no retries).
-        DefaultErrorHandler errorHandler = new DefaultErrorHandler(
-                (record, exception) -> log.error(
-                        "Skipping unrecoverable record: topic={}, partition={}, offset={}, error={}",
-                        record.topic(), record.partition(), record.offset(),
-                        exception.getMessage()),
-                new FixedBackOff(0L, 0L)
+        return new DefaultKafkaConsumerFactory<>(
+                consumerProperties,
+                new StringDeserializer(),
+                valueDeserializer
         );
-        errorHandler.addNotRetryableExceptions(DeserializationException.class);
-
-        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
-                new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory);
-        factory.setCommonErrorHandler(errorHandler);
-        return factory;
     }
 }
\ No newline at end of file
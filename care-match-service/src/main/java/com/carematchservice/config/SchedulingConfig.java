@@ -0,0 +1,15 @@
+package com.carematchservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} jobs such as the profile replica bootstrap / reconciliation.
+ *
+ * The offer expiry job (OfferService#expireOldOffers) stays off unless
+ * {@code app.offer.expiration-cron} is set.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -3,8 +3,17 @@ package com.carematchservice.controller;
 
 
 import com.carecommon.dto.ApiResponse;
+import com.carematchservice.dto.BatchMatchRequest;
+import com.carematchservice.dto.MatchPreviewRequest;
+import com.carematchservice.dto.MatchPreviewResponse;
 import com.carematchservice.dto.MatchScoreResponse;
+import com.carematchservice.dto.ReweightPreviewRequest;
+import com.carematchservice.dto.ReweightPreviewResponse;
+import com.carematchservice.service.MatchCompactionJob;
+import com.carematchservice.service.MatchPreviewService;
+import com.carematchservice.service.MatchReweighter;
 import com.carematchservice.service.MatchingService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +28,9 @@ import java.util.UUID;
 public class MatchController {
 
     private final MatchingService matchingService;
+    private final MatchReweighter matchReweighter;
+    private final MatchPreviewService matchPreviewService;
+    private final MatchCompactionJob matchCompactionJob;
 
     @PostMapping("/calculate")
     //@Operation(summary = "Calculate match between patient and provider")
@@ -30,6 +42,15 @@ public class MatchController {
         return ResponseEntity.ok(ApiResponse.success(match, "Match calculated successfully"));
     }
 
+    @PostMapping("/calculate/batch")
+    //@Operation(summary = "Calculate matches between one patient and many providers, or one provider and many patients")
+    public ResponseEntity<ApiResponse<List<MatchScoreResponse>>> calculateMatchBatch(
+            @RequestBody BatchMatchRequest request) {
+
+        List<MatchScoreResponse> matches = matchingService.calculateMatchBatch(request);
+        return ResponseEntity.ok(ApiResponse.success(matches, "Matches calculated successfully"));
+    }
+
     @GetMapping("/patient/{patientId}")
     //@Operation(summary = "Get all matches for a patient")
     public ResponseEntity<ApiResponse<List<MatchScoreResponse>>> getMatchesForPatient(
@@ -85,4 +106,49 @@ public class MatchController {
         matchingService.recalculateMatchesForProvider(providerId);
         return ResponseEntity.ok(ApiResponse.success(null, "Match recalculation initiated"));
     }
+
+    @PostMapping("/preview")
+    //@Operation(summary = "Preview the top providers for hypothetical patient criteria (nothing persisted)")
+    public ResponseEntity<ApiResponse<MatchPreviewResponse>> previewMatches(
+            @Valid @RequestBody MatchPreviewRequest request) {
+
+        MatchPreviewResponse preview = matchPreviewService.preview(request);
+        return ResponseEntity.ok(ApiResponse.success(preview));
+    }
+
+    @PostMapping("/patient/{patientId}/reweight-preview")
+    //@Operation(summary = "Re-rank a patient's stored matches under ad-hoc weights (nothing persisted)")
+    public ResponseEntity<ApiResponse<ReweightPreviewResponse>> previewReweightForPatient(
+            @PathVariable UUID patientId,
+            @RequestBody ReweightPreviewRequest request) {
+
+        ReweightPreviewResponse preview =
+                matchReweighter.previewForPatient(patientId, request.getWeights(), request.getLimit());
+        return ResponseEntity.ok(ApiResponse.success(preview));
+    }
+
+    @PostMapping("/provider/{providerId}/reweight-preview")
+    //@Operation(summary = "Re-rank a provider's stored matches under ad-hoc weights (nothing persisted)")
+    public ResponseEntity<ApiResponse<ReweightPreviewResponse>> previewReweightForProvider(
+            @PathVariable UUID providerId,
+            @RequestBody ReweightPreviewRequest request) {
+
+        ReweightPreviewResponse preview =
+                matchReweighter.previewForProvider(providerId, request.getWeights(), request.getLimit());
+        return ResponseEntity.ok(ApiResponse.success(preview));
+    }
+
+    @PostMapping("/reweight")
+    //@Operation(summary = "Apply the configured weights to all stored matches from their stored breakdowns")
+    public ResponseEntity<ApiResponse<MatchReweighter.ReweightSummary>> reweightAll() {
+        MatchReweighter.ReweightSummary summary = matchReweighter.reweightAll();
+        return ResponseEntity.ok(ApiResponse.success(summary, "Stored matches re-weighted"));
+    }
+
+    @PostMapping("/compact")
+    //@Operation(summary = "Delete stored matches below the storage floor or of profiles no longer matched")
+    public ResponseEntity<ApiResponse<MatchCompactionJob.CompactionSummary>> compact() {
+        MatchCompactionJob.CompactionSummary summary = matchCompactionJob.compact();
+        return ResponseEntity.ok(ApiResponse.success(summary, "Stored matches compacted"));
+    }
 }
@@ -0,0 +1,49 @@
+package com.carematchservice.controller;
+
+import com.carecommon.dto.ApiResponse;
+import com.carematchservice.dto.RecomputeProgress;
+import com.carematchservice.service.MatchRecomputeJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/** Administrative full-matrix recompute (see {@link MatchRecomputeJob}). */
+@RestController
+@RequestMapping("/api/v1/matches/recompute")
+@RequiredArgsConstructor
+public class RecomputeController {
+
+    private final MatchRecomputeJob recomputeJob;
+
+    @PostMapping
+    //@Operation(summary = "Start or resume this instance's shard of a full-matrix recompute")
+    public ResponseEntity<ApiResponse<RecomputeProgress>> start(
+            @RequestParam(required = false) UUID jobId,
+            @RequestParam(defaultValue = "0") int shardIndex,
+            @RequestParam(defaultValue = "1") int shardCount) {
+
+        RecomputeProgress progress = recomputeJob.start(jobId, shardIndex, shardCount);
+        return ResponseEntity.ok(ApiResponse.success(progress, "Recompute started"));
+    }
+
+    @GetMapping
+    //@Operation(summary = "Progress of the shard running on this instance")
+    public ResponseEntity<ApiResponse<RecomputeProgress>> progress() {
+        return ResponseEntity.ok(ApiResponse.success(recomputeJob.progress().orElse(null)));
+    }
+
+    @GetMapping("/{jobId}")
+    //@Operation(summary = "Progress of every shard of a recompute job")
+    public ResponseEntity<ApiResponse<List<RecomputeProgress>>> jobProgress(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(ApiResponse.success(recomputeJob.progress(jobId)));
+    }
+
+    @PostMapping("/cancel")
+    //@Operation(summary = "Stop this instance's shard after the current partition")
+    public ResponseEntity<ApiResponse<RecomputeProgress>> cancel() {
+        return ResponseEntity.ok(ApiResponse.success(recomputeJob.cancel().orElse(null), "Recompute cancellation requested"));
+    }
+}
@@ -0,0 +1,19 @@
+package com.carematchservice.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One anchor scored against a shortlist: either a patient with {@code providerIds}, or a
+ * provider with {@code patientIds}.
+ */
+@Data
+public class BatchMatchRequest {
+    private UUID patientId;
+    private List<UUID> providerIds;
+
+    private UUID providerId;
+    private List<UUID> patientIds;
+}
@@ -0,0 +1,46 @@
+package com.carematchservice.dto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Display fields of a match, denormalized into {@code match_scores} so match listings
+ * can be rendered from the row alone (see {@code MatchScore}'s display columns).
+ *
+ * Provider-side fields feed {@link ProviderSummaryDTO} and the provider name / type of
+ * {@link MatchScoreResponse}; patient-side fields feed {@link PatientSummaryDTO}.
+ */
+public record MatchDisplay(String providerName,
+                           String providerType,
+                           List<String> providerSpecializations,
+                           Boolean providerAvailable,
+                           Integer patientCareLevel,
+                           List<String> patientCareType,
+                           Double distanceKm) {
+
+    /** Display fields of a pair; {@code distanceKm} is the rounded distance, or {@code null}. */
+    public static MatchDisplay of(PatientProfileDTO patient, ProviderProfileDTO provider, Double distanceKm) {
+        return new MatchDisplay(
+                provider.getFacilityName(),
+                provider.getProviderType(),
+                provider.getSpecializations(),
+                isAvailable(provider),
+                patient.getCareLevel(),
+                patient.getCareType(),
+                distanceKm);
+    }
+
+    /** Profile fields the display fields are derived from (keys of {@code ProfileUpdatedEvent.changes}). */
+    public static final Set<String> SOURCE_FIELDS = Set.of(
+            "facilityName", "providerType", "specializations", "availableRooms",
+            "careLevel", "careType");
+
+    public static boolean touches(Collection<String> changedFields) {
+        return changedFields.stream().anyMatch(SOURCE_FIELDS::contains);
+    }
+
+    public static boolean isAvailable(ProviderProfileDTO provider) {
+        return provider.getAvailableRooms() != null && provider.getAvailableRooms() > 0;
+    }
+}
@@ -0,0 +1,51 @@
+package com.carematchservice.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hypothetical patient criteria for a preview ranking; every field is optional and
+ * scored exactly as on a stored patient profile (a missing value gets the dimension's
+ * neutral score).
+ */
+@Data
+public class MatchPreviewRequest {
+    @Min(value = 1, message = "careLevel must be between 1 and 5")
+    @Max(value = 5, message = "careLevel must be between 1 and 5")
+    private Integer careLevel;
+    /** STANDARD | COMFORT | PREMIUM */
+    private String careServiceTier;
+    @DecimalMin(value = "-90.0") @DecimalMax(value = "90.0")
+    private Double latitude;
+    @DecimalMin(value = "-180.0") @DecimalMax(value = "180.0")
+    private Double longitude;
+    private List<String> careType;
+    private Map<String, Object> medicalRequirements;
+    private Map<String, Object> lifestyleAttributes;
+    private Integer age;
+    private String gender;
+    /** Number of providers to return. Default 10, max 100. */
+    @Min(1) @Max(100)
+    private Integer limit;
+
+    public PatientProfileDTO toPatient() {
+        return PatientProfileDTO.builder()
+                .age(age)
+                .gender(gender)
+                .latitude(latitude)
+                .longitude(longitude)
+                .careLevel(careLevel)
+                .careType(careType)
+                .lifestyleAttributes(lifestyleAttributes)
+                .medicalRequirements(medicalRequirements)
+                .careServiceTier(careServiceTier)
+                .consentGiven(true)
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package com.carematchservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Top providers for hypothetical patient criteria, scored against the in-memory provider
+ * snapshot. Nothing is persisted and no events are published.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatchPreviewResponse {
+
+    /** Providers in the snapshot that were scored. */
+    private int evaluated;
+    /** Providers left out because the location lies outside their service radius. */
+    private int excluded;
+    /** When the provider snapshot the preview was scored against was compiled. */
+    private LocalDateTime snapshotCompiledAt;
+    private long tookMs;
+
+    /** Best providers first. */
+    private List<Entry> matches;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private UUID providerId;
+        private String facilityName;
+        private String providerType;
+        private BigDecimal score;
+        private Double distanceKm;
+        private Map<String, Object> explanation;
+        private Map<String, Object> scoreBreakdown;
+    }
+}
@@ -30,8 +30,11 @@ public class MatchScoreResponse {
 
     /**
      * Detailed breakdown per scoring dimension.
-     * Keys: careLevel, distance, specialization, servicetier, lifestyle, social, quality
-     * Values: contribution score 0–100
+     * Keys: {@code <dimension>Score} — careLevelScore, distanceScore, specializationScore,
+     * tierScore, lifestyleScore, socialScore, qualityScore
+     * Values: the dimension's score 0.0–1.0 at the precision it is stored with, 1/10000
+     * (four decimals: 2/3 is returned as 0.6667); rows stored before that format keep
+     * their stored values
      */
     private Map<String, Double> scoreBreakdown;
 
@@ -1,11 +1,13 @@
 package com.carematchservice.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -32,4 +34,11 @@ public class PatientProfileDTO {
      * Used in tier compatibility scoring (15% weight).
      */
     private String careServiceTier;
+    /** Only consenting patients take part in matching. */
+    private Boolean consentGiven;
+    /** Last modification in care-profile-service; used to version the local profile replica. */
+    private LocalDateTime updatedAt;
+    /** Medical requirements encoded by TermVocabulary; computed locally, never serialized. */
+    @JsonIgnore
+    private volatile long[] medicalRequirementBits;
 }
@@ -1,12 +1,14 @@
 package com.carematchservice.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -24,6 +26,8 @@ public class ProviderProfileDTO {
     private Double latitude;
     private Double longitude;
     private String address;
+    /** Ambulatory providers only: maximum travel distance in km; pairs beyond it are never scored. */
+    private Integer serviceRadius;
     private Integer capacity;
     private Integer availableRooms;
     private List<String> specializations;
@@ -79,6 +83,13 @@ public class ProviderProfileDTO {
     private Map<String, Object> qualityIndicators;  // e.g. {"averageRating": 4.5, "certifications": "ISO_9001"}
     private Map<String, Object> lifestyleOptions;   // e.g. {"petsAllowed": true, "smokingAllowed": false}
     private List<Integer> acceptedCareLevels;       // e.g. [2, 3, 4]
-
+    // ── Replica bookkeeping ───────────────────────────────────────────────────
+    /** Only visible providers take part in matching. */
+    private Boolean isVisible;
+    /** Last modification in care-profile-service; used to version the local profile replica. */
+    private LocalDateTime updatedAt;
+    /** Specializations encoded by TermVocabulary; computed locally, never serialized. */
+    @JsonIgnore
+    private volatile long[] specializationBits;
 
 }
@@ -0,0 +1,42 @@
+package com.carematchservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/** Progress of one shard of a full-matrix recompute job. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecomputeProgress {
+    private UUID jobId;
+    private int shardIndex;
+    private int shardCount;
+    /** RUNNING, COMPLETED, CANCELLED or FAILED. */
+    private String status;
+
+    /** Patients of this shard, and how many of them are done (including those done before a resume). */
+    private long patientsTotal;
+    private long patientsDone;
+    private long failedPatients;
+    /** Providers in the snapshot every patient is scored against. */
+    private int providers;
+
+    /** Patient–provider pairs looked at (scored or pruned), and the pairs actually scored and written. */
+    private long pairsConsidered;
+    private long pairsScored;
+
+    /** Pairs considered per second since this instance (re)started the shard. */
+    private double pairsPerSecond;
+    /** Estimated seconds to finish the shard; {@code null} until a rate is known. */
+    private Long etaSeconds;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,13 @@
+package com.carematchservice.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class ReweightPreviewRequest {
+    /** Ad-hoc weight per dimension key (e.g. careLevel, distance); omitted keys keep their configured weight. */
+    private Map<String, Integer> weights;
+    /** Number of re-ranked matches to return. Default 20, max 200. */
+    private Integer limit;
+}
@@ -0,0 +1,49 @@
+package com.carematchservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One patient's or provider's stored matches re-ranked under ad-hoc weights.
+ * Nothing is persisted; scores are recomputed from the stored per-dimension scores.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReweightPreviewResponse {
+    private String anchorType;
+    private UUID anchorId;
+
+    /** Weights the preview was computed with, after defaults for omitted keys. */
+    private Map<String, Integer> weights;
+
+    /** Stored matches that were re-ranked. */
+    private int evaluated;
+    /** Stored matches left out because their breakdown lacks a dimension (they need a full rescore). */
+    private int skipped;
+
+    /** Best matches under the preview weights, best first. */
+    private List<Entry> matches;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private UUID counterpartId;
+        private BigDecimal storedScore;
+        private int storedRank;
+        private BigDecimal previewScore;
+        private int previewRank;
+        /** Positive when the match moves up under the preview weights. */
+        private int rankChange;
+    }
+}
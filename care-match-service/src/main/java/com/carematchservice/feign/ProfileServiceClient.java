@@ -6,6 +6,8 @@ import com.carematchservice.dto.ProviderProfileDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -55,4 +57,19 @@ public interface ProfileServiceClient {
     @GetMapping("/providers/by-user/{userId}")
     ApiResponse<ProviderProfileDTO> getProviderProfileByUserId(@PathVariable("userId") UUID userId);
 
+    /**
+     * Resolves several patient profiles in one call; unknown ids are skipped.
+     * Backed by: POST /api/v1/patients/batch  in care-profile-service.
+     *
+     * Used by MatchingService.calculateMatchBatch() for the profiles the replica does not hold.
+     */
+    @PostMapping("/patients/batch")
+    ApiResponse<List<PatientProfileDTO>> getPatientProfiles(@RequestBody List<UUID> profileIds);
+
+    /**
+     * Resolves several provider profiles in one call; unknown ids are skipped.
+     * Backed by: POST /api/v1/providers/batch  in care-profile-service.
+     */
+    @PostMapping("/providers/batch")
+    ApiResponse<List<ProviderProfileDTO>> getProviderProfiles(@RequestBody List<UUID> profileIds);
 }
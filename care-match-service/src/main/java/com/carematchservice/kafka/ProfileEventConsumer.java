@@ -2,81 +2,182 @@ package com.carematchservice.kafka;
 
 import com.carecommon.kafkaEvents.ProfileCreatedEvent;
 import com.carecommon.kafkaEvents.ProfileUpdatedEvent;
+import com.carematchservice.service.MatchMetrics;
+import com.carematchservice.service.MatchTrigger;
 import com.carematchservice.service.MatchingService;
-import lombok.RequiredArgsConstructor;
+import com.carematchservice.service.ProfileReplica;
+import com.carematchservice.service.ProfileUpdateCoalescer;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Batch consumer of profile.created / profile.updated.
+ *
+ * A polled batch is first collapsed per profile: a profile with a created event in the
+ * batch gets one full calculation (it scores the latest replicated profile, so later
+ * updates of the same batch are covered), otherwise its updates' change maps are merged
+ * into one, together with the fields the replica saw change (see
+ * {@link ProfileReplica#takeChangedFields}). Each profile's work then runs on its {@link ProfileEventLanes} lane, so one
+ * profile's events are handled strictly in order while different profiles proceed in
+ * parallel. The listener returns — and the batch's offsets are committed — only once
+ * every profile of the batch has been handed over (replica refreshed, fan-out submitted
+ * or update recorded by the coalescer, see {@link ProfileUpdateCoalescer}). An update the
+ * coalescer could not record fails the batch, which is then redelivered.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ProfileEventConsumer {
 
+    /** What a batch asks for one profile. */
+    private static final class ProfileWork {
+        final String profileType;
+        final UUID profileId;
+        boolean created;
+        final Map<String, Object> changes = new LinkedHashMap<>();
+        int events;
+
+        ProfileWork(String profileType, UUID profileId) {
+            this.profileType = profileType;
+            this.profileId = profileId;
+        }
+    }
+
     private final MatchingService matchingService;
+    private final ProfileReplica  profileReplica;
+    private final ProfileUpdateCoalescer profileUpdateCoalescer;
+    private final MatchMetrics    matchMetrics;
+    private final ProfileEventLanes lanes;
+    private final long handoffTimeoutMs;
 
-    @KafkaListener(topics = "${kafka.topics.profile-created}", groupId = "${spring.kafka.consumer.group-id}")
-    public void handleProfileCreated(ProfileCreatedEvent event) {
+    public ProfileEventConsumer(MatchingService matchingService,
+                                ProfileReplica profileReplica,
+                                ProfileUpdateCoalescer profileUpdateCoalescer,
+                                MatchMetrics matchMetrics,
+                                ProfileEventLanes lanes,
+                                @Value("${app.kafka.profile-events.handoff-timeout-ms:60000}") long handoffTimeoutMs) {
+        this.matchingService = matchingService;
+        this.profileReplica = profileReplica;
+        this.profileUpdateCoalescer = profileUpdateCoalescer;
+        this.matchMetrics = matchMetrics;
+        this.lanes = lanes;
+        this.handoffTimeoutMs = handoffTimeoutMs;
+    }
 
-        log.info("Received profile created event: profileId={}, profileType={}",
-                event.getProfileId(), event.getProfileType());
+    @KafkaListener(topics = {"${kafka.topics.profile-created}", "${kafka.topics.profile-updated}"},
+                   groupId = "${spring.kafka.consumer.group-id}",
+                   containerFactory = "profileEventListenerFactory")
+    public void handleProfileEvents(List<ConsumerRecord<String, Object>> records) throws InterruptedException {
+        Map<String, ProfileWork> byProfile = new LinkedHashMap<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            Object payload = record.value();
+            if (payload instanceof ProfileCreatedEvent event) {
+                ProfileWork work = workFor(byProfile, event.getProfileType(), event.getProfileId());
+                work.created = true;
+                work.events++;
+            } else if (payload instanceof ProfileUpdatedEvent event) {
+                ProfileWork work = workFor(byProfile, event.getProfileType(), event.getProfileId());
+                if (event.getChanges() != null) {
+                    work.changes.putAll(event.getChanges());
+                }
+                work.events++;
+            } else {
+                // null: the ErrorHandlingDeserializer could not read the record
+                log.error("Skipping unreadable profile event: topic={}, partition={}, offset={}",
+                        record.topic(), record.partition(), record.offset());
+            }
+        }
+        if (byProfile.isEmpty()) {
+            return;
+        }
+        log.info("Received profile events: records={}, profiles={}", records.size(), byProfile.size());
 
+        List<CompletableFuture<Void>> handoffs = new ArrayList<>(byProfile.size());
+        byProfile.forEach((key, work) -> handoffs.add(lanes.submit(key, () -> handle(work))));
         try {
-            if ("patient".equalsIgnoreCase(event.getProfileType())) {
+            CompletableFuture.allOf(handoffs.toArray(CompletableFuture[]::new))
+                    .get(handoffTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // An update that was not recorded: not committing, the batch is redelivered
+            throw new IllegalStateException("Profile event batch not handed over (records="
+                    + records.size() + ")", e.getCause());
+        } catch (TimeoutException e) {
+            // Not committing: the batch is redelivered, repeated work supersedes per profile
+            throw new IllegalStateException("Profile event batch not handed over within "
+                    + handoffTimeoutMs + "ms (records=" + records.size() + ")", e);
+        }
+    }
+
+    private static ProfileWork workFor(Map<String, ProfileWork> byProfile, String profileType, UUID profileId) {
+        String key = profileType.toLowerCase() + ":" + profileId;
+        return byProfile.computeIfAbsent(key, k -> new ProfileWork(profileType, profileId));
+    }
+
+    private void handle(ProfileWork work) {
+        if (work.created) {
+            handleCreated(work);
+        } else {
+            handleUpdated(work);
+        }
+    }
+
+    private void handleCreated(ProfileWork work) {
+        log.info("Handling profile created: profileId={}, profileType={}, events={}",
+                work.profileId, work.profileType, work.events);
+
+        try (var scope = matchMetrics.withTrigger(MatchTrigger.CREATED)) {
+            // Refresh the local replica first so the fan-out scores the new profile
+            profileReplica.refresh(work.profileType, work.profileId);
+            // The full calculation covers whatever changed
+            profileReplica.takeChangedFields(work.profileType, work.profileId);
+
+            if ("patient".equalsIgnoreCase(work.profileType)) {
                 // Calculate matches for new patient with all providers
-                matchingService.calculateMatchesForPatient(event.getProfileId());
-            } else if ("provider".equalsIgnoreCase(event.getProfileType())) {
+                matchingService.calculateMatchesForPatient(work.profileId);
+            } else if ("provider".equalsIgnoreCase(work.profileType)) {
                 // Calculate matches for new provider with all patients
-                matchingService.calculateMatchesForProvider(event.getProfileId());
+                matchingService.calculateMatchesForProvider(work.profileId);
             }
         } catch (Exception e) {
             log.error("Error processing profile created event: profileId={}",
-                    event.getProfileId(), e);
+                    work.profileId, e);
             // In production, you might want to send to a dead-letter queue
         }
     }
 
-    @KafkaListener(topics = "${kafka.topics.profile-updated}", groupId = "${spring.kafka.consumer.group-id}")
-    public void handleProfileUpdated(ProfileUpdatedEvent event) {
+    private void handleUpdated(ProfileWork work) {
+        log.info("Handling profile updated: profileId={}, profileType={}, events={}",
+                work.profileId, work.profileType, work.events);
 
-        log.info("Received profile updated event: profileId={}, profileType={}",
-                event.getProfileId(), event.getProfileType());
+        Map<String, Object> changes = new LinkedHashMap<>(work.changes);
+        try (var scope = matchMetrics.withTrigger(MatchTrigger.UPDATED)) {
+            // Every update refreshes the replica, even when no recalculation is needed
+            profileReplica.refresh(work.profileType, work.profileId);
 
-        try {
-            // Check if significant fields changed that require recalculation
-            if (shouldRecalculateMatches(event)) {
-                if ("patient".equalsIgnoreCase(event.getProfileType())) {
-                    matchingService.recalculateMatchesForPatient(event.getProfileId());
-                } else if ("provider".equalsIgnoreCase(event.getProfileType())) {
-                    matchingService.recalculateMatchesForProvider(event.getProfileId());
-                }
-            } else {
-                log.debug("Profile update does not require match recalculation: profileId={}",
-                        event.getProfileId());
+            // Fields the event does not name (e.g. a rename) but the replica saw change
+            for (String field : profileReplica.takeChangedFields(work.profileType, work.profileId)) {
+                changes.putIfAbsent(field, null);
             }
         } catch (Exception e) {
             log.error("Error processing profile updated event: profileId={}",
-                    event.getProfileId(), e);
+                    work.profileId, e);
         }
-    }
 
-    private boolean shouldRecalculateMatches(ProfileUpdatedEvent event) {
-        if (event.getChanges() == null || event.getChanges().isEmpty()) {
-            return false;
+        // Display refresh and delta recalculation run once per burst of updates. Not caught:
+        // an update the coalescer could not record fails the handoff, so the batch is redelivered
+        if (!changes.isEmpty()) {
+            profileUpdateCoalescer.submit(work.profileType, work.profileId, changes);
+        } else {
+            log.debug("Profile update does not require match recalculation: profileId={}",
+                    work.profileId);
         }
-
-        // Define fields that trigger recalculation
-        String[] significantFields = {
-                "careLevel", "careType", "region", "location",
-                "specializations", "medicalRequirements", "availableRooms"
-        };
-
-        for (String field : significantFields) {
-            if (event.getChanges().containsKey(field)) {
-                return true;
-            }
-        }
-
-        return false;
     }
 }
@@ -0,0 +1,52 @@
+package com.carematchservice.kafka;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-key serialized workers for profile events.
+ *
+ * Each key ({@code <type>:<profileId>}) is hashed onto one of
+ * {@code app.kafka.profile-events.lanes} single-threaded lanes, so all work for one
+ * profile runs in submission order — across batches and listener threads — while
+ * different profiles are handled in parallel.
+ */
+@Component
+@Slf4j
+public class ProfileEventLanes {
+
+    private final ExecutorService[] lanes;
+
+    public ProfileEventLanes(@Value("${app.kafka.profile-events.lanes:8}") int laneCount) {
+        this.lanes = new ExecutorService[Math.max(1, laneCount)];
+        for (int i = 0; i < lanes.length; i++) {
+            String name = "profile-events-" + (i + 1);
+            lanes[i] = Executors.newSingleThreadExecutor(r -> new Thread(r, name));
+        }
+        log.info("Profile event lanes: {}", lanes.length);
+    }
+
+    /** Runs the task on the key's lane; the future completes when it has run (exceptionally if it threw). */
+    public CompletableFuture<Void> submit(String key, Runnable task) {
+        return CompletableFuture.runAsync(task, lanes[Math.floorMod(key.hashCode(), lanes.length)]);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            if (!lane.awaitTermination(30, TimeUnit.SECONDS)) {
+                lane.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.carematchservice.kafka;
+
+import com.carecommon.kafkaEvents.ProfileCreatedEvent;
+import com.carecommon.kafkaEvents.ProfileUpdatedEvent;
+import com.carematchservice.service.ProfileReplica;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Keeps this instance's {@link ProfileReplica} in step with profile events.
+ *
+ * ProfileEventConsumer shares one consumer group across instances, so each event reaches
+ * only one of them. This listener joins a group of its own per instance
+ * ({@code app.replica.events.group-id}, random by default) and starts at the latest offset —
+ * the bootstrap / reconciliation pass covers everything before — so every instance refreshes
+ * its replica for every event. Refreshes are idempotent: a copy that is not newer than the
+ * replicated one is ignored.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProfileReplicaListener {
+
+    private final ProfileReplica profileReplica;
+
+    @KafkaListener(topics = {"${kafka.topics.profile-created}", "${kafka.topics.profile-updated}"},
+                   groupId = "${app.replica.events.group-id:${spring.application.name}-replica-${random.uuid}}",
+                   containerFactory = "profileEventListenerFactory",
+                   properties = "auto.offset.reset=latest")
+    public void handleProfileEvents(List<ConsumerRecord<String, Object>> records) {
+        // type → ids, so a burst of events for one profile fetches it once
+        Map<String, Set<UUID>> profiles = new LinkedHashMap<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            Object payload = record.value();
+            if (payload instanceof ProfileCreatedEvent event) {
+                profiles.computeIfAbsent(event.getProfileType().toLowerCase(), t -> new LinkedHashSet<>()).add(event.getProfileId());
+            } else if (payload instanceof ProfileUpdatedEvent event) {
+                profiles.computeIfAbsent(event.getProfileType().toLowerCase(), t -> new LinkedHashSet<>()).add(event.getProfileId());
+            }
+        }
+        profiles.forEach((profileType, ids) -> ids.forEach(id -> profileReplica.refresh(profileType, id)));
+        log.debug("Replica refreshed from profile events: records={}", records.size());
+    }
+}
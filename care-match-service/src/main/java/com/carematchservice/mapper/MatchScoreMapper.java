@@ -2,15 +2,23 @@ package com.carematchservice.mapper;
 
 import com.carematchservice.dto.MatchScoreResponse;
 import com.carematchservice.model.MatchScore;
+import com.carematchservice.service.MatchScoreRenderer;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.springframework.beans.factory.annotation.Autowired;
 
-import java.util.HashMap;
-import java.util.Map;
-
+/**
+ * Explanation and score breakdown are not stored as such; they are rendered from the
+ * compact columns by {@link MatchScoreRenderer}.
+ */
 @Mapper(componentModel = "spring")
-public interface MatchScoreMapper {
+public abstract class MatchScoreMapper {
+
+    @Autowired
+    protected MatchScoreRenderer matchScoreRenderer;
 
+    @Mapping(target = "explanation", expression = "java(matchScoreRenderer.explanation(matchScore))")
+    @Mapping(target = "scoreBreakdown", expression = "java(matchScoreRenderer.scoreBreakdown(matchScore))")
     @Mapping(target = "providerName", ignore = true)
     @Mapping(target = "providerType", ignore = true)
     @Mapping(target = "providerAddress", ignore = true)
@@ -18,16 +26,5 @@ public interface MatchScoreMapper {
     @Mapping(target = "providerPremiumServices", ignore = true)
     @Mapping(target = "patientSummary", ignore = true)
     @Mapping(target = "providerSummary", ignore = true)
-    MatchScoreResponse toResponse(MatchScore matchScore);
-
-    default Map<String, Double> map(Map<String, Object> value) {
-        if (value == null) return null;
-        Map<String, Double> result = new HashMap<>();
-        value.forEach((k, v) -> {
-            if (v instanceof Number) {
-                result.put(k, ((Number) v).doubleValue());
-            }
-        });
-        return result;
-    }
+    public abstract MatchScoreResponse toResponse(MatchScore matchScore);
 }
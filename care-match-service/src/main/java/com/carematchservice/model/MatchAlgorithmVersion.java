@@ -0,0 +1,46 @@
+package com.carematchservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted entry of {@link com.carematchservice.service.AlgorithmVersions}: the ordered
+ * dimension keys and weights a {@code match_scores} row was scored under. Rows store only
+ * the small id, so keys and weights are not repeated per match. Ids are assigned once and
+ * never reused.
+ */
+@Entity
+@Table(name = "match_algorithm_versions", schema = "care_matching",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"fingerprint"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MatchAlgorithmVersion {
+
+    @Id
+    @Column(name = "id", nullable = false)
+    private Integer id;
+
+    /** {@code key:weight} pairs in dimension order, e.g. {@code careLevel:25,distance:20,...}. */
+    @Column(name = "fingerprint", nullable = false, length = 1000)
+    private String fingerprint;
+
+    /** Dimension keys in the order of {@code match_scores.dimension_scores}. */
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "dimension_keys", columnDefinition = "text[]", nullable = false)
+    private String[] dimensionKeys;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "weights", columnDefinition = "integer[]", nullable = false)
+    private int[] weights;
+
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
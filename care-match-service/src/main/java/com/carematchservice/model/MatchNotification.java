@@ -7,7 +7,9 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "match_notifications", schema = "care_matching")
+@Table(name = "match_notifications", schema = "care_matching",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"patient_id", "provider_id"}),
+        indexes = @Index(name = "idx_match_notifications_match_id", columnList = "match_id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,6 +24,13 @@ public class MatchNotification {
     @Column(name = "match_id", nullable = false)
     private UUID matchId;
 
+    // Pair the notification was sent for; null on rows written before pairs were recorded
+    @Column(name = "patient_id")
+    private UUID patientId;
+
+    @Column(name = "provider_id")
+    private UUID providerId;
+
     @Column(name = "notification_sent")
     @Builder.Default
     private Boolean notificationSent = false;
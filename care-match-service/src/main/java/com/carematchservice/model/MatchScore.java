@@ -1,16 +1,29 @@
 package com.carematchservice.model;
 
 import com.carecommon.model.BaseEntity;
+import com.carematchservice.dto.MatchDisplay;
 import io.hypersistence.utils.hibernate.type.json.JsonBinaryType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.PartitionKey;
 import org.hibernate.annotations.Type;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+/**
+ * One scored patient / provider pair.
+ *
+ * The table is hash-partitioned by {@code patient_id}, with covering ranking indexes per
+ * side; both are created by the scripts in {@code db/partitioning}, not by Hibernate.
+ * {@link PartitionKey} makes Hibernate include {@code patient_id} in the UPDATE and
+ * DELETE statements of an entity, so they touch a single partition.
+ */
 @Entity
 @Table(name = "match_scores", schema = "care_matching",
         uniqueConstraints = @UniqueConstraint(columnNames = {"patient_id", "provider_id"}))
@@ -21,6 +34,7 @@ import java.util.UUID;
 @Builder
 public class MatchScore extends BaseEntity {
 
+    @PartitionKey
     @Column(name = "patient_id", nullable = false)
     private UUID patientId;
 
@@ -30,15 +44,73 @@ public class MatchScore extends BaseEntity {
     @Column(name = "score", nullable = false, precision = 5, scale = 2)
     private BigDecimal score;
 
+    /** Dimension scores quantized to 1/10000, in the order of {@link #algorithmVersion} (see MatchBreakdownCodec). */
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "dimension_scores", columnDefinition = "smallint[]")
+    private short[] dimensionScores;
+
+    /** Per-dimension explanation facts, length-prefixed (see MatchBreakdownCodec). */
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "explanation_facts", columnDefinition = "integer[]")
+    private int[] explanationFacts;
+
+    /** Id in {@code match_algorithm_versions}: dimension keys and weights of this row. */
+    @Column(name = "algorithm_version")
+    private Integer algorithmVersion;
+
+    // ── Legacy format: explanation and breakdown stored as jsonb ──
+    // Only rows scored before the compact format have these; they are cleared when the
+    // row is rescored and read only as a fallback (see MatchScoreRenderer).
+
     @Type(JsonBinaryType.class)
     @Column(name = "explanation", columnDefinition = "jsonb")
-    private Map<String, Object> explanation;
+    private Map<String, Object> legacyExplanation;
 
     @Type(JsonBinaryType.class)
     @Column(name = "score_breakdown", columnDefinition = "jsonb")
-    private Map<String, Object> scoreBreakdown;
+    private Map<String, Object> legacyScoreBreakdown;
 
     @Column(name = "calculated_at", nullable = false)
     @Builder.Default
     private LocalDateTime calculatedAt = LocalDateTime.now();
+
+    // ── Display fields (denormalized from the profiles; see MatchDisplay) ──
+
+    @Column(name = "provider_name")
+    private String providerName;
+
+    @Column(name = "provider_type")
+    private String providerType;
+
+    @Type(JsonBinaryType.class)
+    @Column(name = "provider_specializations", columnDefinition = "jsonb")
+    private List<String> providerSpecializations;
+
+    @Column(name = "provider_available")
+    private Boolean providerAvailable;
+
+    @Column(name = "patient_care_level")
+    private Integer patientCareLevel;
+
+    @Type(JsonBinaryType.class)
+    @Column(name = "patient_care_type", columnDefinition = "jsonb")
+    private List<String> patientCareType;
+
+    @Column(name = "distance_km")
+    private Double distanceKm;
+
+    /** When the display fields were last written; {@code null} for rows that predate them. */
+    @Column(name = "display_refreshed_at")
+    private LocalDateTime displayRefreshedAt;
+
+    public void applyDisplay(MatchDisplay display, LocalDateTime refreshedAt) {
+        this.providerName = display.providerName();
+        this.providerType = display.providerType();
+        this.providerSpecializations = display.providerSpecializations();
+        this.providerAvailable = display.providerAvailable();
+        this.patientCareLevel = display.patientCareLevel();
+        this.patientCareType = display.patientCareType();
+        this.distanceKm = display.distanceKm();
+        this.displayRefreshedAt = refreshedAt;
+    }
 }
\ No newline at end of file
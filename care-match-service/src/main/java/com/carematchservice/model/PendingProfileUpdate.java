@@ -0,0 +1,48 @@
+package com.carematchservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A profile update the {@link com.carematchservice.service.ProfileUpdateCoalescer} has
+ * accepted (and the profile event consumer acknowledged) but not yet fully handled.
+ * Written before the event batch is committed, deleted once the update's recalculation
+ * has finished; rows left behind by a stopped or crashed instance are picked up again.
+ */
+@Entity
+@Table(name = "pending_profile_updates", schema = "care_matching")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PendingProfileUpdate {
+
+    /** {@code <type>:<profileId>}, as the coalescer keys its pending updates. */
+    @Id
+    @Column(name = "profile_key", nullable = false, length = 60)
+    private String profileKey;
+
+    @Column(name = "profile_type", nullable = false, length = 20)
+    private String profileType;
+
+    @Column(name = "profile_id", nullable = false)
+    private UUID profileId;
+
+    /** Union of the changed field names of every update recorded since the row was created. */
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "changed_fields", nullable = false, columnDefinition = "text[]")
+    private String[] changedFields;
+
+    @Column(name = "first_at", nullable = false)
+    private LocalDateTime firstAt;
+
+    /** When the latest update was recorded; a handled update only deletes the row up to its own time. */
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
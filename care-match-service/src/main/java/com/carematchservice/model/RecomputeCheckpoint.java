@@ -0,0 +1,84 @@
+package com.carematchservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Progress of one shard of a full-matrix recompute job (see
+ * {@link com.carematchservice.service.MatchRecomputeJob}). Patients are processed in id
+ * order, so {@code lastPatientId} is the resume point: every patient of the shard up to
+ * and including it has been scored and committed.
+ */
+@Entity
+@Table(name = "recompute_checkpoints", schema = "care_matching",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"job_id", "shard_index"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecomputeCheckpoint {
+
+    public enum Status { RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "job_id", nullable = false)
+    private UUID jobId;
+
+    @Column(name = "shard_index", nullable = false)
+    private Integer shardIndex;
+
+    @Column(name = "shard_count", nullable = false)
+    private Integer shardCount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "last_patient_id")
+    private UUID lastPatientId;
+
+    /** Patients of the shard and providers in the snapshot, as seen by the latest (re)start. */
+    @Column(name = "patients_total", nullable = false)
+    @Builder.Default
+    private Long patientsTotal = 0L;
+
+    @Column(name = "providers", nullable = false)
+    @Builder.Default
+    private Integer providers = 0;
+
+    @Column(name = "patients_done", nullable = false)
+    @Builder.Default
+    private Long patientsDone = 0L;
+
+    @Column(name = "pairs_considered", nullable = false)
+    @Builder.Default
+    private Long pairsConsidered = 0L;
+
+    @Column(name = "pairs_scored", nullable = false)
+    @Builder.Default
+    private Long pairsScored = 0L;
+
+    @Column(name = "failed_patients", nullable = false)
+    @Builder.Default
+    private Long failedPatients = 0L;
+
+    /** Throughput since the latest (re)start, as of the last checkpoint. */
+    @Column(name = "pairs_per_second")
+    private Double pairsPerSecond;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
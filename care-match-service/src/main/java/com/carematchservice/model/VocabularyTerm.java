@@ -0,0 +1,33 @@
+package com.carematchservice.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted entry of the {@link com.carematchservice.service.TermVocabulary}: a lower-cased
+ * specialization / medical-requirement name and its dense integer id. Ids are assigned
+ * once and never reused, so encoded bitsets stay valid across restarts.
+ */
+@Entity
+@Table(name = "vocabulary_terms", schema = "care_matching",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"term"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VocabularyTerm {
+
+    @Id
+    @Column(name = "id", nullable = false)
+    private Integer id;
+
+    @Column(name = "term", nullable = false)
+    private String term;
+
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,9 @@
+package com.carematchservice.repository;
+
+import com.carematchservice.model.MatchAlgorithmVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MatchAlgorithmVersionRepository extends JpaRepository<MatchAlgorithmVersion, Integer> {
+}
@@ -0,0 +1,136 @@
+package com.carematchservice.repository;
+
+import com.carematchservice.repository.MatchScoreBulkWriter.UpsertedScore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Set-based access to {@code match_notifications} for the threshold notification path.
+ *
+ * A chunk's notifications are confirmed with one query and recorded with one
+ * {@code INSERT ... ON CONFLICT (patient_id, provider_id) DO NOTHING} per statement,
+ * instead of an exists check and a save per pair. The unique pair constraint is what
+ * makes a notification happen at most once, also across instances: only pairs the
+ * statement actually inserted are returned for publishing.
+ *
+ * Runs in the caller's transaction.
+ */
+@Repository
+@Slf4j
+public class MatchNotificationBulkWriter {
+
+    /** Three bind parameters per input row. */
+    private static final int ROWS_PER_STATEMENT = 1000;
+
+    private static final String INPUT_ROW = "(?::uuid, ?::uuid, ?::uuid)";
+
+    // Rows written before pairs were recorded only carry the match id
+    private static final String ALREADY_NOTIFIED = """
+            SELECT i.match_id
+            FROM input i
+            WHERE EXISTS (SELECT 1 FROM care_matching.match_notifications n
+                          WHERE n.match_id = i.match_id AND n.notification_sent)
+               OR EXISTS (SELECT 1 FROM care_matching.match_notifications n
+                          WHERE n.patient_id = i.patient_id AND n.provider_id = i.provider_id
+                            AND n.notification_sent)
+            """;
+
+    private static final String INSERT_NOTIFIED = """
+            INSERT INTO care_matching.match_notifications
+                (id, match_id, patient_id, provider_id, notification_sent, sent_at, created_at)
+            SELECT gen_random_uuid(), match_id, patient_id, provider_id, true, ?, ?
+            FROM input
+            ON CONFLICT (patient_id, provider_id) DO NOTHING
+            RETURNING match_id
+            """;
+
+    private static final String NOTIFIED_PAIRS = """
+            SELECT COALESCE(n.patient_id, m.patient_id), COALESCE(n.provider_id, m.provider_id)
+            FROM care_matching.match_notifications n
+            LEFT JOIN care_matching.match_scores m ON n.patient_id IS NULL AND m.id = n.match_id
+            WHERE n.notification_sent
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MatchNotificationBulkWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Match ids of the given rows that already have a sent notification (by match id or by pair). */
+    public Set<UUID> alreadyNotified(List<UpsertedScore> rows) {
+        Set<UUID> result = new HashSet<>();
+        for (int from = 0; from < rows.size(); from += ROWS_PER_STATEMENT) {
+            List<UpsertedScore> slice = rows.subList(from, Math.min(from + ROWS_PER_STATEMENT, rows.size()));
+            result.addAll(jdbcTemplate.queryForList(withInput(slice, ALREADY_NOTIFIED), UUID.class, inputArgs(slice)));
+        }
+        return result;
+    }
+
+    /**
+     * Records a sent notification for every row whose pair has none yet.
+     *
+     * @return the rows that were recorded, i.e. the ones to publish
+     */
+    public List<UpsertedScore> insertNotified(List<UpsertedScore> rows, LocalDateTime sentAt) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Timestamp timestamp = Timestamp.valueOf(sentAt);
+        Set<UUID> inserted = new HashSet<>();
+        for (int from = 0; from < rows.size(); from += ROWS_PER_STATEMENT) {
+            List<UpsertedScore> slice = rows.subList(from, Math.min(from + ROWS_PER_STATEMENT, rows.size()));
+            List<Object> args = new ArrayList<>(slice.size() * 3 + 2);
+            args.addAll(Arrays.asList(inputArgs(slice)));
+            args.add(timestamp);
+            args.add(timestamp);
+            inserted.addAll(jdbcTemplate.queryForList(withInput(slice, INSERT_NOTIFIED), UUID.class, args.toArray()));
+        }
+        return rows.stream().filter(row -> inserted.contains(row.id())).toList();
+    }
+
+    /** Streams the pair of every sent notification. */
+    public void forEachNotifiedPair(BiConsumer<UUID, UUID> consumer) {
+        jdbcTemplate.query(con -> {
+            var statement = con.prepareStatement(NOTIFIED_PAIRS);
+            statement.setFetchSize(10_000);
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            UUID patientId = rs.getObject(1, UUID.class);
+            UUID providerId = rs.getObject(2, UUID.class);
+            if (patientId != null && providerId != null) {
+                consumer.accept(patientId, providerId);
+            }
+        });
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private static String withInput(List<UpsertedScore> slice, String statement) {
+        StringBuilder sql = new StringBuilder(slice.size() * (INPUT_ROW.length() + 2) + statement.length() + 64);
+        sql.append("WITH input (match_id, patient_id, provider_id) AS (VALUES ");
+        for (int i = 0; i < slice.size(); i++) {
+            if (i > 0) sql.append(", ");
+            sql.append(INPUT_ROW);
+        }
+        return sql.append(") ").append(statement).toString();
+    }
+
+    private static Object[] inputArgs(List<UpsertedScore> slice) {
+        Object[] args = new Object[slice.size() * 3];
+        int p = 0;
+        for (UpsertedScore row : slice) {
+            args[p++] = row.id();
+            args[p++] = row.patientId();
+            args[p++] = row.providerId();
+        }
+        return args;
+    }
+}
@@ -0,0 +1,490 @@
+package com.carematchservice.repository;
+
+import com.carematchservice.dto.MatchDisplay;
+import com.carematchservice.dto.PatientProfileDTO;
+import com.carematchservice.dto.ProviderProfileDTO;
+import com.carematchservice.service.scoring.MatchBreakdownCodec;
+import com.carematchservice.service.scoring.MatchEvaluation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Set-based write path for {@code match_scores}.
+ *
+ * Instead of a find + save round trip per pair, a whole slice of evaluations is written
+ * with one multi-row {@code INSERT ... ON CONFLICT (patient_id, provider_id) DO UPDATE}
+ * per statement, relying on the table's unique pair constraint. The statement returns,
+ * per pair, the row id (new or existing) together with the score before the write, so
+ * callers can publish threshold events without reading the rows back.
+ *
+ * Per-dimension results are stored compactly (see MatchBreakdownCodec): quantized
+ * {@code dimension_scores}, {@code explanation_facts} and the {@code algorithm_version}
+ * that names the dimensions and weights. Explanation and breakdown are rendered on read;
+ * the legacy jsonb columns are cleared whenever a row is rewritten.
+ *
+ * {@link #storedDimensionScores} reads back selected dimension scores of one anchor's
+ * rows, so delta recalculations can tell which rows a profile change actually affects
+ * without rescoring them.
+ *
+ * {@link #reweightSlice} recomputes the score of a key range of rows from their stored
+ * dimension scores under new weights, entirely inside the database.
+ *
+ * {@link #deletePairs}, {@link #deleteBelowScore} and {@link #deleteOfAnchors} remove rows
+ * that fell below the storage floor or lost a side, returning the deleted pairs so the
+ * leaderboards can follow.
+ *
+ * The display columns (see {@link MatchDisplay}) are written together with the score and
+ * refreshed in place by {@link #refreshProviderDisplay} / {@link #refreshPatientDisplay}
+ * when a profile's display fields change without a rescore.
+ *
+ * The table is hash-partitioned by {@code patient_id} (see db/partitioning); statements
+ * that address rows by id also match on {@code patient_id}, so each row is looked up in
+ * its own partition only.
+ *
+ * Runs in the caller's transaction; the JDBC connection is the one bound by the JPA
+ * transaction manager.
+ */
+@Repository
+@Slf4j
+public class MatchScoreBulkWriter {
+
+    /** Fifteen bind parameters per row; PostgreSQL caps a statement at 32767 parameters. */
+    private static final int PARAMS_PER_ROW = 15;
+    private static final int MAX_ROWS_PER_STATEMENT = Short.MAX_VALUE / PARAMS_PER_ROW;
+
+    private static final String UPSERT_HEAD =
+            "WITH input (id, patient_id, provider_id, score, dimension_scores, explanation_facts, algorithm_version, calculated_at, "
+            + "provider_name, provider_type, provider_specializations, provider_available, "
+            + "patient_care_level, patient_care_type, distance_km) AS (VALUES ";
+
+    private static final String ROW_VALUES = "(?::uuid, ?::uuid, ?::uuid, ?::numeric, ?::smallint[], ?::integer[], ?::integer, ?::timestamp, "
+            + "?, ?, ?::jsonb, ?::boolean, ?::integer, ?::jsonb, ?::double precision)";
+
+    private static final String UPSERT_TAIL = """
+            ),
+            previous AS (
+                SELECT m.patient_id, m.provider_id, m.score
+                FROM care_matching.match_scores m
+                JOIN input i ON i.patient_id = m.patient_id AND i.provider_id = m.provider_id
+            ),
+            upserted AS (
+                INSERT INTO care_matching.match_scores
+                    (id, patient_id, provider_id, score, dimension_scores, explanation_facts, algorithm_version,
+                     calculated_at, created_at, updated_at,
+                     provider_name, provider_type, provider_specializations, provider_available,
+                     patient_care_level, patient_care_type, distance_km, display_refreshed_at)
+                SELECT id, patient_id, provider_id, score, dimension_scores, explanation_facts, algorithm_version,
+                       calculated_at, calculated_at, calculated_at,
+                       provider_name, provider_type, provider_specializations, provider_available,
+                       patient_care_level, patient_care_type, distance_km, calculated_at
+                FROM input
+                ON CONFLICT (patient_id, provider_id) DO UPDATE SET
+                    score                    = EXCLUDED.score,
+                    dimension_scores         = EXCLUDED.dimension_scores,
+                    explanation_facts        = EXCLUDED.explanation_facts,
+                    algorithm_version        = EXCLUDED.algorithm_version,
+                    explanation              = NULL,
+                    score_breakdown          = NULL,
+                    calculated_at            = EXCLUDED.calculated_at,
+                    updated_at               = EXCLUDED.updated_at,
+                    provider_name            = EXCLUDED.provider_name,
+                    provider_type            = EXCLUDED.provider_type,
+                    provider_specializations = EXCLUDED.provider_specializations,
+                    provider_available       = EXCLUDED.provider_available,
+                    patient_care_level       = EXCLUDED.patient_care_level,
+                    patient_care_type        = EXCLUDED.patient_care_type,
+                    distance_km              = EXCLUDED.distance_km,
+                    display_refreshed_at     = EXCLUDED.display_refreshed_at
+                RETURNING id, patient_id, provider_id, score
+            )
+            SELECT u.id, u.patient_id, u.provider_id, u.score, p.score AS previous_score
+            FROM upserted u
+            LEFT JOIN previous p ON p.patient_id = u.patient_id AND p.provider_id = u.provider_id
+            """;
+
+    private static final String REFRESH_PROVIDER_DISPLAY = """
+            UPDATE care_matching.match_scores SET
+                provider_name            = ?,
+                provider_type            = ?,
+                provider_specializations = ?::jsonb,
+                provider_available       = ?,
+                display_refreshed_at     = ?
+            WHERE provider_id = ?
+              AND (provider_name IS DISTINCT FROM ?
+                   OR provider_type IS DISTINCT FROM ?
+                   OR provider_specializations IS DISTINCT FROM ?::jsonb
+                   OR provider_available IS DISTINCT FROM ?)
+            """;
+
+    private static final String REFRESH_PATIENT_DISPLAY = """
+            UPDATE care_matching.match_scores SET
+                patient_care_level   = ?,
+                patient_care_type    = ?::jsonb,
+                display_refreshed_at = ?
+            WHERE patient_id = ?
+              AND (patient_care_level IS DISTINCT FROM ?
+                   OR patient_care_type IS DISTINCT FROM ?::jsonb)
+            """;
+
+    private static final String DELETE_BELOW_SCORE = """
+            DELETE FROM care_matching.match_scores
+            WHERE (patient_id, id) IN (SELECT patient_id, id FROM care_matching.match_scores WHERE score < ? LIMIT ?)
+            RETURNING patient_id, provider_id
+            """;
+
+    /** Lock order of every statement that writes a set of pairs (see {@link #upsert}). */
+    private static final Comparator<MatchPair> PAIR_ORDER =
+            Comparator.comparing(MatchPair::patientId).thenComparing(MatchPair::providerId);
+
+    private static final RowMapper<MatchPair> PAIR_ROW_MAPPER = (rs, rowNum) -> new MatchPair(
+            rs.getObject("patient_id", UUID.class), rs.getObject("provider_id", UUID.class));
+
+    /** Last id of the next {@code ?} rows after the given id; no row when fewer remain. */
+    private static final String REWEIGHT_SLICE_END = """
+            SELECT id FROM care_matching.match_scores
+            WHERE id > ?
+            ORDER BY id
+            OFFSET ? LIMIT 1
+            """;
+
+    /** Anchor column and counterpart column of a one-to-all read. */
+    public enum Anchor {
+        PATIENT("patient_id", "provider_id"),
+        PROVIDER("provider_id", "patient_id");
+
+        private final String column;
+        private final String counterpartColumn;
+
+        Anchor(String column, String counterpartColumn) {
+            this.column = column;
+            this.counterpartColumn = counterpartColumn;
+        }
+    }
+
+    /** Stored total and selected dimension scores of one row, seen from its anchor. */
+    public record StoredBreakdown(UUID counterpartId, BigDecimal score, double[] dimensionScores) {}
+
+    /** Rows rewritten by one {@link #reweightSlice} call; {@code lastId} is {@code null} after the last slice. */
+    public record ReweightedSlice(List<UpsertedScore> rows, UUID lastId) {}
+
+    /** An evaluation together with the display fields to store with it. */
+    public record ScoredMatch(MatchEvaluation evaluation, MatchDisplay display) {}
+
+    /** Outcome of one upserted pair. {@code previousScore} is {@code null} for newly inserted rows. */
+    public record UpsertedScore(UUID id, UUID patientId, UUID providerId, BigDecimal score, BigDecimal previousScore) {}
+
+    /** A deleted pair. */
+    public record MatchPair(UUID patientId, UUID providerId) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int rowsPerStatement;
+
+    public MatchScoreBulkWriter(JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper,
+                                @Value("${app.matching.bulk-upsert.rows-per-statement:1000}") int rowsPerStatement) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.rowsPerStatement = Math.max(1, Math.min(rowsPerStatement, MAX_ROWS_PER_STATEMENT));
+    }
+
+    /**
+     * Upserts score, dimension scores, explanation facts and display fields of every match. When the
+     * same pair occurs more than once, the last one wins (a single statement may not
+     * touch a row twice).
+     *
+     * Rows are written in pair order, so concurrent upserts of overlapping pairs (a patient
+     * and a provider fan-out, a fan-out and the recompute job) take their row locks in the
+     * same order: the later one waits for the earlier one to commit and then updates the
+     * committed row, instead of the two deadlocking.
+     */
+    public List<UpsertedScore> upsert(Collection<ScoredMatch> matches, LocalDateTime calculatedAt) {
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+
+        Map<List<UUID>, ScoredMatch> unique = new LinkedHashMap<>();
+        for (ScoredMatch match : matches) {
+            MatchEvaluation evaluation = match.evaluation();
+            unique.put(List.of(evaluation.getPatientId(), evaluation.getProviderId()), match);
+        }
+        List<ScoredMatch> rows = new ArrayList<>(unique.values());
+        rows.sort(Comparator.comparing((ScoredMatch match) -> match.evaluation().getPatientId())
+                .thenComparing(match -> match.evaluation().getProviderId()));
+        Timestamp timestamp = Timestamp.valueOf(calculatedAt);
+
+        List<UpsertedScore> result = new ArrayList<>(rows.size());
+        for (int from = 0; from < rows.size(); from += rowsPerStatement) {
+            List<ScoredMatch> slice = rows.subList(from, Math.min(from + rowsPerStatement, rows.size()));
+            result.addAll(upsertSlice(slice, timestamp));
+        }
+        log.debug("Bulk upserted {} match scores in {} statement(s)",
+                result.size(), (rows.size() + rowsPerStatement - 1) / rowsPerStatement);
+        return result;
+    }
+
+    /**
+     * Deletes the rows of the given pairs, e.g. pairs that were rescored below the storage
+     * floor. Pairs without a row are ignored.
+     *
+     * @return the pairs whose row was deleted
+     */
+    public List<MatchPair> deletePairs(Collection<MatchPair> pairs) {
+        List<MatchPair> rows = new ArrayList<>(new LinkedHashSet<>(pairs));
+        rows.sort(PAIR_ORDER);
+        List<MatchPair> deleted = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += rowsPerStatement) {
+            List<MatchPair> slice = rows.subList(from, Math.min(from + rowsPerStatement, rows.size()));
+            StringBuilder sql = new StringBuilder("DELETE FROM care_matching.match_scores m USING (VALUES ");
+            Object[] args = new Object[slice.size() * 2];
+            for (int i = 0; i < slice.size(); i++) {
+                if (i > 0) sql.append(", ");
+                sql.append("(?::uuid, ?::uuid)");
+                args[2 * i] = slice.get(i).patientId();
+                args[2 * i + 1] = slice.get(i).providerId();
+            }
+            sql.append(") AS d (patient_id, provider_id)"
+                    + " WHERE m.patient_id = d.patient_id AND m.provider_id = d.provider_id"
+                    + " RETURNING m.patient_id, m.provider_id");
+            deleted.addAll(jdbcTemplate.query(sql.toString(), PAIR_ROW_MAPPER, args));
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes up to {@code limit} rows scoring below {@code floor}.
+     *
+     * @return the deleted pairs; fewer than {@code limit} when none are left
+     */
+    public List<MatchPair> deleteBelowScore(BigDecimal floor, int limit) {
+        return jdbcTemplate.query(DELETE_BELOW_SCORE, PAIR_ROW_MAPPER, floor, limit);
+    }
+
+    /**
+     * Deletes up to {@code limit} rows of the given anchors (all patients or all providers).
+     *
+     * @return the deleted pairs; fewer than {@code limit} when none are left
+     */
+    public List<MatchPair> deleteOfAnchors(Anchor anchor, Collection<UUID> anchorIds, int limit) {
+        String sql = """
+                DELETE FROM care_matching.match_scores
+                WHERE (patient_id, id) IN (SELECT patient_id, id FROM care_matching.match_scores
+                                           WHERE %s = ANY (?::uuid[]) LIMIT ?)
+                RETURNING patient_id, provider_id
+                """.formatted(anchor.column);
+        return jdbcTemplate.query(sql, PAIR_ROW_MAPPER, uuidArrayLiteral(anchorIds), limit);
+    }
+
+    /** Every patient (or provider) id that has at least one row. */
+    public Set<UUID> anchorIds(Anchor anchor) {
+        Set<UUID> ids = new HashSet<>();
+        jdbcTemplate.query("SELECT DISTINCT " + anchor.column + " FROM care_matching.match_scores",
+                rs -> { ids.add(rs.getObject(1, UUID.class)); });
+        return ids;
+    }
+
+    /** Those of the given counterparts that have a row with the anchor. */
+    public Set<UUID> storedCounterparts(Anchor anchor, UUID anchorId, Collection<UUID> counterpartIds) {
+        Set<UUID> ids = new HashSet<>();
+        if (counterpartIds.isEmpty()) {
+            return ids;
+        }
+        String sql = "SELECT " + anchor.counterpartColumn + " FROM care_matching.match_scores"
+                + " WHERE " + anchor.column + " = ? AND " + anchor.counterpartColumn + " = ANY (?::uuid[])";
+        jdbcTemplate.query(sql, rs -> { ids.add(rs.getObject(1, UUID.class)); },
+                anchorId, uuidArrayLiteral(counterpartIds));
+        return ids;
+    }
+
+    /**
+     * Rewrites the provider display columns of all the provider's rows that differ from
+     * the given profile.
+     *
+     * @return number of rows updated
+     */
+    public int refreshProviderDisplay(ProviderProfileDTO provider, LocalDateTime refreshedAt) {
+        String specializations = toJson(provider.getSpecializations());
+        boolean available = MatchDisplay.isAvailable(provider);
+        return jdbcTemplate.update(REFRESH_PROVIDER_DISPLAY,
+                provider.getFacilityName(), provider.getProviderType(), specializations, available,
+                Timestamp.valueOf(refreshedAt), provider.getId(),
+                provider.getFacilityName(), provider.getProviderType(), specializations, available);
+    }
+
+    /**
+     * Rewrites the patient display columns of all the patient's rows that differ from
+     * the given profile.
+     *
+     * @return number of rows updated
+     */
+    public int refreshPatientDisplay(PatientProfileDTO patient, LocalDateTime refreshedAt) {
+        String careType = toJson(patient.getCareType());
+        return jdbcTemplate.update(REFRESH_PATIENT_DISPLAY,
+                patient.getCareLevel(), careType, Timestamp.valueOf(refreshedAt), patient.getId(),
+                patient.getCareLevel(), careType);
+    }
+
+    /**
+     * Stored scores of the given dimensions for every row of the anchor, keyed by
+     * counterpart id. Entries missing from a row are {@code NaN}.
+     */
+    public Map<UUID, double[]> storedDimensionScores(Anchor anchor, UUID anchorId, List<String> dimensionKeys) {
+        Map<UUID, double[]> result = new HashMap<>();
+        for (StoredBreakdown row : storedBreakdowns(anchor, anchorId, dimensionKeys)) {
+            result.put(row.counterpartId(), row.dimensionScores());
+        }
+        return result;
+    }
+
+    /**
+     * Stored score and the given dimension scores of every row of the anchor. Entries
+     * missing from a row's algorithm version (or legacy breakdown) are {@code NaN}.
+     */
+    public List<StoredBreakdown> storedBreakdowns(Anchor anchor, UUID anchorId, List<String> dimensionKeys) {
+        StringBuilder sql = new StringBuilder("SELECT m.").append(anchor.counterpartColumn).append(", m.score");
+        Object[] args = new Object[dimensionKeys.size() * 2 + 1];
+        int p = 0;
+        for (String key : dimensionKeys) {
+            // Compact rows: position of the key in the row's version; legacy rows: the jsonb entry
+            sql.append(", COALESCE(m.dimension_scores[array_position(v.dimension_keys, ?)]::float8 / ")
+                    .append(MatchBreakdownCodec.SCALE)
+                    .append(", (m.score_breakdown ->> ?)::float8)");
+            args[p++] = key;
+            args[p++] = key + "Score";
+        }
+        sql.append(" FROM care_matching.match_scores m")
+                .append(" LEFT JOIN care_matching.match_algorithm_versions v ON v.id = m.algorithm_version")
+                .append(" WHERE m.").append(anchor.column).append(" = ?");
+        args[p] = anchorId;
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            double[] scores = new double[dimensionKeys.size()];
+            for (int i = 0; i < scores.length; i++) {
+                double value = rs.getDouble(i + 3);
+                scores[i] = rs.wasNull() ? Double.NaN : value;
+            }
+            return new StoredBreakdown(rs.getObject(1, UUID.class), rs.getBigDecimal(2), scores);
+        }, args);
+    }
+
+    /**
+     * Re-weights the next {@code sliceSize} rows (in id order) after {@code afterId}.
+     *
+     * Every row of the slice stored under one of {@code fromVersions} (versions with the
+     * same dimensions as {@code toVersion}, in the same order, but other weights) gets its
+     * score recomputed as the weighted sum of its stored dimension scores (same double
+     * arithmetic and 2-decimal rounding as {@code MatchingAlgorithmService#evaluate}, on the
+     * quantized scores) and is moved to {@code toVersion}. Explanation score and summary
+     * are rendered from the stored total, so no text is rewritten. Rows of other versions
+     * and legacy rows are left alone; they need a full rescore.
+     *
+     * @return the rewritten rows (with their previous score) and the slice's last id
+     */
+    public ReweightedSlice reweightSlice(int[] weights, int toVersion, int[] fromVersions,
+                                         UUID afterId, int sliceSize, LocalDateTime updatedAt) {
+        List<UUID> end = jdbcTemplate.queryForList(REWEIGHT_SLICE_END, UUID.class, afterId, sliceSize - 1);
+        UUID lastId = end.isEmpty() ? null : end.get(0);
+
+        // Bind parameters in statement order
+        List<Object> args = new ArrayList<>();
+        StringBuilder total = new StringBuilder("0::float8");
+        for (int i = 0; i < weights.length; i++) {
+            total.append(" + m.dimension_scores[").append(i + 1).append("]::float8 / ")
+                    .append(MatchBreakdownCodec.SCALE).append(" * ?");
+            args.add(weights[i]);
+        }
+        args.add(afterId);
+        args.add(lastId);
+        args.add(lastId);
+        args.add(MatchBreakdownCodec.arrayLiteral(fromVersions));
+        args.add(toVersion);
+        args.add(Timestamp.valueOf(updatedAt));
+
+        String sql = """
+                WITH rescored AS (
+                    SELECT m.id, m.patient_id, m.score AS previous_score, round((%s)::numeric, 2) AS score
+                    FROM care_matching.match_scores m
+                    WHERE m.id > ? AND (?::uuid IS NULL OR m.id <= ?::uuid)
+                      AND m.algorithm_version = ANY (?::integer[])
+                )
+                UPDATE care_matching.match_scores m SET
+                    score             = r.score,
+                    algorithm_version = ?,
+                    updated_at        = ?
+                FROM rescored r
+                WHERE m.patient_id = r.patient_id AND m.id = r.id
+                RETURNING m.id, m.patient_id, m.provider_id, m.score, r.previous_score
+                """.formatted(total);
+
+        List<UpsertedScore> rows = jdbcTemplate.query(sql, (rs, rowNum) -> new UpsertedScore(
+                rs.getObject("id", UUID.class),
+                rs.getObject("patient_id", UUID.class),
+                rs.getObject("provider_id", UUID.class),
+                rs.getBigDecimal("score"),
+                rs.getBigDecimal("previous_score")), args.toArray());
+        return new ReweightedSlice(rows, lastId);
+    }
+
+    private List<UpsertedScore> upsertSlice(List<ScoredMatch> slice, Timestamp calculatedAt) {
+        StringBuilder sql = new StringBuilder(UPSERT_HEAD.length() + slice.size() * (ROW_VALUES.length() + 2) + UPSERT_TAIL.length());
+        sql.append(UPSERT_HEAD);
+        Object[] args = new Object[slice.size() * PARAMS_PER_ROW];
+        int p = 0;
+        for (int i = 0; i < slice.size(); i++) {
+            MatchEvaluation e = slice.get(i).evaluation();
+            MatchDisplay d = slice.get(i).display();
+            if (i > 0) sql.append(", ");
+            sql.append(ROW_VALUES);
+            args[p++] = UUID.randomUUID();
+            args[p++] = e.getPatientId();
+            args[p++] = e.getProviderId();
+            args[p++] = e.getScore();
+            args[p++] = MatchBreakdownCodec.arrayLiteral(e.quantizedDimensionScores());
+            args[p++] = MatchBreakdownCodec.arrayLiteral(e.packedExplanationFacts());
+            args[p++] = e.getAlgorithmVersion();
+            args[p++] = calculatedAt;
+            args[p++] = d.providerName();
+            args[p++] = d.providerType();
+            args[p++] = toJson(d.providerSpecializations());
+            args[p++] = d.providerAvailable();
+            args[p++] = d.patientCareLevel();
+            args[p++] = toJson(d.patientCareType());
+            args[p++] = d.distanceKm();
+        }
+        sql.append(UPSERT_TAIL);
+
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new UpsertedScore(
+                rs.getObject("id", UUID.class),
+                rs.getObject("patient_id", UUID.class),
+                rs.getObject("provider_id", UUID.class),
+                rs.getBigDecimal("score"),
+                rs.getBigDecimal("previous_score")), args);
+    }
+
+    private static String uuidArrayLiteral(Collection<UUID> ids) {
+        StringBuilder sb = new StringBuilder(ids.size() * 37 + 2).append('{');
+        for (UUID id : ids) {
+            if (sb.length() > 1) sb.append(',');
+            sb.append(id);
+        }
+        return sb.append('}').toString();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return value == null ? null : objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize match score json column", e);
+        }
+    }
+}
@@ -4,11 +4,13 @@ import com.carematchservice.model.MatchScore;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,8 +18,17 @@ import java.util.UUID;
 @Repository
 public interface MatchScoreRepository extends JpaRepository<MatchScore, UUID> {
 
+    /** Counterpart id and score of one row, as loaded to rebuild a leaderboard. */
+    interface RankedCounterpart {
+        UUID getCounterpartId();
+        BigDecimal getScore();
+    }
+
     Optional<MatchScore> findByPatientIdAndProviderId(UUID patientId, UUID providerId);
 
+    /** Lookup by id within the patient's partition; prefer over {@code findById} when the patient is known. */
+    Optional<MatchScore> findByIdAndPatientId(UUID id, UUID patientId);
+
     List<MatchScore> findByPatientIdOrderByScoreDesc(UUID patientId);
 
     Page<MatchScore> findByPatientIdOrderByScoreDesc(UUID patientId, Pageable pageable);
@@ -38,9 +49,51 @@ public interface MatchScoreRepository extends JpaRepository<MatchScore, UUID> {
             @Param("minScore") BigDecimal minScore
     );
 
-    void deleteByPatientId(UUID patientId);
+    @Query("SELECT m FROM MatchScore m WHERE m.patientId = :patientId AND m.score >= :minScore ORDER BY m.score DESC")
+    List<MatchScore> findByPatientIdAndScoreGreaterThanEqual(
+            @Param("patientId") UUID patientId,
+            @Param("minScore") BigDecimal minScore,
+            Pageable pageable
+    );
+
+    @Query("SELECT m FROM MatchScore m WHERE m.providerId = :providerId AND m.score >= :minScore ORDER BY m.score DESC")
+    List<MatchScore> findByProviderIdAndScoreGreaterThanEqual(
+            @Param("providerId") UUID providerId,
+            @Param("minScore") BigDecimal minScore,
+            Pageable pageable
+    );
+
+    List<MatchScore> findByPatientIdAndProviderIdIn(UUID patientId, Collection<UUID> providerIds);
+
+    List<MatchScore> findByProviderIdAndPatientIdIn(UUID providerId, Collection<UUID> patientIds);
+
+    @Query("SELECT m.providerId AS counterpartId, m.score AS score FROM MatchScore m WHERE m.patientId = :patientId ORDER BY m.score DESC")
+    List<RankedCounterpart> findRankedProviders(@Param("patientId") UUID patientId, Pageable pageable);
+
+    @Query("SELECT m.patientId AS counterpartId, m.score AS score FROM MatchScore m WHERE m.providerId = :providerId ORDER BY m.score DESC")
+    List<RankedCounterpart> findRankedPatients(@Param("providerId") UUID providerId, Pageable pageable);
+
+    /** Set-based delete of all rows of one patient; touches only the patient's partition. */
+    @Modifying
+    @Query("DELETE FROM MatchScore m WHERE m.patientId = :patientId")
+    int deleteByPatientId(@Param("patientId") UUID patientId);
+
+    /** Set-based delete of all rows of one provider (one index range per partition). */
+    @Modifying
+    @Query("DELETE FROM MatchScore m WHERE m.providerId = :providerId")
+    int deleteByProviderId(@Param("providerId") UUID providerId);
+
+    /** Set-based delete of the given pairs of one patient, e.g. pairs pruned before scoring. */
+    @Modifying
+    @Query("DELETE FROM MatchScore m WHERE m.patientId = :patientId AND m.providerId IN :providerIds")
+    int deleteByPatientIdAndProviderIdIn(@Param("patientId") UUID patientId,
+                                         @Param("providerIds") Collection<UUID> providerIds);
 
-    void deleteByProviderId(UUID providerId);
+    /** Set-based delete of the given pairs of one provider, e.g. pairs pruned before scoring. */
+    @Modifying
+    @Query("DELETE FROM MatchScore m WHERE m.providerId = :providerId AND m.patientId IN :patientIds")
+    int deleteByProviderIdAndPatientIdIn(@Param("providerId") UUID providerId,
+                                         @Param("patientIds") Collection<UUID> patientIds);
 
     long countByPatientId(UUID patientId);
 }
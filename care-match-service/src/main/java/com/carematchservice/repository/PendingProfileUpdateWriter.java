@@ -0,0 +1,82 @@
+package com.carematchservice.repository;
+
+import com.carematchservice.model.PendingProfileUpdate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Access to {@code pending_profile_updates} (see {@link PendingProfileUpdate}).
+ *
+ * An update is recorded with one {@code INSERT ... ON CONFLICT (profile_key) DO UPDATE}
+ * that merges its changed fields into the profile's row, and removed only up to the
+ * time of the latest update it covered, so an update recorded meanwhile keeps the row.
+ *
+ * Each statement commits on its own (no surrounding transaction).
+ */
+@Repository
+public class PendingProfileUpdateWriter {
+
+    private static final String RECORD = """
+            INSERT INTO care_matching.pending_profile_updates
+                (profile_key, profile_type, profile_id, changed_fields, first_at, updated_at)
+            VALUES (?, ?, ?, ?::text[], ?, ?)
+            ON CONFLICT (profile_key) DO UPDATE SET
+                changed_fields = ARRAY(SELECT DISTINCT unnest(pending_profile_updates.changed_fields
+                                                              || EXCLUDED.changed_fields)),
+                updated_at = GREATEST(pending_profile_updates.updated_at, EXCLUDED.updated_at)
+            """;
+
+    private static final String FORGET =
+            "DELETE FROM care_matching.pending_profile_updates WHERE profile_key = ? AND updated_at <= ?";
+
+    private static final String RECORDED_BEFORE = """
+            SELECT profile_key, profile_type, profile_id, changed_fields, first_at, updated_at
+            FROM care_matching.pending_profile_updates
+            WHERE updated_at < ?
+            ORDER BY first_at
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PendingProfileUpdateWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Records an update of the profile (merging it into a pending one) at {@code at}. */
+    public void record(String profileKey, String profileType, UUID profileId,
+                       Collection<String> changedFields, LocalDateTime at) {
+        Timestamp timestamp = Timestamp.valueOf(at);
+        jdbcTemplate.update(RECORD, profileKey, profileType, profileId,
+                changedFields.toArray(String[]::new), timestamp, timestamp);
+    }
+
+    /** Removes the profile's row unless an update was recorded after {@code handledUpTo}. */
+    public boolean forget(String profileKey, LocalDateTime handledUpTo) {
+        return jdbcTemplate.update(FORGET, profileKey, Timestamp.valueOf(handledUpTo)) > 0;
+    }
+
+    /** Oldest rows (at most {@code limit}) whose latest update was recorded before {@code before}. */
+    public List<PendingProfileUpdate> recordedBefore(LocalDateTime before, int limit) {
+        return jdbcTemplate.query(RECORDED_BEFORE, (rs, rowNum) -> PendingProfileUpdate.builder()
+                .profileKey(rs.getString(1))
+                .profileType(rs.getString(2))
+                .profileId(rs.getObject(3, UUID.class))
+                .changedFields(strings(rs.getArray(4)))
+                .firstAt(rs.getTimestamp(5).toLocalDateTime())
+                .updatedAt(rs.getTimestamp(6).toLocalDateTime())
+                .build(), Timestamp.valueOf(before), limit);
+    }
+
+    private static String[] strings(Array array) throws SQLException {
+        return array == null ? new String[0] : (String[]) array.getArray();
+    }
+}
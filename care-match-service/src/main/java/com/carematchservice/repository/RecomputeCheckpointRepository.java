@@ -0,0 +1,17 @@
+package com.carematchservice.repository;
+
+import com.carematchservice.model.RecomputeCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RecomputeCheckpointRepository extends JpaRepository<RecomputeCheckpoint, UUID> {
+
+    Optional<RecomputeCheckpoint> findByJobIdAndShardIndex(UUID jobId, Integer shardIndex);
+
+    List<RecomputeCheckpoint> findByJobIdOrderByShardIndex(UUID jobId);
+}
@@ -0,0 +1,9 @@
+package com.carematchservice.repository;
+
+import com.carematchservice.model.VocabularyTerm;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface VocabularyTermRepository extends JpaRepository<VocabularyTerm, Integer> {
+}
@@ -0,0 +1,144 @@
+package com.carematchservice.service;
+
+import com.carematchservice.model.MatchAlgorithmVersion;
+import com.carematchservice.repository.MatchAlgorithmVersionRepository;
+import com.carematchservice.service.scoring.MatchBreakdownCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the algorithm versions matches are stored under.
+ *
+ * A version is an ordered list of dimension keys with their weights. Every
+ * {@code match_scores} row references one by id, so its {@code dimension_scores} array
+ * can be read back by key and the weights need not be repeated per row. A version is
+ * registered the first time matches are scored (or re-weighted) under it and persisted in
+ * {@code care_matching.match_algorithm_versions} in its own transaction; a conflicting
+ * insert from another instance triggers a reload, as in TermVocabulary.
+ */
+@Service
+@Slf4j
+public class AlgorithmVersions {
+
+    private static final String INSERT_VERSION = """
+            INSERT INTO care_matching.match_algorithm_versions (id, fingerprint, dimension_keys, weights, created_at)
+            VALUES (?, ?, ?::text[], ?::integer[], ?) ON CONFLICT DO NOTHING
+            """;
+
+    private static final int MAX_REGISTER_ATTEMPTS = 5;
+
+    /** Dimension keys and weights of one version. */
+    public record Definition(int id, List<String> keys, int[] weights) {}
+
+    private final MatchAlgorithmVersionRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate registerTransaction;
+
+    private final Map<Integer, Definition> byId = new ConcurrentHashMap<>();
+    private final Map<String, Definition> byFingerprint = new ConcurrentHashMap<>();
+    private int nextId = 1;
+
+    public AlgorithmVersions(MatchAlgorithmVersionRepository repository,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.registerTransaction = new TransactionTemplate(transactionManager);
+        this.registerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /** Id of the version with these keys and weights, registering it when it is new. */
+    public int idFor(String[] keys, int[] weights) {
+        Definition known = byFingerprint.get(fingerprint(keys, weights));
+        return known != null ? known.id() : register(keys, weights);
+    }
+
+    /** Definition of a stored version, or {@code null} when unknown. */
+    public Definition definition(int id) {
+        Definition definition = byId.get(id);
+        if (definition == null) {
+            reload();
+            definition = byId.get(id);
+        }
+        return definition;
+    }
+
+    /** All stored versions. */
+    public Collection<Definition> all() {
+        reload();
+        return List.copyOf(byId.values());
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private synchronized int register(String[] keys, int[] weights) {
+        String fingerprint = fingerprint(keys, weights);
+        reload();
+        for (int attempt = 1; attempt <= MAX_REGISTER_ATTEMPTS; attempt++) {
+            Definition existing = byFingerprint.get(fingerprint);
+            if (existing != null) {
+                return existing.id();
+            }
+            int id = nextId;
+            if (persist(id, fingerprint, keys, weights)) {
+                put(new Definition(id, List.of(keys), weights.clone()), fingerprint);
+                log.info("Algorithm version registered: id={}, {}", id, fingerprint);
+                return id;
+            }
+            // Another instance took the id or the fingerprint first
+            reload();
+        }
+        throw new IllegalStateException("Could not register algorithm version: " + fingerprint);
+    }
+
+    private boolean persist(int id, String fingerprint, String[] keys, int[] weights) {
+        String keysLiteral = textArrayLiteral(keys);
+        String weightsLiteral = MatchBreakdownCodec.arrayLiteral(weights);
+        Integer inserted = registerTransaction.execute(status -> jdbcTemplate.update(INSERT_VERSION,
+                id, fingerprint, keysLiteral, weightsLiteral, Timestamp.valueOf(LocalDateTime.now())));
+        return inserted != null && inserted == 1;
+    }
+
+    private synchronized void reload() {
+        for (MatchAlgorithmVersion entry : repository.findAll()) {
+            if (!byId.containsKey(entry.getId())) {
+                String[] keys = entry.getDimensionKeys();
+                int[] weights = entry.getWeights();
+                put(new Definition(entry.getId(), List.of(keys), weights), fingerprint(keys, weights));
+            }
+        }
+    }
+
+    private synchronized void put(Definition definition, String fingerprint) {
+        byId.put(definition.id(), definition);
+        byFingerprint.put(fingerprint, definition);
+        nextId = Math.max(nextId, definition.id() + 1);
+    }
+
+    private static String fingerprint(String[] keys, int[] weights) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(keys[i]).append(':').append(weights[i]);
+        }
+        return sb.toString();
+    }
+
+    private static String textArrayLiteral(String[] values) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append('"').append(values[i].replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,225 @@
+package com.carematchservice.service;
+
+import com.carematchservice.dto.PatientProfileDTO;
+import com.carematchservice.dto.ProviderProfileDTO;
+import com.carematchservice.service.ProviderCandidateIndex.ScoreClass;
+import com.carematchservice.service.scoring.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Hard-constraint pre-filter for match fan-outs.
+ *
+ * A pair is pruned — neither scored nor stored — when
+ *   - the patient lives outside an ambulatory provider's {@code serviceRadius}, or
+ *   - even the best case cannot reach {@code app.matching.prune-floor}: the upper bounds
+ *     of care level, distance, specialization and tier plus the full weight of every
+ *     other dimension stay below the floor.
+ *
+ * Patient fan-outs query a {@link ProviderCandidateIndex}, combining the per-dimension
+ * score classes with bitset intersections instead of looking at every provider. The
+ * index is rebuilt only when the provider population (the replica snapshot) changes;
+ * long-running jobs scoring against a fixed snapshot build and pass their own index.
+ * Provider fan-outs check the same bounds pair by pair.
+ *
+ * A floor of 0 disables score-based pruning; the service radius is always enforced.
+ * Pairs that pass but score below {@code app.matching.storage-floor} are not stored
+ * either (see MatchingService#persistAndNotify).
+ */
+@Service
+@Slf4j
+public class CandidatePruner {
+
+    /** Candidates to score plus the counterparts that were pruned. */
+    public record Selection<T>(List<T> candidates, List<T> pruned) {}
+
+    /** Keeps pairs whose bound equals the floor up to floating-point noise. */
+    private static final double BOUND_EPSILON = 1e-9;
+
+    private final double floor;
+    private final MatchingAlgorithmService matchingAlgorithmService;
+
+    private volatile ProviderCandidateIndex cachedIndex;
+
+    public CandidatePruner(MatchingAlgorithmService matchingAlgorithmService,
+                           @Value("${app.matching.prune-floor:0}") double floor) {
+        this.matchingAlgorithmService = matchingAlgorithmService;
+        this.floor = floor;
+    }
+
+    // ── Patient fan-out: index-based ──────────────────────────────────────────
+
+    public Selection<ProviderProfileDTO> selectProviders(PatientProfileDTO patient, List<ProviderProfileDTO> providers) {
+        return selectProviders(patient, indexFor(providers));
+    }
+
+    /** Same as above, against an index the caller built once for a fixed provider snapshot. */
+    public Selection<ProviderProfileDTO> selectProviders(PatientProfileDTO patient, ProviderCandidateIndex index) {
+        BitSet candidates = floor > 0 ? reachableFloor(index, patient) : (BitSet) index.all().clone();
+
+        // Service radius — exact distance for the few ambulatory providers left
+        if (patient.getLatitude() != null && patient.getLongitude() != null) {
+            BitSet radiusBound = (BitSet) index.withServiceRadius().clone();
+            radiusBound.and(candidates);
+            for (int i = radiusBound.nextSetBit(0); i >= 0; i = radiusBound.nextSetBit(i + 1)) {
+                if (outsideServiceRadius(patient, index.providers().get(i))) candidates.clear(i);
+            }
+        }
+        return split(index.providers(), candidates);
+    }
+
+    private BitSet reachableFloor(ProviderCandidateIndex index, PatientProfileDTO patient) {
+        int careWeight  = matchingAlgorithmService.weightOf(CareLevelDimension.KEY);
+        int distWeight  = matchingAlgorithmService.weightOf(DistanceDimension.KEY);
+        int specWeight  = matchingAlgorithmService.weightOf(SpecializationDimension.KEY);
+        int tierWeight  = matchingAlgorithmService.weightOf(TierDimension.KEY);
+        double required = floor - unboundedWeight() - BOUND_EPSILON;
+
+        List<ScoreClass> care = index.careLevelClasses(patient.getCareLevel());
+        List<ScoreClass> dist = index.distanceClasses(patient.getLatitude(), patient.getLongitude());
+        List<ScoreClass> spec = index.specializationClasses(patient);
+        List<ScoreClass> tier = index.tierClasses(patient.getCareServiceTier());
+        double bestDist = maxScore(dist), bestSpec = maxScore(spec), bestTier = maxScore(tier);
+
+        BitSet reachable = new BitSet(index.size());
+        for (ScoreClass c : care) {
+            double sc = c.score() * careWeight;
+            if (c.members().isEmpty() || sc + (bestDist * distWeight + bestSpec * specWeight + bestTier * tierWeight) < required) continue;
+            for (ScoreClass d : dist) {
+                double sd = sc + d.score() * distWeight;
+                if (d.members().isEmpty() || sd + (bestSpec * specWeight + bestTier * tierWeight) < required) continue;
+                BitSet cd = (BitSet) c.members().clone();
+                cd.and(d.members());
+                if (cd.isEmpty()) continue;
+                for (ScoreClass s : spec) {
+                    double ss = sd + s.score() * specWeight;
+                    if (s.members().isEmpty() || ss + bestTier * tierWeight < required) continue;
+                    BitSet cds = (BitSet) cd.clone();
+                    cds.and(s.members());
+                    if (cds.isEmpty()) continue;
+                    for (ScoreClass t : tier) {
+                        if (ss + t.score() * tierWeight < required) continue;
+                        BitSet cdst = (BitSet) cds.clone();
+                        cdst.and(t.members());
+                        reachable.or(cdst);
+                    }
+                }
+            }
+        }
+        return reachable;
+    }
+
+    // ── Provider fan-out: pairwise ────────────────────────────────────────────
+
+    public Selection<PatientProfileDTO> selectPatients(ProviderProfileDTO provider, List<PatientProfileDTO> patients) {
+        boolean checkRadius = ProviderCandidateIndex.hasServiceRadius(provider);
+        if (floor <= 0 && !checkRadius) {
+            return new Selection<>(patients, List.of());
+        }
+        List<PatientProfileDTO> candidates = new ArrayList<>(patients.size());
+        List<PatientProfileDTO> pruned = new ArrayList<>();
+        double required = floor - unboundedWeight() - BOUND_EPSILON;
+        for (PatientProfileDTO patient : patients) {
+            boolean keep = !(checkRadius && outsideServiceRadius(patient, provider))
+                    && (floor <= 0 || boundedScore(patient, provider) >= required);
+            (keep ? candidates : pruned).add(patient);
+        }
+        return new Selection<>(candidates, pruned);
+    }
+
+    /** Upper bound of the care level, distance, specialization and tier contributions of one pair. */
+    private double boundedScore(PatientProfileDTO patient, ProviderProfileDTO provider) {
+        MatchContext context = new MatchContext(patient, provider);
+
+        double care;
+        List<Integer> levels = provider.getAcceptedCareLevels();
+        if (patient.getCareLevel() == null) {
+            care = 0.5;
+        } else if (levels == null || levels.isEmpty()) {
+            care = 1.0;
+        } else {
+            care = levels.contains(patient.getCareLevel()) ? 1.0
+                    : levels.contains(patient.getCareLevel() - 1) || levels.contains(patient.getCareLevel() + 1) ? 0.6 : 0.0;
+        }
+
+        Double distanceKm = context.distanceKm();
+        double distance = distanceKm == null ? 0.5 : DistanceDimension.bandScore(distanceKm);
+
+        double specialization = 0.5;
+        Map<String, Object> requirements = patient.getMedicalRequirements();
+        List<String> specs = provider.getSpecializations();
+        if (requirements != null && !requirements.isEmpty() && specs != null && !specs.isEmpty()) {
+            Set<String> needs = SpecializationDimension.extractMedicalRequirements(requirements);
+            if (!needs.isEmpty()) {
+                specialization = specs.stream().anyMatch(s -> s != null && needs.contains(s.toLowerCase())) ? 1.0 : 0.0;
+            }
+        }
+
+        String patientTier = patient.getCareServiceTier() != null ? patient.getCareServiceTier().toUpperCase() : "STANDARD";
+        Set<String> tiers = provider.getOfferedServiceTiers();
+        double tier = 0.0;
+        for (String t : tiers == null || tiers.isEmpty() ? Set.of("STANDARD") : tiers) {
+            if (t != null) tier = Math.max(tier, TierDimension.compatibilityScore(patientTier, t.toUpperCase()));
+        }
+
+        return care * matchingAlgorithmService.weightOf(CareLevelDimension.KEY)
+                + distance * matchingAlgorithmService.weightOf(DistanceDimension.KEY)
+                + specialization * matchingAlgorithmService.weightOf(SpecializationDimension.KEY)
+                + tier * matchingAlgorithmService.weightOf(TierDimension.KEY);
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private ProviderCandidateIndex indexFor(List<ProviderProfileDTO> providers) {
+        ProviderCandidateIndex index = cachedIndex;
+        if (index == null || index.providers() != providers) {
+            index = ProviderCandidateIndex.build(providers);
+            cachedIndex = index;
+            log.debug("Provider candidate index built: providers={}", index.size());
+        }
+        return index;
+    }
+
+    /** Total weight of the dimensions without an index-based bound; they are assumed to score 1.0. */
+    private double unboundedWeight() {
+        double weight = 0;
+        for (ScoringDimension dimension : matchingAlgorithmService.getDimensions()) {
+            switch (dimension.key()) {
+                case CareLevelDimension.KEY, DistanceDimension.KEY, SpecializationDimension.KEY, TierDimension.KEY -> { }
+                default -> weight += dimension.weight();
+            }
+        }
+        return weight;
+    }
+
+    static boolean outsideServiceRadius(PatientProfileDTO patient, ProviderProfileDTO provider) {
+        if (!ProviderCandidateIndex.hasServiceRadius(provider)
+                || patient.getLatitude() == null || patient.getLongitude() == null
+                || provider.getLatitude() == null || provider.getLongitude() == null) {
+            return false;
+        }
+        double distance = DistanceDimension.haversine(patient.getLatitude(), patient.getLongitude(),
+                provider.getLatitude(), provider.getLongitude());
+        return distance > provider.getServiceRadius();
+    }
+
+    private static double maxScore(List<ScoreClass> classes) {
+        double max = 0.0;
+        for (ScoreClass c : classes) {
+            if (!c.members().isEmpty()) max = Math.max(max, c.score());
+        }
+        return max;
+    }
+
+    private static <T> Selection<T> split(List<T> population, BitSet candidates) {
+        List<T> selected = new ArrayList<>(candidates.cardinality());
+        List<T> pruned = new ArrayList<>(population.size() - candidates.cardinality());
+        for (int i = 0; i < population.size(); i++) {
+            (candidates.get(i) ? selected : pruned).add(population.get(i));
+        }
+        return new Selection<>(selected, pruned);
+    }
+}
@@ -0,0 +1,131 @@
+package com.carematchservice.service;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Handle of one fan-out submitted to {@link MatchFanOutEngine}.
+ *
+ * Counters are updated as chunks commit, so {@link #getCompleted()} / {@link #getTotal()}
+ * is the run's progress at any point. A run ends in exactly one of the states
+ * COMPLETED, CANCELLED or FAILED; {@link #completion()} completes at that moment.
+ */
+public class FanOutRun {
+
+    public enum State { PENDING, RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    @Getter private final String anchorKey;
+    /** What caused the run; tags its metrics and is bound to the workers' threads. */
+    @Getter private final MatchTrigger trigger;
+    /** Lane whose workers and connection budget the run uses. */
+    @Getter private final WorkLane lane;
+    @Getter private final int total;
+    @Getter private final int chunkCount;
+    /** Counterparts excluded before scoring (e.g. pruned candidates); not part of {@link #getTotal()}. */
+    @Getter private final int skipped;
+    @Getter private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    @Getter private volatile State state = State.PENDING;
+    @Getter private volatile boolean cancelled;
+    @Getter private volatile LocalDateTime finishedAt;
+
+    private final AtomicInteger completed    = new AtomicInteger();
+    private final AtomicInteger failed       = new AtomicInteger();
+    private final AtomicInteger notified     = new AtomicInteger();
+    private final AtomicInteger chunksDone   = new AtomicInteger();
+    private final AtomicInteger chunkRetries = new AtomicInteger();
+
+    /** Next chunk to hand out to a worker. */
+    final AtomicInteger nextChunk = new AtomicInteger();
+    /** Workers still draining this run; the last one to leave finishes the run. */
+    final AtomicInteger activeWorkers = new AtomicInteger();
+
+    private final CompletableFuture<FanOutRun> completion = new CompletableFuture<>();
+
+    FanOutRun(String anchorKey, MatchTrigger trigger, WorkLane lane, int total, int chunkCount, int skipped) {
+        this.anchorKey = anchorKey;
+        this.trigger = trigger;
+        this.lane = lane;
+        this.total = total;
+        this.chunkCount = chunkCount;
+        this.skipped = skipped;
+    }
+
+    /**
+     * Requests cancellation. Chunks already committed stay committed; no new chunk
+     * is started and in-flight chunks stop after the current pair.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /** Anchor side of the run, {@code patient} or {@code provider}. */
+    public String getSide() {
+        int colon = anchorKey.indexOf(':');
+        return colon > 0 ? anchorKey.substring(0, colon) : anchorKey;
+    }
+
+    /** Counterparts scored and committed. */
+    public int getCompleted() {
+        return completed.get();
+    }
+
+    /** Counterparts that could not be scored, including whole chunks that exhausted their retries. */
+    public int getFailed() {
+        return failed.get();
+    }
+
+    /** Pairs that crossed the notification threshold upward and were notified. */
+    public int getNotified() {
+        return notified.get();
+    }
+
+    public int getChunksDone() {
+        return chunksDone.get();
+    }
+
+    public int getChunkRetries() {
+        return chunkRetries.get();
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /** Completes when the run has reached a terminal state. Never completes exceptionally. */
+    public CompletableFuture<FanOutRun> completion() {
+        return completion;
+    }
+
+    /** Fraction of counterparts processed so far, 0.0–1.0. */
+    public double progress() {
+        return total == 0 ? 1.0 : (double) (completed.get() + failed.get()) / total;
+    }
+
+    void record(int processed, int failedPairs, int notifiedPairs) {
+        completed.addAndGet(processed);
+        failed.addAndGet(failedPairs);
+        notified.addAndGet(notifiedPairs);
+    }
+
+    void recordRetry() {
+        chunkRetries.incrementAndGet();
+    }
+
+    void recordChunkDone() {
+        chunksDone.incrementAndGet();
+    }
+
+    void markRunning() {
+        state = State.RUNNING;
+    }
+
+    void finish(State terminal) {
+        state = terminal;
+        finishedAt = LocalDateTime.now();
+        completion.complete(this);
+    }
+}
@@ -0,0 +1,196 @@
+package com.carematchservice.service;
+
+import com.carematchservice.dto.PatientProfileDTO;
+import com.carematchservice.dto.ProviderProfileDTO;
+import com.carematchservice.repository.MatchScoreBulkWriter;
+import com.carematchservice.repository.MatchScoreBulkWriter.Anchor;
+import com.carematchservice.repository.MatchScoreBulkWriter.MatchPair;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Background compaction of {@code match_scores}.
+ *
+ * Writes no longer store pairs below {@code app.matching.storage-floor} (MatchingService
+ * scores them on read), but rows written before the floor was introduced or raised stay
+ * until the pair is rescored. Rows of patients or providers that were deleted, withdrew
+ * consent or were hidden stay as well, since no fan-out touches them again. A run removes:
+ *   1. rows scoring below the storage floor (skipped when the floor is 0), and
+ *   2. rows whose patient or provider is not in the ProfileReplica's active population.
+ *      Only checked for a side whose replica is warm; every candidate is re-fetched
+ *      once before its rows are deleted, so a profile the replica has not seen yet
+ *      keeps its rows.
+ *
+ * Rows are deleted in slices of {@code app.matching.compaction.slice-size}, each in its
+ * own transaction in the bulk {@link WorkLane}, and the deleted pairs are removed from
+ * the leaderboards after each slice commits. Runs on a fixed delay and on demand
+ * (POST /api/v1/matches/compact); only one run at a time.
+ */
+@Service
+@Slf4j
+public class MatchCompactionJob {
+
+    /** Anchor ids per delete statement for orphaned rows. */
+    private static final int ANCHOR_SLICE_SIZE = 1000;
+
+    /** Result of a {@link #compact} run. */
+    public record CompactionSummary(int belowFloorRows, int orphanedPatientRows, int orphanedProviderRows,
+                                    int orphanedPatients, int orphanedProviders, long tookMs) {}
+
+    private final MatchScoreBulkWriter matchScoreBulkWriter;
+    private final MatchLeaderboard matchLeaderboard;
+    private final ProfileReplica profileReplica;
+    private final MatchWorkScheduler workScheduler;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate sliceTransaction;
+    private final BigDecimal storageFloor;
+    private final int sliceSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public MatchCompactionJob(MatchScoreBulkWriter matchScoreBulkWriter,
+                              MatchLeaderboard matchLeaderboard,
+                              ProfileReplica profileReplica,
+                              MatchWorkScheduler workScheduler,
+                              CacheManager cacheManager,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.matching.storage-floor:0}") double storageFloor,
+                              @Value("${app.matching.compaction.slice-size:5000}") int sliceSize) {
+        this.matchScoreBulkWriter = matchScoreBulkWriter;
+        this.matchLeaderboard = matchLeaderboard;
+        this.profileReplica = profileReplica;
+        this.workScheduler = workScheduler;
+        this.cacheManager = cacheManager;
+        this.sliceTransaction = new TransactionTemplate(transactionManager);
+        this.sliceTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.storageFloor = BigDecimal.valueOf(storageFloor);
+        this.sliceSize = Math.max(1, sliceSize);
+    }
+
+    @Scheduled(initialDelayString = "${app.matching.compaction.initial-delay-ms:600000}",
+               fixedDelayString = "${app.matching.compaction.interval-ms:21600000}")
+    public void scheduledCompaction() {
+        try {
+            compact();
+        } catch (IllegalStateException e) {
+            log.info("Scheduled compaction skipped: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Scheduled compaction failed", e);
+        }
+    }
+
+    /** Runs one compaction pass synchronously. */
+    public CompactionSummary compact() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A compaction run is already in progress");
+        }
+        try {
+            long started = System.nanoTime();
+
+            int belowFloor = 0;
+            if (storageFloor.signum() > 0) {
+                belowFloor = deleteInSlices(() -> matchScoreBulkWriter.deleteBelowScore(storageFloor, sliceSize));
+            }
+
+            Set<UUID> goneProviders = profileReplica.isProvidersWarm()
+                    ? orphans(Anchor.PROVIDER, activeProviderIds(), "provider",
+                            id -> profileReplica.findProvider(id).isPresent())
+                    : Set.of();
+            int providerRows = deleteOfAnchors(Anchor.PROVIDER, goneProviders);
+
+            Set<UUID> gonePatients = profileReplica.isPatientsWarm()
+                    ? orphans(Anchor.PATIENT, activePatientIds(), "patient",
+                            id -> profileReplica.findPatient(id).isPresent())
+                    : Set.of();
+            int patientRows = deleteOfAnchors(Anchor.PATIENT, gonePatients);
+
+            if (belowFloor + providerRows + patientRows > 0) {
+                Cache feeds = cacheManager.getCache("matchScores");
+                if (feeds != null) {
+                    feeds.clear();
+                }
+            }
+
+            long tookMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+            log.info("Match compaction finished: belowFloor={}, orphanedProviders={} ({} rows), "
+                            + "orphanedPatients={} ({} rows), warm={}/{}, took={}ms",
+                    belowFloor, goneProviders.size(), providerRows, gonePatients.size(), patientRows,
+                    profileReplica.isPatientsWarm(), profileReplica.isProvidersWarm(), tookMs);
+            return new CompactionSummary(belowFloor, patientRows, providerRows,
+                    gonePatients.size(), goneProviders.size(), tookMs);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /** Anchors with rows that are not active, confirmed by re-fetching each one. */
+    private Set<UUID> orphans(Anchor anchor, Set<UUID> active, String profileType, Predicate<UUID> present) {
+        Set<UUID> candidates = matchScoreBulkWriter.anchorIds(anchor);
+        candidates.removeAll(active);
+        Set<UUID> gone = new HashSet<>();
+        for (UUID id : candidates) {
+            profileReplica.refresh(profileType, id);
+            if (!present.test(id)) {
+                gone.add(id);
+            }
+        }
+        return gone;
+    }
+
+    private int deleteOfAnchors(Anchor anchor, Set<UUID> anchorIds) {
+        List<UUID> ids = List.copyOf(anchorIds);
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += ANCHOR_SLICE_SIZE) {
+            List<UUID> slice = ids.subList(from, Math.min(from + ANCHOR_SLICE_SIZE, ids.size()));
+            deleted += deleteInSlices(() -> matchScoreBulkWriter.deleteOfAnchors(anchor, slice, sliceSize));
+        }
+        return deleted;
+    }
+
+    /** Repeats a limited delete, one transaction per slice, until a slice comes back short. */
+    private int deleteInSlices(Supplier<List<MatchPair>> deleteSlice) {
+        int deleted = 0;
+        List<MatchPair> pairs;
+        do {
+            pairs = workScheduler.call(WorkLane.BULK, () -> sliceTransaction.execute(status -> {
+                List<MatchPair> removed = deleteSlice.get();
+                matchLeaderboard.pairsRemoved(removed);
+                return removed;
+            }));
+            deleted += pairs.size();
+        } while (pairs.size() == sliceSize);
+        return deleted;
+    }
+
+    private Set<UUID> activePatientIds() {
+        Set<UUID> ids = new HashSet<>();
+        for (PatientProfileDTO patient : profileReplica.activePatients()) {
+            ids.add(patient.getId());
+        }
+        return ids;
+    }
+
+    private Set<UUID> activeProviderIds() {
+        Set<UUID> ids = new HashSet<>();
+        for (ProviderProfileDTO provider : profileReplica.activeProviders()) {
+            ids.add(provider.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,254 @@
+package com.carematchservice.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Parallel, chunked executor for match fan-outs (one anchor profile against every counterpart).
+ *
+ * The counterpart list is split into chunks of {@code app.matching.recalculate-batch-size}
+ * pairs. Each run belongs to a {@link WorkLane}: event-driven runs are drained by up to
+ * {@code app.matching.fan-out.parallelism} workers, bulk runs (full resets) by up to
+ * {@code app.matching.fan-out.bulk-parallelism} workers, each lane from its own fixed-size
+ * pool. Every chunk is scored and committed in its own short REQUIRES_NEW transaction,
+ * holding a connection permit of the run's lane (MatchWorkScheduler), so a fan-out never holds one connection or one growing
+ * persistence context for its whole duration. A chunk whose transaction fails is retried
+ * with linear backoff before its pairs are counted as failed.
+ *
+ * Runs are keyed by anchor ({@code patient:<id>} / {@code provider:<id>}). Submitting a
+ * new run for an anchor cancels the in-flight one and starts only after it has stopped,
+ * so a superseding profile update never races with the run it replaces.
+ *
+ * The run's {@link MatchTrigger} is bound to every worker thread while it processes the
+ * run, and each finished run is recorded in {@link MatchMetrics}.
+ */
+@Service
+@Slf4j
+public class MatchFanOutEngine {
+
+    /** Scores one chunk. Runs inside the chunk's transaction; must be safe to retry. */
+    @FunctionalInterface
+    public interface ChunkProcessor<T> {
+        ChunkResult process(List<T> chunk, FanOutRun run);
+    }
+
+    public record ChunkResult(int processed, int failed, int notified) {}
+
+    private final TransactionTemplate chunkTransaction;
+    private final MatchMetrics matchMetrics;
+    private final MatchWorkScheduler workScheduler;
+    private final Map<WorkLane, ThreadPoolExecutor> executors = new EnumMap<>(WorkLane.class);
+    private final Map<WorkLane, Integer> parallelism = new EnumMap<>(WorkLane.class);
+    private final int chunkSize;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+
+    private final Map<String, FanOutRun> activeRuns = new ConcurrentHashMap<>();
+
+    public MatchFanOutEngine(PlatformTransactionManager transactionManager,
+                             MatchMetrics matchMetrics,
+                             MatchWorkScheduler workScheduler,
+                             @Value("${app.matching.fan-out.parallelism:0}") int parallelism,
+                             @Value("${app.matching.fan-out.bulk-parallelism:2}") int bulkParallelism,
+                             @Value("${app.matching.recalculate-batch-size:100}") int chunkSize,
+                             @Value("${app.matching.fan-out.max-attempts:3}") int maxAttempts,
+                             @Value("${app.matching.fan-out.retry-backoff-ms:200}") long retryBackoffMs) {
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.matchMetrics = matchMetrics;
+        this.workScheduler = workScheduler;
+        this.parallelism.put(WorkLane.EVENT, parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.parallelism.put(WorkLane.BULK, Math.max(1, bulkParallelism));
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = Math.max(0, retryBackoffMs);
+
+        this.parallelism.forEach((lane, threads) -> {
+            AtomicInteger threadNumber = new AtomicInteger();
+            String prefix = lane == WorkLane.EVENT ? "match-fanout-" : "match-fanout-" + lane.tag() + "-";
+            executors.put(lane, new ThreadPoolExecutor(threads, threads,
+                    0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                    r -> {
+                        Thread t = new Thread(r, prefix + threadNumber.incrementAndGet());
+                        t.setDaemon(false);
+                        return t;
+                    }));
+        });
+        matchMetrics.registerFanOutGauges(executors, activeRuns::values);
+
+        log.info("Match fan-out engine: parallelism={}, chunkSize={}, maxAttempts={}",
+                this.parallelism, this.chunkSize, this.maxAttempts);
+    }
+
+    // ── Submission ────────────────────────────────────────────────────────────
+
+    /**
+     * Submits a fan-out and returns immediately.
+     *
+     * @param anchorKey    run identity; an in-flight run with the same key is cancelled
+     * @param trigger      what caused the run
+     * @param lane         {@link WorkLane#EVENT} or {@link WorkLane#BULK}
+     * @param counterparts pairs to score, in chunk order
+     * @param skipped      counterparts excluded up front, reported with the run
+     * @param prepare      optional step (e.g. deleting stale rows) committed in its own
+     *                     transaction before the first chunk; {@code null} for none
+     * @param processor    scores one chunk
+     */
+    public <T> FanOutRun submit(String anchorKey, MatchTrigger trigger, WorkLane lane, List<T> counterparts,
+                                int skipped, Runnable prepare, ChunkProcessor<T> processor) {
+        if (!executors.containsKey(lane)) {
+            throw new IllegalArgumentException("Fan-outs run in the event or bulk lane, not " + lane);
+        }
+        List<T> items = List.copyOf(counterparts);
+        int chunkCount = (items.size() + chunkSize - 1) / chunkSize;
+        FanOutRun run = new FanOutRun(anchorKey, trigger, lane, items.size(), chunkCount, skipped);
+
+        FanOutRun previous = activeRuns.put(anchorKey, run);
+        CompletableFuture<?> predecessor = CompletableFuture.completedFuture(null);
+        if (previous != null && !previous.isDone()) {
+            log.info("Superseding in-flight fan-out: anchor={}, progress={}/{}",
+                    anchorKey, previous.getCompleted(), previous.getTotal());
+            previous.cancel();
+            predecessor = previous.completion();
+        }
+
+        predecessor.whenComplete((ignored, error) ->
+                executors.get(lane).execute(() -> start(run, items, prepare, processor)));
+        return run;
+    }
+
+    /** Cancels the in-flight run for the given anchor, if any. */
+    public Optional<FanOutRun> cancel(String anchorKey) {
+        FanOutRun run = activeRuns.get(anchorKey);
+        if (run != null) {
+            run.cancel();
+        }
+        return Optional.ofNullable(run);
+    }
+
+    public Optional<FanOutRun> find(String anchorKey) {
+        return Optional.ofNullable(activeRuns.get(anchorKey));
+    }
+
+    public Collection<FanOutRun> activeRuns() {
+        return List.copyOf(activeRuns.values());
+    }
+
+    // ── Execution ─────────────────────────────────────────────────────────────
+
+    private <T> void start(FanOutRun run, List<T> items, Runnable prepare, ChunkProcessor<T> processor) {
+        if (run.isCancelled()) {
+            finish(run, FanOutRun.State.CANCELLED);
+            return;
+        }
+        run.markRunning();
+
+        if (prepare != null) {
+            Boolean prepared;
+            try (var scope = matchMetrics.withTrigger(run.getTrigger())) {
+                prepared = inChunkTransaction(run, "prepare", () -> {
+                    prepare.run();
+                    return Boolean.TRUE;
+                });
+            }
+            if (prepared == null) {
+                finish(run, FanOutRun.State.FAILED);
+                return;
+            }
+        }
+
+        int workers = Math.max(1, Math.min(parallelism.get(run.getLane()), run.getChunkCount()));
+        run.activeWorkers.set(workers);
+        for (int w = 1; w < workers; w++) {
+            executors.get(run.getLane()).execute(() -> drain(run, items, processor));
+        }
+        drain(run, items, processor);
+    }
+
+    private <T> void drain(FanOutRun run, List<T> items, ChunkProcessor<T> processor) {
+        try (var scope = matchMetrics.withTrigger(run.getTrigger())) {
+            int chunk;
+            while (!run.isCancelled() && (chunk = run.nextChunk.getAndIncrement()) < run.getChunkCount()) {
+                int from = chunk * chunkSize;
+                List<T> slice = items.subList(from, Math.min(from + chunkSize, items.size()));
+
+                ChunkResult result = inChunkTransaction(run, "chunk " + chunk, () -> processor.process(slice, run));
+                if (result != null) {
+                    run.record(result.processed(), result.failed(), result.notified());
+                } else if (!run.isCancelled()) {
+                    run.record(0, slice.size(), 0);
+                }
+                run.recordChunkDone();
+            }
+        } catch (RuntimeException e) {
+            log.error("Fan-out worker aborted: anchor={}", run.getAnchorKey(), e);
+        } finally {
+            if (run.activeWorkers.decrementAndGet() == 0) {
+                FanOutRun.State terminal = run.isCancelled() ? FanOutRun.State.CANCELLED
+                        : run.getChunksDone() < run.getChunkCount() ? FanOutRun.State.FAILED
+                        : FanOutRun.State.COMPLETED;
+                finish(run, terminal);
+            }
+        }
+    }
+
+    /**
+     * Executes the callback in a new transaction under a connection permit of the run's
+     * lane, retrying on failure.
+     * Returns {@code null} when all attempts failed or the run was cancelled meanwhile.
+     */
+    private <R> R inChunkTransaction(FanOutRun run, String step, Supplier<R> callback) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return workScheduler.call(run.getLane(), () -> chunkTransaction.execute(status -> callback.get()));
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || run.isCancelled()) {
+                    log.error("Fan-out {} failed after {} attempt(s): anchor={}",
+                            step, attempt, run.getAnchorKey(), e);
+                    return null;
+                }
+                run.recordRetry();
+                log.warn("Fan-out {} failed, retrying (attempt {}/{}): anchor={}, cause={}",
+                        step, attempt, maxAttempts, run.getAnchorKey(), e.getMessage());
+                try {
+                    Thread.sleep(retryBackoffMs * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+        }
+    }
+
+    private void finish(FanOutRun run, FanOutRun.State terminal) {
+        activeRuns.remove(run.getAnchorKey(), run);
+        run.finish(terminal);
+        matchMetrics.fanOutFinished(run);
+        log.info("Fan-out {}: anchor={}, trigger={}, lane={}, evaluated={}/{}, skipped={}, failed={}, notified={}, chunks={}, retries={}, took={}ms",
+                terminal, run.getAnchorKey(), run.getTrigger().tag(), run.getLane().tag(), run.getCompleted(), run.getTotal(), run.getSkipped(), run.getFailed(),
+                run.getNotified(), run.getChunksDone(), run.getChunkRetries(),
+                Duration.between(run.getSubmittedAt(), run.getFinishedAt()).toMillis());
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        activeRuns.values().forEach(FanOutRun::cancel);
+        executors.values().forEach(ThreadPoolExecutor::shutdown);
+        for (ThreadPoolExecutor executor : executors.values()) {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.carematchservice.service;
+
+import com.carematchservice.model.MatchScore;
+import com.carematchservice.repository.MatchScoreBulkWriter.MatchPair;
+import com.carematchservice.repository.MatchScoreBulkWriter.UpsertedScore;
+import com.carematchservice.repository.MatchScoreRepository;
+import com.carematchservice.repository.MatchScoreRepository.RankedCounterpart;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Per-patient and per-provider top-K match leaderboards in Redis sorted sets.
+ *
+ * Every anchor (patient or provider) has a board {@code match:top:<side>:<id>} holding at
+ * most {@code app.matching.leaderboard.size} counterparts scored by match score, plus a
+ * floor key {@code match:top:<side>:<id>:floor}: the highest score of any row that is
+ * not on the board (-1 when the board holds every row). Entries ranked above the floor
+ * are exactly the anchor's best rows, so a top-N or page read costs O(N) instead of
+ * sorting every match of the anchor.
+ *
+ * Boards are maintained incrementally after each committed write (upserts, removed
+ * pairs, full resets) and built lazily from {@code match_scores} on the first read, on
+ * a read that reaches below the floor, and after they expire. Updates for an anchor
+ * without a board are dropped, so only anchors that are actually read cost memory.
+ * Reads confirm the returned counterparts against the table; any miss or Redis error
+ * falls back to the database query.
+ */
+@Service
+@Slf4j
+public class MatchLeaderboard {
+
+    private static final String KEY_PREFIX = "match:top:";
+    private static final String FLOOR_SUFFIX = ":floor";
+
+    /** Floor of a board that holds all rows of its anchor. */
+    private static final String COMPLETE = "-1";
+
+    /**
+     * KEYS: board, floor. ARGV: size, ttl, then member / score pairs.
+     * Adds the pairs, trims the board to size and raises the floor to the best evicted score.
+     */
+    private static final byte[] UPDATE_SCRIPT = """
+            if redis.call('EXISTS', KEYS[2]) == 0 then return 0 end
+            for i = 3, #ARGV, 2 do
+                redis.call('ZADD', KEYS[1], ARGV[i + 1], ARGV[i])
+            end
+            local size = tonumber(ARGV[1])
+            local count = redis.call('ZCARD', KEYS[1])
+            if count > size then
+                local evicted = redis.call('ZRANGE', KEYS[1], count - size - 1, count - size - 1, 'WITHSCORES')
+                if tonumber(evicted[2]) > tonumber(redis.call('GET', KEYS[2])) then
+                    redis.call('SET', KEYS[2], evicted[2])
+                end
+                redis.call('ZREMRANGEBYRANK', KEYS[1], 0, count - size - 1)
+            end
+            redis.call('EXPIRE', KEYS[1], ARGV[2])
+            redis.call('EXPIRE', KEYS[2], ARGV[2])
+            return 1
+            """.getBytes(StandardCharsets.UTF_8);
+
+    /** KEYS: board, floor. ARGV: ttl, floor, then member / score pairs. Replaces the board. */
+    private static final RedisScript<Long> REBUILD_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('DEL', KEYS[1])
+            for i = 3, #ARGV, 2 do
+                redis.call('ZADD', KEYS[1], ARGV[i + 1], ARGV[i])
+            end
+            redis.call('SET', KEYS[2], ARGV[2], 'EX', ARGV[1])
+            redis.call('EXPIRE', KEYS[1], ARGV[1])
+            return 1
+            """, Long.class);
+
+    /** KEYS: board, floor. ARGV: min score, offset, count. Returns the floor followed by member / score pairs. */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> READ_SCRIPT = new DefaultRedisScript<>("""
+            local floor = redis.call('GET', KEYS[2])
+            if not floor then return false end
+            local entries = redis.call('ZREVRANGEBYSCORE', KEYS[1], '+inf', ARGV[1], 'WITHSCORES', 'LIMIT', ARGV[2], ARGV[3])
+            table.insert(entries, 1, floor)
+            return entries
+            """, List.class);
+
+    /** One side of the match table: the anchor column, its counterpart column and their queries. */
+    private record Side(String name,
+                        Function<MatchScore, UUID> counterpartOf,
+                        BiFunction<UUID, Collection<UUID>, List<MatchScore>> rowsOf,
+                        BiFunction<UUID, PageRequest, List<RankedCounterpart>> ranked,
+                        Fallback fallback) {
+
+        String board(UUID anchorId) {
+            return KEY_PREFIX + name + ":" + anchorId;
+        }
+
+        String floor(UUID anchorId) {
+            return board(anchorId) + FLOOR_SUFFIX;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Fallback {
+        List<MatchScore> page(UUID anchorId, BigDecimal minScore, PageRequest page);
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final int size;
+    private final long ttlSeconds;
+
+    private final Side patients;
+    private final Side providers;
+
+    public MatchLeaderboard(StringRedisTemplate redisTemplate,
+                            MatchScoreRepository repository,
+                            @Value("${app.matching.leaderboard.enabled:true}") boolean enabled,
+                            @Value("${app.matching.leaderboard.size:100}") int size,
+                            @Value("${app.matching.leaderboard.ttl-seconds:604800}") long ttlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.size = Math.max(1, size);
+        this.ttlSeconds = Math.max(1, ttlSeconds);
+        this.patients = new Side("patient", MatchScore::getProviderId,
+                repository::findByPatientIdAndProviderIdIn,
+                repository::findRankedProviders,
+                repository::findByPatientIdAndScoreGreaterThanEqual);
+        this.providers = new Side("provider", MatchScore::getPatientId,
+                repository::findByProviderIdAndPatientIdIn,
+                repository::findRankedPatients,
+                repository::findByProviderIdAndScoreGreaterThanEqual);
+    }
+
+    // ── Reads ─────────────────────────────────────────────────────────────────
+
+    /** A page of the patient's matches with score ≥ {@code minScore}, best first. */
+    public List<MatchScore> topForPatient(UUID patientId, int page, int pageSize, BigDecimal minScore) {
+        return top(patients, patientId, page, pageSize, minScore);
+    }
+
+    /** A page of the provider's matches with score ≥ {@code minScore}, best first. */
+    public List<MatchScore> topForProvider(UUID providerId, int page, int pageSize, BigDecimal minScore) {
+        return top(providers, providerId, page, pageSize, minScore);
+    }
+
+    private List<MatchScore> top(Side side, UUID anchorId, int page, int pageSize, BigDecimal minScore) {
+        BigDecimal min = minScore != null ? minScore : BigDecimal.ZERO;
+        PageRequest pageRequest = PageRequest.of(Math.max(0, page), Math.max(1, pageSize));
+        if (!enabled || pageRequest.getOffset() + pageRequest.getPageSize() > size) {
+            return side.fallback().page(anchorId, min, pageRequest);
+        }
+        try {
+            List<UUID> counterparts = readBoard(side, anchorId, min, pageRequest);
+            if (counterparts == null) {
+                rebuild(side, anchorId);
+                counterparts = readBoard(side, anchorId, min, pageRequest);
+            }
+            if (counterparts != null) {
+                List<MatchScore> rows = loadRows(side, anchorId, counterparts);
+                if (rows != null) {
+                    return rows;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Leaderboard read failed, using the database: {}={}, cause={}", side.name(), anchorId, e.getMessage());
+        }
+        return side.fallback().page(anchorId, min, pageRequest);
+    }
+
+    /**
+     * Counterparts of the requested page, or {@code null} when the board is missing or
+     * cannot answer exactly (part of the page may lie below the floor).
+     */
+    private List<UUID> readBoard(Side side, UUID anchorId, BigDecimal min, PageRequest pageRequest) {
+        List<?> reply = redisTemplate.execute(READ_SCRIPT, List.of(side.board(anchorId), side.floor(anchorId)),
+                min.toPlainString(), String.valueOf(pageRequest.getOffset()), String.valueOf(pageRequest.getPageSize()));
+        if (reply == null || reply.isEmpty()) {
+            return null;
+        }
+        double floor = Double.parseDouble(reply.get(0).toString());
+        int entries = (reply.size() - 1) / 2;
+        boolean exact = entries == pageRequest.getPageSize()
+                ? Double.parseDouble(reply.get(reply.size() - 1).toString()) >= floor
+                : floor < min.doubleValue();
+        if (!exact) {
+            return null;
+        }
+        List<UUID> counterparts = new ArrayList<>(entries);
+        for (int i = 1; i < reply.size(); i += 2) {
+            counterparts.add(UUID.fromString(reply.get(i).toString()));
+        }
+        return counterparts;
+    }
+
+    /** Rows of the counterparts, best first; {@code null} when the board holds pairs that no longer exist. */
+    private List<MatchScore> loadRows(Side side, UUID anchorId, List<UUID> counterparts) {
+        if (counterparts.isEmpty()) {
+            return List.of();
+        }
+        List<MatchScore> rows = new ArrayList<>(side.rowsOf().apply(anchorId, counterparts));
+        if (rows.size() < counterparts.size()) {
+            Set<UUID> found = new HashSet<>();
+            rows.forEach(row -> found.add(side.counterpartOf().apply(row)));
+            Object[] stale = counterparts.stream().filter(id -> !found.contains(id)).map(UUID::toString).toArray();
+            redisTemplate.opsForZSet().remove(side.board(anchorId), stale);
+            log.debug("Removed {} stale leaderboard entries: {}={}", stale.length, side.name(), anchorId);
+            return null;
+        }
+        rows.sort(Comparator.comparing(MatchScore::getScore).reversed());
+        return rows;
+    }
+
+    // ── Rebuild ───────────────────────────────────────────────────────────────
+
+    /** Rebuilds the patient's board from {@code match_scores}. */
+    public void rebuildPatient(UUID patientId) {
+        rebuild(patients, patientId);
+    }
+
+    /** Rebuilds the provider's board from {@code match_scores}. */
+    public void rebuildProvider(UUID providerId) {
+        rebuild(providers, providerId);
+    }
+
+    private void rebuild(Side side, UUID anchorId) {
+        if (!enabled) {
+            return;
+        }
+        // One row beyond the board size tells the floor
+        List<RankedCounterpart> ranked = side.ranked().apply(anchorId, PageRequest.of(0, size + 1));
+        String floor = ranked.size() > size ? ranked.get(size).getScore().toPlainString() : COMPLETE;
+
+        List<String> args = new ArrayList<>(2 + 2 * Math.min(size, ranked.size()));
+        args.add(String.valueOf(ttlSeconds));
+        args.add(floor);
+        for (int i = 0; i < Math.min(size, ranked.size()); i++) {
+            args.add(ranked.get(i).getCounterpartId().toString());
+            args.add(ranked.get(i).getScore().toPlainString());
+        }
+        redisTemplate.execute(REBUILD_SCRIPT, List.of(side.board(anchorId), side.floor(anchorId)), args.toArray());
+        log.debug("Leaderboard rebuilt: {}={}, entries={}, floor={}",
+                side.name(), anchorId, Math.min(size, ranked.size()), floor);
+    }
+
+    // ── Incremental maintenance (applied after commit) ────────────────────────
+
+    /** Applies upserted scores to the boards of both the patients and the providers involved. */
+    public void scoresChanged(Collection<UpsertedScore> rows) {
+        if (!enabled || rows.isEmpty()) {
+            return;
+        }
+        Map<String, List<String>> updates = new LinkedHashMap<>();
+        for (UpsertedScore row : rows) {
+            addUpdate(updates, patients.board(row.patientId()), row.providerId(), row.score());
+            addUpdate(updates, providers.board(row.providerId()), row.patientId(), row.score());
+        }
+        afterCommit(updates.keySet(), () -> applyUpdates(updates));
+    }
+
+    public void scoreChanged(MatchScore row) {
+        scoresChanged(List.of(new UpsertedScore(row.getId(), row.getPatientId(), row.getProviderId(), row.getScore(), null)));
+    }
+
+    /** Removes the given pairs of one patient from its board and from the providers' boards. */
+    public void pairsRemovedForPatient(UUID patientId, Collection<UUID> providerIds) {
+        pairsRemoved(patients, providers, patientId, providerIds);
+    }
+
+    /** Removes the given pairs of one provider from its board and from the patients' boards. */
+    public void pairsRemovedForProvider(UUID providerId, Collection<UUID> patientIds) {
+        pairsRemoved(providers, patients, providerId, patientIds);
+    }
+
+    /** Removes arbitrary deleted pairs from the boards of both sides. */
+    public void pairsRemoved(Collection<MatchPair> pairs) {
+        if (!enabled || pairs.isEmpty()) {
+            return;
+        }
+        Map<String, List<String>> removals = new LinkedHashMap<>();
+        for (MatchPair pair : pairs) {
+            removals.computeIfAbsent(patients.board(pair.patientId()), k -> new ArrayList<>()).add(pair.providerId().toString());
+            removals.computeIfAbsent(providers.board(pair.providerId()), k -> new ArrayList<>()).add(pair.patientId().toString());
+        }
+        afterCommit(removals.keySet(), () -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            removals.forEach((board, members) -> connection.zSetCommands().zRem(bytes(board),
+                    members.stream().map(MatchLeaderboard::bytes).toArray(byte[][]::new)));
+            return null;
+        }));
+    }
+
+    /** All rows of the patient were deleted: its board restarts empty and complete. */
+    public void patientReset(UUID patientId) {
+        reset(patients, patientId);
+    }
+
+    /** All rows of the provider were deleted: its board restarts empty and complete. */
+    public void providerReset(UUID providerId) {
+        reset(providers, providerId);
+    }
+
+    private void pairsRemoved(Side side, Side other, UUID anchorId, Collection<UUID> counterparts) {
+        if (!enabled || counterparts.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = List.copyOf(counterparts);
+        List<String> boards = new ArrayList<>(ids.size() + 1);
+        boards.add(side.board(anchorId));
+        ids.forEach(id -> boards.add(other.board(id)));
+        afterCommit(boards, () -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            byte[] board = bytes(side.board(anchorId));
+            byte[] anchor = bytes(anchorId.toString());
+            connection.zSetCommands().zRem(board, ids.stream().map(id -> bytes(id.toString())).toArray(byte[][]::new));
+            for (UUID id : ids) {
+                connection.zSetCommands().zRem(bytes(other.board(id)), anchor);
+            }
+            return null;
+        }));
+    }
+
+    private void reset(Side side, UUID anchorId) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(List.of(side.board(anchorId)), () -> redisTemplate.execute(REBUILD_SCRIPT,
+                List.of(side.board(anchorId), side.floor(anchorId)), String.valueOf(ttlSeconds), COMPLETE));
+    }
+
+    private void applyUpdates(Map<String, List<String>> updates) {
+        byte[] script = UPDATE_SCRIPT;
+        byte[] sizeArg = bytes(String.valueOf(size));
+        byte[] ttlArg = bytes(String.valueOf(ttlSeconds));
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            updates.forEach((board, pairs) -> {
+                byte[][] keysAndArgs = new byte[4 + pairs.size()][];
+                keysAndArgs[0] = bytes(board);
+                keysAndArgs[1] = bytes(board + FLOOR_SUFFIX);
+                keysAndArgs[2] = sizeArg;
+                keysAndArgs[3] = ttlArg;
+                for (int i = 0; i < pairs.size(); i++) {
+                    keysAndArgs[4 + i] = bytes(pairs.get(i));
+                }
+                connection.scriptingCommands().eval(script, ReturnType.INTEGER, 2, keysAndArgs);
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Runs the Redis write once the surrounding transaction has committed, so boards
+     * never show scores that were rolled back. A failed write drops the affected
+     * boards' floors, which forces a rebuild on their next read.
+     */
+    private void afterCommit(Collection<String> boards, Runnable write) {
+        Runnable guarded = () -> {
+            try {
+                write.run();
+            } catch (RuntimeException e) {
+                log.warn("Leaderboard update failed, invalidating {} board(s): {}", boards.size(), e.getMessage());
+                try {
+                    redisTemplate.delete(boards.stream().map(board -> board + FLOOR_SUFFIX).toList());
+                } catch (RuntimeException ignored) {
+                    // Boards expire on their own
+                }
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    guarded.run();
+                }
+            });
+        } else {
+            guarded.run();
+        }
+    }
+
+    private static void addUpdate(Map<String, List<String>> updates, String board, UUID member, BigDecimal score) {
+        List<String> pairs = updates.computeIfAbsent(board, k -> new ArrayList<>(2));
+        pairs.add(member.toString());
+        pairs.add(score.toPlainString());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
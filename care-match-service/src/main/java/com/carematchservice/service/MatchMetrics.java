@@ -0,0 +1,186 @@
+package com.carematchservice.service;
+
+import io.micrometer.core.instrument.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer instrumentation of the match pipeline, exposed through actuator
+ * ({@code /actuator/metrics}, {@code /actuator/prometheus}).
+ *
+ * Every meter carries a {@code trigger} tag ({@link MatchTrigger}: created / updated /
+ * manual / none). The trigger is bound to the current thread with {@link #withTrigger}
+ * by the entry points (Kafka consumer, MatchingService, the fan-out engine's workers), so
+ * code deep in the pipeline — dimension scoring, Feign calls, score writes — is tagged
+ * without passing it around.
+ *
+ * Meters:
+ *   - {@code match.fanout.duration}               timer per run (side, state)
+ *   - {@code match.fanout.pairs}                  counter of counterparts scored (side)
+ *   - {@code match.fanout.pairs.per.second}       summary of per-run throughput (side)
+ *   - {@code match.fanout.queue.depth}            gauge: chunks waiting for a fan-out worker (lane)
+ *   - {@code match.fanout.runs}                   gauge: active runs (state = pending / running)
+ *   - {@code match.scoring.dimension.duration}    timer per dimension, sampled
+ *                                                 (1 in {@code app.metrics.dimension-timing.sample-every} evaluations)
+ *   - {@code match.profile.client.requests}       timer per ProfileServiceClient method (outcome)
+ *   - {@code match.score.write.duration}          timer per match_scores write
+ *   - {@code match.score.write.batch.size}        summary of rows per write
+ *   - {@code match.pair.lock.acquisitions}        counter of pair stripe acquisitions (scope = local / advisory,
+ *                                                 outcome = uncontended / contended)
+ *   - {@code match.pair.lock.wait}                timer of contended pair stripe waits (scope)
+ *   - {@code match.threshold.events}              counter of threshold crossings (outcome = published / duplicate)
+ *   - {@code match.notification.filter.checks}    counter of notification filter hits confirmed against the
+ *                                                 database (result = confirmed / false_positive)
+ */
+@Component
+public class MatchMetrics {
+
+    private static final ThreadLocal<MatchTrigger> CURRENT_TRIGGER = new ThreadLocal<>();
+
+    /** Restores the previously bound trigger when closed. */
+    public interface TriggerScope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final MeterRegistry registry;
+    private final int dimensionSampleEvery;
+
+    public MatchMetrics(MeterRegistry registry,
+                        @Value("${app.metrics.dimension-timing.sample-every:100}") int dimensionSampleEvery) {
+        this.registry = registry;
+        this.dimensionSampleEvery = Math.max(0, dimensionSampleEvery);
+    }
+
+    // ── Trigger context ───────────────────────────────────────────────────────
+
+    public TriggerScope withTrigger(MatchTrigger trigger) {
+        MatchTrigger previous = CURRENT_TRIGGER.get();
+        CURRENT_TRIGGER.set(trigger);
+        return () -> {
+            if (previous == null) {
+                CURRENT_TRIGGER.remove();
+            } else {
+                CURRENT_TRIGGER.set(previous);
+            }
+        };
+    }
+
+    public MatchTrigger currentTrigger() {
+        MatchTrigger trigger = CURRENT_TRIGGER.get();
+        return trigger != null ? trigger : MatchTrigger.NONE;
+    }
+
+    private String trigger() {
+        return currentTrigger().tag();
+    }
+
+    // ── Fan-out ───────────────────────────────────────────────────────────────
+
+    /** Records a finished run: duration, counterparts scored and throughput. */
+    public void fanOutFinished(FanOutRun run) {
+        String trigger = run.getTrigger().tag();
+        String side = run.getSide();
+        Duration duration = Duration.between(run.getSubmittedAt(), run.getFinishedAt());
+
+        Timer.builder("match.fanout.duration")
+                .tags("trigger", trigger, "side", side, "state", run.getState().name().toLowerCase())
+                .register(registry)
+                .record(duration);
+        registry.counter("match.fanout.pairs", "trigger", trigger, "side", side).increment(run.getCompleted());
+        if (duration.toMillis() > 0 && run.getCompleted() > 0) {
+            DistributionSummary.builder("match.fanout.pairs.per.second")
+                    .tags("trigger", trigger, "side", side)
+                    .register(registry)
+                    .record(run.getCompleted() * 1000.0 / duration.toMillis());
+        }
+    }
+
+    /** Gauges over the fan-out engine's work queue and its active runs per trigger. */
+    public void registerFanOutGauges(Map<WorkLane, ThreadPoolExecutor> executors,
+                                     Supplier<Collection<FanOutRun>> activeRuns) {
+        executors.forEach((lane, executor) -> Gauge.builder("match.fanout.queue.depth", executor, e -> e.getQueue().size())
+                .description("Fan-out tasks waiting for a worker")
+                .tag("lane", lane.tag())
+                .register(registry));
+        for (MatchTrigger trigger : MatchTrigger.values()) {
+            for (FanOutRun.State state : new FanOutRun.State[]{FanOutRun.State.PENDING, FanOutRun.State.RUNNING}) {
+                Gauge.builder("match.fanout.runs", activeRuns, runs -> runs.get().stream()
+                                .filter(run -> run.getTrigger() == trigger && run.getState() == state)
+                                .count())
+                        .tags("trigger", trigger.tag(), "state", state.name().toLowerCase())
+                        .register(registry);
+            }
+        }
+    }
+
+    // ── Scoring ───────────────────────────────────────────────────────────────
+
+    /** Whether the current evaluation should time its dimensions. */
+    public boolean sampleDimensionTiming() {
+        return dimensionSampleEvery > 0 && ThreadLocalRandom.current().nextInt(dimensionSampleEvery) == 0;
+    }
+
+    public void dimensionScored(String dimensionKey, long nanos) {
+        Timer.builder("match.scoring.dimension.duration")
+                .tags("dimension", dimensionKey, "trigger", trigger())
+                .register(registry)
+                .record(Duration.ofNanos(nanos));
+    }
+
+    // ── I/O ───────────────────────────────────────────────────────────────────
+
+    public void profileClientCall(String method, String outcome, long nanos) {
+        Timer.builder("match.profile.client.requests")
+                .tags("method", method, "outcome", outcome, "trigger", trigger())
+                .register(registry)
+                .record(Duration.ofNanos(nanos));
+    }
+
+    public void scoresWritten(int rows, long nanos) {
+        String trigger = trigger();
+        Timer.builder("match.score.write.duration")
+                .tags("trigger", trigger)
+                .register(registry)
+                .record(Duration.ofNanos(nanos));
+        DistributionSummary.builder("match.score.write.batch.size")
+                .baseUnit("rows")
+                .tags("trigger", trigger)
+                .register(registry)
+                .record(rows);
+    }
+
+    public void pairLockAcquired(String scope, boolean contended, long waitNanos) {
+        String trigger = trigger();
+        registry.counter("match.pair.lock.acquisitions", "scope", scope,
+                "outcome", contended ? "contended" : "uncontended", "trigger", trigger).increment();
+        if (contended) {
+            Timer.builder("match.pair.lock.wait")
+                    .tags("scope", scope, "trigger", trigger)
+                    .register(registry)
+                    .record(Duration.ofNanos(waitNanos));
+        }
+    }
+
+    public void thresholdEvents(int published, int duplicates) {
+        String trigger = trigger();
+        if (published > 0) {
+            registry.counter("match.threshold.events", "trigger", trigger, "outcome", "published").increment(published);
+        }
+        if (duplicates > 0) {
+            registry.counter("match.threshold.events", "trigger", trigger, "outcome", "duplicate").increment(duplicates);
+        }
+    }
+
+    public void notificationFilterChecked(int confirmed, int falsePositives) {
+        registry.counter("match.notification.filter.checks", "result", "confirmed").increment(confirmed);
+        registry.counter("match.notification.filter.checks", "result", "false_positive").increment(falsePositives);
+    }
+}
@@ -0,0 +1,147 @@
+package com.carematchservice.service;
+
+import com.carematchservice.dto.MatchPreviewRequest;
+import com.carematchservice.dto.MatchPreviewResponse;
+import com.carematchservice.dto.PatientProfileDTO;
+import com.carematchservice.dto.ProviderProfileDTO;
+import com.carematchservice.service.scoring.MatchEvaluation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Stateless "preview ranking": the top providers for hypothetical patient criteria,
+ * e.g. during onboarding before a profile exists.
+ *
+ * The provider population (the replica snapshot, or the profile service while the
+ * replica is cold) is compiled into one {@link ProviderBatch} and scored with the
+ * columnar {@link MatchingAlgorithmService#scoreBatch} kernel, which yields the same
+ * totals as a fan-out. Only the returned top N are evaluated pair by pair, for their
+ * explanation and breakdown.
+ *
+ * Nothing is written and no database connection is used: requirement terms are only
+ * looked up in the TermVocabulary loaded at startup (terms it does not know count as
+ * unmet needs and are never registered), and the evaluations resolve no algorithm
+ * version. With a cold replica the providers come from care-profile-service, and their
+ * specializations are looked up the same way.
+ *
+ * The compiled batch is reused until the snapshot changes, and then at most every
+ * {@code app.matching.preview.max-staleness-ms}, so a burst of provider updates does not
+ * recompile it on every request.
+ */
+@Service
+@Slf4j
+public class MatchPreviewService {
+
+    private static final int DEFAULT_LIMIT = 10;
+
+    /** Compiled batch together with the provider list it was compiled from. */
+    private record CompiledSnapshot(List<ProviderProfileDTO> source, ProviderBatch batch, LocalDateTime compiledAt,
+                                    long compiledAtMs) {}
+
+    private final MatchingService matchingService;
+    private final MatchingAlgorithmService matchingAlgorithmService;
+    private final TermVocabulary termVocabulary;
+    private final long maxStalenessMs;
+
+    private volatile CompiledSnapshot compiled;
+
+    public MatchPreviewService(MatchingService matchingService,
+                               MatchingAlgorithmService matchingAlgorithmService,
+                               TermVocabulary termVocabulary,
+                               @Value("${app.matching.preview.max-staleness-ms:5000}") long maxStalenessMs) {
+        this.matchingService = matchingService;
+        this.matchingAlgorithmService = matchingAlgorithmService;
+        this.termVocabulary = termVocabulary;
+        this.maxStalenessMs = Math.max(0, maxStalenessMs);
+    }
+
+    public MatchPreviewResponse preview(MatchPreviewRequest request) {
+        long started = System.nanoTime();
+        int limit = request.getLimit() != null ? request.getLimit() : DEFAULT_LIMIT;
+        PatientProfileDTO patient = request.toPatient();
+
+        CompiledSnapshot snapshot = snapshot();
+        ProviderBatch batch = snapshot.batch();
+        double[] scores = new double[batch.size()];
+        matchingAlgorithmService.scoreBatch(patient, batch, scores);
+
+        // Bounded min-heap of batch positions: worst of the current top N on top
+        Comparator<Integer> worstFirst = Comparator.<Integer>comparingDouble(i -> scores[i])
+                .thenComparing(batch::providerId, Comparator.reverseOrder());
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, worstFirst);
+        int excluded = 0;
+        for (int i = 0; i < scores.length; i++) {
+            if (top.size() == limit && worstFirst.compare(i, top.peek()) <= 0) {
+                continue;
+            }
+            // Checked only for contenders; most providers have no service radius
+            if (CandidatePruner.outsideServiceRadius(patient, batch.provider(i))) {
+                excluded++;
+                continue;
+            }
+            top.add(i);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Integer> ranked = new ArrayList<>(top);
+        ranked.sort(worstFirst.reversed());
+        List<MatchPreviewResponse.Entry> entries = new ArrayList<>(ranked.size());
+        for (int i : ranked) {
+            ProviderProfileDTO provider = batch.provider(i);
+            MatchEvaluation evaluation = matchingAlgorithmService.evaluateUnstored(patient, provider);
+            entries.add(MatchPreviewResponse.Entry.builder()
+                    .providerId(provider.getId())
+                    .facilityName(provider.getFacilityName())
+                    .providerType(provider.getProviderType())
+                    .score(matchingAlgorithmService.roundScore(scores[i]))
+                    .distanceKm(evaluation.getRoundedDistanceKm())
+                    .explanation(evaluation.getExplanation())
+                    .scoreBreakdown(evaluation.getScoreBreakdown())
+                    .build());
+        }
+
+        long tookMs = (System.nanoTime() - started) / 1_000_000;
+        log.debug("Match preview: providers={}, excluded={}, returned={}, took={}ms",
+                batch.size(), excluded, entries.size(), tookMs);
+        return MatchPreviewResponse.builder()
+                .evaluated(batch.size())
+                .excluded(excluded)
+                .snapshotCompiledAt(snapshot.compiledAt())
+                .tookMs(tookMs)
+                .matches(entries)
+                .build();
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private CompiledSnapshot snapshot() {
+        CompiledSnapshot current = compiled;
+        if (current != null && System.currentTimeMillis() - current.compiledAtMs() < maxStalenessMs) {
+            return current;
+        }
+        synchronized (this) {
+            current = compiled;
+            if (current != null && System.currentTimeMillis() - current.compiledAtMs() < maxStalenessMs) {
+                return current;
+            }
+            List<ProviderProfileDTO> providers = matchingService.fetchAllActiveProviders();
+            if (current != null && current.source() == providers) {
+                // Snapshot unchanged; restart the staleness window without recompiling
+                compiled = new CompiledSnapshot(providers, current.batch(), current.compiledAt(), System.currentTimeMillis());
+                return compiled;
+            }
+            long started = System.nanoTime();
+            compiled = new CompiledSnapshot(providers, ProviderBatch.compile(providers, termVocabulary), LocalDateTime.now(),
+                    System.currentTimeMillis());
+            log.info("Preview provider batch compiled: providers={}, took={}ms",
+                    providers.size(), (System.nanoTime() - started) / 1_000_000);
+            return compiled;
+        }
+    }
+}
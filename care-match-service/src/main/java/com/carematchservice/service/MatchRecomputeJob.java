@@ -0,0 +1,401 @@
+package com.carematchservice.service;
+
+import com.carecommon.exception.ValidationException;
+import com.carematchservice.dto.PatientProfileDTO;
+import com.carematchservice.dto.ProviderProfileDTO;
+import com.carematchservice.dto.RecomputeProgress;
+import com.carematchservice.model.RecomputeCheckpoint;
+import com.carematchservice.model.RecomputeCheckpoint.Status;
+import com.carematchservice.repository.MatchScoreBulkWriter.Anchor;
+import com.carematchservice.repository.MatchScoreBulkWriter.ScoredMatch;
+import com.carematchservice.repository.MatchScoreRepository;
+import com.carematchservice.repository.RecomputeCheckpointRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Administrative full-matrix recompute: rescoring every patient against every provider,
+ * e.g. after an algorithm change.
+ *
+ * The provider population is taken once as an in-memory snapshot (the replica, or the
+ * profile service while the replica is cold) and compiled into one candidate index.
+ * Patients are processed in id order, in partitions of {@code app.matching.recompute.partition-size};
+ * the patients of a partition are pruned, scored and bulk-written on
+ * {@code app.matching.recompute.parallelism} workers, each patient in its own short
+ * transaction taken under the bulk {@link WorkLane}'s connection budget (yielding to
+ * interactive work). Pruned pairs lose their stale rows, as in a regular fan-out.
+ *
+ * After every partition the shard's {@link RecomputeCheckpoint} is advanced to the
+ * partition's last patient, so a job that was interrupted (crash, redeploy, cancel) is
+ * resumed by starting it again with the same job id.
+ *
+ * Several instances can share one job: each is started with its own shard index and the
+ * same shard count, and handles only the patients whose id hash falls into its range.
+ *
+ * Progress (pairs per second, ETA) is available for the local shard while it runs and
+ * from the checkpoints for all shards. All work of the job is tagged {@link MatchTrigger#MANUAL}
+ * in MatchMetrics.
+ */
+@Service
+@Slf4j
+public class MatchRecomputeJob {
+
+    /** Ids per delete statement for pruned pairs. */
+    private static final int DELETE_SLICE_SIZE = 1000;
+
+    /** Live state of the shard this instance is working on. */
+    private static final class Run {
+        final RecomputeCheckpoint checkpoint;
+        final long startedNanos = System.nanoTime();
+        final long pairsConsideredBefore;
+        final AtomicLong pairsConsidered = new AtomicLong();
+        final AtomicLong pairsScored = new AtomicLong();
+        final AtomicLong patientsDone = new AtomicLong();
+        final AtomicLong failedPatients = new AtomicLong();
+        volatile boolean cancelled;
+        volatile int providers;
+        volatile long patientsTotal;
+
+        Run(RecomputeCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+            this.pairsConsideredBefore = checkpoint.getPairsConsidered();
+            pairsConsidered.set(checkpoint.getPairsConsidered());
+            pairsScored.set(checkpoint.getPairsScored());
+            patientsDone.set(checkpoint.getPatientsDone());
+            failedPatients.set(checkpoint.getFailedPatients());
+        }
+
+        double pairsPerSecond() {
+            double seconds = (System.nanoTime() - startedNanos) / 1e9;
+            return seconds > 0 ? (pairsConsidered.get() - pairsConsideredBefore) / seconds : 0.0;
+        }
+    }
+
+    private final MatchingService matchingService;
+    private final CandidatePruner candidatePruner;
+    private final MatchScoreRepository matchScoreRepository;
+    private final MatchLeaderboard matchLeaderboard;
+    private final RecomputeCheckpointRepository checkpointRepository;
+    private final MatchMetrics matchMetrics;
+    private final MatchWorkScheduler workScheduler;
+    private final TransactionTemplate patientTransaction;
+    private final int parallelism;
+    private final int partitionSize;
+    private final int maxAttempts;
+
+    private volatile Run current;
+
+    public MatchRecomputeJob(MatchingService matchingService,
+                             CandidatePruner candidatePruner,
+                             MatchScoreRepository matchScoreRepository,
+                             MatchLeaderboard matchLeaderboard,
+                             RecomputeCheckpointRepository checkpointRepository,
+                             MatchMetrics matchMetrics,
+                             MatchWorkScheduler workScheduler,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.matching.recompute.parallelism:0}") int parallelism,
+                             @Value("${app.matching.recompute.partition-size:500}") int partitionSize,
+                             @Value("${app.matching.recompute.max-attempts:3}") int maxAttempts) {
+        this.matchingService = matchingService;
+        this.candidatePruner = candidatePruner;
+        this.matchScoreRepository = matchScoreRepository;
+        this.matchLeaderboard = matchLeaderboard;
+        this.checkpointRepository = checkpointRepository;
+        this.matchMetrics = matchMetrics;
+        this.workScheduler = workScheduler;
+        this.patientTransaction = new TransactionTemplate(transactionManager);
+        this.patientTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.partitionSize = Math.max(1, partitionSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    // ── Control ───────────────────────────────────────────────────────────────
+
+    /**
+     * Starts (or resumes) one shard of a recompute job in the background.
+     *
+     * @param jobId      job to resume or join; {@code null} starts a new job
+     * @param shardIndex this instance's shard, {@code 0 <= shardIndex < shardCount}
+     * @param shardCount number of instances sharing the job
+     */
+    public synchronized RecomputeProgress start(UUID jobId, int shardIndex, int shardCount) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        if (shardCount < 1) errors.put("shardCount", "Must be at least 1");
+        if (shardIndex < 0 || shardIndex >= shardCount) errors.put("shardIndex", "Must be between 0 and shardCount - 1");
+        if (!errors.isEmpty()) {
+            throw new ValidationException("Invalid recompute shard", errors);
+        }
+        if (current != null) {
+            throw new IllegalStateException("A recompute job is already running on this instance: "
+                    + current.checkpoint.getJobId());
+        }
+
+        UUID id = jobId != null ? jobId : UUID.randomUUID();
+        LocalDateTime now = LocalDateTime.now();
+        RecomputeCheckpoint checkpoint = checkpointRepository.findByJobIdAndShardIndex(id, shardIndex)
+                .orElseGet(() -> RecomputeCheckpoint.builder()
+                        .jobId(id).shardIndex(shardIndex).shardCount(shardCount).startedAt(now).build());
+        if (checkpoint.getShardCount() != shardCount) {
+            throw new ValidationException("Invalid recompute shard",
+                    Map.of("shardCount", "Job " + id + " was started with " + checkpoint.getShardCount() + " shards"));
+        }
+        if (checkpoint.getStatus() == Status.COMPLETED) {
+            log.info("Recompute shard already completed: job={}, shard={}/{}", id, shardIndex, shardCount);
+            return toProgress(checkpoint);
+        }
+        checkpoint.setStatus(Status.RUNNING);
+        checkpoint.setUpdatedAt(now);
+        checkpoint.setFinishedAt(null);
+        checkpoint = checkpointRepository.save(checkpoint);
+
+        Run run = new Run(checkpoint);
+        current = run;
+        Thread coordinator = new Thread(() -> execute(run), "match-recompute");
+        coordinator.start();
+        log.info("Recompute shard {}: job={}, shard={}/{}, resumeAfter={}",
+                checkpoint.getLastPatientId() == null ? "started" : "resumed",
+                id, shardIndex, shardCount, checkpoint.getLastPatientId());
+        return toProgress(run);
+    }
+
+    /** Requests the local shard to stop after the partition in progress. */
+    public Optional<RecomputeProgress> cancel() {
+        Run run = current;
+        if (run == null) {
+            return Optional.empty();
+        }
+        run.cancelled = true;
+        return Optional.of(toProgress(run));
+    }
+
+    /** Progress of the shard running on this instance, if any. */
+    public Optional<RecomputeProgress> progress() {
+        Run run = current;
+        return run == null ? Optional.empty() : Optional.of(toProgress(run));
+    }
+
+    /** Progress of every shard of a job, as of their last checkpoints (live for the local shard). */
+    public List<RecomputeProgress> progress(UUID jobId) {
+        Run run = current;
+        List<RecomputeProgress> shards = new ArrayList<>();
+        for (RecomputeCheckpoint checkpoint : checkpointRepository.findByJobIdOrderByShardIndex(jobId)) {
+            boolean local = run != null && run.checkpoint.getId().equals(checkpoint.getId());
+            shards.add(local ? toProgress(run) : toProgress(checkpoint));
+        }
+        return shards;
+    }
+
+    /**
+     * Shard of a patient: the 32-bit hash of its id, split into {@code shardCount}
+     * contiguous ranges.
+     */
+    static int shardOf(UUID patientId, int shardCount) {
+        return (int) (((patientId.hashCode() & 0xffffffffL) * shardCount) >>> 32);
+    }
+
+    // ── Execution ─────────────────────────────────────────────────────────────
+
+    private void execute(Run run) {
+        RecomputeCheckpoint checkpoint = run.checkpoint;
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, r ->
+                new Thread(r, "match-recompute-" + threadNumber.incrementAndGet()));
+        Status terminal = Status.FAILED;
+        try (var scope = matchMetrics.withTrigger(MatchTrigger.MANUAL)) {
+            List<ProviderProfileDTO> providers = List.copyOf(matchingService.fetchAllActiveProviders());
+            if (providers.isEmpty()) {
+                log.warn("Recompute aborted, no active providers: job={}", checkpoint.getJobId());
+                return;
+            }
+            ProviderCandidateIndex index = ProviderCandidateIndex.build(providers);
+
+            UUID resumeAfter = checkpoint.getLastPatientId();
+            List<PatientProfileDTO> shard = matchingService.fetchAllActivePatients().stream()
+                    .filter(p -> shardOf(p.getId(), checkpoint.getShardCount()) == checkpoint.getShardIndex())
+                    .sorted(Comparator.comparing(PatientProfileDTO::getId))
+                    .toList();
+            matchingService.ingestTerms(shard, providers);
+            List<PatientProfileDTO> remaining = resumeAfter == null ? shard : shard.stream()
+                    .filter(p -> p.getId().compareTo(resumeAfter) > 0)
+                    .toList();
+
+            run.providers = providers.size();
+            run.patientsTotal = shard.size();
+            run.patientsDone.set(shard.size() - remaining.size());
+            log.info("Recompute shard running: job={}, shard={}/{}, patients={}, remaining={}, providers={}, parallelism={}",
+                    checkpoint.getJobId(), checkpoint.getShardIndex(), checkpoint.getShardCount(),
+                    shard.size(), remaining.size(), providers.size(), parallelism);
+
+            for (int from = 0; from < remaining.size() && !run.cancelled; from += partitionSize) {
+                List<PatientProfileDTO> partition = remaining.subList(from, Math.min(from + partitionSize, remaining.size()));
+                List<Future<?>> futures = new ArrayList<>(partition.size());
+                for (PatientProfileDTO patient : partition) {
+                    futures.add(workers.submit(() -> recomputePatient(run, patient, index, providers.size())));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                if (run.cancelled) {
+                    break;   // the partial partition is redone on resume
+                }
+                saveCheckpoint(run, partition.get(partition.size() - 1).getId(), Status.RUNNING);
+                RecomputeProgress progress = toProgress(run);
+                log.info("Recompute progress: job={}, shard={}, patients={}/{}, pairs/s={}, eta={}s",
+                        checkpoint.getJobId(), checkpoint.getShardIndex(), progress.getPatientsDone(),
+                        progress.getPatientsTotal(), Math.round(progress.getPairsPerSecond()), progress.getEtaSeconds());
+            }
+            terminal = run.cancelled ? Status.CANCELLED : Status.COMPLETED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            terminal = Status.CANCELLED;
+        } catch (Exception e) {
+            log.error("Recompute shard failed: job={}, shard={}", checkpoint.getJobId(), checkpoint.getShardIndex(), e);
+        } finally {
+            workers.shutdownNow();
+            try {
+                saveCheckpoint(run, checkpoint.getLastPatientId(), terminal);
+            } catch (RuntimeException e) {
+                log.error("Could not save final recompute checkpoint: job={}", checkpoint.getJobId(), e);
+            }
+            current = null;
+            log.info("Recompute shard {}: job={}, shard={}/{}, patients={}, pairsScored={}, failedPatients={}",
+                    terminal, checkpoint.getJobId(), checkpoint.getShardIndex(), checkpoint.getShardCount(),
+                    run.patientsDone.get(), run.pairsScored.get(), run.failedPatients.get());
+        }
+    }
+
+    /** Scores one patient against the snapshot and writes the result, retrying the write on failure. */
+    private void recomputePatient(Run run, PatientProfileDTO patient, ProviderCandidateIndex index, int providerCount) {
+        if (run.cancelled) {
+            return;
+        }
+        UUID patientId = patient.getId();
+        try (var scope = matchMetrics.withTrigger(MatchTrigger.MANUAL)) {
+            CandidatePruner.Selection<ProviderProfileDTO> selection = candidatePruner.selectProviders(patient, index);
+            List<ScoredMatch> scored = new ArrayList<>(selection.candidates().size());
+            for (ProviderProfileDTO provider : selection.candidates()) {
+                scored.add(matchingService.score(patient, provider));
+            }
+            List<UUID> prunedIds = selection.pruned().stream().map(ProviderProfileDTO::getId).toList();
+
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    workScheduler.run(WorkLane.BULK, () -> patientTransaction.executeWithoutResult(status -> {
+                        for (int from = 0; from < prunedIds.size(); from += DELETE_SLICE_SIZE) {
+                            matchScoreRepository.deleteByPatientIdAndProviderIdIn(patientId,
+                                    prunedIds.subList(from, Math.min(from + DELETE_SLICE_SIZE, prunedIds.size())));
+                        }
+                        if (!prunedIds.isEmpty()) {
+                            matchLeaderboard.pairsRemovedForPatient(patientId, prunedIds);
+                        }
+                        matchingService.persistAndNotify(scored, Anchor.PATIENT, matchingService.storedRowsOf(Anchor.PATIENT, patientId));
+                    }));
+                    break;
+                } catch (RuntimeException e) {
+                    if (attempt >= maxAttempts || run.cancelled) throw e;
+                    log.warn("Recompute write failed, retrying (attempt {}/{}): patientId={}, cause={}",
+                            attempt, maxAttempts, patientId, e.getMessage());
+                }
+            }
+            run.pairsScored.addAndGet(scored.size());
+        } catch (Exception e) {
+            run.failedPatients.incrementAndGet();
+            log.error("Recompute failed for patientId={}", patientId, e);
+        }
+        run.pairsConsidered.addAndGet(providerCount);
+        run.patientsDone.incrementAndGet();
+    }
+
+    private void saveCheckpoint(Run run, UUID lastPatientId, Status status) {
+        RecomputeCheckpoint checkpoint = run.checkpoint;
+        LocalDateTime now = LocalDateTime.now();
+        checkpoint.setStatus(status);
+        checkpoint.setLastPatientId(lastPatientId);
+        checkpoint.setPatientsTotal(run.patientsTotal);
+        checkpoint.setProviders(run.providers);
+        checkpoint.setPatientsDone(run.patientsDone.get());
+        checkpoint.setPairsConsidered(run.pairsConsidered.get());
+        checkpoint.setPairsScored(run.pairsScored.get());
+        checkpoint.setFailedPatients(run.failedPatients.get());
+        checkpoint.setPairsPerSecond(run.pairsPerSecond());
+        checkpoint.setUpdatedAt(now);
+        if (status != Status.RUNNING) {
+            checkpoint.setFinishedAt(now);
+        }
+        checkpointRepository.save(checkpoint);
+    }
+
+    // ── Reporting ─────────────────────────────────────────────────────────────
+
+    private RecomputeProgress toProgress(Run run) {
+        RecomputeCheckpoint checkpoint = run.checkpoint;
+        double rate = run.pairsPerSecond();
+        return RecomputeProgress.builder()
+                .jobId(checkpoint.getJobId())
+                .shardIndex(checkpoint.getShardIndex())
+                .shardCount(checkpoint.getShardCount())
+                .status(run.cancelled ? "CANCELLING" : Status.RUNNING.name())
+                .patientsTotal(run.patientsTotal)
+                .patientsDone(run.patientsDone.get())
+                .failedPatients(run.failedPatients.get())
+                .providers(run.providers)
+                .pairsConsidered(run.pairsConsidered.get())
+                .pairsScored(run.pairsScored.get())
+                .pairsPerSecond(rate)
+                .etaSeconds(eta(run.patientsTotal - run.patientsDone.get(), run.providers, rate))
+                .startedAt(checkpoint.getStartedAt())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static RecomputeProgress toProgress(RecomputeCheckpoint checkpoint) {
+        double rate = checkpoint.getPairsPerSecond() != null ? checkpoint.getPairsPerSecond() : 0.0;
+        Long eta = checkpoint.getStatus() == Status.RUNNING
+                ? eta(checkpoint.getPatientsTotal() - checkpoint.getPatientsDone(), checkpoint.getProviders(), rate)
+                : null;
+        return RecomputeProgress.builder()
+                .jobId(checkpoint.getJobId())
+                .shardIndex(checkpoint.getShardIndex())
+                .shardCount(checkpoint.getShardCount())
+                .status(checkpoint.getStatus().name())
+                .patientsTotal(checkpoint.getPatientsTotal())
+                .patientsDone(checkpoint.getPatientsDone())
+                .failedPatients(checkpoint.getFailedPatients())
+                .providers(checkpoint.getProviders())
+                .pairsConsidered(checkpoint.getPairsConsidered())
+                .pairsScored(checkpoint.getPairsScored())
+                .pairsPerSecond(rate)
+                .etaSeconds(eta)
+                .startedAt(checkpoint.getStartedAt())
+                .updatedAt(checkpoint.getUpdatedAt())
+                .finishedAt(checkpoint.getFinishedAt())
+                .build();
+    }
+
+    private static Long eta(long remainingPatients, int providers, double pairsPerSecond) {
+        if (pairsPerSecond <= 0) {
+            return null;
+        }
+        return Math.round(Math.max(0, remainingPatients) * (double) providers / pairsPerSecond);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        Run run = current;
+        if (run != null) {
+            run.cancelled = true;
+        }
+    }
+}
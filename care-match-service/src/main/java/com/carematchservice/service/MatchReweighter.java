@@ -0,0 +1,250 @@
+package com.carematchservice.service;
+
+import com.carecommon.exception.ValidationException;
+import com.carematchservice.dto.ReweightPreviewResponse;
+import com.carematchservice.repository.MatchScoreBulkWriter;
+import com.carematchservice.repository.MatchScoreBulkWriter.Anchor;
+import com.carematchservice.repository.MatchScoreBulkWriter.ReweightedSlice;
+import com.carematchservice.repository.MatchScoreBulkWriter.StoredBreakdown;
+import com.carematchservice.service.scoring.ScoringDimension;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+/**
+ * Re-weighting of stored matches without rescoring them.
+ *
+ * Every {@code match_scores} row keeps its per-dimension scores in {@code dimension_scores},
+ * and the total is only their weighted sum. A weight change therefore needs neither
+ * profile fetches nor dimension scoring:
+ *   - {@link #reweightAll} applies the configured {@code matching.weights.*} to every
+ *     stored row in one pass of set-based UPDATEs over id-ordered slices, each committed
+ *     in its own transaction in the bulk {@link WorkLane}. Rows move to the algorithm
+ *     version of the new weights; rows already stored under it are skipped, so a run that
+ *     was interrupted can simply be started again. Rows of versions with other dimensions,
+ *     and rows still in the legacy jsonb format, need a rescore (MatchRecomputeJob).
+ *   - {@link #previewForPatient} / {@link #previewForProvider} re-rank one anchor's
+ *     matches under ad-hoc weights in memory and persist nothing.
+ *
+ * Re-weighted rows are applied to the leaderboards after each slice commits. Threshold
+ * notifications are not sent for re-weighted rows.
+ */
+@Service
+@Slf4j
+public class MatchReweighter {
+
+    private static final int DEFAULT_PREVIEW_LIMIT = 20;
+    private static final int MAX_PREVIEW_LIMIT = 200;
+
+    private static final UUID BEFORE_FIRST_ID = new UUID(0L, 0L);
+
+    /** Result of a {@link #reweightAll} run. */
+    public record ReweightSummary(Map<String, Integer> weights, int rowsReweighted, int slices, long tookMs) {}
+
+    private final MatchingAlgorithmService matchingAlgorithmService;
+    private final AlgorithmVersions algorithmVersions;
+    private final MatchScoreBulkWriter matchScoreBulkWriter;
+    private final MatchLeaderboard matchLeaderboard;
+    private final MatchWorkScheduler workScheduler;
+    private final TransactionTemplate sliceTransaction;
+    private final int sliceSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public MatchReweighter(MatchingAlgorithmService matchingAlgorithmService,
+                           AlgorithmVersions algorithmVersions,
+                           MatchScoreBulkWriter matchScoreBulkWriter,
+                           MatchLeaderboard matchLeaderboard,
+                           MatchWorkScheduler workScheduler,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.matching.reweight.slice-size:5000}") int sliceSize) {
+        this.matchingAlgorithmService = matchingAlgorithmService;
+        this.algorithmVersions = algorithmVersions;
+        this.matchScoreBulkWriter = matchScoreBulkWriter;
+        this.matchLeaderboard = matchLeaderboard;
+        this.workScheduler = workScheduler;
+        this.sliceTransaction = new TransactionTemplate(transactionManager);
+        this.sliceTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.sliceSize = Math.max(1, sliceSize);
+    }
+
+    // ── Population-wide ───────────────────────────────────────────────────────
+
+    /**
+     * Rewrites score and algorithm version of every stored match not yet stored under the
+     * configured weights. Runs synchronously; only one run at a time.
+     */
+    @CacheEvict(value = "matchScores", allEntries = true)
+    public ReweightSummary reweightAll() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A re-weighting run is already in progress");
+        }
+        try {
+            List<ScoringDimension> dimensions = matchingAlgorithmService.getDimensions();
+            String[] keys = dimensions.stream().map(ScoringDimension::key).toArray(String[]::new);
+            int[] weights = dimensions.stream().mapToInt(ScoringDimension::weight).toArray();
+            Map<String, Integer> weightMap = weightMap(keys, weights);
+            int toVersion = algorithmVersions.idFor(keys, weights);
+            int[] fromVersions = algorithmVersions.all().stream()
+                    .filter(v -> v.id() != toVersion && v.keys().equals(List.of(keys)))
+                    .mapToInt(AlgorithmVersions.Definition::id)
+                    .toArray();
+            if (fromVersions.length == 0) {
+                log.info("Re-weighting skipped: no stored version with weights other than {}", weightMap);
+                return new ReweightSummary(weightMap, 0, 0, 0);
+            }
+            log.info("Re-weighting stored matches: weights={}, version={}, fromVersions={}, sliceSize={}",
+                    weightMap, toVersion, Arrays.toString(fromVersions), sliceSize);
+
+            long started = System.nanoTime();
+            LocalDateTime now = LocalDateTime.now();
+            UUID afterId = BEFORE_FIRST_ID;
+            int rows = 0, slices = 0;
+            while (afterId != null) {
+                UUID from = afterId;
+                ReweightedSlice slice = workScheduler.call(WorkLane.BULK, () -> sliceTransaction.execute(status -> {
+                    ReweightedSlice result = matchScoreBulkWriter.reweightSlice(
+                            weights, toVersion, fromVersions, from, sliceSize, now);
+                    matchLeaderboard.scoresChanged(result.rows());
+                    return result;
+                }));
+                rows += slice.rows().size();
+                slices++;
+                afterId = slice.lastId();
+                log.debug("Re-weighted slice {}: rows={}, lastId={}", slices, slice.rows().size(), afterId);
+            }
+
+            long tookMs = Duration.ofNanos(System.nanoTime() - started).toMillis();
+            log.info("Re-weighting finished: rows={}, slices={}, took={}ms", rows, slices, tookMs);
+            return new ReweightSummary(weightMap, rows, slices, tookMs);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // ── Preview (nothing persisted) ───────────────────────────────────────────
+
+    public ReweightPreviewResponse previewForPatient(UUID patientId, Map<String, Integer> weights, Integer limit) {
+        return preview(Anchor.PATIENT, patientId, weights, limit);
+    }
+
+    public ReweightPreviewResponse previewForProvider(UUID providerId, Map<String, Integer> weights, Integer limit) {
+        return preview(Anchor.PROVIDER, providerId, weights, limit);
+    }
+
+    private ReweightPreviewResponse preview(Anchor anchor, UUID anchorId, Map<String, Integer> requested, Integer limit) {
+        List<ScoringDimension> dimensions = matchingAlgorithmService.getDimensions();
+        List<String> keys = dimensions.stream().map(ScoringDimension::key).toList();
+        int[] weights = previewWeights(dimensions, requested);
+        int weightSum = Arrays.stream(weights).sum();
+        int resultSize = limit == null ? DEFAULT_PREVIEW_LIMIT : Math.max(1, Math.min(limit, MAX_PREVIEW_LIMIT));
+
+        List<StoredBreakdown> stored = matchScoreBulkWriter.storedBreakdowns(anchor, anchorId, keys);
+        List<StoredBreakdown> complete = new ArrayList<>(stored.size());
+        List<BigDecimal> previewScores = new ArrayList<>(stored.size());
+        for (StoredBreakdown row : stored) {
+            double total = 0.0;
+            boolean missing = false;
+            for (int i = 0; i < weights.length; i++) {
+                double score = row.dimensionScores()[i];
+                missing |= Double.isNaN(score);
+                total += score * weights[i];
+            }
+            if (missing) continue;
+            // Ad-hoc weights need not sum to 100; keep scores on the 0–100 scale
+            if (weightSum != 100) total = total * 100.0 / weightSum;
+            complete.add(row);
+            previewScores.add(matchingAlgorithmService.roundScore(total));
+        }
+
+        Integer[] byStored = ranking(complete.size(), i -> complete.get(i).score(), complete);
+        Integer[] byPreview = ranking(complete.size(), previewScores::get, complete);
+        int[] storedRank = new int[complete.size()];
+        for (int rank = 0; rank < byStored.length; rank++) {
+            storedRank[byStored[rank]] = rank + 1;
+        }
+
+        List<ReweightPreviewResponse.Entry> entries = new ArrayList<>(Math.min(resultSize, complete.size()));
+        for (int rank = 0; rank < Math.min(resultSize, byPreview.length); rank++) {
+            int i = byPreview[rank];
+            entries.add(ReweightPreviewResponse.Entry.builder()
+                    .counterpartId(complete.get(i).counterpartId())
+                    .storedScore(complete.get(i).score())
+                    .storedRank(storedRank[i])
+                    .previewScore(previewScores.get(i))
+                    .previewRank(rank + 1)
+                    .rankChange(storedRank[i] - (rank + 1))
+                    .build());
+        }
+
+        return ReweightPreviewResponse.builder()
+                .anchorType(anchor.name())
+                .anchorId(anchorId)
+                .weights(weightMap(keys.toArray(String[]::new), weights))
+                .evaluated(complete.size())
+                .skipped(stored.size() - complete.size())
+                .matches(entries)
+                .build();
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /** Configured weights overridden by the requested ones, in dimension order. */
+    private static int[] previewWeights(List<ScoringDimension> dimensions, Map<String, Integer> requested) {
+        Map<String, Integer> overrides = requested != null ? requested : Map.of();
+        Map<String, String> errors = new LinkedHashMap<>();
+        Set<String> known = new HashSet<>();
+        int[] weights = new int[dimensions.size()];
+        for (int i = 0; i < weights.length; i++) {
+            ScoringDimension dimension = dimensions.get(i);
+            known.add(dimension.key());
+            Integer weight = overrides.getOrDefault(dimension.key(), dimension.weight());
+            if (weight == null || weight < 0) {
+                errors.put(dimension.key(), "Weight must be zero or positive");
+            } else {
+                weights[i] = weight;
+            }
+        }
+        for (String key : overrides.keySet()) {
+            if (!known.contains(key)) {
+                errors.put(key, "Unknown scoring dimension");
+            }
+        }
+        if (errors.isEmpty() && Arrays.stream(weights).sum() == 0) {
+            errors.put("weights", "At least one weight must be positive");
+        }
+        if (!errors.isEmpty()) {
+            throw new ValidationException("Invalid preview weights", errors);
+        }
+        return weights;
+    }
+
+    /** Row indexes ordered by descending score, ties by counterpart id. */
+    private static Integer[] ranking(int size, IntFunction<BigDecimal> scoreOf,
+                                     List<StoredBreakdown> rows) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        Arrays.sort(order, Comparator.<Integer, BigDecimal>comparing(scoreOf::apply).reversed()
+                .thenComparing(i -> rows.get(i).counterpartId()));
+        return order;
+    }
+
+    private static Map<String, Integer> weightMap(String[] keys, int[] weights) {
+        Map<String, Integer> map = new LinkedHashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            map.put(keys[i], weights[i]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,92 @@
+package com.carematchservice.service;
+
+import com.carematchservice.model.MatchScore;
+import com.carematchservice.service.scoring.MatchBreakdownCodec;
+import com.carematchservice.service.scoring.MatchEvaluation;
+import com.carematchservice.service.scoring.ScoringDimension;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Renders the API view of a stored match — explanation and score breakdown — from its
+ * compact columns: the quantized dimension scores, the explanation facts and the
+ * algorithm version they were scored under. The rendered explanation is the one
+ * {@link MatchEvaluation#getExplanation} produced when the row was scored; score and
+ * summary follow the stored total, so re-weighted rows need no text rewrite.
+ *
+ * Rows still in the legacy format (jsonb explanation and breakdown, no algorithm version)
+ * are returned as stored until they are rescored.
+ */
+@Component
+public class MatchScoreRenderer {
+
+    private final MatchingAlgorithmService matchingAlgorithmService;
+    private final AlgorithmVersions algorithmVersions;
+
+    public MatchScoreRenderer(MatchingAlgorithmService matchingAlgorithmService,
+                              AlgorithmVersions algorithmVersions) {
+        this.matchingAlgorithmService = matchingAlgorithmService;
+        this.algorithmVersions = algorithmVersions;
+    }
+
+    public Map<String, Object> explanation(MatchScore match) {
+        AlgorithmVersions.Definition version = compactVersion(match);
+        if (version == null) {
+            return match.getLegacyExplanation();
+        }
+        int dimensionCount = version.keys().size();
+        List<ScoringDimension> dimensions = new ArrayList<>(dimensionCount);
+        for (String key : version.keys()) {
+            dimensions.add(matchingAlgorithmService.dimension(key));
+        }
+        return MatchEvaluation.renderExplanation(dimensions,
+                MatchBreakdownCodec.dequantize(match.getDimensionScores()),
+                MatchBreakdownCodec.unpackFacts(match.getExplanationFacts(), dimensionCount),
+                match.getScore());
+    }
+
+    /**
+     * {@code <key>Score} per dimension, 0.0–1.0, as stored: rounded to 1/10000, so the values
+     * have at most four decimals (2/3 → 0.6667). Part of the response contract of every
+     * stored or on-demand match; the preview endpoint returns unrounded scores.
+     */
+    public Map<String, Double> scoreBreakdown(MatchScore match) {
+        AlgorithmVersions.Definition version = compactVersion(match);
+        if (version == null) {
+            return legacyBreakdown(match.getLegacyScoreBreakdown());
+        }
+        short[] scores = match.getDimensionScores();
+        Map<String, Double> breakdown = new HashMap<>();
+        for (int i = 0; i < version.keys().size(); i++) {
+            breakdown.put(version.keys().get(i) + "Score", MatchBreakdownCodec.dequantize(scores[i]));
+        }
+        return breakdown;
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /** The row's version when it is stored in the compact format, else {@code null}. */
+    private AlgorithmVersions.Definition compactVersion(MatchScore match) {
+        if (match.getAlgorithmVersion() == null || match.getDimensionScores() == null) {
+            return null;
+        }
+        AlgorithmVersions.Definition version = algorithmVersions.definition(match.getAlgorithmVersion());
+        if (version == null || version.keys().size() != match.getDimensionScores().length) {
+            throw new IllegalStateException("Match " + match.getId() + " references unknown algorithm version "
+                    + match.getAlgorithmVersion());
+        }
+        return version;
+    }
+
+    private static Map<String, Double> legacyBreakdown(Map<String, Object> stored) {
+        if (stored == null) return null;
+        Map<String, Double> result = new HashMap<>();
+        stored.forEach((k, v) -> {
+            if (v instanceof Number) {
+                result.put(k, ((Number) v).doubleValue());
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,17 @@
+package com.carematchservice.service;
+
+/** What caused a piece of matching work; the {@code trigger} tag of the match metrics. */
+public enum MatchTrigger {
+    /** profile.created event */
+    CREATED,
+    /** profile.updated event */
+    UPDATED,
+    /** API call: single-pair calculation, recalculation endpoints, recompute job */
+    MANUAL,
+    /** Work outside any trigger, e.g. replica reconciliation or read-path fetches */
+    NONE;
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,136 @@
+package com.carematchservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Priority-aware admission for work that holds a database connection.
+ *
+ * Interactive, event-driven and bulk work share one Hikari pool. Each {@link WorkLane}
+ * gets its own budget of concurrent connections ({@code app.matching.lanes.<lane>.connections});
+ * a unit of work (one chunk transaction, one single-pair calculation) takes a permit of
+ * its lane for as long as it holds its connection. A fan-out storm can therefore use up
+ * its own budget but never the connections reserved for interactive requests. The
+ * budgets should add up to less than the pool size, leaving room for reads.
+ *
+ * Bulk work yields: before a bulk unit starts, it waits (in slices of
+ * {@code app.matching.lanes.bulk.yield-slice-ms}, at most {@code max-yield-ms}) while
+ * interactive work is in flight. Bulk units are short transactions, so this preempts bulk
+ * jobs between units without aborting any.
+ *
+ * Metrics: {@code match.lane.wait} (time to obtain a permit, per lane) and
+ * {@code match.lane.in.use} (permits held, per lane).
+ */
+@Service
+@Slf4j
+public class MatchWorkScheduler {
+
+    private final Map<WorkLane, Semaphore> budgets = new EnumMap<>(WorkLane.class);
+    private final Map<WorkLane, Integer> budgetSizes = new EnumMap<>(WorkLane.class);
+    private final Map<WorkLane, Timer> waitTimers = new EnumMap<>(WorkLane.class);
+    private final AtomicInteger interactiveInFlight = new AtomicInteger();
+    private final long acquireTimeoutMs;
+    private final long yieldSliceMs;
+    private final long maxYieldMs;
+
+    public MatchWorkScheduler(MeterRegistry meterRegistry,
+                              @Value("${app.matching.lanes.interactive.connections:6}") int interactiveConnections,
+                              @Value("${app.matching.lanes.event.connections:16}") int eventConnections,
+                              @Value("${app.matching.lanes.bulk.connections:4}") int bulkConnections,
+                              @Value("${app.matching.lanes.acquire-timeout-ms:30000}") long acquireTimeoutMs,
+                              @Value("${app.matching.lanes.bulk.yield-slice-ms:50}") long yieldSliceMs,
+                              @Value("${app.matching.lanes.bulk.max-yield-ms:5000}") long maxYieldMs,
+                              @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        budgetSizes.put(WorkLane.INTERACTIVE, Math.max(1, interactiveConnections));
+        budgetSizes.put(WorkLane.EVENT, Math.max(1, eventConnections));
+        budgetSizes.put(WorkLane.BULK, Math.max(1, bulkConnections));
+        this.acquireTimeoutMs = Math.max(0, acquireTimeoutMs);
+        this.yieldSliceMs = Math.max(1, yieldSliceMs);
+        this.maxYieldMs = Math.max(0, maxYieldMs);
+
+        for (WorkLane lane : WorkLane.values()) {
+            Semaphore budget = new Semaphore(budgetSizes.get(lane), true);
+            budgets.put(lane, budget);
+            waitTimers.put(lane, Timer.builder("match.lane.wait").tag("lane", lane.tag()).register(meterRegistry));
+            Gauge.builder("match.lane.in.use", budget, b -> budgetSizes.get(lane) - b.availablePermits())
+                    .tag("lane", lane.tag())
+                    .register(meterRegistry);
+        }
+
+        int total = budgetSizes.values().stream().mapToInt(Integer::intValue).sum();
+        if (total > poolSize) {
+            log.warn("Lane connection budgets ({}) exceed the connection pool size ({}); lanes can still starve each other",
+                    total, poolSize);
+        }
+        log.info("Match work lanes: budgets={}, poolSize={}", budgetSizes, poolSize);
+    }
+
+    /**
+     * Runs the work holding one connection permit of the lane. Bulk work first yields to
+     * in-flight interactive work.
+     *
+     * @throws IllegalStateException when no permit became free within {@code app.matching.lanes.acquire-timeout-ms}
+     */
+    public <T> T call(WorkLane lane, Supplier<T> work) {
+        boolean interactive = lane == WorkLane.INTERACTIVE;
+        if (interactive) {
+            interactiveInFlight.incrementAndGet();
+        }
+        try {
+            if (lane == WorkLane.BULK) {
+                yieldToInteractive();
+            }
+            Semaphore budget = budgets.get(lane);
+            long started = System.nanoTime();
+            if (!budget.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("No " + lane.tag() + " connection budget available within "
+                        + acquireTimeoutMs + "ms");
+            }
+            waitTimers.get(lane).record(Duration.ofNanos(System.nanoTime() - started));
+            try {
+                return work.get();
+            } finally {
+                budget.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + lane.tag() + " connection budget", e);
+        } finally {
+            if (interactive) {
+                interactiveInFlight.decrementAndGet();
+            }
+        }
+    }
+
+    public void run(WorkLane lane, Runnable work) {
+        call(lane, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public int interactiveInFlight() {
+        return interactiveInFlight.get();
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private void yieldToInteractive() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxYieldMs);
+        while (interactiveInFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(yieldSliceMs);
+        }
+    }
+}
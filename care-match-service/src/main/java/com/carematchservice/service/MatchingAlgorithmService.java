@@ -2,8 +2,9 @@ package com.carematchservice.service;
 
 import com.carematchservice.dto.PatientProfileDTO;
 import com.carematchservice.dto.ProviderProfileDTO;
+import com.carematchservice.service.scoring.*;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -26,414 +27,357 @@ import java.util.*;
  * └──────────────────────────────────┴────────────────┴─────────────────┘
  * The tier dimension ensures PREMIUM patients are matched primarily with PREMIUM providers,
  * improving relevance for both parties and reducing offer rejection rates.
+ *
+ * Each dimension is a {@link ScoringDimension} bean (see the service.scoring package);
+ * {@link #evaluate} runs all of them in one pass and derives score, breakdown and
+ * explanation from the same per-dimension results. A sample of evaluations is timed
+ * per dimension ({@code match.scoring.dimension.duration}, see MatchMetrics).
  */
 @Service
 @Slf4j
 public class MatchingAlgorithmService {
 
-    // ── existing weight config ────────────────────────────────────────────────
-    @Value("${matching.weights.care-level}")
-    private int careLevelWeight;
-
-    @Value("${matching.weights.distance}")
-    private int distanceWeight;
-
-    @Value("${matching.weights.specialization}")
-    private int specializationWeight;
-
-    @Value("${matching.weights.lifestyle}")
-    private int lifestyleWeight;
-
-    @Value("${matching.weights.social}")
-    private int socialWeight;
-
-    // ── new weight config (add to application.properties) ────────────────────
-    // matching.weights.tier=15
-    // matching.weights.quality=5
-    @Value("${matching.weights.tier:15}")
-    private int tierWeight;
+    private static final Set<String> BUILT_IN_KEYS = Set.of(
+            CareLevelDimension.KEY, DistanceDimension.KEY, SpecializationDimension.KEY,
+            TierDimension.KEY, LifestyleDimension.KEY, SocialDimension.KEY, QualityDimension.KEY);
+
+    /**
+     * Best tier score per patient tier (row, see ProviderBatch.TIER_*) and provider
+     * tier bitmask (column), precomputed from TierDimension for the batch kernel.
+     */
+    private static final double[][] TIER_SCORE_BY_MASK = buildTierScoreTable();
+
+    /** All dimensions in {@code @Order} sequence. */
+    private final List<ScoringDimension> dimensions;
+    private final Map<String, ScoringDimension> dimensionsByKey;
+    /** Dimensions without a columnar implementation in {@link #scoreBatch}. */
+    private final List<ScoringDimension> extensionDimensions;
+
+    private final String[] keys;
+    private final int[] weights;
+
+    /** {@code null} outside the application context (e.g. benchmarks). */
+    private final MatchMetrics matchMetrics;
+    /** {@code null} outside the application context (e.g. benchmarks). */
+    private final AlgorithmVersions algorithmVersions;
+    /** Id of the configured keys and weights; registered on first use. */
+    private volatile Integer algorithmVersion;
+
+    public MatchingAlgorithmService(List<ScoringDimension> dimensions) {
+        this(dimensions, null, null);
+    }
 
-    @Value("${matching.weights.quality:5}")
-    private int qualityWeight;
+    @Autowired
+    public MatchingAlgorithmService(List<ScoringDimension> dimensions, MatchMetrics matchMetrics,
+                                    AlgorithmVersions algorithmVersions) {
+        this.matchMetrics = matchMetrics;
+        this.algorithmVersions = algorithmVersions;
+        this.dimensions = List.copyOf(dimensions);
+        this.dimensionsByKey = new LinkedHashMap<>();
+        for (ScoringDimension dimension : this.dimensions) {
+            if (dimensionsByKey.put(dimension.key(), dimension) != null) {
+                throw new IllegalStateException("Duplicate scoring dimension key: " + dimension.key());
+            }
+        }
+        this.extensionDimensions = this.dimensions.stream()
+                .filter(d -> !BUILT_IN_KEYS.contains(d.key()))
+                .toList();
+        this.keys = this.dimensions.stream().map(ScoringDimension::key).toArray(String[]::new);
+        this.weights = this.dimensions.stream().mapToInt(ScoringDimension::weight).toArray();
+        log.info("Matching algorithm initialised with dimensions={}, weights={}",
+                Arrays.toString(keys), Arrays.toString(weights));
+    }
 
     // ─────────────────────────────────────────────────────────────────────────
-    // calculateMatchScore — updated: 7 dimensions, total still sums to 100
+    // evaluate — single fused pass over every scoring dimension
     //
-    // Old weights:  careLevel=30, distance=20, specialization=20, lifestyle=20, social=10
-    // New weights:  careLevel=25, distance=20, specialization=20, tier=15, lifestyle=10, social=5, quality=5
-    //
-    // NOTE: The existing @Value fields for careLevelWeight etc. now read from
-    // the updated application.properties values (25, 10, 5). No code change
-    // needed here — the math stays the same, the config values change.
+    // Each dimension is scored exactly once; the weighted total, the breakdown,
+    // the explanation facts and the distance all come from that pass (the
+    // haversine is computed at most once, inside MatchContext). Explanation
+    // text is rendered from the facts only when it is asked for.
     // ─────────────────────────────────────────────────────────────────────────
-    public BigDecimal calculateMatchScore(PatientProfileDTO patient, ProviderProfileDTO provider) {
-        double totalScore = 0.0;
-        Map<String, Double> breakdown = new HashMap<>();
-
-        // 1. Care Level Compatibility (25%)
-        double careLevelScore = calculateCareLevelScore(patient, provider);
-        totalScore += careLevelScore * careLevelWeight;
-        breakdown.put("careLevel", careLevelScore);
-
-        // 2. Distance (20%)
-        double distanceScore = calculateDistanceScore(patient, provider);
-        totalScore += distanceScore * distanceWeight;
-        breakdown.put("distance", distanceScore);
-
-        // 3. Specialization Match (20%)
-        double specializationScore = calculateSpecializationScore(patient, provider);
-        totalScore += specializationScore * specializationWeight;
-        breakdown.put("specialization", specializationScore);
-
-        // 4. Care Service Tier Compatibility (15%) — NEW
-        double tierScore = calculateTierScore(patient, provider);
-        totalScore += tierScore * tierWeight;
-        breakdown.put("tier", tierScore);
-
-        // 5. Lifestyle Compatibility (10%)
-        double lifestyleScore = calculateLifestyleScore(patient, provider);
-        totalScore += lifestyleScore * lifestyleWeight;
-        breakdown.put("lifestyle", lifestyleScore);
-
-        // 6. Social Compatibility (5%)
-        double socialScore = calculateSocialScore(patient, provider);
-        totalScore += socialScore * socialWeight;
-        breakdown.put("social", socialScore);
-
-        // 7. Quality Indicators (5%) — NEW
-        double qualityScore = calculateQualityScore(patient, provider);
-        totalScore += qualityScore * qualityWeight;
-        breakdown.put("quality", qualityScore);
-
-        log.debug("Match score calculated: patient={}, provider={}, score={}, breakdown={}",
-                patient.getId(), provider.getId(), totalScore, breakdown);
-
-        return BigDecimal.valueOf(totalScore).setScale(2, RoundingMode.HALF_UP);
+    public MatchEvaluation evaluate(PatientProfileDTO patient, ProviderProfileDTO provider) {
+        return evaluate(patient, provider, algorithmVersion());
     }
 
-    // ─────────────────────────────────────────────────────────────────────────
-    // generateExplanation — updated to include tier and quality reasons
-    // ─────────────────────────────────────────────────────────────────────────
-    public Map<String, Object> generateExplanation(
-            PatientProfileDTO patient,
-            ProviderProfileDTO provider,
-            BigDecimal score) {
-
-        Map<String, Object> explanation = new HashMap<>();
-        List<String> strengths  = new ArrayList<>();
-        List<String> weaknesses = new ArrayList<>();
-
-        // Care Level
-        if (patient.getCareLevel() != null) {
-            double cs = calculateCareLevelScore(patient, provider);
-            if (cs >= 0.8) {
-                strengths.add(String.format("Care level %d: provider is fully certified for this Pflegegrad",
-                        patient.getCareLevel()));
-            } else if (cs >= 0.5) {
-                strengths.add(String.format("Care level %d: provider accepts adjacent Pflegegrad",
-                        patient.getCareLevel()));
-            } else {
-                weaknesses.add(String.format("Care level %d: provider may not be certified for this Pflegegrad",
-                        patient.getCareLevel()));
-            }
-        }
+    /**
+     * Like {@link #evaluate}, for results that are never stored (match previews): the
+     * algorithm version is left unresolved, so no version is looked up or registered.
+     */
+    public MatchEvaluation evaluateUnstored(PatientProfileDTO patient, ProviderProfileDTO provider) {
+        return evaluate(patient, provider, null);
+    }
 
-        // Distance
-        if (patient.getLatitude() != null && patient.getLongitude() != null
-                && provider.getLatitude() != null && provider.getLongitude() != null) {
-            double distance = calculateDistance(
-                    patient.getLatitude(), patient.getLongitude(),
-                    provider.getLatitude(), provider.getLongitude());
-            String distanceMsg = String.format("Located %.1f km away", distance);
-            if (distance <= 25) {
-                strengths.add(distanceMsg);
-            } else {
-                weaknesses.add(distanceMsg);
-            }
-        }
+    private MatchEvaluation evaluate(PatientProfileDTO patient, ProviderProfileDTO provider, Integer algorithmVersion) {
+        MatchContext context = new MatchContext(patient, provider);
+        double[] dimensionScores = new double[dimensions.size()];
+        int[][] explanationFacts = new int[dimensions.size()][];
 
-        // Specializations
-        if (patient.getMedicalRequirements() != null && provider.getSpecializations() != null) {
-            Set<String> patientNeeds = extractMedicalRequirements(patient.getMedicalRequirements());
-            Set<String> providerSpecs = new HashSet<>(provider.getSpecializations());
-            Set<String> matches = new HashSet<>(patientNeeds);
-            matches.retainAll(providerSpecs);
-            if (!matches.isEmpty()) {
-                strengths.add("Specialized in: " + String.join(", ", matches));
+        boolean timed = matchMetrics != null && matchMetrics.sampleDimensionTiming();
+        double totalScore = 0.0;
+        for (int i = 0; i < dimensionScores.length; i++) {
+            ScoringDimension dimension = dimensions.get(i);
+            long started = timed ? System.nanoTime() : 0L;
+            double dimensionScore = dimension.score(context);
+            dimensionScores[i] = dimensionScore;
+            totalScore += dimensionScore * weights[i];
+            explanationFacts[i] = dimension.explanationFacts(context, dimensionScore);
+            if (timed) {
+                matchMetrics.dimensionScored(keys[i], System.nanoTime() - started);
             }
         }
 
-        // Lifestyle
-        if (patient.getLifestyleAttributes() != null) {
-            double ls = calculateLifestyleScore(patient, provider);
-            if (ls >= 0.7) {
-                strengths.add("Lifestyle preferences are well accommodated");
-            } else {
-                weaknesses.add("Some lifestyle preferences may not be met");
-            }
-        }
+        BigDecimal score = roundScore(totalScore);
+        log.debug("Match score calculated: patient={}, provider={}, score={}, dimensions={}",
+                patient.getId(), provider.getId(), totalScore, Arrays.toString(dimensionScores));
 
-        // Care Service Tier — NEW
-        String patientTier = patient.getCareServiceTier() != null
-                ? patient.getCareServiceTier() : "STANDARD";
-        double ts = calculateTierScore(patient, provider);
-        if (ts >= 0.8) {
-            strengths.add("Care service tier (" + patientTier + "): excellent match");
-        } else if (ts >= 0.5) {
-            strengths.add("Care service tier (" + patientTier + "): acceptable match");
-        } else {
-            weaknesses.add("Care service tier (" + patientTier + "): provider tier may not align with patient expectations");
-        }
+        return new MatchEvaluation(patient.getId(), provider.getId(), dimensions, keys, weights, dimensionScores,
+                explanationFacts, algorithmVersion, totalScore, score, context.distanceKm());
+    }
 
-        // Quality — NEW
-        double qs = calculateQualityScore(patient, provider);
-        if (qs >= 0.7) {
-            strengths.add("Provider has strong quality indicators");
+    /**
+     * Id of the stored algorithm version matching the configured dimensions and weights,
+     * or {@code null} outside the application context.
+     */
+    public Integer algorithmVersion() {
+        Integer version = algorithmVersion;
+        if (version == null && algorithmVersions != null) {
+            version = algorithmVersions.idFor(keys, weights);
+            algorithmVersion = version;
         }
-
-        explanation.put("score",     score);
-        explanation.put("strengths", strengths);
-        explanation.put("weaknesses",weaknesses);
-        explanation.put("summary",   generateSummary(score));
-
-        return explanation;
+        return version;
     }
 
     // ─────────────────────────────────────────────────────────────────────────
-    // getScoreBreakdown — updated to include tier and quality entries
+    // Single-purpose views — kept for callers that need only one of the three.
+    // Prefer evaluate() when more than one is needed for the same pair.
     // ─────────────────────────────────────────────────────────────────────────
-    public Map<String, Object> getScoreBreakdown(PatientProfileDTO patient, ProviderProfileDTO provider) {
-        Map<String, Object> breakdown = new HashMap<>();
-
-        breakdown.put("careLevelScore",      calculateCareLevelScore(patient, provider));
-        breakdown.put("distanceScore",       calculateDistanceScore(patient, provider));
-        breakdown.put("specializationScore", calculateSpecializationScore(patient, provider));
-        breakdown.put("tierScore",           calculateTierScore(patient, provider));       // NEW
-        breakdown.put("lifestyleScore",      calculateLifestyleScore(patient, provider));
-        breakdown.put("socialScore",         calculateSocialScore(patient, provider));
-        breakdown.put("qualityScore",        calculateQualityScore(patient, provider));    // NEW
-
-        breakdown.put("weights", Map.of(
-                "careLevel",      careLevelWeight,
-                "distance",       distanceWeight,
-                "specialization", specializationWeight,
-                "tier",           tierWeight,             // NEW
-                "lifestyle",      lifestyleWeight,
-                "social",         socialWeight,
-                "quality",        qualityWeight           // NEW
-        ));
-
-        return breakdown;
+    public BigDecimal calculateMatchScore(PatientProfileDTO patient, ProviderProfileDTO provider) {
+        return evaluate(patient, provider).getScore();
     }
 
-    // ─────────────────────────────────────────────────────────────────────────
-    // EXISTING private scoring methods — unchanged
-    // ─────────────────────────────────────────────────────────────────────────
-
-    private double calculateCareLevelScore(PatientProfileDTO patient, ProviderProfileDTO provider) {
-        if (patient.getCareLevel() == null) {
-            return 0.5;
-        }
-        // If provider declares accepted care levels, do an exact/adjacent check
-        if (provider.getAcceptedCareLevels() != null && !provider.getAcceptedCareLevels().isEmpty()) {
-            if (provider.getAcceptedCareLevels().contains(patient.getCareLevel())) {
-                return 1.0; // exact match
-            }
-            boolean adjacent = provider.getAcceptedCareLevels().stream()
-                    .anyMatch(l -> Math.abs(l - patient.getCareLevel()) == 1);
-            return adjacent ? 0.6 : 0.0;
-        }
-        // Fallback: assume all care levels supported (original behaviour)
-        return 1.0;
+    public Map<String, Object> generateExplanation(
+            PatientProfileDTO patient,
+            ProviderProfileDTO provider,
+            BigDecimal score) {
+        return evaluate(patient, provider).buildExplanation(score);
     }
 
-    private double calculateDistanceScore(PatientProfileDTO patient, ProviderProfileDTO provider) {
-        if (patient.getLatitude() == null || patient.getLongitude() == null ||
-                provider.getLatitude() == null || provider.getLongitude() == null) {
-            return 0.5;
-        }
-        double distance = calculateDistance(
-                patient.getLatitude(), patient.getLongitude(),
-                provider.getLatitude(), provider.getLongitude());
-
-        if (distance <= 10)  return 1.0;
-        if (distance <= 25)  return 0.75;
-        if (distance <= 50)  return 0.5;
-        if (distance <= 100) return 0.25;
-        return 0.0;
+    public Map<String, Object> getScoreBreakdown(PatientProfileDTO patient, ProviderProfileDTO provider) {
+        return evaluate(patient, provider).getScoreBreakdown();
     }
 
-    private double calculateSpecializationScore(PatientProfileDTO patient, ProviderProfileDTO provider) {
-        if (patient.getMedicalRequirements() == null || patient.getMedicalRequirements().isEmpty() ||
-                provider.getSpecializations() == null || provider.getSpecializations().isEmpty()) {
-            return 0.5;
-        }
-        Set<String> patientNeeds = extractMedicalRequirements(patient.getMedicalRequirements());
-        Set<String> providerSpecs = new HashSet<>();
-        for (String spec : provider.getSpecializations()) {
-            providerSpecs.add(spec.toLowerCase());
-        }
-        if (patientNeeds.isEmpty()) return 0.5;
-
-        Set<String> matches = new HashSet<>(patientNeeds);
-        matches.retainAll(providerSpecs);
-        return (double) matches.size() / patientNeeds.size();
+    /**
+     * Converts a raw weighted total (as produced by {@link #scoreBatch}) into the
+     * persisted 2-decimal score, exactly as {@link #evaluate} does.
+     */
+    public BigDecimal roundScore(double rawTotal) {
+        return BigDecimal.valueOf(rawTotal).setScale(2, RoundingMode.HALF_UP);
     }
 
-    private double calculateLifestyleScore(PatientProfileDTO patient, ProviderProfileDTO provider) {
-        if (patient.getLifestyleAttributes() == null || patient.getLifestyleAttributes().isEmpty()) {
-            return 0.5;
-        }
-        if (provider.getLifestyleOptions() == null || provider.getLifestyleOptions().isEmpty()) {
-            return 0.7; // base score — provider data not available
-        }
-
-        double score = 0.0;
-        int checks = 0;
-
-        // pets
-        Object patientPets = patient.getLifestyleAttributes().get("petsAllowed");
-        Object providerPets = provider.getLifestyleOptions().get("petsAllowed");
-        if (patientPets != null && providerPets != null) {
-            score += Boolean.parseBoolean(patientPets.toString()) ==
-                    Boolean.parseBoolean(providerPets.toString()) ? 1.0 : 0.0;
-            checks++;
-        }
-
-        // smoking
-        Object patientSmoke = patient.getLifestyleAttributes().get("smokingAllowed");
-        Object providerSmoke = provider.getLifestyleOptions().get("smokingAllowed");
-        if (patientSmoke != null && providerSmoke != null) {
-            score += Boolean.parseBoolean(patientSmoke.toString()) ==
-                    Boolean.parseBoolean(providerSmoke.toString()) ? 1.0 : 0.0;
-            checks++;
-        }
+    public List<ScoringDimension> getDimensions() {
+        return dimensions;
+    }
 
-        return checks == 0 ? 0.7 : score / checks;
+    /** The configured dimension with this key, or {@code null}. */
+    public ScoringDimension dimension(String key) {
+        return dimensionsByKey.get(key);
     }
 
-    private double calculateSocialScore(PatientProfileDTO patient, ProviderProfileDTO provider) {
-        if (patient.getLifestyleAttributes() == null) {
-            return 0.5;
-        }
-        // Base score — extended when richer provider social data is available
-        return 0.6;
+    public int weightOf(String key) {
+        ScoringDimension dimension = dimensionsByKey.get(key);
+        return dimension != null ? dimension.weight() : 0;
     }
 
     // ─────────────────────────────────────────────────────────────────────────
-    // NEW: calculateTierScore — 15% weight
-    //
-    // Tier compatibility matrix (patient tier × best provider tier offered):
-    //             STANDARD  COMFORT  PREMIUM
-    // STANDARD      1.0      0.7      0.2
-    // COMFORT        0.4      1.0      0.6
-    // PREMIUM        0.0      0.5      1.0
-    //
-    // When provider offers multiple tiers, the best (highest) score is used.
+    // Partial evaluation — for delta recalculations that rescore only the
+    // dimensions a profile change can affect (see ScoringDimension#dependsOn).
     // ─────────────────────────────────────────────────────────────────────────
-    private double calculateTierScore(PatientProfileDTO patient, ProviderProfileDTO provider) {
-        String patientTier = patient.getCareServiceTier() != null
-                ? patient.getCareServiceTier().toUpperCase() : "STANDARD";
 
-        Set<String> providerTiers = provider.getOfferedServiceTiers();
-        if (providerTiers == null || providerTiers.isEmpty()) {
-            // Provider has no tier data yet — treat as STANDARD, score neutrally
-            providerTiers = Set.of("STANDARD");
-        }
-
-        double bestScore = 0.0;
-        for (String pt : providerTiers) {
-            double s = tierCompatibilityScore(patientTier, pt.toUpperCase());
-            if (s > bestScore) bestScore = s;
+    /** Keys of the dimensions whose score may change when any of the given profile fields changes, in evaluation order. */
+    public List<String> dimensionsAffectedBy(Collection<String> changedFields) {
+        List<String> affected = new ArrayList<>();
+        for (ScoringDimension dimension : dimensions) {
+            if (changedFields.stream().anyMatch(dimension::dependsOn)) {
+                affected.add(dimension.key());
+            }
         }
-        return bestScore;
+        return affected;
     }
 
-    private double tierCompatibilityScore(String patientTier, String providerTier) {
-        return switch (patientTier) {
-            case "STANDARD" -> switch (providerTier) {
-                case "STANDARD" -> 1.0;
-                case "COMFORT"  -> 0.7;
-                case "PREMIUM"  -> 0.2;
-                default         -> 0.5;
-            };
-            case "COMFORT" -> switch (providerTier) {
-                case "STANDARD" -> 0.4;
-                case "COMFORT"  -> 1.0;
-                case "PREMIUM"  -> 0.6;
-                default         -> 0.5;
-            };
-            case "PREMIUM" -> switch (providerTier) {
-                case "STANDARD" -> 0.0;
-                case "COMFORT"  -> 0.5;
-                case "PREMIUM"  -> 1.0;
-                default         -> 0.5;
-            };
-            default -> 0.5;
-        };
+    /** Scores of the given dimensions only, in the order of {@code dimensionKeys}. */
+    public double[] scoreDimensions(PatientProfileDTO patient, ProviderProfileDTO provider, List<String> dimensionKeys) {
+        MatchContext context = new MatchContext(patient, provider);
+        double[] result = new double[dimensionKeys.size()];
+        for (int i = 0; i < result.length; i++) {
+            ScoringDimension dimension = dimensionsByKey.get(dimensionKeys.get(i));
+            if (dimension == null) {
+                throw new IllegalArgumentException("Unknown scoring dimension: " + dimensionKeys.get(i));
+            }
+            result[i] = dimension.score(context);
+        }
+        return result;
     }
 
     // ─────────────────────────────────────────────────────────────────────────
-    // NEW: calculateQualityScore — 5% weight
+    // scoreBatch — columnar kernel: one patient vs. a precompiled ProviderBatch
     //
-    // Reads qualityIndicators map from the provider profile:
-    //   "averageRating"  → Double 0–5, normalised to 0.0–1.0
-    //   "certifications" → any non-blank value adds 0.1 bonus (capped at 1.0)
+    // Produces the same raw totals as evaluate for every provider (same
+    // dimension order, same double arithmetic) but works on primitive columns
+    // and allocates nothing per pair for the built-in dimensions. Patient-side
+    // values are resolved once per call; scores[i] belongs to batch.providerId(i).
     // ─────────────────────────────────────────────────────────────────────────
-    private double calculateQualityScore(PatientProfileDTO patient, ProviderProfileDTO provider) {
-        if (provider.getQualityIndicators() == null || provider.getQualityIndicators().isEmpty()) {
-            return 0.5; // neutral when no data available
+    public void scoreBatch(PatientProfileDTO patient, ProviderBatch batch, double[] scores) {
+        int n = batch.size();
+        if (scores.length < n) {
+            throw new IllegalArgumentException("scores array too small: " + scores.length + " < " + n);
         }
 
-        double score = 0.5; // base
+        int careLevelWeight      = weightOf(CareLevelDimension.KEY);
+        int distanceWeight       = weightOf(DistanceDimension.KEY);
+        int specializationWeight = weightOf(SpecializationDimension.KEY);
+        int tierWeight           = weightOf(TierDimension.KEY);
+        int lifestyleWeight      = weightOf(LifestyleDimension.KEY);
+        int socialWeight         = weightOf(SocialDimension.KEY);
+        int qualityWeight        = weightOf(QualityDimension.KEY);
 
-        Object ratingObj = provider.getQualityIndicators().get("averageRating");
-        if (ratingObj != null) {
-            try {
-                double rating = Double.parseDouble(ratingObj.toString());
-                score = Math.min(rating / 5.0, 1.0); // normalise 0–5 → 0.0–1.0
-            } catch (NumberFormatException ignored) {}
-        }
+        // Care level
+        Integer careLevel = patient.getCareLevel();
+        boolean levelInMask = careLevel != null && careLevel >= 1 && careLevel < ProviderBatch.MAX_MASK_LEVEL;
+        long exactBit    = levelInMask ? 1L << careLevel : 0L;
+        long adjacentBits = levelInMask ? (1L << (careLevel - 1)) | (1L << (careLevel + 1)) : 0L;
 
-        Object certObj = provider.getQualityIndicators().get("certifications");
-        if (certObj != null && !certObj.toString().isBlank()) {
-            score = Math.min(score + 0.1, 1.0);
+        // Distance
+        boolean patientHasLocation = patient.getLatitude() != null && patient.getLongitude() != null;
+        double patientLat = patientHasLocation ? patient.getLatitude() : 0.0;
+        double patientLon = patientHasLocation ? patient.getLongitude() : 0.0;
+        double patientCos = patientHasLocation ? Math.cos(Math.toRadians(patientLat)) : 0.0;
+
+        // Specialization — needs unknown to the vocabulary can never match but still count
+        Map<String, Object> requirements = patient.getMedicalRequirements();
+        boolean patientHasRequirements = requirements != null && !requirements.isEmpty();
+        int needCount = 0;
+        long[] needBits = new long[0];
+        if (patientHasRequirements) {
+            needBits = batch.vocabulary.medicalRequirementBits(patient);
+            needCount = batch.vocabulary.medicalRequirementCount(patient);
         }
 
-        return score;
-    }
+        // Tier
+        String patientTier = patient.getCareServiceTier() != null
+                ? patient.getCareServiceTier().toUpperCase() : "STANDARD";
+        double[] tierRow = TIER_SCORE_BY_MASK[ProviderBatch.tierIndex(patientTier)];
+
+        // Lifestyle / social
+        Map<String, Object> lifestyle = patient.getLifestyleAttributes();
+        boolean patientHasLifestyle = lifestyle != null && !lifestyle.isEmpty();
+        byte patientPets  = patientHasLifestyle ? ProviderBatch.flag(lifestyle.get("petsAllowed")) : ProviderBatch.FLAG_ABSENT;
+        byte patientSmoke = patientHasLifestyle ? ProviderBatch.flag(lifestyle.get("smokingAllowed")) : ProviderBatch.FLAG_ABSENT;
+        double socialScore = lifestyle == null ? 0.5 : 0.6;
+
+        for (int i = 0; i < n; i++) {
+            // 1. Care level
+            double careLevelScore;
+            if (careLevel == null) {
+                careLevelScore = 0.5;
+            } else if (!batch.declaresCareLevels[i]) {
+                careLevelScore = 1.0;
+            } else if (levelInMask && batch.careLevelMaskComplete[i]) {
+                long mask = batch.careLevelMask[i];
+                careLevelScore = (mask & exactBit) != 0 ? 1.0 : (mask & adjacentBits) != 0 ? 0.6 : 0.0;
+            } else {
+                careLevelScore = CareLevelDimension.scoreFromList(careLevel, batch.acceptedCareLevels[i]);
+            }
 
-    // ─────────────────────────────────────────────────────────────────────────
-    // EXISTING utility methods — unchanged
-    // ─────────────────────────────────────────────────────────────────────────
+            // 2. Distance
+            double distanceScore;
+            if (!patientHasLocation || !batch.hasLocation[i]) {
+                distanceScore = 0.5;
+            } else {
+                distanceScore = DistanceDimension.bandScore(DistanceDimension.haversine(
+                        patientLat, patientLon, patientCos,
+                        batch.latitude[i], batch.longitude[i], batch.cosLatitude[i]));
+            }
 
-    public double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int EARTH_RADIUS = 6371;
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return EARTH_RADIUS * c;
+            // 3. Specialization
+            double specializationScore;
+            long[] specBits = batch.specializationBits[i];
+            if (!patientHasRequirements || specBits == null || needCount == 0) {
+                specializationScore = 0.5;
+            } else {
+                specializationScore = (double) TermVocabulary.overlap(needBits, specBits) / needCount;
+            }
+
+            // 4. Tier
+            double tierScore = tierRow[batch.tierMask[i]];
+
+            // 5. Lifestyle
+            double lifestyleScore;
+            if (!patientHasLifestyle) {
+                lifestyleScore = 0.5;
+            } else if (!batch.hasLifestyleOptions[i]) {
+                lifestyleScore = 0.7;
+            } else {
+                double score = 0.0;
+                int checks = 0;
+                byte providerPets = batch.petsAllowed[i];
+                if (patientPets != ProviderBatch.FLAG_ABSENT && providerPets != ProviderBatch.FLAG_ABSENT) {
+                    score += patientPets == providerPets ? 1.0 : 0.0;
+                    checks++;
+                }
+                byte providerSmoke = batch.smokingAllowed[i];
+                if (patientSmoke != ProviderBatch.FLAG_ABSENT && providerSmoke != ProviderBatch.FLAG_ABSENT) {
+                    score += patientSmoke == providerSmoke ? 1.0 : 0.0;
+                    checks++;
+                }
+                lifestyleScore = checks == 0 ? 0.7 : score / checks;
+            }
+
+            // 6. Social, 7. Quality
+            double qualityScore = batch.quality[i];
+
+            double totalScore = 0.0;
+            totalScore += careLevelScore * careLevelWeight;
+            totalScore += distanceScore * distanceWeight;
+            totalScore += specializationScore * specializationWeight;
+            totalScore += tierScore * tierWeight;
+            totalScore += lifestyleScore * lifestyleWeight;
+            totalScore += socialScore * socialWeight;
+            totalScore += qualityScore * qualityWeight;
+
+            // Dimensions plugged in through the SPI have no columnar form; score them per pair
+            if (!extensionDimensions.isEmpty()) {
+                MatchContext context = new MatchContext(patient, batch.provider(i));
+                for (ScoringDimension dimension : extensionDimensions) {
+                    totalScore += dimension.score(context) * dimension.weight();
+                }
+            }
+            scores[i] = totalScore;
+        }
     }
 
-    private Set<String> extractMedicalRequirements(Map<String, Object> medicalRequirements) {
-        Set<String> requirements = new HashSet<>();
-        for (Map.Entry<String, Object> entry : medicalRequirements.entrySet()) {
-            if (entry.getValue() instanceof Boolean && (Boolean) entry.getValue()) {
-                requirements.add(entry.getKey().toLowerCase());
+    private static double[][] buildTierScoreTable() {
+        String[] tiers = {"STANDARD", "COMFORT", "PREMIUM", "OTHER"};
+        double[][] table = new double[tiers.length][1 << tiers.length];
+        for (int patientTier = 0; patientTier < tiers.length; patientTier++) {
+            for (int mask = 1; mask < (1 << tiers.length); mask++) {
+                double best = 0.0;
+                for (int providerTier = 0; providerTier < tiers.length; providerTier++) {
+                    if ((mask & (1 << providerTier)) != 0) {
+                        best = Math.max(best, TierDimension.compatibilityScore(tiers[patientTier], tiers[providerTier]));
+                    }
+                }
+                table[patientTier][mask] = best;
             }
         }
-        return requirements;
+        return table;
     }
 
-    private String generateSummary(BigDecimal score) {
-        double v = score.doubleValue();
-        if (v >= 90) return "Excellent match - highly recommended";
-        if (v >= 75) return "Very good match - recommended";
-        if (v >= 60) return "Good match - suitable";
-        if (v >= 50) return "Moderate match - consider alternatives";
-        return "Limited match - explore other options";
+    // ─────────────────────────────────────────────────────────────────────────
+    // Utility methods
+    // ─────────────────────────────────────────────────────────────────────────
+
+    public double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
+        return DistanceDimension.haversine(lat1, lon1, lat2, lon2);
     }
-}
\ No newline at end of file
+}
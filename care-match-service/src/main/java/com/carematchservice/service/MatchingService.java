@@ -3,35 +3,45 @@ package com.carematchservice.service;
 
 import com.carecommon.dto.ApiResponse;
 import com.carecommon.exception.ResourceNotFoundException;
+import com.carecommon.exception.ValidationException;
+import com.carematchservice.dto.BatchMatchRequest;
+import com.carematchservice.dto.MatchDisplay;
 import com.carematchservice.dto.MatchScoreResponse;
 import com.carematchservice.dto.PatientProfileDTO;
 import com.carematchservice.dto.PatientSummaryDTO;
 import com.carematchservice.dto.ProviderProfileDTO;
 import com.carematchservice.dto.ProviderSummaryDTO;
 import com.carematchservice.feign.ProfileServiceClient;
-import com.carecommon.kafkaEvents.MatchCalculatedEvent;
-import com.carematchservice.kafka.MatchingEventProducer;
 import com.carematchservice.mapper.MatchScoreMapper;
-import com.carematchservice.model.MatchNotification;
 import com.carematchservice.model.MatchScore;
-import com.carematchservice.repository.MatchNotificationRepository;
+import com.carematchservice.repository.MatchScoreBulkWriter;
+import com.carematchservice.repository.MatchScoreBulkWriter.Anchor;
+import com.carematchservice.repository.MatchScoreBulkWriter.MatchPair;
+import com.carematchservice.repository.MatchScoreBulkWriter.ScoredMatch;
+import com.carematchservice.repository.MatchScoreBulkWriter.UpsertedScore;
 import com.carematchservice.repository.MatchScoreRepository;
+import com.carematchservice.service.scoring.DistanceDimension;
+import com.carematchservice.service.scoring.MatchBreakdownCodec;
+import com.carematchservice.service.scoring.MatchEvaluation;
+import com.carematchservice.service.scoring.ScoringDimension;
 import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -40,9 +50,15 @@ import java.util.stream.Collectors;
  * Scoring is fully delegated to {@link MatchingAlgorithmService}.
  * This service is responsible for:
  *   - Fetching profiles via Feign (ProfileServiceClient)
- *   - Persisting / updating MatchScore records
- *   - Publishing Kafka events via MatchingEventProducer
- *   - Sending threshold notifications (FR-MATCH-02: score ≥ threshold, default 70)
+ *   - Persisting / updating MatchScore records; pairs scoring below
+ *     {@code app.matching.storage-floor} are not stored (an existing row is deleted)
+ *     and {@link #getMatch} scores them on read instead (see MatchCompactionJob)
+ *   - Submitting one-to-all fan-outs to MatchFanOutEngine (parallel, chunked) in the
+ *     event or bulk WorkLane; single-pair calculations run in the interactive lane
+ *   - Keeping the per-patient / per-provider top-K leaderboards current (MatchLeaderboard)
+ *   - Handing written rows to ThresholdNotifier, which publishes the match.calculated
+ *     event when a score crosses the threshold upward (FR-MATCH-02, default 70)
+ *   - Binding the {@link MatchTrigger} of its entry points for MatchMetrics
  *
  * FR-MATCH-01: Both calculateMatchesForPatient and calculateMatchesForProvider
  *              are triggered by Kafka profile.created / profile.updated events
@@ -54,55 +70,196 @@ import java.util.stream.Collectors;
 public class MatchingService {
 
     private final MatchScoreRepository           matchScoreRepository;
-    private final MatchNotificationRepository    matchNotificationRepository;
+    private final MatchScoreBulkWriter           matchScoreBulkWriter;
     private final ProfileServiceClient           profileServiceClient;
+    private final ProfileReplica                 profileReplica;
     private final MatchingAlgorithmService       matchingAlgorithmService;
-    private final MatchingEventProducer          matchingEventProducer;
+    private final MatchFanOutEngine              fanOutEngine;
+    private final CandidatePruner                candidatePruner;
+    private final MatchLeaderboard               matchLeaderboard;
+    private final ThresholdNotifier              thresholdNotifier;
     private final MatchScoreMapper               matchScoreMapper;
+    private final MatchMetrics                   matchMetrics;
+    private final MatchWorkScheduler             workScheduler;
+    private final PairWriteLocks                 pairWriteLocks;
+    private final TermVocabulary                 termVocabulary;
+    private final TransactionTemplate            transactionTemplate;
+    private final CacheManager                   cacheManager;
+
+    /** Ids per set-based delete statement. */
+    private static final int DELETE_SLICE_SIZE = 1000;
+
+    /** Responses of pairs scored on read, keyed {@code <patientId>:<providerId>}. */
+    static final String ON_DEMAND_CACHE = "onDemandMatches";
 
     @Value("${app.matching.threshold}")
     private int matchingThreshold;
 
+    /** Counterparts per calculateMatchBatch request. */
+    @Value("${app.matching.batch.max-pairs:100}")
+    private int maxBatchPairs;
+
+    /** Pairs scoring below this are not stored (0 = store every scored pair). */
+    @Value("${app.matching.storage-floor:0}")
+    private double storageFloor;
+
     // ═══════════════════════════════════════════════════════════════════
     //  EXISTING METHOD – calculateMatch (single pair)
     //  Kept intact; only minor additions to align with the two new methods
     // ═══════════════════════════════════════════════════════════════════
 
-    @Transactional
+    // Profiles are fetched and scored before a connection is taken; only the write runs
+    // in a transaction, under the interactive lane's connection budget, so the call is not
+    // queued behind fan-out chunks for a pooled connection. The write holds the pair's
+    // stripe (PairWriteLocks) and goes through the same ON CONFLICT upsert as fan-outs, so
+    // it merges with a concurrent fan-out writing the pair instead of failing on the
+    // unique pair constraint.
     public MatchScoreResponse calculateMatch(UUID patientId, UUID providerId) {
+        try (var scope = matchMetrics.withTrigger(MatchTrigger.MANUAL)) {
+            return calculatePair(patientId, providerId);
+        }
+    }
+
+    private MatchScoreResponse calculatePair(UUID patientId, UUID providerId) {
         log.info("Calculating match: patientId={}, providerId={}", patientId, providerId);
 
         PatientProfileDTO  patient  = fetchPatientProfile(patientId);
         ProviderProfileDTO provider = fetchProviderProfile(providerId);
+        ingestTerms(List.of(patient), List.of(provider));
+
+        MatchEvaluation evaluation = matchingAlgorithmService.evaluate(patient, provider);
+        boolean stored = !belowStorageFloor(evaluation.getScore());
+        MatchScore matchScore = applyEvaluation(newMatchScore(evaluation), evaluation, patient, provider);
+        pairWriteLocks.write(patientId, providerId, WorkLane.INTERACTIVE, () -> {
+            if (!stored) {
+                matchLeaderboard.pairsRemoved(matchScoreBulkWriter.deletePairs(List.of(new MatchPair(patientId, providerId))));
+                return null;
+            }
+            long started = System.nanoTime();
+            List<UpsertedScore> rows = matchScoreBulkWriter.upsert(
+                    List.of(new ScoredMatch(evaluation, MatchDisplay.of(patient, provider, evaluation.getRoundedDistanceKm()))),
+                    matchScore.getCalculatedAt());
+            matchMetrics.scoresWritten(1, System.nanoTime() - started);
+            matchScore.setId(rows.get(0).id());
+            matchLeaderboard.scoresChanged(rows);
+            thresholdNotifier.notifyCrossings(rows);
+            return null;
+        });
+        evictOnDemand(patientId, providerId);
+        if (stored) {
+            log.info("Match score saved: matchId={}, score={}", matchScore.getId(), matchScore.getScore());
+        } else {
+            log.info("Match score below storage floor, not stored: score={}, floor={}", matchScore.getScore(), storageFloor);
+        }
 
-        BigDecimal             score       = matchingAlgorithmService.calculateMatchScore(patient, provider);
-        Map<String, Object>    explanation = matchingAlgorithmService.generateExplanation(patient, provider, score);
-        Map<String, Object>    breakdown   = matchingAlgorithmService.getScoreBreakdown(patient, provider);
+        MatchScoreResponse response = matchScoreMapper.toResponse(matchScore);
+        Double distanceKm = evaluation.getRoundedDistanceKm();
+        enrichResponseWithProviderDetails(response, provider);
+        enrichResponseWithPatientSummary(response, patient, distanceKm);
+        enrichResponseWithProviderSummary(response, provider, distanceKm);
+        return response;
+    }
 
-        MatchScore matchScore = matchScoreRepository
-                .findByPatientIdAndProviderId(patientId, providerId)
-                .orElse(MatchScore.builder()
-                        .patientId(patientId)
-                        .providerId(providerId)
-                        .build());
+    // ═══════════════════════════════════════════════════════════════════
+    //  calculateMatchBatch (one anchor against a shortlist)
+    //  Replaces one calculateMatch call per counterpart: profiles are
+    //  resolved in one bulk call, and all pairs are written with one
+    //  upsert in one interactive-lane transaction, holding the pairs'
+    //  write stripes (see PairWriteLocks#writeAll).
+    // ═══════════════════════════════════════════════════════════════════
 
-        matchScore.setScore(score);
-        matchScore.setExplanation(explanation);
-        matchScore.setScoreBreakdown(breakdown);
-        matchScore.setCalculatedAt(LocalDateTime.now());
+    /**
+     * Scores a patient against a shortlist of providers, or a provider against a shortlist
+     * of patients, storing the results like calculateMatch does.
+     *
+     * Counterparts are resolved from the ProfileReplica, the rest with one batch call to
+     * care-profile-service; unknown counterparts are skipped. Responses come back in the
+     * order of the requested ids.
+     */
+    public List<MatchScoreResponse> calculateMatchBatch(BatchMatchRequest request) {
+        try (var scope = matchMetrics.withTrigger(MatchTrigger.MANUAL)) {
+            boolean patientAnchor = validateBatch(request);
+            Anchor anchor = patientAnchor ? Anchor.PATIENT : Anchor.PROVIDER;
+            UUID anchorId = patientAnchor ? request.getPatientId() : request.getProviderId();
+            List<UUID> counterpartIds = List.copyOf(new LinkedHashSet<>(
+                    patientAnchor ? request.getProviderIds() : request.getPatientIds()));
+
+            List<PatientProfileDTO> patients;
+            List<ProviderProfileDTO> providers;
+            if (patientAnchor) {
+                patients = List.of(fetchPatientProfile(request.getPatientId()));
+                providers = fetchProviderProfiles(counterpartIds);
+            } else {
+                providers = List.of(fetchProviderProfile(request.getProviderId()));
+                patients = fetchPatientProfiles(counterpartIds);
+            }
+            ingestTerms(patients, providers);
+            log.info("Calculating match batch: {}={}, counterparts={}, resolved={}",
+                    patientAnchor ? "patientId" : "providerId",
+                    patientAnchor ? request.getPatientId() : request.getProviderId(),
+                    counterpartIds.size(), patientAnchor ? providers.size() : patients.size());
+
+            List<ScoredMatch> scored = new ArrayList<>(counterpartIds.size());
+            for (PatientProfileDTO patient : patients) {
+                for (ProviderProfileDTO provider : providers) {
+                    scored.add(score(patient, provider));
+                }
+            }
 
-        matchScore = matchScoreRepository.save(matchScore);
-        log.info("Match score saved: matchId={}, score={}", matchScore.getId(), score);
+            List<MatchPair> pairs = new ArrayList<>(scored.size());
+            for (ScoredMatch match : scored) {
+                pairs.add(new MatchPair(match.evaluation().getPatientId(), match.evaluation().getProviderId()));
+            }
+            List<UpsertedScore> rows = pairWriteLocks.writeAll(pairs, WorkLane.INTERACTIVE, () -> {
+                List<UpsertedScore> written = persist(scored, anchor, storedRowsOf(anchor, anchorId));
+                matchLeaderboard.scoresChanged(written);
+                thresholdNotifier.notifyCrossings(written);
+                return written;
+            });
+            Map<MatchPair, UUID> ids = new HashMap<>();
+            for (UpsertedScore row : rows) {
+                ids.put(new MatchPair(row.patientId(), row.providerId()), row.id());
+            }
 
-        if (score.doubleValue() >= matchingThreshold) {
-            publishMatchCalculatedEvent(matchScore);
+            Map<UUID, MatchScoreResponse> byCounterpart = new HashMap<>();
+            for (int i = 0; i < scored.size(); i++) {
+                MatchEvaluation evaluation = scored.get(i).evaluation();
+                PatientProfileDTO patient = patientAnchor ? patients.get(0) : patients.get(i);
+                ProviderProfileDTO provider = patientAnchor ? providers.get(i) : providers.get(0);
+                evictOnDemand(patient.getId(), provider.getId());
+
+                MatchScore matchScore = applyEvaluation(newMatchScore(evaluation), evaluation, patient, provider);
+                matchScore.setId(ids.get(new MatchPair(patient.getId(), provider.getId())));
+                MatchScoreResponse response = matchScoreMapper.toResponse(matchScore);
+                Double distanceKm = evaluation.getRoundedDistanceKm();
+                enrichResponseWithProviderDetails(response, provider);
+                enrichResponseWithPatientSummary(response, patient, distanceKm);
+                enrichResponseWithProviderSummary(response, provider, distanceKm);
+                byCounterpart.put(patientAnchor ? provider.getId() : patient.getId(), response);
+            }
+            return counterpartIds.stream().map(byCounterpart::get).filter(Objects::nonNull).toList();
         }
+    }
 
-        MatchScoreResponse response = matchScoreMapper.toResponse(matchScore);
-        enrichResponseWithProviderDetails(response, provider);
-        enrichResponseWithPatientSummary(response, patient, provider);
-        enrichResponseWithProviderSummary(response, patient, provider);
-        return response;
+    /** @return whether the batch is anchored on a patient (else on a provider) */
+    private boolean validateBatch(BatchMatchRequest request) {
+        Map<String, String> errors = new LinkedHashMap<>();
+        boolean patientAnchor = request.getPatientId() != null;
+        boolean providerAnchor = request.getProviderId() != null;
+        List<UUID> counterparts = patientAnchor ? request.getProviderIds() : request.getPatientIds();
+        if (patientAnchor == providerAnchor) {
+            errors.put("patientId", "Exactly one of patientId (with providerIds) or providerId (with patientIds) is required");
+        } else if (counterparts == null || counterparts.isEmpty()) {
+            errors.put(patientAnchor ? "providerIds" : "patientIds", "At least one id is required");
+        } else if (counterparts.size() > maxBatchPairs) {
+            errors.put(patientAnchor ? "providerIds" : "patientIds", "At most " + maxBatchPairs + " ids per batch");
+        } else if (counterparts.contains(null)) {
+            errors.put(patientAnchor ? "providerIds" : "patientIds", "Ids must not be null");
+        }
+        if (!errors.isEmpty()) {
+            throw new ValidationException("Invalid match batch", errors);
+        }
+        return patientAnchor;
     }
 
     // ═══════════════════════════════════════════════════════════════════
@@ -117,15 +274,182 @@ public class MatchingService {
      * Execution flow:
      *   1. Fetch the patient profile.
      *   2. Fetch all visible provider profiles (GET /api/v1/providers/all).
-     *   3. For each provider: compute score via MatchingAlgorithmService,
-     *      upsert the MatchScore row, publish a match.calculated event,
-     *      and queue a threshold notification when score ≥ matchingThreshold.
+     *   3. Prune providers that cannot reach app.matching.prune-floor or whose
+     *      service radius excludes the patient (CandidatePruner). Pruned pairs are
+     *      "not computed": no row is stored and any stale row is deleted.
+     *   4. Hand the candidates to MatchFanOutEngine, which scores them in parallel
+     *      chunks, each committed in its own transaction: compute the score via
+     *      MatchingAlgorithmService, upsert the MatchScore rows, and publish a
+     *      match.calculated event for every pair whose score crossed
+     *      matchingThreshold upward (ThresholdNotifier).
+     *
+     * Returns as soon as the run is submitted, so the Kafka consumer calling this is
+     * not blocked. A newer run for the same patient cancels this one.
      *
-     * Runs @Async so the Kafka consumer calling this returns immediately.
+     * @return the run handle, or {@code null} when the patient no longer exists
      */
-    @Async
-    @Transactional
-    public void calculateMatchesForPatient(UUID patientId) {
+    public FanOutRun calculateMatchesForPatient(UUID patientId) {
+        return fanOutForPatient(patientId, MatchTrigger.CREATED, WorkLane.EVENT, null, null);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    //  calculateMatchesForProvider
+    //  Called when a provider profile is created or updated (FR-MATCH-01)
+    //  Fans out across ALL active patients and upserts a MatchScore for each.
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Recalculates match scores between the given provider and every active patient.
+     *
+     * Execution flow:
+     *   1. Fetch the provider profile.
+     *   2. Fetch all patients who have given consent (GET /api/v1/patients/all).
+     *   3. Prune patients via CandidatePruner (see calculateMatchesForPatient).
+     *   4. Hand the candidates to MatchFanOutEngine (see calculateMatchesForPatient).
+     *
+     * @return the run handle, or {@code null} when the provider no longer exists
+     */
+    public FanOutRun calculateMatchesForProvider(UUID providerId) {
+        return fanOutForProvider(providerId, MatchTrigger.CREATED, WorkLane.EVENT, null, null);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    //  recalculate helpers (evict cache, delete stale rows, re-run)
+    //  The delete is the run's prepare step: it commits in its own
+    //  transaction after any superseded run has stopped, before the
+    //  first chunk is scored.
+    // ═══════════════════════════════════════════════════════════════════
+
+    @CacheEvict(value = "matchScores", allEntries = true)
+    public FanOutRun recalculateMatchesForPatient(UUID patientId) {
+        log.info("Recalculating (full reset) matches for patientId={}", patientId);
+        return fanOutForPatient(patientId, MatchTrigger.MANUAL, WorkLane.BULK, () -> {
+            matchScoreRepository.deleteByPatientId(patientId);
+            matchLeaderboard.patientReset(patientId);
+        }, null);
+    }
+
+    @CacheEvict(value = "matchScores", allEntries = true)
+    public FanOutRun recalculateMatchesForProvider(UUID providerId) {
+        log.info("Recalculating (full reset) matches for providerId={}", providerId);
+        return fanOutForProvider(providerId, MatchTrigger.MANUAL, WorkLane.BULK, () -> {
+            matchScoreRepository.deleteByProviderId(providerId);
+            matchLeaderboard.providerReset(providerId);
+        }, null);
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    //  Delta recalculation (profile.updated)
+    //  Rows are kept, not deleted: every candidate pair rescores only the
+    //  dimensions that depend on a changed field and compares them with
+    //  the stored dimension_scores. Pairs whose dimension scores are
+    //  unchanged are skipped; the others are fully re-evaluated and
+    //  upserted in place, so match ids (and notification dedupe) survive.
+    //  Pairs without a row (below the storage floor) are skipped while
+    //  they stay below it, without a write or a delete.
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Recalculates the matches of an updated profile, limited to what the changed fields
+     * can affect (see ScoringDimension#dependsOn).
+     *
+     * @param changedFields keys of {@code ProfileUpdatedEvent.changes} plus the fields the
+     *                      replica saw change (see ProfileReplica#takeChangedFields)
+     * @return the run handle, or {@code null} when no dimension is affected or the
+     *         profile no longer exists
+     */
+    @CacheEvict(value = "matchScores", allEntries = true)
+    public FanOutRun recalculateChangedMatches(String profileType, UUID profileId, Collection<String> changedFields) {
+        List<String> dimensionKeys = matchingAlgorithmService.dimensionsAffectedBy(changedFields);
+        if (dimensionKeys.isEmpty()) {
+            log.info("Profile change affects no scoring dimension: {} {}, fields={}", profileType, profileId, changedFields);
+            return null;
+        }
+        log.info("Recalculating (delta) matches: {} {}, fields={}, dimensions={}",
+                profileType, profileId, changedFields, dimensionKeys);
+        DeltaScope delta = new DeltaScope(dimensionKeys, matchingAlgorithmService);
+        if ("patient".equalsIgnoreCase(profileType)) {
+            return fanOutForPatient(profileId, MatchTrigger.UPDATED, WorkLane.EVENT, null, delta);
+        } else if ("provider".equalsIgnoreCase(profileType)) {
+            return fanOutForProvider(profileId, MatchTrigger.UPDATED, WorkLane.EVENT, null, delta);
+        }
+        return null;
+    }
+
+    /** Dimensions a delta run compares, and the anchor's stored scores (loaded by the run's prepare step). */
+    private static final class DeltaScope {
+        final List<String> dimensionKeys;
+        /** Weights of {@link #dimensionKeys}, and the total weight of every other dimension. */
+        private final int[] weights;
+        private final int otherWeight;
+        /**
+         * A move changes every pair's distance_km and distance explanation, also where the
+         * distance band (and so the stored score) stays the same: stored rows are always rescored.
+         */
+        private final boolean rescoreRows;
+        volatile Map<UUID, double[]> stored = Map.of();
+
+        DeltaScope(List<String> dimensionKeys, MatchingAlgorithmService algorithm) {
+            this.dimensionKeys = List.copyOf(dimensionKeys);
+            this.rescoreRows = dimensionKeys.contains(DistanceDimension.KEY);
+            this.weights = dimensionKeys.stream().mapToInt(algorithm::weightOf).toArray();
+            int total = algorithm.getDimensions().stream().mapToInt(ScoringDimension::weight).sum();
+            this.otherWeight = total - Arrays.stream(weights).sum();
+        }
+
+        boolean hasRow(UUID counterpartId) {
+            return stored.containsKey(counterpartId);
+        }
+
+        /** Highest total the pair can reach: the recomputed dimensions plus full marks on every other one. */
+        double upperBound(double[] recomputed) {
+            double bound = otherWeight;
+            for (int i = 0; i < recomputed.length; i++) {
+                bound += recomputed[i] * weights[i];
+            }
+            return bound;
+        }
+
+        /** Whether the counterpart has a row whose stored scores equal the recomputed ones, at storage precision. */
+        boolean unchanged(UUID counterpartId, double[] recomputed) {
+            double[] previous = stored.get(counterpartId);
+            if (previous == null || rescoreRows) {
+                return false;
+            }
+            for (int i = 0; i < recomputed.length; i++) {
+                if (Double.isNaN(previous[i])
+                        || MatchBreakdownCodec.quantize(previous[i]) != MatchBreakdownCodec.quantize(recomputed[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Whether a delta run can skip the pair without a full evaluation: its stored dimension
+     * scores are unchanged, or it has no row (below the storage floor, or never stored)
+     * and the changed dimensions keep even its upper bound below the floor.
+     */
+    private boolean skipDelta(DeltaScope delta, PatientProfileDTO patient, ProviderProfileDTO provider, UUID counterpartId) {
+        double[] recomputed = matchingAlgorithmService.scoreDimensions(patient, provider, delta.dimensionKeys);
+        if (delta.unchanged(counterpartId, recomputed)) {
+            return true;
+        }
+        return !delta.hasRow(counterpartId)
+                && belowStorageFloor(matchingAlgorithmService.roundScore(delta.upperBound(recomputed)));
+    }
+
+    private FanOutRun fanOutForPatient(UUID patientId, MatchTrigger trigger, WorkLane lane,
+                                      Runnable prepare, DeltaScope delta) {
+        // Bound while the profiles are fetched; the engine binds it on its workers
+        try (var scope = matchMetrics.withTrigger(trigger)) {
+            return submitForPatient(patientId, trigger, lane, prepare, delta);
+        }
+    }
+
+    private FanOutRun submitForPatient(UUID patientId, MatchTrigger trigger, WorkLane lane,
+                                      Runnable prepare, DeltaScope delta) {
         log.info("calculateMatchesForPatient started: patientId={}", patientId);
 
         // 1. Fetch the patient
@@ -134,59 +458,70 @@ public class MatchingService {
             patient = fetchPatientProfile(patientId);
         } catch (ResourceNotFoundException e) {
             log.warn("Patient profile not found, skipping match calculation: patientId={}", patientId);
-            return;
+            return null;
         }
 
         // 2. Fetch all active providers
         List<ProviderProfileDTO> providers = fetchAllActiveProviders();
         if (providers.isEmpty()) {
             log.info("No active providers found; nothing to match against for patientId={}", patientId);
-            return;
+            if (prepare == null) return null;
         }
-
-        // 3. Score each provider
-        int processed = 0;
-        int notified  = 0;
-
-        for (ProviderProfileDTO provider : providers) {
-            try {
-                MatchScore saved = computeAndPersist(patient, provider);
-                if (saved.getScore().doubleValue() >= matchingThreshold) {
-                    publishMatchCalculatedEvent(saved);
-                    notified++;
+        ingestTerms(List.of(patient), providers);
+
+        // 3. Prune pairs that cannot reach the floor; their stale rows are removed, not rescored
+        CandidatePruner.Selection<ProviderProfileDTO> selection = candidatePruner.selectProviders(patient, providers);
+        List<UUID> prunedIds = selection.pruned().stream().map(ProviderProfileDTO::getId).toList();
+        Runnable deletePruned = prunedIds.isEmpty() ? null : () -> {
+            if (prepare == null) {
+                deleteInSlices(prunedIds, ids -> matchScoreRepository.deleteByPatientIdAndProviderIdIn(patientId, ids));
+            }
+            matchLeaderboard.pairsRemovedForPatient(patientId, prunedIds);
+        };
+        Runnable loadStored = delta == null ? null : () -> delta.stored =
+                matchScoreBulkWriter.storedDimensionScores(Anchor.PATIENT, patientId, delta.dimensionKeys);
+        Runnable prepareStep = andThen(andThen(prepare, deletePruned), loadStored);
+        StoredRows storedRows = storedRowsOf(Anchor.PATIENT, patientId, prepare, delta);
+
+        // 4. Score the remaining providers chunk by chunk
+        return fanOutEngine.submit("patient:" + patientId, trigger, lane, selection.candidates(), prunedIds.size(), prepareStep, (chunk, run) -> {
+            List<ScoredMatch> evaluations = new ArrayList<>(chunk.size());
+            int failed = 0, unchanged = 0;
+            for (ProviderProfileDTO provider : chunk) {
+                if (run.isCancelled()) break;
+                try {
+                    if (delta != null && skipDelta(delta, patient, provider, provider.getId())) {
+                        unchanged++;
+                        continue;
+                    }
+                    ScoredMatch scored = score(patient, provider);
+                    if (delta != null && !delta.hasRow(provider.getId()) && belowStorageFloor(scored.evaluation().getScore())) {
+                        // Still below the floor: nothing was stored before, nothing is stored now
+                        unchanged++;
+                        continue;
+                    }
+                    evaluations.add(scored);
+                } catch (Exception ex) {
+                    failed++;
+                    log.error("Error scoring pair patientId={} / providerId={}: {}",
+                            patientId, provider.getId(), ex.getMessage(), ex);
                 }
-                processed++;
-            } catch (Exception ex) {
-                log.error("Error scoring pair patientId={} / providerId={}: {}",
-                        patientId, provider.getId(), ex.getMessage(), ex);
             }
-        }
-
-        log.info("calculateMatchesForPatient complete: patientId={}, providers evaluated={}, notifications sent={}",
-                patientId, processed, notified);
+            int notified = persistAndNotify(evaluations, Anchor.PATIENT, storedRows);
+            return new MatchFanOutEngine.ChunkResult(evaluations.size() + unchanged, failed, notified);
+        });
     }
 
-    // ═══════════════════════════════════════════════════════════════════
-    //  calculateMatchesForProvider
-    //  Called when a provider profile is created or updated (FR-MATCH-01)
-    //  Fans out across ALL active patients and upserts a MatchScore for each.
-    // ═══════════════════════════════════════════════════════════════════
+    private FanOutRun fanOutForProvider(UUID providerId, MatchTrigger trigger, WorkLane lane,
+                                      Runnable prepare, DeltaScope delta) {
+        // Bound while the profiles are fetched; the engine binds it on its workers
+        try (var scope = matchMetrics.withTrigger(trigger)) {
+            return submitForProvider(providerId, trigger, lane, prepare, delta);
+        }
+    }
 
-    /**
-     * Recalculates match scores between the given provider and every active patient.
-     *
-     * Execution flow:
-     *   1. Fetch the provider profile.
-     *   2. Fetch all patients who have given consent (GET /api/v1/patients/all).
-     *   3. For each patient: compute score via MatchingAlgorithmService,
-     *      upsert the MatchScore row, publish a match.calculated event,
-     *      and queue a threshold notification when score ≥ matchingThreshold.
-     *
-     * Runs @Async so the Kafka consumer calling this returns immediately.
-     */
-    @Async
-    @Transactional
-    public void calculateMatchesForProvider(UUID providerId) {
+    private FanOutRun submitForProvider(UUID providerId, MatchTrigger trigger, WorkLane lane,
+                                      Runnable prepare, DeltaScope delta) {
         log.info("calculateMatchesForProvider started: providerId={}", providerId);
 
         // 1. Fetch the provider
@@ -195,110 +530,91 @@ public class MatchingService {
             provider = fetchProviderProfile(providerId);
         } catch (ResourceNotFoundException e) {
             log.warn("Provider profile not found, skipping match calculation: providerId={}", providerId);
-            return;
+            return null;
         }
 
         // 2. Fetch all active (consent-given) patients
         List<PatientProfileDTO> patients = fetchAllActivePatients();
         if (patients.isEmpty()) {
             log.info("No active patients found; nothing to match against for providerId={}", providerId);
-            return;
+            if (prepare == null) return null;
         }
-
-        // 3. Score each patient
-        int processed = 0;
-        int notified  = 0;
-
-        for (PatientProfileDTO patient : patients) {
-            try {
-                MatchScore saved = computeAndPersist(patient, provider);
-                if (saved.getScore().doubleValue() >= matchingThreshold) {
-                    publishMatchCalculatedEvent(saved);
-                    notified++;
+        ingestTerms(patients, List.of(provider));
+
+        // 3. Prune pairs that cannot reach the floor; their stale rows are removed, not rescored
+        CandidatePruner.Selection<PatientProfileDTO> selection = candidatePruner.selectPatients(provider, patients);
+        List<UUID> prunedIds = selection.pruned().stream().map(PatientProfileDTO::getId).toList();
+        Runnable deletePruned = prunedIds.isEmpty() ? null : () -> {
+            if (prepare == null) {
+                deleteInSlices(prunedIds, ids -> matchScoreRepository.deleteByProviderIdAndPatientIdIn(providerId, ids));
+            }
+            matchLeaderboard.pairsRemovedForProvider(providerId, prunedIds);
+        };
+        Runnable loadStored = delta == null ? null : () -> delta.stored =
+                matchScoreBulkWriter.storedDimensionScores(Anchor.PROVIDER, providerId, delta.dimensionKeys);
+        Runnable prepareStep = andThen(andThen(prepare, deletePruned), loadStored);
+        StoredRows storedRows = storedRowsOf(Anchor.PROVIDER, providerId, prepare, delta);
+
+        // 4. Score the remaining patients chunk by chunk
+        return fanOutEngine.submit("provider:" + providerId, trigger, lane, selection.candidates(), prunedIds.size(), prepareStep, (chunk, run) -> {
+            List<ScoredMatch> evaluations = new ArrayList<>(chunk.size());
+            int failed = 0, unchanged = 0;
+            for (PatientProfileDTO patient : chunk) {
+                if (run.isCancelled()) break;
+                try {
+                    if (delta != null && skipDelta(delta, patient, provider, patient.getId())) {
+                        unchanged++;
+                        continue;
+                    }
+                    ScoredMatch scored = score(patient, provider);
+                    if (delta != null && !delta.hasRow(patient.getId()) && belowStorageFloor(scored.evaluation().getScore())) {
+                        // Still below the floor: nothing was stored before, nothing is stored now
+                        unchanged++;
+                        continue;
+                    }
+                    evaluations.add(scored);
+                } catch (Exception ex) {
+                    failed++;
+                    log.error("Error scoring pair patientId={} / providerId={}: {}",
+                            patient.getId(), providerId, ex.getMessage(), ex);
                 }
-                processed++;
-            } catch (Exception ex) {
-                log.error("Error scoring pair patientId={} / providerId={}: {}",
-                        patient.getId(), providerId, ex.getMessage(), ex);
             }
-        }
-
-        log.info("calculateMatchesForProvider complete: providerId={}, patients evaluated={}, notifications sent={}",
-                providerId, processed, notified);
+            int notified = persistAndNotify(evaluations, Anchor.PROVIDER, storedRows);
+            return new MatchFanOutEngine.ChunkResult(evaluations.size() + unchanged, failed, notified);
+        });
     }
 
     // ═══════════════════════════════════════════════════════════════════
-    //  recalculate helpers (evict cache, delete stale rows, re-run)
+    //  Read methods
     // ═══════════════════════════════════════════════════════════════════
 
-    @Transactional
-    @CacheEvict(value = "matchScores", allEntries = true)
-    public void recalculateMatchesForPatient(UUID patientId) {
-        log.info("Recalculating (full reset) matches for patientId={}", patientId);
-        matchScoreRepository.deleteByPatientId(patientId);
-        calculateMatchesForPatient(patientId);
-    }
-
-    @Transactional
-    @CacheEvict(value = "matchScores", allEntries = true)
-    public void recalculateMatchesForProvider(UUID providerId) {
-        log.info("Recalculating (full reset) matches for providerId={}", providerId);
-        matchScoreRepository.deleteByProviderId(providerId);
-        calculateMatchesForProvider(providerId);
-    }
-
-    // ═══════════════════════════════════════════════════════════════════
-    //  Read methods (unchanged from existing implementation)
-    // ═══════════════════════════════════════════════════════════════════
+    // Listings render from the display columns of the rows themselves; only rows
+    // written before those columns existed are enriched through the profile fetchers.
 
     @Transactional(readOnly = true)
     @Cacheable(value = "matchScores", key = "#patientId")
     public List<MatchScoreResponse> getMatchesForPatient(UUID patientId, Integer page, Integer size) {
-        Pageable pageable = PageRequest.of(page != null ? page : 0, size != null ? size : 20);
-        Page<MatchScore> matchesPage = matchScoreRepository.findByPatientIdOrderByScoreDesc(patientId, pageable);
-
-        PatientProfileDTO patient = null;
-        try {
-            patient = fetchPatientProfile(patientId);
-        } catch (Exception e) {
-            log.warn("Could not fetch patient details for enrichment: patientId={}", patientId, e);
-        }
-        final PatientProfileDTO finalPatient = patient;
-
-        return matchesPage.getContent().stream()
-                .map(match -> {
-                    MatchScoreResponse response = matchScoreMapper.toResponse(match);
-                    try {
-                        ProviderProfileDTO provider = fetchProviderProfile(match.getProviderId());
-                        enrichResponseWithProviderDetails(response, provider);
-                        enrichResponseWithProviderSummary(response, finalPatient, provider);
-                    } catch (Exception e) {
-                        log.warn("Could not fetch provider details: providerId={}", match.getProviderId(), e);
-                    }
-                    return response;
-                })
-                .collect(Collectors.toList());
+        List<MatchScore> matches = matchLeaderboard.topForPatient(patientId,
+                page != null ? page : 0, size != null ? size : 20, null);
+        return toPatientFeed(patientId, matches);
     }
 
     @Transactional(readOnly = true)
     public List<MatchScoreResponse> getMatchesForProvider(UUID providerId, Integer page, Integer size) {
-        Pageable pageable = PageRequest.of(page != null ? page : 0, size != null ? size : 20);
-        Page<MatchScore> matchesPage = matchScoreRepository.findByProviderIdOrderByScoreDesc(providerId, pageable);
+        List<MatchScore> matches = matchLeaderboard.topForProvider(providerId,
+                page != null ? page : 0, size != null ? size : 20, null);
 
-        ProviderProfileDTO provider = null;
-        try {
-            provider = fetchProviderProfile(providerId);
-        } catch (Exception e) {
-            log.warn("Could not fetch provider details for enrichment: providerId={}", providerId, e);
-        }
-        final ProviderProfileDTO finalProvider = provider;
-
-        return matchesPage.getContent().stream()
+        LegacyProfiles<ProviderProfileDTO> provider = new LegacyProfiles<>(() -> fetchProviderProfile(providerId));
+        return matches.stream()
                 .map(match -> {
                     MatchScoreResponse response = matchScoreMapper.toResponse(match);
+                    if (match.getDisplayRefreshedAt() != null) {
+                        applyPatientDisplay(response, match);
+                        return response;
+                    }
                     try {
                         PatientProfileDTO patient = fetchPatientProfile(match.getPatientId());
-                        enrichResponseWithPatientSummary(response, patient, finalProvider);
+                        enrichResponseWithPatientSummary(response, patient, roundedDistance(patient, provider.get()));
                     } catch (Exception e) {
                         log.warn("Could not fetch patient details for match: patientId={}", match.getPatientId(), e);
                     }
@@ -309,116 +625,284 @@ public class MatchingService {
 
     @Transactional(readOnly = true)
     public List<MatchScoreResponse> getTopMatchesForPatient(UUID patientId, int limit) {
-        List<MatchScore> matches = matchScoreRepository.findByPatientIdAndScoreGreaterThanEqual(
-                patientId, BigDecimal.valueOf(matchingThreshold));
-
-        PatientProfileDTO patient = null;
-        try {
-            patient = fetchPatientProfile(patientId);
-        } catch (Exception e) {
-            log.warn("Could not fetch patient details for enrichment: patientId={}", patientId, e);
-        }
-        final PatientProfileDTO finalPatient = patient;
-
-        return matches.stream()
-                .limit(limit)
-                .map(match -> {
-                    MatchScoreResponse response = matchScoreMapper.toResponse(match);
-                    try {
-                        ProviderProfileDTO provider = fetchProviderProfile(match.getProviderId());
-                        enrichResponseWithProviderDetails(response, provider);
-                        enrichResponseWithProviderSummary(response, finalPatient, provider);
-                    } catch (Exception e) {
-                        log.warn("Could not fetch provider details: providerId={}", match.getProviderId(), e);
-                    }
-                    return response;
-                })
-                .collect(Collectors.toList());
+        List<MatchScore> matches = matchLeaderboard.topForPatient(patientId, 0, limit,
+                BigDecimal.valueOf(matchingThreshold));
+        return toPatientFeed(patientId, matches);
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * The stored match of the pair or, for pairs without a row (below the storage floor
+     * or pruned), a score computed on read and cached for
+     * {@code app.cache.on-demand-match-ttl-seconds}. Not found when either profile is
+     * unknown or does not take part in matching, or the provider does not serve the
+     * patient's location.
+     */
     public MatchScoreResponse getMatch(UUID patientId, UUID providerId) {
-        MatchScore matchScore = matchScoreRepository
-                .findByPatientIdAndProviderId(patientId, providerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Match", "patient+provider",
-                        patientId + "/" + providerId));
+        Optional<MatchScore> stored = matchScoreRepository.findByPatientIdAndProviderId(patientId, providerId);
+        if (stored.isEmpty()) {
+            return onDemandMatch(patientId, providerId);
+        }
+        MatchScore matchScore = stored.get();
 
         MatchScoreResponse response = matchScoreMapper.toResponse(matchScore);
+        if (matchScore.getDisplayRefreshedAt() != null) {
+            applyProviderDisplay(response, matchScore);
+            applyPatientDisplay(response, matchScore);
+            return response;
+        }
         try {
             PatientProfileDTO patient = fetchPatientProfile(patientId);
             ProviderProfileDTO provider = fetchProviderProfile(providerId);
+            Double distanceKm = roundedDistance(patient, provider);
             enrichResponseWithProviderDetails(response, provider);
-            enrichResponseWithPatientSummary(response, patient, provider);
-            enrichResponseWithProviderSummary(response, patient, provider);
+            enrichResponseWithPatientSummary(response, patient, distanceKm);
+            enrichResponseWithProviderSummary(response, provider, distanceKm);
         } catch (Exception e) {
             log.warn("Could not fetch profile details for match: patientId={}, providerId={}", patientId, providerId, e);
         }
         return response;
     }
 
+    /**
+     * Score of the pair as {@link #getMatch} reports it — computed on read (and cached)
+     * for a pair without a row — without the profile enrichment. Empty when the pair
+     * cannot be matched.
+     */
+    public Optional<BigDecimal> onDemandScore(UUID patientId, UUID providerId) {
+        try {
+            return Optional.ofNullable(onDemandMatch(patientId, providerId).getScore());
+        } catch (ResourceNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+
+    // ── On-demand scoring (pairs without a row) ──────────────────────
+
+    private MatchScoreResponse onDemandMatch(UUID patientId, UUID providerId) {
+        Cache cache = cacheManager.getCache(ON_DEMAND_CACHE);
+        String key = patientId + ":" + providerId;
+        MatchScoreResponse cached = cache != null ? cache.get(key, MatchScoreResponse.class) : null;
+        if (cached != null) {
+            return cached;
+        }
+
+        PatientProfileDTO patient = fetchPatientProfile(patientId);
+        ProviderProfileDTO provider = fetchProviderProfile(providerId);
+        if (!Boolean.TRUE.equals(patient.getConsentGiven()) || Boolean.FALSE.equals(provider.getIsVisible())
+                || CandidatePruner.outsideServiceRadius(patient, provider)) {
+            throw new ResourceNotFoundException("Match", "patient+provider", patientId + "/" + providerId);
+        }
+        ingestTerms(List.of(patient), List.of(provider));
+
+        MatchEvaluation evaluation = matchingAlgorithmService.evaluate(patient, provider);
+        MatchScoreResponse response = matchScoreMapper.toResponse(
+                applyEvaluation(newMatchScore(evaluation), evaluation, patient, provider));
+        Double distanceKm = evaluation.getRoundedDistanceKm();
+        enrichResponseWithProviderDetails(response, provider);
+        enrichResponseWithPatientSummary(response, patient, distanceKm);
+        enrichResponseWithProviderSummary(response, provider, distanceKm);
+        log.debug("Match scored on demand: patientId={}, providerId={}, score={}", patientId, providerId, response.getScore());
+
+        if (cache != null) {
+            cache.put(key, response);
+        }
+        return response;
+    }
+
+    private void evictOnDemand(UUID patientId, UUID providerId) {
+        Cache cache = cacheManager.getCache(ON_DEMAND_CACHE);
+        if (cache != null) {
+            cache.evict(patientId + ":" + providerId);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════════
+    //  Display fields — refreshed in place when a profile event changes
+    //  them without requiring a rescore
+    // ═══════════════════════════════════════════════════════════════════
+
+    /**
+     * Rewrites the denormalized display columns of every match of the given profile
+     * from its current state. Rows already showing the current values are not touched.
+     */
+    @Transactional
+    @CacheEvict(value = "matchScores", allEntries = true)
+    public int refreshDisplayFields(String profileType, UUID profileId) {
+        int updated;
+        try {
+            if ("patient".equalsIgnoreCase(profileType)) {
+                updated = matchScoreBulkWriter.refreshPatientDisplay(fetchPatientProfile(profileId), LocalDateTime.now());
+            } else if ("provider".equalsIgnoreCase(profileType)) {
+                updated = matchScoreBulkWriter.refreshProviderDisplay(fetchProviderProfile(profileId), LocalDateTime.now());
+            } else {
+                return 0;
+            }
+        } catch (ResourceNotFoundException e) {
+            log.debug("Profile not found, display fields left unchanged: {} {}", profileType, profileId);
+            return 0;
+        }
+        log.info("Match display fields refreshed: {} {}, rows={}", profileType, profileId, updated);
+        return updated;
+    }
+
     // ═══════════════════════════════════════════════════════════════════
     //  PRIVATE HELPERS
     // ═══════════════════════════════════════════════════════════════════
 
+    /** Which counterparts of one anchor have a stored row. */
+    interface StoredRows {
+        /** Those of the given counterparts that have a row. */
+        Set<UUID> of(Collection<UUID> counterpartIds);
+    }
+
+    /** Stored rows read from {@code match_scores}, only for the counterparts asked about. */
+    StoredRows storedRowsOf(Anchor anchor, UUID anchorId) {
+        return counterpartIds -> matchScoreBulkWriter.storedCounterparts(anchor, anchorId, counterpartIds);
+    }
+
     /**
-     * Compute a score for a patient–provider pair and upsert the MatchScore row.
-     * The explanation and breakdown are generated by MatchingAlgorithmService so
-     * all scoring logic stays in one place.
+     * Stored rows as a fan-out knows them: none after a full reset (its prepare step
+     * deleted them), the rows a delta run loaded, otherwise read per chunk.
      */
-    private MatchScore computeAndPersist(PatientProfileDTO patient, ProviderProfileDTO provider) {
-
-        BigDecimal          score       = matchingAlgorithmService.calculateMatchScore(patient, provider);
-        Map<String, Object> explanation = matchingAlgorithmService.generateExplanation(patient, provider, score);
-        Map<String, Object> breakdown   = matchingAlgorithmService.getScoreBreakdown(patient, provider);
-
-        MatchScore matchScore = matchScoreRepository
-                .findByPatientIdAndProviderId(patient.getId(), provider.getId())
-                .orElse(MatchScore.builder()
-                        .patientId(patient.getId())
-                        .providerId(provider.getId())
-                        .build());
-
-        matchScore.setScore(score);
-        matchScore.setExplanation(explanation);
-        matchScore.setScoreBreakdown(breakdown);
-        matchScore.setCalculatedAt(LocalDateTime.now());
+    private StoredRows storedRowsOf(Anchor anchor, UUID anchorId, Runnable reset, DeltaScope delta) {
+        if (reset != null) {
+            return counterpartIds -> Set.of();
+        }
+        if (delta != null) {
+            return counterpartIds -> {
+                Set<UUID> stored = new HashSet<>(counterpartIds);
+                stored.retainAll(delta.stored.keySet());
+                return stored;
+            };
+        }
+        return storedRowsOf(anchor, anchorId);
+    }
+
+    /**
+     * Writes a chunk of evaluations with one set-based upsert and hands the written
+     * rows to ThresholdNotifier (batched dedupe and notification bookkeeping).
+     * Evaluations below the storage floor are not written; rows they still have from an
+     * earlier score are deleted.
+     *
+     * @param anchor side all evaluations share
+     * @param stored rows of the anchor; asked only about pairs below the storage floor
+     * @return number of match.calculated events published
+     */
+    int persistAndNotify(List<ScoredMatch> matches, Anchor anchor, StoredRows stored) {
+        List<UpsertedScore> rows = persist(matches, anchor, stored);
+        matchLeaderboard.scoresChanged(rows);
+        return thresholdNotifier.notifyCrossings(rows);
+    }
+
+    /**
+     * Upserts the evaluations at or above the storage floor and deletes the rows of those
+     * below it. Pairs below the floor without a row (the common case) issue no statement.
+     */
+    private List<UpsertedScore> persist(List<ScoredMatch> matches, Anchor anchor, StoredRows stored) {
+        List<ScoredMatch> kept = matches;
+        Map<UUID, MatchPair> belowFloor = Map.of();
+        if (storageFloor > 0) {
+            kept = new ArrayList<>(matches.size());
+            belowFloor = new HashMap<>();
+            for (ScoredMatch match : matches) {
+                MatchEvaluation evaluation = match.evaluation();
+                if (belowStorageFloor(evaluation.getScore())) {
+                    MatchPair pair = new MatchPair(evaluation.getPatientId(), evaluation.getProviderId());
+                    belowFloor.put(anchor == Anchor.PATIENT ? pair.providerId() : pair.patientId(), pair);
+                } else {
+                    kept.add(match);
+                }
+            }
+        }
 
-        return matchScoreRepository.save(matchScore);
+        long started = System.nanoTime();
+        List<UpsertedScore> rows = matchScoreBulkWriter.upsert(kept, LocalDateTime.now());
+        if (!kept.isEmpty()) {
+            matchMetrics.scoresWritten(kept.size(), System.nanoTime() - started);
+        }
+        if (!belowFloor.isEmpty()) {
+            List<MatchPair> fallen = new ArrayList<>();
+            for (UUID counterpartId : stored.of(belowFloor.keySet())) {
+                fallen.add(belowFloor.get(counterpartId));
+            }
+            if (!fallen.isEmpty()) {
+                matchLeaderboard.pairsRemoved(matchScoreBulkWriter.deletePairs(fallen));
+            }
+        }
+        return rows;
     }
 
-    // ── Kafka event ───────────────────────────────────────────────────
+    private boolean belowStorageFloor(BigDecimal score) {
+        return storageFloor > 0 && score.doubleValue() < storageFloor;
+    }
 
-    private void publishMatchCalculatedEvent(MatchScore matchScore) {
-        // Avoid duplicate notifications for the same match
-        if (matchNotificationRepository.existsByMatchIdAndNotificationSentTrue(matchScore.getId())) {
-            log.debug("Notification already sent for matchId={}", matchScore.getId());
-            return;
+    private static Runnable andThen(Runnable first, Runnable second) {
+        if (first == null || second == null) {
+            return first != null ? first : second;
         }
+        return () -> {
+            first.run();
+            second.run();
+        };
+    }
 
-        MatchCalculatedEvent event = MatchCalculatedEvent.builder()
-                .eventType("match.calculated")
-                .matchId(matchScore.getId())
-                .patientId(matchScore.getPatientId())
-                .providerId(matchScore.getProviderId())
-                .score(matchScore.getScore())
-                .timestamp(LocalDateTime.now())
-                .build();
+    private static void deleteInSlices(List<UUID> ids, Consumer<List<UUID>> delete) {
+        for (int from = 0; from < ids.size(); from += DELETE_SLICE_SIZE) {
+            delete.accept(ids.subList(from, Math.min(from + DELETE_SLICE_SIZE, ids.size())));
+        }
+    }
+
+    /**
+     * Registers the vocabulary terms of profiles fetched past the ProfileReplica (replicated
+     * profiles were encoded when they were ingested). Runs before any lane permit or
+     * connection is taken, since scoring only looks terms up.
+     */
+    void ingestTerms(Collection<PatientProfileDTO> patients, Collection<ProviderProfileDTO> providers) {
+        for (PatientProfileDTO patient : patients) {
+            termVocabulary.ingest(patient);
+        }
+        for (ProviderProfileDTO provider : providers) {
+            termVocabulary.ingest(provider);
+        }
+    }
 
-        matchingEventProducer.sendMatchCalculatedEvent(event);
+    ScoredMatch score(PatientProfileDTO patient, ProviderProfileDTO provider) {
+        MatchEvaluation evaluation = matchingAlgorithmService.evaluate(patient, provider);
+        return new ScoredMatch(evaluation, MatchDisplay.of(patient, provider, evaluation.getRoundedDistanceKm()));
+    }
 
-        MatchNotification notification = MatchNotification.builder()
-                .matchId(matchScore.getId())
-                .notificationSent(true)
-                .sentAt(LocalDateTime.now())
+    private static MatchScore newMatchScore(MatchEvaluation evaluation) {
+        return MatchScore.builder()
+                .patientId(evaluation.getPatientId())
+                .providerId(evaluation.getProviderId())
                 .build();
+    }
 
-        matchNotificationRepository.save(notification);
-        log.debug("Threshold notification queued: matchId={}, score={}", matchScore.getId(), matchScore.getScore());
+    /** Copies the evaluation onto a (transient) entity, which the mapper renders into the response. */
+    private static MatchScore applyEvaluation(MatchScore matchScore, MatchEvaluation evaluation,
+                                              PatientProfileDTO patient, ProviderProfileDTO provider) {
+        matchScore.setScore(evaluation.getScore());
+        matchScore.setDimensionScores(evaluation.quantizedDimensionScores());
+        matchScore.setExplanationFacts(evaluation.packedExplanationFacts());
+        matchScore.setAlgorithmVersion(evaluation.getAlgorithmVersion());
+        matchScore.setLegacyExplanation(null);
+        matchScore.setLegacyScoreBreakdown(null);
+        matchScore.setCalculatedAt(LocalDateTime.now());
+        matchScore.applyDisplay(MatchDisplay.of(patient, provider, evaluation.getRoundedDistanceKm()),
+                matchScore.getCalculatedAt());
+        return matchScore;
     }
 
     // ── Profile fetchers ──────────────────────────────────────────────
 
+    // Reads are served from the local ProfileReplica once it is warm; Feign is the
+    // fallback while it bootstraps and for profiles it has not seen yet.
+
     private PatientProfileDTO fetchPatientProfile(UUID patientId) {
+        Optional<PatientProfileDTO> replicated = profileReplica.findPatient(patientId);
+        if (replicated.isPresent()) {
+            return replicated.get();
+        }
         try {
             ApiResponse<PatientProfileDTO> response = profileServiceClient.getPatientProfile(patientId);
             if (response == null || response.getData() == null) {
@@ -434,6 +918,10 @@ public class MatchingService {
     }
 
     private ProviderProfileDTO fetchProviderProfile(UUID providerId) {
+        Optional<ProviderProfileDTO> replicated = profileReplica.findProvider(providerId);
+        if (replicated.isPresent()) {
+            return replicated.get();
+        }
         try {
             ApiResponse<ProviderProfileDTO> response = profileServiceClient.getProviderProfile(providerId);
             log.info("Get profile by id: {}", response.getData().getId());
@@ -451,7 +939,56 @@ public class MatchingService {
         }
     }
 
-    private List<PatientProfileDTO> fetchAllActivePatients() {
+    // Shortlists: replica first, then one batch call for the rest; unknown ids are skipped
+
+    private List<PatientProfileDTO> fetchPatientProfiles(List<UUID> patientIds) {
+        return fetchProfiles(patientIds, profileReplica::findPatient, PatientProfileDTO::getId,
+                profileServiceClient::getPatientProfiles, "patient");
+    }
+
+    private List<ProviderProfileDTO> fetchProviderProfiles(List<UUID> providerIds) {
+        return fetchProfiles(providerIds, profileReplica::findProvider, ProviderProfileDTO::getId,
+                profileServiceClient::getProviderProfiles, "provider");
+    }
+
+    /** Profiles of the given ids that exist, in the order of the ids. */
+    private static <T> List<T> fetchProfiles(List<UUID> ids,
+                                             Function<UUID, Optional<T>> replicated,
+                                             Function<T, UUID> idOf,
+                                             Function<List<UUID>, ApiResponse<List<T>>> batchCall,
+                                             String profileType) {
+        Map<UUID, T> found = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : ids) {
+            replicated.apply(id).ifPresentOrElse(profile -> found.put(id, profile), () -> missing.add(id));
+        }
+        if (!missing.isEmpty()) {
+            try {
+                ApiResponse<List<T>> response = batchCall.apply(missing);
+                if (response != null && response.getData() != null) {
+                    response.getData().forEach(profile -> found.put(idOf.apply(profile), profile));
+                }
+            } catch (FeignException e) {
+                log.error("Feign error fetching {} profiles: ids={}", profileType, missing.size(), e);
+                throw new RuntimeException("Failed to fetch " + profileType + " profiles from profile service", e);
+            }
+        }
+        List<T> profiles = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            T profile = found.get(id);
+            if (profile != null) {
+                profiles.add(profile);
+            } else {
+                log.warn("{} profile not found, skipped in match batch: id={}", profileType, id);
+            }
+        }
+        return profiles;
+    }
+
+    List<PatientProfileDTO> fetchAllActivePatients() {
+        if (profileReplica.isPatientsWarm()) {
+            return profileReplica.activePatients();
+        }
         try {
             ApiResponse<List<PatientProfileDTO>> response = profileServiceClient.getAllActivePatients();
             if (response == null || response.getData() == null) {
@@ -464,7 +1001,10 @@ public class MatchingService {
         }
     }
 
-    private List<ProviderProfileDTO> fetchAllActiveProviders() {
+    List<ProviderProfileDTO> fetchAllActiveProviders() {
+        if (profileReplica.isProvidersWarm()) {
+            return profileReplica.activeProviders();
+        }
         try {
             ApiResponse<List<ProviderProfileDTO>> response = profileServiceClient.getAllActiveProviders();
             if (response == null || response.getData() == null) {
@@ -479,6 +1019,70 @@ public class MatchingService {
 
     // ── Response enrichment ───────────────────────────────────────────
 
+    private List<MatchScoreResponse> toPatientFeed(UUID patientId, List<MatchScore> matches) {
+        LegacyProfiles<PatientProfileDTO> patient = new LegacyProfiles<>(() -> fetchPatientProfile(patientId));
+        return matches.stream()
+                .map(match -> {
+                    MatchScoreResponse response = matchScoreMapper.toResponse(match);
+                    if (match.getDisplayRefreshedAt() != null) {
+                        applyProviderDisplay(response, match);
+                        return response;
+                    }
+                    try {
+                        ProviderProfileDTO provider = fetchProviderProfile(match.getProviderId());
+                        enrichResponseWithProviderDetails(response, provider);
+                        enrichResponseWithProviderSummary(response, provider, roundedDistance(patient.get(), provider));
+                    } catch (Exception e) {
+                        log.warn("Could not fetch provider details: providerId={}", match.getProviderId(), e);
+                    }
+                    return response;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static void applyProviderDisplay(MatchScoreResponse response, MatchScore match) {
+        response.setProviderName(match.getProviderName());
+        response.setProviderType(match.getProviderType());
+        response.setProviderSummary(ProviderSummaryDTO.builder()
+                .name(match.getProviderName())
+                .type(match.getProviderType())
+                .specializations(match.getProviderSpecializations())
+                .distanceKm(match.getDistanceKm())
+                .available(match.getProviderAvailable())
+                .build());
+    }
+
+    private static void applyPatientDisplay(MatchScoreResponse response, MatchScore match) {
+        response.setPatientSummary(PatientSummaryDTO.builder()
+                .careLevel(match.getPatientCareLevel())
+                .distanceKm(match.getDistanceKm())
+                .needs(match.getPatientCareType())
+                .build());
+    }
+
+    /** Anchor profile for enriching rows without display fields; fetched once, on first need. */
+    private static final class LegacyProfiles<T> {
+        private final Supplier<T> fetch;
+        private boolean fetched;
+        private T profile;
+
+        LegacyProfiles(Supplier<T> fetch) {
+            this.fetch = fetch;
+        }
+
+        T get() {
+            if (!fetched) {
+                fetched = true;
+                try {
+                    profile = fetch.get();
+                } catch (Exception e) {
+                    log.warn("Could not fetch anchor profile for enrichment", e);
+                }
+            }
+            return profile;
+        }
+    }
+
     private void enrichResponseWithProviderDetails(MatchScoreResponse response, ProviderProfileDTO provider) {
         if (provider == null) return;
         response.setProviderName(provider.getFacilityName());
@@ -486,20 +1090,24 @@ public class MatchingService {
                 ? provider.getProviderType() : null);
     }
 
+    /** Distance rounded to one decimal, or null when either side or its location is unknown. */
+    private Double roundedDistance(PatientProfileDTO patient, ProviderProfileDTO provider) {
+        if (patient == null || provider == null
+                || patient.getLatitude() == null || patient.getLongitude() == null
+                || provider.getLatitude() == null || provider.getLongitude() == null) {
+            return null;
+        }
+        double raw = matchingAlgorithmService.calculateDistance(
+                patient.getLatitude(), patient.getLongitude(),
+                provider.getLatitude(), provider.getLongitude());
+        return Math.round(raw * 10.0) / 10.0;
+    }
+
     private void enrichResponseWithProviderSummary(MatchScoreResponse response,
-                                                    PatientProfileDTO patient,
-                                                    ProviderProfileDTO provider) {
+                                                    ProviderProfileDTO provider,
+                                                    Double distanceKm) {
         if (provider == null) return;
 
-        Double distanceKm = null;
-        if (patient != null && patient.getLatitude() != null && patient.getLongitude() != null
-                && provider.getLatitude() != null && provider.getLongitude() != null) {
-            double raw = matchingAlgorithmService.calculateDistance(
-                    patient.getLatitude(), patient.getLongitude(),
-                    provider.getLatitude(), provider.getLongitude());
-            distanceKm = Math.round(raw * 10.0) / 10.0;
-        }
-
         boolean available = provider.getAvailableRooms() != null && provider.getAvailableRooms() > 0;
 
         response.setProviderSummary(ProviderSummaryDTO.builder()
@@ -513,18 +1121,9 @@ public class MatchingService {
 
     private void enrichResponseWithPatientSummary(MatchScoreResponse response,
                                                    PatientProfileDTO patient,
-                                                   ProviderProfileDTO provider) {
+                                                   Double distanceKm) {
         if (patient == null) return;
 
-        Double distanceKm = null;
-        if (patient.getLatitude() != null && patient.getLongitude() != null
-                && provider != null && provider.getLatitude() != null && provider.getLongitude() != null) {
-            double raw = matchingAlgorithmService.calculateDistance(
-                    patient.getLatitude(), patient.getLongitude(),
-                    provider.getLatitude(), provider.getLongitude());
-            distanceKm = Math.round(raw * 10.0) / 10.0;
-        }
-
         response.setPatientSummary(PatientSummaryDTO.builder()
                 .careLevel(patient.getCareLevel())
                 .distanceKm(distanceKm)
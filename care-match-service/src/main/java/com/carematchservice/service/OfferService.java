@@ -50,6 +50,7 @@ public class OfferService {
     private final BillingServiceClient billingServiceClient;
     private final CareRequestService   careRequestService;
     private final ProfileServiceClient profileServiceClient;
+    private final MatchingService matchingService;
 
     @Value("${app.offer.expiration-days}")
     private int offerExpirationDays;
@@ -488,7 +489,7 @@ public class OfferService {
     }
 
     @Transactional
-    @Scheduled(cron = "0 0 2 * * ?") // Run daily at 2 AM
+    @Scheduled(cron = "${app.offer.expiration-cron:-}") // Off unless configured, e.g. "0 0 2 * * ?" for daily at 2 AM
     public void expireOldOffers() {
         log.info("Running scheduled offer expiration job");
 
@@ -539,13 +540,28 @@ public class OfferService {
         }
     }
 
+    /**
+     * The pair's current match, looked up by pair rather than by the offer's match id: the
+     * row may have been compacted away or rewritten under a new id since, or never stored
+     * (below the storage floor). Pairs without a row are scored on demand, as
+     * GET /matches/patient/{patientId}/provider/{providerId} does; the response's match id
+     * is then {@code null}.
+     */
     private void enrichOfferWithMatchScore(OfferResponse response, Offer offer) {
-        if (offer.getMatchId() != null) {
-            matchScoreRepository.findById(offer.getMatchId())
-                    .ifPresent(ms -> response.setMatchScore(ms.getScore().doubleValue()));
-        } else {
-            matchScoreRepository.findByPatientIdAndProviderId(offer.getPatientId(), offer.getProviderId())
-                    .ifPresent(ms -> response.setMatchScore(ms.getScore().doubleValue()));
+        MatchScore stored = matchScoreRepository
+                .findByPatientIdAndProviderId(offer.getPatientId(), offer.getProviderId())
+                .orElse(null);
+        if (stored != null) {
+            response.setMatchId(stored.getId());
+            response.setMatchScore(stored.getScore().doubleValue());
+            return;
+        }
+        response.setMatchId(null);
+        try {
+            matchingService.onDemandScore(offer.getPatientId(), offer.getProviderId())
+                    .ifPresent(score -> response.setMatchScore(score.doubleValue()));
+        } catch (Exception e) {
+            log.warn("Could not score match for offer enrichment: offerId={}", offer.getId(), e);
         }
     }
 }
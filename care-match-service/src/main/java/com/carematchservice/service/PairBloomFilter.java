@@ -0,0 +1,86 @@
+package com.carematchservice.service;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over (patientId, providerId) pairs.
+ *
+ * {@link #mightContain} never returns {@code false} for a pair that was {@link #put};
+ * it returns {@code true} for a pair that was not with roughly the configured false
+ * positive probability, as long as no more than the expected number of pairs is added.
+ * Bit positions use double hashing (Kirsch–Mitzenmacher) over two 64-bit mixes of the
+ * four UUID halves.
+ */
+public final class PairBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    public PairBloomFilter(long expectedPairs, double falsePositiveRate) {
+        long n = Math.max(1, expectedPairs);
+        double p = Math.min(0.5, Math.max(1e-9, falsePositiveRate));
+        long bits = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void put(UUID patientId, UUID providerId) {
+        long h1 = hash1(patientId, providerId);
+        long h2 = hash2(patientId, providerId);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            while (((current = words.get(word)) & mask) == 0
+                    && !words.compareAndSet(word, current, current | mask)) {
+                // lost a race with another bit of the same word; retry
+            }
+        }
+    }
+
+    public boolean mightContain(UUID patientId, UUID providerId) {
+        long h1 = hash1(patientId, providerId);
+        long h2 = hash2(patientId, providerId);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private static long hash1(UUID patientId, UUID providerId) {
+        return mix(patientId.getMostSignificantBits() ^ mix(patientId.getLeastSignificantBits()
+                ^ mix(providerId.getMostSignificantBits() ^ mix(providerId.getLeastSignificantBits()))));
+    }
+
+    private static long hash2(UUID patientId, UUID providerId) {
+        // Odd, so consecutive probes never collapse onto one bit
+        return mix(providerId.getLeastSignificantBits() + 0x9e3779b97f4a7c15L
+                ^ mix(patientId.getMostSignificantBits() ^ mix(providerId.getMostSignificantBits()
+                ^ patientId.getLeastSignificantBits()))) | 1L;
+    }
+
+    /** SplitMix64 finalizer. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
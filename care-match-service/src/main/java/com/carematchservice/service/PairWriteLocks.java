@@ -0,0 +1,155 @@
+package com.carematchservice.service;
+
+import com.carematchservice.repository.MatchScoreBulkWriter.MatchPair;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped write locks for pair read-modify-write sequences (MatchingService's
+ * calculateMatch: read the stored row, decide between upsert and delete, notify; and
+ * calculateMatchBatch, the same for a shortlist of pairs).
+ *
+ * A pair maps to one of {@code app.matching.pair-locks.stripes} stripes by its hash. The
+ * stripe is held
+ *   - in this instance as a {@link ReentrantLock}, taken before a connection is, so
+ *     waiting callers do not sit on pooled connections, and
+ *   - across instances as a PostgreSQL transaction-level advisory lock
+ *     ({@code pg_advisory_xact_lock(LOCK_CLASS, stripe)}), released by the commit
+ *     ({@code app.matching.pair-locks.distributed}).
+ *
+ * A batch write ({@link #writeAll}) takes the distinct stripes of all its pairs in ascending
+ * order, locally and then as advisory locks, so batch writers cannot deadlock with each
+ * other or with single-pair writers. Batches are capped by {@code app.matching.batch.max-pairs}.
+ *
+ * Fan-out chunks do not take stripes: a chunk covers hundreds of pairs, and they merge
+ * through the upsert's ON CONFLICT in pair order (see MatchScoreBulkWriter#upsert).
+ *
+ * Every acquisition is counted in MatchMetrics ({@code match.pair.lock.acquisitions},
+ * outcome uncontended / contended) and contended waits are timed
+ * ({@code match.pair.lock.wait}), per scope (local / advisory).
+ */
+@Component
+@Slf4j
+public class PairWriteLocks {
+
+    /** First key of the two-key advisory lock form, keeping the stripes apart from other advisory locks. */
+    static final int LOCK_CLASS = 0x4d41_5443;
+
+    private static final String TRY_ADVISORY_LOCK = "SELECT pg_try_advisory_xact_lock(?, ?)";
+    private static final String ADVISORY_LOCK = "SELECT pg_advisory_xact_lock(?, ?)";
+
+    private final ReentrantLock[] stripes;
+    private final boolean distributed;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MatchWorkScheduler workScheduler;
+    private final MatchMetrics matchMetrics;
+
+    public PairWriteLocks(JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          MatchWorkScheduler workScheduler,
+                          MatchMetrics matchMetrics,
+                          @Value("${app.matching.pair-locks.stripes:1024}") int stripes,
+                          @Value("${app.matching.pair-locks.distributed:true}") boolean distributed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.workScheduler = workScheduler;
+        this.matchMetrics = matchMetrics;
+        this.distributed = distributed;
+        this.stripes = new ReentrantLock[Math.max(1, stripes)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs the work in a transaction in the given lane, holding the pair's stripe from
+     * before the connection is taken until the transaction has completed.
+     */
+    public <T> T write(UUID patientId, UUID providerId, WorkLane lane, Supplier<T> work) {
+        int stripe = stripe(patientId, providerId);
+        ReentrantLock lock = stripes[stripe];
+        lockLocal(lock);
+        try {
+            return workScheduler.call(lane, () -> transactionTemplate.execute(status -> {
+                if (distributed) {
+                    lockAdvisory(stripe);
+                }
+                return work.get();
+            }));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@link #write} for several pairs: runs the work in one transaction, holding the
+     * stripes of all the pairs, taken in ascending stripe order.
+     */
+    public <T> T writeAll(Collection<MatchPair> pairs, WorkLane lane, Supplier<T> work) {
+        int[] ordered = pairs.stream()
+                .mapToInt(pair -> stripe(pair.patientId(), pair.providerId()))
+                .distinct()
+                .sorted()
+                .toArray();
+        int held = 0;
+        try {
+            for (int stripe : ordered) {
+                lockLocal(stripes[stripe]);
+                held++;
+            }
+            return workScheduler.call(lane, () -> transactionTemplate.execute(status -> {
+                if (distributed) {
+                    for (int stripe : ordered) {
+                        lockAdvisory(stripe);
+                    }
+                }
+                return work.get();
+            }));
+        } finally {
+            for (int i = held - 1; i >= 0; i--) {
+                stripes[ordered[i]].unlock();
+            }
+        }
+    }
+
+    int stripe(UUID patientId, UUID providerId) {
+        long h = patientId.getMostSignificantBits() ^ patientId.getLeastSignificantBits();
+        h = h * 31 + (providerId.getMostSignificantBits() ^ providerId.getLeastSignificantBits());
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) Math.floorMod(h, (long) stripes.length);
+    }
+
+    private void lockLocal(ReentrantLock lock) {
+        if (lock.tryLock()) {
+            matchMetrics.pairLockAcquired("local", false, 0);
+        } else {
+            long started = System.nanoTime();
+            lock.lock();
+            matchMetrics.pairLockAcquired("local", true, System.nanoTime() - started);
+        }
+    }
+
+    private void lockAdvisory(int stripe) {
+        Boolean acquired = jdbcTemplate.queryForObject(TRY_ADVISORY_LOCK, Boolean.class, LOCK_CLASS, stripe);
+        if (Boolean.TRUE.equals(acquired)) {
+            matchMetrics.pairLockAcquired("advisory", false, 0);
+            return;
+        }
+        long started = System.nanoTime();
+        jdbcTemplate.query(ADVISORY_LOCK, rs -> { }, LOCK_CLASS, stripe);
+        long waited = System.nanoTime() - started;
+        matchMetrics.pairLockAcquired("advisory", true, waited);
+        log.debug("Pair stripe {} was held by another instance, waited {}ms", stripe, waited / 1_000_000);
+    }
+}
@@ -0,0 +1,385 @@
+package com.carematchservice.service;
+
+import com.carecommon.dto.ApiResponse;
+import com.carematchservice.dto.PatientProfileDTO;
+import com.carematchservice.dto.ProviderProfileDTO;
+import com.carematchservice.feign.ProfileServiceClient;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Local, in-memory replica of the matching-relevant patient and provider profiles.
+ *
+ * Lifecycle:
+ *   1. Bootstrap — the first {@link #reconcile()} run loads both populations once
+ *      from care-profile-service (GET /patients/all, GET /providers/all).
+ *   2. Events  — ProfileReplicaListener calls {@link #refresh(String, UUID)} for every
+ *      profile.created / profile.updated event on every instance (ProfileEventConsumer
+ *      also does, before its fan-out); only that single profile is fetched.
+ *   3. Reconciliation — {@link #reconcile()} re-runs periodically to pick up missed
+ *      events, deletions and visibility / consent changes.
+ *
+ * Every entry is versioned by the profile's {@code updatedAt}; an older copy never
+ * overwrites a newer one, so out-of-order event handling and a reconciliation pass
+ * racing with events cannot move the replica backwards; a copy with the same
+ * {@code updatedAt} is not applied again. {@link #getVersion()} increases on every change
+ * and lets callers cache derived snapshots.
+ *
+ * Until a side has been bootstrapped it is "cold" and MatchingService keeps using
+ * Feign for that side.
+ *
+ * The replica also notices which tracked fields ({@link #PATIENT_FIELDS},
+ * {@link #PROVIDER_FIELDS}) changed between two copies of a profile, whatever the event
+ * said: the producers do not list every field in {@code ProfileUpdatedEvent.changes}
+ * (a provider rename arrives with an empty change map, a patient's move only as a
+ * region change). The fields collect per entry
+ * until ProfileEventConsumer takes them with {@link #takeChangedFields(String, UUID)}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProfileReplica {
+
+    /** Patient fields diffed between copies: the match display fields' sources (see MatchDisplay) and the scoring inputs. */
+    static final Map<String, Function<PatientProfileDTO, Object>> PATIENT_FIELDS = Map.of(
+            "careLevel", PatientProfileDTO::getCareLevel,
+            "careType", PatientProfileDTO::getCareType,
+            "region", PatientProfileDTO::getRegion,
+            "latitude", PatientProfileDTO::getLatitude,
+            "longitude", PatientProfileDTO::getLongitude,
+            "medicalRequirements", PatientProfileDTO::getMedicalRequirements,
+            "lifestyleAttributes", PatientProfileDTO::getLifestyleAttributes,
+            "careServiceTier", PatientProfileDTO::getCareServiceTier);
+
+    /** Provider fields diffed between copies: the match display fields' sources (see MatchDisplay) and the scoring inputs. */
+    static final Map<String, Function<ProviderProfileDTO, Object>> PROVIDER_FIELDS = Map.ofEntries(
+            Map.entry("facilityName", ProviderProfileDTO::getFacilityName),
+            Map.entry("providerType", ProviderProfileDTO::getProviderType),
+            Map.entry("specializations", ProviderProfileDTO::getSpecializations),
+            Map.entry("availableRooms", ProviderProfileDTO::getAvailableRooms),
+            Map.entry("region", ProviderProfileDTO::getRegion),
+            Map.entry("latitude", ProviderProfileDTO::getLatitude),
+            Map.entry("longitude", ProviderProfileDTO::getLongitude),
+            Map.entry("acceptedCareLevels", ProviderProfileDTO::getAcceptedCareLevels),
+            Map.entry("offeredServiceTiers", ProviderProfileDTO::getOfferedServiceTiers),
+            Map.entry("lifestyleOptions", ProviderProfileDTO::getLifestyleOptions),
+            Map.entry("qualityIndicators", ProviderProfileDTO::getQualityIndicators));
+
+    private final ProfileServiceClient profileServiceClient;
+    private final TermVocabulary termVocabulary;
+
+    private final AtomicLong version = new AtomicLong();
+
+    /** Live spatial index over the replicated providers' coordinates. */
+    private final ProviderSpatialIndex providerLocations = new ProviderSpatialIndex();
+
+    // Term bitsets are encoded on ingestion, which also registers new terms in the vocabulary
+    private final Side<PatientProfileDTO> patients = new Side<>("patient",
+            PatientProfileDTO::getId, PatientProfileDTO::getUpdatedAt,
+            p -> Boolean.TRUE.equals(p.getConsentGiven()), PATIENT_FIELDS,
+            this::encodePatient, (id, patient) -> { });
+
+    private final Side<ProviderProfileDTO> providers = new Side<>("provider",
+            ProviderProfileDTO::getId, ProviderProfileDTO::getUpdatedAt,
+            p -> !Boolean.FALSE.equals(p.getIsVisible()), PROVIDER_FIELDS,
+            this::encodeProvider, this::locateProvider);
+
+    // ── Reads ─────────────────────────────────────────────────────────────────
+
+    public boolean isPatientsWarm() {
+        return patients.warm;
+    }
+
+    public boolean isProvidersWarm() {
+        return providers.warm;
+    }
+
+    /**
+     * Spatial index over the locations of all replicated providers, updated as providers
+     * are inserted, moved or removed. Empty while the provider side is cold.
+     */
+    public ProviderSpatialIndex providerLocations() {
+        return providerLocations;
+    }
+
+    /** Monotonic change counter across both sides. */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public Optional<PatientProfileDTO> findPatient(UUID patientId) {
+        return patients.find(patientId);
+    }
+
+    public Optional<ProviderProfileDTO> findProvider(UUID providerId) {
+        return providers.find(providerId);
+    }
+
+    /** Immutable snapshot of all consenting patients. Only meaningful when {@link #isPatientsWarm()}. */
+    public List<PatientProfileDTO> activePatients() {
+        return patients.snapshot();
+    }
+
+    /** Immutable snapshot of all visible providers. Only meaningful when {@link #isProvidersWarm()}. */
+    public List<ProviderProfileDTO> activeProviders() {
+        return providers.snapshot();
+    }
+
+    // ── Event-driven updates ──────────────────────────────────────────────────
+
+    /**
+     * Re-fetches a single profile after a profile event and applies it to the replica.
+     * Profiles that no longer exist, lost consent or were hidden are removed.
+     */
+    public void refresh(String profileType, UUID profileId) {
+        try {
+            if ("patient".equalsIgnoreCase(profileType)) {
+                patients.apply(profileId, fetch(() -> profileServiceClient.getPatientProfile(profileId)));
+            } else if ("provider".equalsIgnoreCase(profileType)) {
+                providers.apply(profileId, fetch(() -> profileServiceClient.getProviderProfile(profileId)));
+            }
+        } catch (FeignException e) {
+            // Leave the current entry in place; the next reconciliation pass repairs it.
+            log.warn("Replica refresh failed: profileType={}, profileId={}, status={}",
+                    profileType, profileId, e.status());
+        }
+    }
+
+    /**
+     * Tracked fields that changed between replicated copies of the profile since the last
+     * call, and forgets them. Empty for unknown profiles and for a profile's first copy.
+     */
+    public Set<String> takeChangedFields(String profileType, UUID profileId) {
+        if ("patient".equalsIgnoreCase(profileType)) {
+            return patients.takeChangedFields(profileId);
+        } else if ("provider".equalsIgnoreCase(profileType)) {
+            return providers.takeChangedFields(profileId);
+        }
+        return Set.of();
+    }
+
+    // ── Bootstrap / reconciliation ────────────────────────────────────────────
+
+    /**
+     * Loads both populations and merges them into the replica. The first successful
+     * run per side warms it up; later runs repair drift. Entries that are not part of
+     * the fetched population and were not touched by an event during this run are removed.
+     */
+    @Scheduled(initialDelayString = "${app.replica.bootstrap-delay-ms:5000}",
+               fixedDelayString = "${app.replica.reconcile-interval-ms:900000}")
+    public void reconcile() {
+        patients.reconcile(() -> profileServiceClient.getAllActivePatients());
+        providers.reconcile(() -> profileServiceClient.getAllActiveProviders());
+    }
+
+    private void encodePatient(PatientProfileDTO patient) {
+        termVocabulary.ingest(patient);
+    }
+
+    private void encodeProvider(ProviderProfileDTO provider) {
+        termVocabulary.ingest(provider);
+    }
+
+    /** Keeps the provider spatial index in step with the replica; {@code null} means removed. */
+    private void locateProvider(UUID providerId, ProviderProfileDTO provider) {
+        if (provider == null) {
+            providerLocations.remove(providerId);
+        } else {
+            providerLocations.put(providerId, provider.getLatitude(), provider.getLongitude());
+        }
+    }
+
+    private static <T> T fetch(Supplier<ApiResponse<T>> call) {
+        try {
+            ApiResponse<T> response = call.get();
+            return response != null ? response.getData() : null;
+        } catch (FeignException.NotFound e) {
+            return null;
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /** {@code changedFields}: tracked fields changed by copies applied since they were last taken. */
+    private record Entry<T>(T profile, LocalDateTime updatedAt, long version, Set<String> changedFields) {}
+
+    private record Snapshot<T>(long version, List<T> profiles) {}
+
+    private final class Side<T> {
+
+        private final String name;
+        private final Function<T, UUID> idOf;
+        private final Function<T, LocalDateTime> updatedAtOf;
+        private final Predicate<T> active;
+        private final Map<String, Function<T, Object>> tracked;
+        private final Consumer<T> encoder;
+        private final BiConsumer<UUID, T> onChange;
+        private final Map<UUID, Entry<T>> entries = new ConcurrentHashMap<>();
+        private volatile boolean warm;
+        private volatile Snapshot<T> snapshot;
+
+        private Side(String name, Function<T, UUID> idOf, Function<T, LocalDateTime> updatedAtOf,
+                     Predicate<T> active, Map<String, Function<T, Object>> tracked,
+                     Consumer<T> encoder, BiConsumer<UUID, T> onChange) {
+            this.name = name;
+            this.idOf = idOf;
+            this.updatedAtOf = updatedAtOf;
+            this.active = active;
+            this.tracked = tracked;
+            this.encoder = encoder;
+            this.onChange = onChange;
+        }
+
+        Optional<T> find(UUID id) {
+            Entry<T> entry = entries.get(id);
+            return entry != null ? Optional.of(entry.profile()) : Optional.empty();
+        }
+
+        /**
+         * Immutable snapshot, rebuilt only after the replica changed. Callers may rely on
+         * getting the identical list instance back while nothing changed.
+         */
+        List<T> snapshot() {
+            long current = version.get();
+            Snapshot<T> cached = snapshot;
+            if (cached != null && cached.version() == current) {
+                return cached.profiles();
+            }
+            List<T> result = new ArrayList<>(entries.size());
+            for (Entry<T> entry : entries.values()) {
+                result.add(entry.profile());
+            }
+            Snapshot<T> fresh = new Snapshot<>(current, Collections.unmodifiableList(result));
+            snapshot = fresh;
+            return fresh.profiles();
+        }
+
+        /** Applies a freshly fetched profile; {@code null} means the profile is gone. */
+        void apply(UUID id, T profile) {
+            if (profile == null || !active.test(profile)) {
+                if (removeEntry(id, null)) {
+                    version.incrementAndGet();
+                    log.debug("Replica removed {}: id={}", name, id);
+                }
+                return;
+            }
+            upsert(profile);
+        }
+
+        private void upsert(T profile) {
+            LocalDateTime updatedAt = updatedAtOf.apply(profile);
+            if (isUnchanged(entries.get(idOf.apply(profile)), updatedAt)) {
+                return; // same copy again (reconciliation, repeated event) — no version bump
+            }
+            encoder.accept(profile);
+            entries.compute(idOf.apply(profile), (id, current) -> {
+                if (current != null && current.updatedAt() != null && updatedAt != null
+                        && updatedAt.isBefore(current.updatedAt())) {
+                    return current; // stale copy — keep the newer one
+                }
+                if (isUnchanged(current, updatedAt)) {
+                    return current;
+                }
+                onChange.accept(id, profile);
+                return new Entry<>(profile, updatedAt, version.incrementAndGet(), changedFields(current, profile));
+            });
+        }
+
+        /** The entry's untaken changed fields plus the tracked fields {@code profile} changes. */
+        private Set<String> changedFields(Entry<T> current, T profile) {
+            if (current == null) {
+                return Set.of();
+            }
+            Set<String> changed = new HashSet<>(current.changedFields());
+            tracked.forEach((field, value) -> {
+                if (!Objects.equals(value.apply(current.profile()), value.apply(profile))) {
+                    changed.add(field);
+                }
+            });
+            return changed.isEmpty() ? Set.of() : Collections.unmodifiableSet(changed);
+        }
+
+        Set<String> takeChangedFields(UUID id) {
+            List<Set<String>> taken = new ArrayList<>(1);
+            entries.computeIfPresent(id, (key, current) -> {
+                if (current.changedFields().isEmpty()) {
+                    return current;
+                }
+                taken.add(current.changedFields());
+                return new Entry<>(current.profile(), current.updatedAt(), current.version(), Set.of());
+            });
+            return taken.isEmpty() ? Set.of() : taken.get(0);
+        }
+
+        private boolean isUnchanged(Entry<T> current, LocalDateTime updatedAt) {
+            return current != null && updatedAt != null && updatedAt.equals(current.updatedAt());
+        }
+
+        /** Removes the entry (only if it is still {@code expected}, when given) and reports the removal. */
+        private boolean removeEntry(UUID id, Entry<T> expected) {
+            boolean[] removed = new boolean[1];
+            entries.computeIfPresent(id, (key, current) -> {
+                if (expected != null && current != expected) {
+                    return current;
+                }
+                onChange.accept(key, null);
+                removed[0] = true;
+                return null;
+            });
+            return removed[0];
+        }
+
+        void reconcile(Supplier<ApiResponse<List<T>>> loadAll) {
+            long startVersion = version.get();
+            List<T> population;
+            try {
+                ApiResponse<List<T>> response = loadAll.get();
+                if (response == null || response.getData() == null) {
+                    log.warn("Replica reconciliation returned no data for {}s; keeping current state", name);
+                    return;
+                }
+                population = response.getData();
+            } catch (FeignException e) {
+                log.warn("Replica reconciliation failed for {}s (warm={}): {}", name, warm, e.getMessage());
+                return;
+            }
+
+            Set<UUID> seen = new HashSet<>(population.size() * 2);
+            for (T profile : population) {
+                if (!active.test(profile)) continue;
+                seen.add(idOf.apply(profile));
+                upsert(profile);
+            }
+            int removed = 0;
+            for (Map.Entry<UUID, Entry<T>> e : entries.entrySet()) {
+                if (!seen.contains(e.getKey()) && e.getValue().version() <= startVersion
+                        && removeEntry(e.getKey(), e.getValue())) {
+                    removed++;
+                }
+            }
+            if (removed > 0) {
+                version.incrementAndGet();
+            }
+
+            if (!warm) {
+                warm = true;
+                log.info("Profile replica bootstrapped: {}s={}", name, entries.size());
+            } else {
+                log.info("Profile replica reconciled: {}s={}, removed={}", name, entries.size(), removed);
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.carematchservice.service;
+
+import com.carematchservice.dto.MatchDisplay;
+import com.carematchservice.model.PendingProfileUpdate;
+import com.carematchservice.repository.PendingProfileUpdateWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces bursts of {@code profile.updated} events into one delta recalculation per profile.
+ *
+ * Events for the same profile are collected until no new one has arrived for
+ * {@code app.matching.coalesce.quiet-window-ms} (but never longer than
+ * {@code app.matching.coalesce.max-delay-ms} after the first), and their change maps are
+ * merged. The merged change set then drives one display refresh and one
+ * {@link MatchingService#recalculateChangedMatches} run.
+ *
+ * At most one recalculation per profile is in flight: events arriving while it runs are
+ * collected again and trigger exactly one follow-up run once it has finished.
+ *
+ * The single scheduler thread only keeps the timers; a due profile is flushed (profile
+ * fetch, display refresh, run submission) on one of {@code app.matching.coalesce.workers}
+ * worker threads, so one slow flush does not hold back the others' timers.
+ *
+ * Every accepted update is first recorded in {@code pending_profile_updates} — before
+ * {@link #submit} returns, so before the event batch is acknowledged — and the record is
+ * removed once the update's recalculation has finished (or needed none). Updates still
+ * recorded when the instance stops (pending, or their run cancelled by the shutdown) or
+ * crashes are recovered: rows not updated for {@code app.matching.coalesce.orphan-after-ms}
+ * and not handled by this instance are flushed again, on whichever instance looks first.
+ * A recalculation that failed before its run started is recovered the same way. Running
+ * a recovered update twice is harmless: delta runs skip pairs whose scores are unchanged.
+ *
+ * Metrics: {@code match.coalescer.events} (received), {@code match.coalescer.recalculations}
+ * (started), {@code match.coalescer.fanouts.avoided} (events merged into a pending one) and
+ * {@code match.coalescer.recovered} (recorded updates picked up again).
+ */
+@Service
+@Slf4j
+public class ProfileUpdateCoalescer {
+
+    /** Events of one profile collected since the last recalculation started. */
+    private static final class Pending {
+        final String profileType;
+        final UUID profileId;
+        final Map<String, Object> changes = new LinkedHashMap<>();
+        final long firstAtMs;
+        long lastAtMs;
+        /** When the latest of the events was recorded in pending_profile_updates. */
+        LocalDateTime recordedAt;
+        int events;
+        ScheduledFuture<?> timer;
+
+        Pending(String profileType, UUID profileId, long nowMs) {
+            this.profileType = profileType;
+            this.profileId = profileId;
+            this.firstAtMs = nowMs;
+        }
+    }
+
+    /** Recorded updates recovered per pass at most. */
+    private static final int RECOVERY_BATCH = 500;
+
+    private final MatchingService matchingService;
+    private final MatchMetrics matchMetrics;
+    private final PendingProfileUpdateWriter pendingUpdates;
+    private final MatchWorkScheduler workScheduler;
+    private final long quietWindowMs;
+    private final long maxDelayMs;
+    private final long orphanAfterMs;
+    private volatile boolean stopping;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "profile-coalescer");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ExecutorService workers;
+
+    // Guarded by this
+    private final Map<String, Pending> pending = new HashMap<>();
+    private final Set<String> running = new HashSet<>();
+
+    private final Counter eventsCounter;
+    private final Counter recalculationsCounter;
+    private final Counter avoidedCounter;
+    private final Counter recoveredCounter;
+
+    public ProfileUpdateCoalescer(MatchingService matchingService,
+                                  MatchMetrics matchMetrics,
+                                  PendingProfileUpdateWriter pendingUpdates,
+                                  MatchWorkScheduler workScheduler,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.matching.coalesce.quiet-window-ms:2000}") long quietWindowMs,
+                                  @Value("${app.matching.coalesce.max-delay-ms:30000}") long maxDelayMs,
+                                  @Value("${app.matching.coalesce.workers:2}") int workerCount,
+                                  @Value("${app.matching.coalesce.orphan-after-ms:300000}") long orphanAfterMs) {
+        this.matchingService = matchingService;
+        this.matchMetrics = matchMetrics;
+        this.pendingUpdates = pendingUpdates;
+        this.workScheduler = workScheduler;
+        this.quietWindowMs = Math.max(0, quietWindowMs);
+        this.maxDelayMs = Math.max(this.quietWindowMs, maxDelayMs);
+        this.orphanAfterMs = Math.max(this.maxDelayMs, orphanAfterMs);
+        AtomicInteger workerIds = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, workerCount), r -> {
+            Thread t = new Thread(r, "profile-coalescer-worker-" + workerIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.eventsCounter = meterRegistry.counter("match.coalescer.events");
+        this.recalculationsCounter = meterRegistry.counter("match.coalescer.recalculations");
+        this.avoidedCounter = meterRegistry.counter("match.coalescer.fanouts.avoided");
+        this.recoveredCounter = meterRegistry.counter("match.coalescer.recovered");
+        meterRegistry.gauge("match.coalescer.pending", this, ProfileUpdateCoalescer::pendingCount);
+    }
+
+    /**
+     * Records an update, adds it to the profile's pending change set and (re)starts its quiet window.
+     *
+     * @throws RuntimeException when the update could not be recorded; it is then not
+     *         accepted and the event must not be acknowledged
+     */
+    public void submit(String profileType, UUID profileId, Map<String, Object> changes) {
+        if (changes == null || changes.isEmpty()) {
+            return;
+        }
+        eventsCounter.increment();
+        String key = profileType.toLowerCase() + ":" + profileId;
+        LocalDateTime recordedAt = LocalDateTime.now();
+        workScheduler.run(WorkLane.EVENT, () -> pendingUpdates.record(
+                key, profileType.toLowerCase(), profileId, changes.keySet(), recordedAt));
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Pending p = pending.get(key);
+            if (p == null) {
+                p = new Pending(profileType, profileId, now);
+                pending.put(key, p);
+            } else {
+                avoidedCounter.increment();
+            }
+            p.changes.putAll(changes);
+            p.lastAtMs = now;
+            if (p.recordedAt == null || recordedAt.isAfter(p.recordedAt)) {
+                p.recordedAt = recordedAt;
+            }
+            p.events++;
+            if (!running.contains(key)) {
+                schedule(key, p, now);
+            }
+        }
+    }
+
+    public synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Picks up recorded updates nobody has handled for {@code orphan-after-ms}: left behind by
+     * a stopped or crashed instance, or by a recalculation that failed to start. They are
+     * flushed right away.
+     */
+    @Scheduled(initialDelayString = "${app.matching.coalesce.recovery-interval-ms:60000}",
+               fixedDelayString = "${app.matching.coalesce.recovery-interval-ms:60000}")
+    public void recoverOrphans() {
+        if (stopping) {
+            return;
+        }
+        List<PendingProfileUpdate> orphans;
+        try {
+            LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(orphanAfterMs));
+            orphans = workScheduler.call(WorkLane.EVENT, () -> pendingUpdates.recordedBefore(before, RECOVERY_BATCH));
+        } catch (RuntimeException e) {
+            log.warn("Pending profile updates not recovered: {}", e.getMessage());
+            return;
+        }
+        int recovered = 0;
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            for (PendingProfileUpdate orphan : orphans) {
+                String key = orphan.getProfileKey();
+                if (pending.containsKey(key) || running.contains(key)) {
+                    continue; // still being handled here
+                }
+                // Due at once: its quiet window is long over
+                Pending p = new Pending(orphan.getProfileType(), orphan.getProfileId(), now - maxDelayMs);
+                for (String field : orphan.getChangedFields()) {
+                    p.changes.put(field, null);
+                }
+                p.lastAtMs = p.firstAtMs;
+                p.recordedAt = orphan.getUpdatedAt();
+                pending.put(key, p);
+                schedule(key, p, now);
+                recovered++;
+            }
+        }
+        if (recovered > 0) {
+            recoveredCounter.increment(recovered);
+            log.info("Recovered pending profile updates: {}", recovered);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    // Caller holds the lock
+    private void schedule(String key, Pending p, long now) {
+        if (p.timer != null) {
+            p.timer.cancel(false);
+        }
+        long delay = Math.max(0, dueAt(p) - now);
+        p.timer = scheduler.schedule(() -> workers.execute(() -> flush(key)), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private long dueAt(Pending p) {
+        return Math.min(p.lastAtMs + quietWindowMs, p.firstAtMs + maxDelayMs);
+    }
+
+    private void flush(String key) {
+        Pending p;
+        synchronized (this) {
+            p = pending.get(key);
+            if (p == null || running.contains(key)) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (now < dueAt(p)) {
+                schedule(key, p, now);
+                return;
+            }
+            pending.remove(key);
+            running.add(key);
+        }
+
+        FanOutRun run = null;
+        boolean started = false;
+        try (var scope = matchMetrics.withTrigger(MatchTrigger.UPDATED)) {
+            recalculationsCounter.increment();
+            log.info("Coalesced profile update: {} {}, events={}, fields={}",
+                    p.profileType, p.profileId, p.events, p.changes.keySet());
+            Set<String> fields = p.changes.keySet();
+            if (MatchDisplay.touches(fields)) {
+                matchingService.refreshDisplayFields(p.profileType, p.profileId);
+            }
+            run = matchingService.recalculateChangedMatches(p.profileType, p.profileId, fields);
+            started = true;
+        } catch (Exception e) {
+            // Stays recorded; recovered once it is orphaned
+            log.error("Coalesced recalculation failed: {} {}", p.profileType, p.profileId, e);
+        }
+
+        if (run == null) {
+            finished(key, p, started);
+        } else {
+            // A run cancelled by the shutdown stays recorded and is recovered
+            run.completion().whenComplete((ignored, error) -> finished(key, p, !stopping));
+        }
+    }
+
+    /**
+     * Ends the profile's in-flight recalculation — dropping its record when it was handled —
+     * and schedules the follow-up run, if events arrived meanwhile.
+     */
+    private void finished(String key, Pending p, boolean handled) {
+        if (handled) {
+            forget(key, p.recordedAt);
+        }
+        synchronized (this) {
+            running.remove(key);
+            Pending next = pending.get(key);
+            if (next != null) {
+                schedule(key, next, System.currentTimeMillis());
+            }
+        }
+    }
+
+    /** Drops the profile's record, unless an update was recorded after {@code handledUpTo}. */
+    private void forget(String key, LocalDateTime handledUpTo) {
+        try {
+            workScheduler.run(WorkLane.EVENT, () -> pendingUpdates.forget(key, handledUpTo));
+        } catch (RuntimeException e) {
+            // Recovered (and recalculated once more) when orphaned
+            log.warn("Pending profile update record not removed: {}: {}", key, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // From here on, updates left pending or cancelled with their run stay recorded
+        stopping = true;
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+    }
+}
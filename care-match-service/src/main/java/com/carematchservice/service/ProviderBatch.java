@@ -0,0 +1,190 @@
+package com.carematchservice.service;
+
+import com.carematchservice.dto.ProviderProfileDTO;
+import com.carematchservice.service.scoring.QualityDimension;
+
+import java.util.*;
+
+/**
+ * Columnar, precompiled view of a provider population used by
+ * {@link MatchingAlgorithmService#scoreBatch(com.carematchservice.dto.PatientProfileDTO, ProviderBatch, double[])}.
+ *
+ * Everything the per-pair path derives from a {@link ProviderProfileDTO} on every call
+ * (lower-cased specializations, tier names, parsed lifestyle flags, quality indicators)
+ * is resolved once here into primitive arrays indexed by provider position:
+ *
+ *   - latitude/longitude in degrees plus the cosine of the latitude in radians
+ *     (degrees are kept so the haversine deltas stay bit-identical to calculateDistance)
+ *   - accepted care levels as a bitmask (bit n = Pflegegrad n), with the raw list kept
+ *     for the rare out-of-range level
+ *   - offered service tiers as a bitmask (STANDARD | COMFORT | PREMIUM | other)
+ *   - specializations as bitsets over the shared {@link TermVocabulary} (lookup only,
+ *     like the per-pair SpecializationDimension)
+ *   - pets / smoking lifestyle options as tri-state bytes
+ *   - the pre-parsed quality score
+ *
+ * A batch is immutable once compiled and may be shared between threads.
+ */
+public final class ProviderBatch {
+
+    // ── tier bits ─────────────────────────────────────────────────────────────
+    static final int TIER_STANDARD = 0;
+    static final int TIER_COMFORT  = 1;
+    static final int TIER_PREMIUM  = 2;
+    static final int TIER_OTHER    = 3;
+
+    // ── tri-state lifestyle flags ─────────────────────────────────────────────
+    static final byte FLAG_ABSENT = -1;
+    static final byte FLAG_FALSE  = 0;
+    static final byte FLAG_TRUE   = 1;
+
+    /** Highest care level representable in the bitmask; larger values use the list fallback. */
+    static final int MAX_MASK_LEVEL = 63;
+
+    private final int size;
+    private final List<ProviderProfileDTO> providers;
+
+    // distance
+    final boolean[] hasLocation;
+    final double[]  latitude;
+    final double[]  longitude;
+    final double[]  cosLatitude;
+
+    // care level
+    final boolean[] declaresCareLevels;
+    final long[]    careLevelMask;
+    final boolean[] careLevelMaskComplete;   // false when a level falls outside the mask range
+    final int[][]   acceptedCareLevels;
+
+    // tier
+    final int[]     tierMask;
+
+    // specialization
+    final long[][]  specializationBits;   // null when the provider declares no specializations
+    final TermVocabulary vocabulary;
+
+    // lifestyle
+    final boolean[] hasLifestyleOptions;
+    final byte[]    petsAllowed;
+    final byte[]    smokingAllowed;
+
+    // quality
+    final double[]  quality;
+
+    private ProviderBatch(List<ProviderProfileDTO> providers, TermVocabulary vocabulary) {
+        this.size = providers.size();
+        this.providers = providers;
+        this.hasLocation = new boolean[size];
+        this.latitude = new double[size];
+        this.longitude = new double[size];
+        this.cosLatitude = new double[size];
+        this.declaresCareLevels = new boolean[size];
+        this.careLevelMask = new long[size];
+        this.careLevelMaskComplete = new boolean[size];
+        this.acceptedCareLevels = new int[size][];
+        this.tierMask = new int[size];
+        this.specializationBits = new long[size][];
+        this.vocabulary = vocabulary;
+        this.hasLifestyleOptions = new boolean[size];
+        this.petsAllowed = new byte[size];
+        this.smokingAllowed = new byte[size];
+        this.quality = new double[size];
+    }
+
+    /**
+     * Compiles the given providers into a columnar batch. Provider order is preserved,
+     * so {@code scores[i]} produced by the batch kernel belongs to {@code providers.get(i)}.
+     */
+    public static ProviderBatch compile(List<ProviderProfileDTO> providers, TermVocabulary vocabulary) {
+        ProviderBatch batch = new ProviderBatch(List.copyOf(providers), vocabulary);
+
+        for (int i = 0; i < providers.size(); i++) {
+            ProviderProfileDTO p = providers.get(i);
+
+            // Location
+            if (p.getLatitude() != null && p.getLongitude() != null) {
+                batch.hasLocation[i] = true;
+                batch.latitude[i] = p.getLatitude();
+                batch.longitude[i] = p.getLongitude();
+                batch.cosLatitude[i] = Math.cos(Math.toRadians(p.getLatitude()));
+            }
+
+            // Care levels
+            List<Integer> levels = p.getAcceptedCareLevels();
+            if (levels != null && !levels.isEmpty()) {
+                batch.declaresCareLevels[i] = true;
+                long mask = 0L;
+                boolean outOfRange = false;
+                for (Integer level : levels) {
+                    if (level == null) continue;
+                    if (level >= 0 && level <= MAX_MASK_LEVEL) {
+                        mask |= 1L << level;
+                    } else {
+                        outOfRange = true;
+                    }
+                }
+                batch.careLevelMask[i] = mask;
+                batch.careLevelMaskComplete[i] = !outOfRange;
+                batch.acceptedCareLevels[i] = levels.stream()
+                        .filter(Objects::nonNull).mapToInt(Integer::intValue).toArray();
+            }
+
+            // Tiers — no tier data is scored as STANDARD, like the per-pair path
+            Set<String> tiers = p.getOfferedServiceTiers();
+            if (tiers == null || tiers.isEmpty()) {
+                batch.tierMask[i] = 1 << TIER_STANDARD;
+            } else {
+                int mask = 0;
+                for (String tier : tiers) {
+                    if (tier != null) mask |= 1 << tierIndex(tier.toUpperCase());
+                }
+                batch.tierMask[i] = mask;
+            }
+
+            // Specializations
+            List<String> specs = p.getSpecializations();
+            if (specs != null && !specs.isEmpty()) {
+                batch.specializationBits[i] = vocabulary.specializationBits(p);
+            }
+
+            // Lifestyle
+            Map<String, Object> options = p.getLifestyleOptions();
+            if (options != null && !options.isEmpty()) {
+                batch.hasLifestyleOptions[i] = true;
+                batch.petsAllowed[i] = flag(options.get("petsAllowed"));
+                batch.smokingAllowed[i] = flag(options.get("smokingAllowed"));
+            }
+
+            // Quality
+            batch.quality[i] = QualityDimension.qualityScore(p.getQualityIndicators());
+        }
+        return batch;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public UUID providerId(int index) {
+        return providers.get(index).getId();
+    }
+
+    /** Source profile at the given position (used for SPI dimensions without a columnar form). */
+    public ProviderProfileDTO provider(int index) {
+        return providers.get(index);
+    }
+
+    static int tierIndex(String upperCaseTier) {
+        return switch (upperCaseTier) {
+            case "STANDARD" -> TIER_STANDARD;
+            case "COMFORT"  -> TIER_COMFORT;
+            case "PREMIUM"  -> TIER_PREMIUM;
+            default         -> TIER_OTHER;
+        };
+    }
+
+    static byte flag(Object value) {
+        if (value == null) return FLAG_ABSENT;
+        return Boolean.parseBoolean(value.toString()) ? FLAG_TRUE : FLAG_FALSE;
+    }
+}
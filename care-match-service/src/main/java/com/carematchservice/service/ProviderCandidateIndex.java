@@ -0,0 +1,238 @@
+package com.carematchservice.service;
+
+import com.carematchservice.dto.PatientProfileDTO;
+import com.carematchservice.dto.ProviderProfileDTO;
+import com.carematchservice.service.scoring.SpecializationDimension;
+import com.carematchservice.service.scoring.TierDimension;
+
+import java.util.*;
+
+/**
+ * Bitset index over a provider population, used by {@link CandidatePruner} to find the
+ * providers that can still reach the pruning floor for a patient without scoring them.
+ *
+ * Bit {@code i} always refers to {@code providers().get(i)}. The index keeps:
+ *   - one bitset per accepted care level, plus the providers that declare none
+ *   - one bitset per offered service tier (no tier data counts as STANDARD)
+ *   - one bitset per lower-cased specialization, plus the providers that declare none
+ *   - a {@link ProviderSpatialIndex} over the located providers, plus the providers without location
+ *   - the ambulatory providers with a service radius
+ *
+ * For each of these dimensions a patient query returns {@link ScoreClass}es: disjoint
+ * provider sets together with the highest score any member can get in that dimension.
+ * The classes are upper bounds, never exact scores.
+ *
+ * An index is immutable once built and may be shared between threads.
+ */
+public final class ProviderCandidateIndex {
+
+    private static final String[] TIER_NAMES = {"STANDARD", "COMFORT", "PREMIUM", "OTHER"};
+
+    /** One dimension's upper-bound score for a set of providers. */
+    public record ScoreClass(double score, BitSet members) {}
+
+    private final List<ProviderProfileDTO> providers;
+    private final BitSet all;
+
+    private final Map<Integer, BitSet> byCareLevel = new HashMap<>();
+    private final BitSet noCareLevels = new BitSet();
+
+    private final BitSet[] byTier = new BitSet[TIER_NAMES.length];
+
+    private final Map<String, BitSet> bySpecialization = new HashMap<>();
+    private final BitSet noSpecializations = new BitSet();
+
+    private final ProviderSpatialIndex locations = new ProviderSpatialIndex();
+    private final Map<UUID, BitSet> positionsById = new HashMap<>();
+    private final BitSet noLocation = new BitSet();
+    private final BitSet locatedWithoutId = new BitSet();
+
+    private final BitSet withServiceRadius = new BitSet();
+
+    private ProviderCandidateIndex(List<ProviderProfileDTO> providers) {
+        this.providers = providers;
+        this.all = new BitSet(providers.size());
+        this.all.set(0, providers.size());
+        for (int t = 0; t < byTier.length; t++) {
+            byTier[t] = new BitSet();
+        }
+    }
+
+    /** Builds the index; provider order is preserved and the list is kept by reference. */
+    public static ProviderCandidateIndex build(List<ProviderProfileDTO> providers) {
+        ProviderCandidateIndex index = new ProviderCandidateIndex(providers);
+
+        for (int i = 0; i < providers.size(); i++) {
+            ProviderProfileDTO p = providers.get(i);
+
+            // Care levels
+            List<Integer> levels = p.getAcceptedCareLevels();
+            if (levels == null || levels.isEmpty()) {
+                index.noCareLevels.set(i);
+            } else {
+                for (Integer level : levels) {
+                    if (level != null) index.byCareLevel.computeIfAbsent(level, k -> new BitSet()).set(i);
+                }
+            }
+
+            // Tiers
+            Set<String> tiers = p.getOfferedServiceTiers();
+            if (tiers == null || tiers.isEmpty()) {
+                index.byTier[ProviderBatch.TIER_STANDARD].set(i);
+            } else {
+                for (String tier : tiers) {
+                    if (tier != null) index.byTier[ProviderBatch.tierIndex(tier.toUpperCase())].set(i);
+                }
+            }
+
+            // Specializations
+            List<String> specs = p.getSpecializations();
+            if (specs == null || specs.isEmpty()) {
+                index.noSpecializations.set(i);
+            } else {
+                for (String spec : specs) {
+                    if (spec != null) index.bySpecialization.computeIfAbsent(spec.toLowerCase(), k -> new BitSet()).set(i);
+                }
+            }
+
+            // Location
+            if (p.getLatitude() == null || p.getLongitude() == null) {
+                index.noLocation.set(i);
+            } else {
+                if (p.getId() == null) {
+                    index.locatedWithoutId.set(i);
+                } else {
+                    index.locations.put(p.getId(), p.getLatitude(), p.getLongitude());
+                    index.positionsById.computeIfAbsent(p.getId(), k -> new BitSet()).set(i);
+                }
+                if (hasServiceRadius(p)) {
+                    index.withServiceRadius.set(i);
+                }
+            }
+        }
+        return index;
+    }
+
+    public List<ProviderProfileDTO> providers() {
+        return providers;
+    }
+
+    public int size() {
+        return providers.size();
+    }
+
+    /** All providers; callers must not modify the returned set. */
+    BitSet all() {
+        return all;
+    }
+
+    /** Ambulatory providers with a location and a service radius; callers must not modify the returned set. */
+    BitSet withServiceRadius() {
+        return withServiceRadius;
+    }
+
+    // ── Per-dimension score classes ───────────────────────────────────────────
+
+    /** Care level: exact or undeclared → 1.0, adjacent → 0.6, otherwise 0.0; unknown patient level → 0.5. */
+    List<ScoreClass> careLevelClasses(Integer careLevel) {
+        if (careLevel == null) {
+            return List.of(new ScoreClass(0.5, all));
+        }
+        BitSet exact = copyOf(byCareLevel.get(careLevel));
+        exact.or(noCareLevels);
+
+        BitSet adjacent = copyOf(byCareLevel.get(careLevel - 1));
+        adjacent.or(copyOf(byCareLevel.get(careLevel + 1)));
+        adjacent.andNot(exact);
+
+        return withRemainder(List.of(new ScoreClass(1.0, exact), new ScoreClass(0.6, adjacent)), 0.0);
+    }
+
+    /**
+     * Distance: the exact band score, taken from the spatial index's band query. Only the
+     * grid cells within the outermost band are visited; everything further away falls into
+     * the 0.0 class. Providers without location score 0.5, as in the distance dimension.
+     */
+    List<ScoreClass> distanceClasses(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            return List.of(new ScoreClass(0.5, all));
+        }
+        ProviderSpatialIndex.Bands bands = locations.bands(latitude, longitude);
+        List<ScoreClass> classes = new ArrayList<>(bands.bands().size() + 3);
+        // Located providers without an id are not in the spatial index; keep their best case
+        classes.add(new ScoreClass(1.0, (BitSet) locatedWithoutId.clone()));
+        for (int k = 0; k < bands.bands().size(); k++) {
+            BitSet members = new BitSet();
+            for (UUID id : bands.bands().get(k)) {
+                members.or(positionsById.get(id));
+            }
+            classes.add(new ScoreClass(ProviderSpatialIndex.Bands.scoreOf(k), members));
+        }
+        classes.add(new ScoreClass(0.5, noLocation));
+        return withRemainder(classes, 0.0);
+    }
+
+    /**
+     * Specialization: any needed specialization → up to 1.0, none declared → 0.5,
+     * declared but none matching → 0.0; patients without needs → 0.5.
+     */
+    List<ScoreClass> specializationClasses(PatientProfileDTO patient) {
+        Map<String, Object> requirements = patient.getMedicalRequirements();
+        if (requirements == null || requirements.isEmpty()) {
+            return List.of(new ScoreClass(0.5, all));
+        }
+        Set<String> needs = SpecializationDimension.extractMedicalRequirements(requirements);
+        if (needs.isEmpty()) {
+            return List.of(new ScoreClass(0.5, all));
+        }
+        BitSet matching = new BitSet();
+        for (String need : needs) {
+            BitSet members = bySpecialization.get(need);
+            if (members != null) matching.or(members);
+        }
+        return withRemainder(List.of(new ScoreClass(1.0, matching), new ScoreClass(0.5, noSpecializations)), 0.0);
+    }
+
+    /** Tier: exact — every provider is assigned the best compatibility among its offered tiers. */
+    List<ScoreClass> tierClasses(String careServiceTier) {
+        String patientTier = careServiceTier != null ? careServiceTier.toUpperCase() : "STANDARD";
+
+        Integer[] order = {0, 1, 2, 3};
+        double[] score = new double[TIER_NAMES.length];
+        for (int t = 0; t < TIER_NAMES.length; t++) {
+            score[t] = TierDimension.compatibilityScore(patientTier, TIER_NAMES[t]);
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(score[b], score[a]));
+
+        List<ScoreClass> classes = new ArrayList<>(TIER_NAMES.length);
+        BitSet assigned = new BitSet();
+        for (int t : order) {
+            BitSet members = (BitSet) byTier[t].clone();
+            members.andNot(assigned);
+            assigned.or(byTier[t]);
+            classes.add(new ScoreClass(score[t], members));
+        }
+        return classes;
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    static boolean hasServiceRadius(ProviderProfileDTO provider) {
+        return provider.getServiceRadius() != null && "AMBULATORY".equalsIgnoreCase(provider.getProviderType());
+    }
+
+    /** Adds the providers not covered by any of the given classes with the given score. */
+    private List<ScoreClass> withRemainder(List<ScoreClass> classes, double remainderScore) {
+        BitSet rest = (BitSet) all.clone();
+        for (ScoreClass c : classes) {
+            rest.andNot(c.members());
+        }
+        List<ScoreClass> result = new ArrayList<>(classes);
+        result.add(new ScoreClass(remainderScore, rest));
+        return result;
+    }
+
+    private static BitSet copyOf(BitSet members) {
+        return members != null ? (BitSet) members.clone() : new BitSet();
+    }
+}
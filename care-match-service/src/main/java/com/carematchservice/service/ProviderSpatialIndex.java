@@ -0,0 +1,208 @@
+package com.carematchservice.service;
+
+import com.carematchservice.service.scoring.DistanceDimension;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process geo grid over provider coordinates.
+ *
+ * Providers are bucketed into {@value #CELL_DEGREES}° lat/lon cells and can be inserted,
+ * moved and removed at any time ({@link #put}, {@link #remove}); all operations are safe
+ * for concurrent use.
+ *
+ * Queries visit only the cells around the query point:
+ *   - {@link #bands} returns the providers within 100 km grouped by distance band
+ *     (10 / 25 / 50 / 100 km, matching {@link DistanceDimension#bandScore}), nearest band first.
+ *     A cell that lies entirely inside one band is assigned wholesale; only providers in
+ *     cells straddling a band edge need an exact haversine.
+ *   - {@link #withinRadius} returns the providers within an arbitrary radius with their
+ *     exact distance, nearest first.
+ */
+public class ProviderSpatialIndex {
+
+    static final double CELL_DEGREES = 0.025;
+
+    /** Upper limits of the distance bands, in km. */
+    public static final double[] BAND_LIMITS_KM = {10, 25, 50, 100};
+
+    private static final double KM_PER_DEGREE_LATITUDE = 111.19;
+
+    /** Providers grouped by distance band; {@code bands().get(k)} lies within {@code BAND_LIMITS_KM[k]}. */
+    public record Bands(List<List<UUID>> bands, int exactDistanceChecks) {
+
+        /** Band score of band {@code k}, as the distance dimension would assign it. */
+        public static double scoreOf(int band) {
+            return DistanceDimension.bandScore(BAND_LIMITS_KM[band]);
+        }
+    }
+
+    public record Hit(UUID providerId, double distanceKm) {}
+
+    private record Point(double latitude, double longitude, double cosLatitude, long cell) {}
+
+    private final Map<UUID, Point> points = new ConcurrentHashMap<>();
+    private final Map<Long, Set<UUID>> cells = new ConcurrentHashMap<>();
+
+    // ── Maintenance ───────────────────────────────────────────────────────────
+
+    /** Inserts or moves a provider; a {@code null} coordinate removes it. */
+    public void put(UUID providerId, Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            remove(providerId);
+            return;
+        }
+        long cell = cellKey(cellOf(latitude), cellOf(longitude));
+        Point previous = points.put(providerId,
+                new Point(latitude, longitude, Math.cos(Math.toRadians(latitude)), cell));
+        if (previous != null && previous.cell() != cell) {
+            removeFromCell(previous.cell(), providerId);
+        }
+        if (previous == null || previous.cell() != cell) {
+            cells.compute(cell, (k, members) -> {
+                Set<UUID> set = members != null ? members : ConcurrentHashMap.newKeySet();
+                set.add(providerId);
+                return set;
+            });
+        }
+    }
+
+    public void remove(UUID providerId) {
+        Point previous = points.remove(providerId);
+        if (previous != null) {
+            removeFromCell(previous.cell(), providerId);
+        }
+    }
+
+    public boolean contains(UUID providerId) {
+        return points.containsKey(providerId);
+    }
+
+    public int size() {
+        return points.size();
+    }
+
+    // ── Queries ───────────────────────────────────────────────────────────────
+
+    /** Providers within the outermost band, grouped by band. Providers further away are not returned. */
+    public Bands bands(double latitude, double longitude) {
+        List<List<UUID>> bands = new ArrayList<>(BAND_LIMITS_KM.length);
+        for (int k = 0; k < BAND_LIMITS_KM.length; k++) {
+            bands.add(new ArrayList<>());
+        }
+        double maxKm = BAND_LIMITS_KM[BAND_LIMITS_KM.length - 1];
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        int exactChecks = 0;
+
+        for (long cell : cellsAround(latitude, longitude, maxKm)) {
+            Set<UUID> members = cells.get(cell);
+            if (members == null || members.isEmpty()) continue;
+
+            int latCell = (int) (cell >> 32), lonCell = (int) cell;
+            int nearBand = bandOf(minDistanceKm(latitude, longitude, latCell, lonCell));
+            if (nearBand < 0) continue;   // whole cell beyond the outermost band
+            int farBand = bandOf(maxDistanceKm(latitude, longitude, latCell, lonCell));
+
+            if (farBand == nearBand) {
+                bands.get(nearBand).addAll(members);
+                continue;
+            }
+            for (UUID id : members) {
+                Point p = points.get(id);
+                if (p == null) continue;
+                exactChecks++;
+                int band = bandOf(DistanceDimension.haversine(latitude, longitude, cosLat,
+                        p.latitude(), p.longitude(), p.cosLatitude()));
+                if (band >= 0) bands.get(band).add(id);
+            }
+        }
+        return new Bands(bands, exactChecks);
+    }
+
+    /** Providers within {@code radiusKm}, nearest first. */
+    public List<Hit> withinRadius(double latitude, double longitude, double radiusKm) {
+        double cosLat = Math.cos(Math.toRadians(latitude));
+        List<Hit> hits = new ArrayList<>();
+        for (long cell : cellsAround(latitude, longitude, radiusKm)) {
+            Set<UUID> members = cells.get(cell);
+            if (members == null) continue;
+            for (UUID id : members) {
+                Point p = points.get(id);
+                if (p == null) continue;
+                double distance = DistanceDimension.haversine(latitude, longitude, cosLat,
+                        p.latitude(), p.longitude(), p.cosLatitude());
+                if (distance <= radiusKm) hits.add(new Hit(id, distance));
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits;
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private void removeFromCell(long cell, UUID providerId) {
+        cells.computeIfPresent(cell, (k, members) -> {
+            members.remove(providerId);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    /** Keys of all cells that may contain points within {@code reachKm} of the given point. */
+    private static List<Long> cellsAround(double latitude, double longitude, double reachKm) {
+        double latReach = reachKm / KM_PER_DEGREE_LATITUDE;
+        double cosLat = Math.max(Math.cos(Math.toRadians(Math.min(89.0, Math.abs(latitude) + latReach))), 0.01);
+        double lonReach = Math.min(180.0, latReach / cosLat);
+
+        int minLatCell = cellOf(latitude - latReach), maxLatCell = cellOf(latitude + latReach);
+        int minLonCell = cellOf(longitude - lonReach), maxLonCell = cellOf(longitude + lonReach);
+        List<Long> keys = new ArrayList<>((maxLatCell - minLatCell + 1) * (maxLonCell - minLonCell + 1));
+        for (int latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+            for (int lonCell = minLonCell; lonCell <= maxLonCell; lonCell++) {
+                keys.add(cellKey(latCell, lonCell));
+            }
+        }
+        return keys;
+    }
+
+    /** Index of the band containing the distance, or -1 beyond the outermost band. */
+    private static int bandOf(double distanceKm) {
+        for (int k = 0; k < BAND_LIMITS_KM.length; k++) {
+            if (distanceKm <= BAND_LIMITS_KM[k]) return k;
+        }
+        return -1;
+    }
+
+    /**
+     * Conservative lower bound of the distance to any point of a cell: haversine to the
+     * nearest point of the lat/lon box, shrunk by a margin because box edges are not
+     * great circles.
+     */
+    private static double minDistanceKm(double latitude, double longitude, int latCell, int lonCell) {
+        double minLat = latCell * CELL_DEGREES, minLon = lonCell * CELL_DEGREES;
+        double nearestLat = Math.max(minLat, Math.min(latitude, minLat + CELL_DEGREES));
+        double nearestLon = Math.max(minLon, Math.min(longitude, minLon + CELL_DEGREES));
+        double distance = DistanceDimension.haversine(latitude, longitude, nearestLat, nearestLon);
+        return Math.max(0.0, distance * 0.999 - 0.05);
+    }
+
+    /** Conservative upper bound of the distance to any point of a cell: farthest corner plus a margin. */
+    private static double maxDistanceKm(double latitude, double longitude, int latCell, int lonCell) {
+        double minLat = latCell * CELL_DEGREES, minLon = lonCell * CELL_DEGREES;
+        double max = 0.0;
+        for (int corner = 0; corner < 4; corner++) {
+            double lat = minLat + ((corner & 1) != 0 ? CELL_DEGREES : 0.0);
+            double lon = minLon + ((corner & 2) != 0 ? CELL_DEGREES : 0.0);
+            max = Math.max(max, DistanceDimension.haversine(latitude, longitude, lat, lon));
+        }
+        return max * 1.001 + 0.05;
+    }
+
+    static int cellOf(double degrees) {
+        return (int) Math.floor(degrees / CELL_DEGREES);
+    }
+
+    static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+}
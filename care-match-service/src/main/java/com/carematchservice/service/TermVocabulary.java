@@ -0,0 +1,351 @@
+package com.carematchservice.service;
+
+import com.carematchservice.dto.PatientProfileDTO;
+import com.carematchservice.dto.ProviderProfileDTO;
+import com.carematchservice.model.VocabularyTerm;
+import com.carematchservice.repository.VocabularyTermRepository;
+import com.carematchservice.service.scoring.SpecializationDimension;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared dictionary of specialization and medical-requirement names.
+ *
+ * Every lower-cased term is interned into a dense integer id, so a profile's term set
+ * becomes a compact {@code long[]} bitset (bit n = term id n) and overlap between a
+ * patient's needs and a provider's specializations is an AND plus popcount per word.
+ *
+ * The vocabulary grows online, but only through {@link #ingest}: ProfileReplica ingests
+ * every created / updated profile, and MatchingService ingests profiles it fetched past
+ * the replica before scoring them, outside any transaction. New ids are persisted in
+ * {@code care_matching.vocabulary_terms} in their own transaction before they are handed
+ * out, so ids stay stable across restarts and are shared by all instances; a conflicting
+ * insert from another instance triggers a reload.
+ *
+ * Scoring paths only look terms up ({@link #medicalRequirementBits}, {@link #specializationBits}):
+ * an unknown term gets no bit, so it never matches, and nothing is registered. A patient's
+ * unknown requirements still count as needs ({@link #medicalRequirementCount}).
+ *
+ * The dictionary is loaded when the bean starts, so lookups are served from memory and
+ * need no database connection (a failed startup load is retried on first use).
+ *
+ * Encoded bitsets are cached on the DTOs ({@code medicalRequirementBits},
+ * {@code specializationBits}) once they cover every term of the profile; ids are never
+ * reassigned, so a cached bitset stays valid.
+ */
+@Service
+@Slf4j
+public class TermVocabulary {
+
+    private static final String INSERT_TERM =
+            "INSERT INTO care_matching.vocabulary_terms (id, term, created_at) VALUES (?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final int MAX_REGISTER_ATTEMPTS = 5;
+
+    private final VocabularyTermRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate registerTransaction;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] terms = new String[64];
+    private int nextId;
+    private volatile boolean loaded;
+
+    @Autowired
+    public TermVocabulary(VocabularyTermRepository repository,
+                          JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.registerTransaction = new TransactionTemplate(transactionManager);
+        this.registerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    private TermVocabulary() {
+        this.repository = null;
+        this.jdbcTemplate = null;
+        this.registerTransaction = null;
+        this.loaded = true;
+    }
+
+    @PostConstruct
+    void load() {
+        try {
+            ensureLoaded();
+        } catch (RuntimeException e) {
+            log.warn("Term vocabulary not loaded at startup, retrying on first use: {}", e.getMessage());
+        }
+    }
+
+    /** Non-persistent vocabulary, for scoring outside the application context (benchmarks, tools). */
+    public static TermVocabulary inMemory() {
+        return new TermVocabulary();
+    }
+
+    // ── Ingestion (registers unknown terms) ──────────────────────────────────
+
+    /**
+     * Encodes the patient's medical requirements, registering unknown terms, and caches
+     * the bitset on the DTO; a no-op when the DTO already carries it. May insert into the
+     * vocabulary table, so call it outside any transaction.
+     */
+    public void ingest(PatientProfileDTO patient) {
+        if (patient.getMedicalRequirementBits() == null) {
+            patient.setMedicalRequirementBits(encode(medicalRequirementTerms(patient)));
+        }
+    }
+
+    /**
+     * Encodes the provider's specializations, registering unknown terms, and caches the
+     * bitset on the DTO; a no-op when the DTO already carries it. May insert into the
+     * vocabulary table, so call it outside any transaction.
+     */
+    public void ingest(ProviderProfileDTO provider) {
+        if (provider.getSpecializationBits() == null) {
+            provider.setSpecializationBits(encode(specializationTerms(provider)));
+        }
+    }
+
+    // ── Profile encodings for scoring (lookup only) ──────────────────────────
+
+    /** Bitset of the patient's known medical requirements flagged {@code true}; empty when there are none. */
+    public long[] medicalRequirementBits(PatientProfileDTO patient) {
+        long[] bits = patient.getMedicalRequirementBits();
+        if (bits == null) {
+            Set<String> terms = medicalRequirementTerms(patient);
+            bits = lookup(terms);
+            if (cardinality(bits) == terms.size()) {
+                patient.setMedicalRequirementBits(bits);
+            }
+        }
+        return bits;
+    }
+
+    /** Number of the patient's medical requirements flagged {@code true}, known to the vocabulary or not. */
+    public int medicalRequirementCount(PatientProfileDTO patient) {
+        long[] bits = patient.getMedicalRequirementBits();
+        // A cached bitset covers every requirement
+        return bits != null ? cardinality(bits) : medicalRequirementTerms(patient).size();
+    }
+
+    /** Bitset of the provider's known, lower-cased specializations; empty when there are none. */
+    public long[] specializationBits(ProviderProfileDTO provider) {
+        long[] bits = provider.getSpecializationBits();
+        if (bits == null) {
+            Set<String> terms = specializationTerms(provider);
+            bits = lookup(terms);
+            if (cardinality(bits) == terms.size()) {
+                provider.setSpecializationBits(bits);
+            }
+        }
+        return bits;
+    }
+
+    // ── Dictionary ────────────────────────────────────────────────────────────
+
+    /** Encodes already lower-cased terms, registering unknown ones. */
+    public long[] encode(Collection<String> lowerCaseTerms) {
+        if (lowerCaseTerms.isEmpty()) {
+            return new long[0];
+        }
+        int[] termIds = new int[lowerCaseTerms.size()];
+        int n = 0;
+        for (String term : lowerCaseTerms) {
+            termIds[n++] = idOf(term);
+        }
+        return toBits(termIds, n);
+    }
+
+    /** Encodes the known terms among already lower-cased terms; unknown ones are left out, never registered. */
+    public long[] lookup(Collection<String> lowerCaseTerms) {
+        if (lowerCaseTerms.isEmpty()) {
+            return new long[0];
+        }
+        ensureLoaded();
+        int[] termIds = new int[lowerCaseTerms.size()];
+        int n = 0;
+        for (String term : lowerCaseTerms) {
+            Integer id = ids.get(term);
+            if (id != null) {
+                termIds[n++] = id;
+            }
+        }
+        return toBits(termIds, n);
+    }
+
+    /** Id of a lower-cased term, registering it when it is new. */
+    public int idOf(String lowerCaseTerm) {
+        ensureLoaded();
+        Integer id = ids.get(lowerCaseTerm);
+        return id != null ? id : register(lowerCaseTerm);
+    }
+
+    /** Term for an id, or {@code null} when unknown. */
+    public String term(int id) {
+        String[] snapshot = terms;
+        return id >= 0 && id < snapshot.length ? snapshot[id] : null;
+    }
+
+    /** Terms of all set bits, in id order. */
+    public List<String> decode(long[] bits) {
+        List<String> result = new ArrayList<>(cardinality(bits));
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                int id = (w << 6) + Long.numberOfTrailingZeros(word);
+                result.add(term(id));
+                word &= word - 1;
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        ensureLoaded();
+        return ids.size();
+    }
+
+    // ── Bitset helpers ────────────────────────────────────────────────────────
+
+    public static int cardinality(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /** Number of terms present in both sets. */
+    public static int overlap(long[] a, long[] b) {
+        int words = Math.min(a.length, b.length);
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(a[w] & b[w]);
+        }
+        return count;
+    }
+
+    public static long[] and(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        for (int w = 0; w < result.length; w++) {
+            result[w] = a[w] & b[w];
+        }
+        return result;
+    }
+
+    /** Ids of all set bits, ascending. */
+    public static int[] ids(long[] bits) {
+        int[] result = new int[cardinality(bits)];
+        int n = 0;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            while (word != 0) {
+                result[n++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return result;
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private static Set<String> medicalRequirementTerms(PatientProfileDTO patient) {
+        Map<String, Object> requirements = patient.getMedicalRequirements();
+        return requirements == null || requirements.isEmpty() ? Set.of()
+                : SpecializationDimension.extractMedicalRequirements(requirements);
+    }
+
+    private static Set<String> specializationTerms(ProviderProfileDTO provider) {
+        List<String> specializations = provider.getSpecializations();
+        if (specializations == null || specializations.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> lowerCased = new HashSet<>(specializations.size() * 2);
+        for (String s : specializations) {
+            if (s != null) lowerCased.add(s.toLowerCase());
+        }
+        return lowerCased;
+    }
+
+    private static long[] toBits(int[] termIds, int n) {
+        int max = -1;
+        for (int i = 0; i < n; i++) {
+            max = Math.max(max, termIds[i]);
+        }
+        long[] bits = new long[(max >> 6) + 1];
+        for (int i = 0; i < n; i++) {
+            bits[termIds[i] >> 6] |= 1L << termIds[i];
+        }
+        return bits;
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload();
+                    loaded = true;
+                    log.info("Term vocabulary loaded: terms={}", ids.size());
+                }
+            }
+        }
+    }
+
+    private synchronized int register(String term) {
+        for (int attempt = 1; attempt <= MAX_REGISTER_ATTEMPTS; attempt++) {
+            Integer existing = ids.get(term);
+            if (existing != null) {
+                return existing;
+            }
+            int id = nextId;
+            if (persist(id, term)) {
+                put(id, term);
+                log.debug("Vocabulary term registered: id={}, term={}", id, term);
+                return id;
+            }
+            // Another instance took the id or the term first
+            reload();
+        }
+        throw new IllegalStateException("Could not register vocabulary term: " + term);
+    }
+
+    private boolean persist(int id, String term) {
+        if (jdbcTemplate == null) {
+            return true;
+        }
+        Integer inserted = registerTransaction.execute(status ->
+                jdbcTemplate.update(INSERT_TERM, id, term, Timestamp.valueOf(LocalDateTime.now())));
+        return inserted != null && inserted == 1;
+    }
+
+    private synchronized void reload() {
+        if (repository == null) {
+            return;
+        }
+        for (VocabularyTerm entry : repository.findAll()) {
+            put(entry.getId(), entry.getTerm());
+        }
+    }
+
+    private synchronized void put(int id, String term) {
+        String[] current = terms;
+        if (id >= current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length * 2, id + 1));
+        }
+        current[id] = term;
+        terms = current;
+        ids.put(term, id);
+        nextId = Math.max(nextId, id + 1);
+    }
+}
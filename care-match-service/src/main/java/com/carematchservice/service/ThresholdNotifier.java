@@ -0,0 +1,208 @@
+package com.carematchservice.service;
+
+import com.carecommon.kafkaEvents.MatchCalculatedEvent;
+import com.carematchservice.kafka.MatchingEventProducer;
+import com.carematchservice.repository.MatchNotificationBulkWriter;
+import com.carematchservice.repository.MatchScoreBulkWriter.UpsertedScore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Threshold notifications (FR-MATCH-02): one {@code match.calculated} event per pair, the
+ * first time its score crosses {@code app.matching.threshold} upward.
+ *
+ * Works on the rows of one bulk write at a time:
+ *   1. Only rows whose score went from below the threshold (or from no row at all) to
+ *      at or above it are considered; rows that stayed above never produce an event.
+ *   2. An in-memory {@link PairBloomFilter} of notified pairs splits them into "certainly
+ *      not notified" and "probably notified"; only the probable hits are confirmed
+ *      against {@code match_notifications}, with one query for the whole chunk.
+ *   3. The remaining pairs are recorded with one batched insert; the unique pair
+ *      constraint drops pairs another instance notified meanwhile, and only the pairs
+ *      actually inserted are published.
+ *   4. Events are sent and the filter is updated only once the caller's transaction has
+ *      committed, so a chunk that rolls back (and is retried) publishes nothing for its
+ *      first attempt; its {@code match_notifications} rows roll back with it.
+ *
+ * The filter is filled from {@code match_notifications} shortly after startup and
+ * rebuilt periodically (which also clears false positives accumulated by pairs that
+ * were deleted); until the first build has finished every crossing is confirmed
+ * against the database. Misses (pairs notified by other instances since the last
+ * build) are harmless: step 3 catches them.
+ */
+@Service
+@Slf4j
+public class ThresholdNotifier {
+
+    private final MatchNotificationBulkWriter notificationWriter;
+    private final MatchingEventProducer matchingEventProducer;
+    private final MatchMetrics matchMetrics;
+    private final TransactionTemplate readTransaction;
+    private final long expectedPairs;
+    private final double falsePositiveRate;
+
+    @Value("${app.matching.threshold}")
+    private int matchingThreshold;
+
+    private volatile PairBloomFilter filter;
+    /** Filter being built by {@link #rebuildFilter}; receives new pairs as well. */
+    private volatile PairBloomFilter building;
+
+    public ThresholdNotifier(MatchNotificationBulkWriter notificationWriter,
+                             MatchingEventProducer matchingEventProducer,
+                             MatchMetrics matchMetrics,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.matching.notifications.filter.expected-pairs:5000000}") long expectedPairs,
+                             @Value("${app.matching.notifications.filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.notificationWriter = notificationWriter;
+        this.matchingEventProducer = matchingEventProducer;
+        this.matchMetrics = matchMetrics;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.expectedPairs = expectedPairs;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Records the rows that crossed the threshold upward and were never notified, and
+     * publishes their events once the caller's (chunk) transaction has committed.
+     *
+     * @return number of events to be published on commit
+     */
+    public int notifyCrossings(List<UpsertedScore> rows) {
+        List<UpsertedScore> crossed = new ArrayList<>();
+        for (UpsertedScore row : rows) {
+            if (crossedUpward(row.previousScore(), row.score())) {
+                crossed.add(row);
+            }
+        }
+        if (crossed.isEmpty()) {
+            return 0;
+        }
+
+        PairBloomFilter current = filter;
+        List<UpsertedScore> probable = new ArrayList<>();
+        List<UpsertedScore> fresh = new ArrayList<>(crossed.size());
+        for (UpsertedScore row : crossed) {
+            if (current == null || current.mightContain(row.patientId(), row.providerId())) {
+                probable.add(row);
+            } else {
+                fresh.add(row);
+            }
+        }
+
+        int duplicates = 0;
+        if (!probable.isEmpty()) {
+            Set<UUID> notified = notificationWriter.alreadyNotified(probable);
+            for (UpsertedScore row : probable) {
+                if (notified.contains(row.id())) {
+                    duplicates++;
+                } else {
+                    fresh.add(row);
+                }
+            }
+            if (current != null) {
+                matchMetrics.notificationFilterChecked(duplicates, probable.size() - duplicates);
+            }
+        }
+
+        List<UpsertedScore> inserted = notificationWriter.insertNotified(fresh, LocalDateTime.now());
+        int skipped = duplicates + fresh.size() - inserted.size();
+        afterCommit(() -> {
+            for (UpsertedScore row : inserted) {
+                remember(row);
+                publish(row);
+            }
+            matchMetrics.thresholdEvents(inserted.size(), skipped);
+        });
+        return inserted.size();
+    }
+
+    /** Whether a score change from {@code previous} ({@code null}: new row) to {@code score} crosses the threshold upward. */
+    public boolean crossedUpward(BigDecimal previous, BigDecimal score) {
+        return score.doubleValue() >= matchingThreshold
+                && (previous == null || previous.doubleValue() < matchingThreshold);
+    }
+
+    // ── Filter ────────────────────────────────────────────────────────────────
+
+    /** Builds a fresh filter from {@code match_notifications} and swaps it in. */
+    @Scheduled(initialDelayString = "${app.matching.notifications.filter.bootstrap-delay-ms:5000}",
+               fixedDelayString = "${app.matching.notifications.filter.rebuild-interval-ms:21600000}")
+    public void rebuildFilter() {
+        long started = System.currentTimeMillis();
+        PairBloomFilter fresh = new PairBloomFilter(expectedPairs, falsePositiveRate);
+        building = fresh;
+        AtomicLong pairs = new AtomicLong();
+        try {
+            readTransaction.executeWithoutResult(status -> notificationWriter.forEachNotifiedPair((patientId, providerId) -> {
+                fresh.put(patientId, providerId);
+                pairs.incrementAndGet();
+            }));
+            filter = fresh;
+            log.info("Notification filter built: pairs={}, bits={}, hashes={}, took={}ms{}",
+                    pairs.get(), fresh.bitCount(), fresh.hashCount(), System.currentTimeMillis() - started,
+                    pairs.get() > expectedPairs ? " (above expected-pairs, false positive rate degrades)" : "");
+        } catch (RuntimeException e) {
+            log.warn("Notification filter build failed (filter {}): {}",
+                    filter == null ? "not available, confirming every crossing" : "kept", e.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /** Runs the action after the current transaction commits (dropped on rollback), or right away outside one. */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void remember(UpsertedScore row) {
+        PairBloomFilter current = filter;
+        if (current != null) {
+            current.put(row.patientId(), row.providerId());
+        }
+        PairBloomFilter next = building;
+        if (next != null && next != current) {
+            next.put(row.patientId(), row.providerId());
+        }
+    }
+
+    private void publish(UpsertedScore row) {
+        MatchCalculatedEvent event = MatchCalculatedEvent.builder()
+                .eventType("match.calculated")
+                .matchId(row.id())
+                .patientId(row.patientId())
+                .providerId(row.providerId())
+                .score(row.score())
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        matchingEventProducer.sendMatchCalculatedEvent(event);
+        log.debug("Threshold notification queued: matchId={}, score={}", row.id(), row.score());
+    }
+}
@@ -0,0 +1,15 @@
+package com.carematchservice.service;
+
+/** Priority class of matching work; each lane has its own threads and connection budget (see MatchWorkScheduler). */
+public enum WorkLane {
+    /** Request/response work a user waits for, e.g. POST /matches/calculate */
+    INTERACTIVE,
+    /** Fan-outs triggered by profile events */
+    EVENT,
+    /** Full resets, the recompute job and re-weighting; yields to interactive work */
+    BULK;
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
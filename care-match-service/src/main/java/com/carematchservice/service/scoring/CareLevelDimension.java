@@ -0,0 +1,98 @@
+package com.carematchservice.service.scoring;
+
+import com.carematchservice.dto.PatientProfileDTO;
+import com.carematchservice.dto.ProviderProfileDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Care Level Compatibility (25%).
+ * Exact Pflegegrad match → 1.0, adjacent level → 0.6, otherwise 0.0.
+ * Providers that declare no accepted levels are assumed to support all of them.
+ */
+@Component
+@Order(1)
+public class CareLevelDimension implements ScoringDimension {
+
+    public static final String KEY = "careLevel";
+
+    /** Profile fields this dimension reads. */
+    private static final Set<String> INPUT_FIELDS = Set.of("careLevel", "acceptedCareLevels");
+
+    private final int weight;
+
+    public CareLevelDimension(@Value("${matching.weights.care-level}") int weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String key() {
+        return KEY;
+    }
+
+    @Override
+    public int weight() {
+        return weight;
+    }
+
+    @Override
+    public boolean dependsOn(String profileField) {
+        return INPUT_FIELDS.contains(profileField);
+    }
+
+    @Override
+    public double score(MatchContext context) {
+        PatientProfileDTO patient = context.getPatient();
+        ProviderProfileDTO provider = context.getProvider();
+        if (patient.getCareLevel() == null) {
+            return 0.5;
+        }
+        // If provider declares accepted care levels, do an exact/adjacent check
+        if (provider.getAcceptedCareLevels() != null && !provider.getAcceptedCareLevels().isEmpty()) {
+            if (provider.getAcceptedCareLevels().contains(patient.getCareLevel())) {
+                return 1.0; // exact match
+            }
+            boolean adjacent = provider.getAcceptedCareLevels().stream()
+                    .anyMatch(l -> Math.abs(l - patient.getCareLevel()) == 1);
+            return adjacent ? 0.6 : 0.0;
+        }
+        // Fallback: assume all care levels supported (original behaviour)
+        return 1.0;
+    }
+
+    /** Facts: the patient's care level, when known. */
+    @Override
+    public int[] explanationFacts(MatchContext context, double score) {
+        Integer careLevel = context.getPatient().getCareLevel();
+        return careLevel == null ? NO_FACTS : new int[]{careLevel};
+    }
+
+    @Override
+    public void explain(int[] facts, double score, List<String> strengths, List<String> weaknesses) {
+        if (facts.length == 0) {
+            return;
+        }
+        int careLevel = facts[0];
+        if (score >= 0.8) {
+            strengths.add(String.format("Care level %d: provider is fully certified for this Pflegegrad", careLevel));
+        } else if (score >= 0.5) {
+            strengths.add(String.format("Care level %d: provider accepts adjacent Pflegegrad", careLevel));
+        } else {
+            weaknesses.add(String.format("Care level %d: provider may not be certified for this Pflegegrad", careLevel));
+        }
+    }
+
+    /** List-based variant used by the batch kernel for levels outside its bitmask range. */
+    public static double scoreFromList(int careLevel, int[] acceptedLevels) {
+        boolean adjacent = false;
+        for (int level : acceptedLevels) {
+            if (level == careLevel) return 1.0;
+            if (Math.abs(level - careLevel) == 1) adjacent = true;
+        }
+        return adjacent ? 0.6 : 0.0;
+    }
+}
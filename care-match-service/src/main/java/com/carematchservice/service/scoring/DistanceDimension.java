@@ -0,0 +1,98 @@
+package com.carematchservice.service.scoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Distance (20%), banded: ≤10 km → 1.0, ≤25 → 0.75, ≤50 → 0.5, ≤100 → 0.25, beyond → 0.0.
+ * Unknown locations score a neutral 0.5.
+ */
+@Component
+@Order(2)
+public class DistanceDimension implements ScoringDimension {
+
+    public static final String KEY = "distance";
+
+    /** Profile fields this dimension reads; the profile service reports a move as a region change. */
+    private static final Set<String> INPUT_FIELDS = Set.of("latitude", "longitude", "location", "region");
+
+    private static final int EARTH_RADIUS = 6371;
+
+    private final int weight;
+
+    public DistanceDimension(@Value("${matching.weights.distance}") int weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String key() {
+        return KEY;
+    }
+
+    @Override
+    public int weight() {
+        return weight;
+    }
+
+    @Override
+    public boolean dependsOn(String profileField) {
+        return INPUT_FIELDS.contains(profileField);
+    }
+
+    @Override
+    public double score(MatchContext context) {
+        Double distance = context.distanceKm();
+        return distance == null ? 0.5 : bandScore(distance);
+    }
+
+    /** Facts: the distance in tenths of a km (as shown), when both locations are known. */
+    @Override
+    public int[] explanationFacts(MatchContext context, double score) {
+        Double distance = context.distanceKm();
+        return distance == null ? NO_FACTS : new int[]{(int) Math.round(distance * 10.0)};
+    }
+
+    @Override
+    public void explain(int[] facts, double score, List<String> strengths, List<String> weaknesses) {
+        if (facts.length == 0) {
+            return;
+        }
+        double distance = facts[0] / 10.0;
+        String distanceMsg = String.format("Located %.1f km away", distance);
+        // Judged on the band score, not the shown distance: 25.04 km shows as 25.0 but is beyond 25
+        if (score >= bandScore(25)) {
+            strengths.add(distanceMsg);
+        } else {
+            weaknesses.add(distanceMsg);
+        }
+    }
+
+    public static double bandScore(double distance) {
+        if (distance <= 10)  return 1.0;
+        if (distance <= 25)  return 0.75;
+        if (distance <= 50)  return 0.5;
+        if (distance <= 100) return 0.25;
+        return 0.0;
+    }
+
+    public static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        return haversine(lat1, lon1, Math.cos(Math.toRadians(lat1)),
+                lat2, lon2, Math.cos(Math.toRadians(lat2)));
+    }
+
+    /** Haversine with the latitude cosines supplied by the caller, so they can be precomputed. */
+    public static double haversine(double lat1, double lon1, double cosLat1,
+                                   double lat2, double lon2, double cosLat2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
+                + cosLat1 * cosLat2
+                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return EARTH_RADIUS * c;
+    }
+}
@@ -0,0 +1,100 @@
+package com.carematchservice.service.scoring;
+
+import com.carematchservice.dto.PatientProfileDTO;
+import com.carematchservice.dto.ProviderProfileDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Lifestyle Compatibility (10%): agreement on petsAllowed / smokingAllowed between the
+ * patient's lifestyleAttributes and the provider's lifestyleOptions.
+ */
+@Component
+@Order(5)
+public class LifestyleDimension implements ScoringDimension {
+
+    public static final String KEY = "lifestyle";
+
+    /** Profile fields this dimension reads. */
+    private static final Set<String> INPUT_FIELDS = Set.of("lifestyleAttributes", "lifestyleOptions");
+
+    private static final int[] STATED_PREFERENCES = {1};
+
+    private final int weight;
+
+    public LifestyleDimension(@Value("${matching.weights.lifestyle}") int weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String key() {
+        return KEY;
+    }
+
+    @Override
+    public int weight() {
+        return weight;
+    }
+
+    @Override
+    public boolean dependsOn(String profileField) {
+        return INPUT_FIELDS.contains(profileField);
+    }
+
+    @Override
+    public double score(MatchContext context) {
+        PatientProfileDTO patient = context.getPatient();
+        ProviderProfileDTO provider = context.getProvider();
+        if (patient.getLifestyleAttributes() == null || patient.getLifestyleAttributes().isEmpty()) {
+            return 0.5;
+        }
+        if (provider.getLifestyleOptions() == null || provider.getLifestyleOptions().isEmpty()) {
+            return 0.7; // base score — provider data not available
+        }
+
+        double score = 0.0;
+        int checks = 0;
+
+        // pets
+        Object patientPets = patient.getLifestyleAttributes().get("petsAllowed");
+        Object providerPets = provider.getLifestyleOptions().get("petsAllowed");
+        if (patientPets != null && providerPets != null) {
+            score += Boolean.parseBoolean(patientPets.toString()) ==
+                    Boolean.parseBoolean(providerPets.toString()) ? 1.0 : 0.0;
+            checks++;
+        }
+
+        // smoking
+        Object patientSmoke = patient.getLifestyleAttributes().get("smokingAllowed");
+        Object providerSmoke = provider.getLifestyleOptions().get("smokingAllowed");
+        if (patientSmoke != null && providerSmoke != null) {
+            score += Boolean.parseBoolean(patientSmoke.toString()) ==
+                    Boolean.parseBoolean(providerSmoke.toString()) ? 1.0 : 0.0;
+            checks++;
+        }
+
+        return checks == 0 ? 0.7 : score / checks;
+    }
+
+    /** Facts: {@code [1]} when the patient has stated lifestyle preferences. */
+    @Override
+    public int[] explanationFacts(MatchContext context, double score) {
+        return context.getPatient().getLifestyleAttributes() == null ? NO_FACTS : STATED_PREFERENCES;
+    }
+
+    @Override
+    public void explain(int[] facts, double score, List<String> strengths, List<String> weaknesses) {
+        if (facts.length == 0) {
+            return;
+        }
+        if (score >= 0.7) {
+            strengths.add("Lifestyle preferences are well accommodated");
+        } else {
+            weaknesses.add("Some lifestyle preferences may not be met");
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.carematchservice.service.scoring;
+
+/**
+ * Compact storage format of a match's per-dimension results in {@code match_scores}:
+ *   - {@code dimension_scores smallint[]}: every dimension score (0.0–1.0) quantized to
+ *     1/{@value #SCALE}, in the order of the row's algorithm version
+ *   - {@code explanation_facts integer[]}: the {@link ScoringDimension#explanationFacts}
+ *     of every dimension in the same order, each prefixed with its length
+ *
+ * Together with the algorithm version (dimension keys and weights, see AlgorithmVersions)
+ * and the stored total this is enough to render breakdown and explanation on read.
+ */
+public final class MatchBreakdownCodec {
+
+    /** Quantization steps per 1.0; a stored dimension score is off by at most half a step. */
+    public static final int SCALE = 10_000;
+
+    private MatchBreakdownCodec() {
+    }
+
+    // ── Dimension scores ──────────────────────────────────────────────────────
+
+    public static short quantize(double score) {
+        return (short) Math.round(Math.max(0.0, Math.min(1.0, score)) * SCALE);
+    }
+
+    public static short[] quantize(double[] scores) {
+        short[] result = new short[scores.length];
+        for (int i = 0; i < scores.length; i++) {
+            result[i] = quantize(scores[i]);
+        }
+        return result;
+    }
+
+    public static double dequantize(short quantized) {
+        return (double) quantized / SCALE;
+    }
+
+    public static double[] dequantize(short[] quantized) {
+        double[] result = new double[quantized.length];
+        for (int i = 0; i < quantized.length; i++) {
+            result[i] = dequantize(quantized[i]);
+        }
+        return result;
+    }
+
+    // ── Explanation facts ─────────────────────────────────────────────────────
+
+    /** Concatenates the facts of all dimensions, each prefixed with its length. */
+    public static int[] packFacts(int[][] facts) {
+        int length = facts.length;
+        for (int[] f : facts) {
+            length += f.length;
+        }
+        int[] packed = new int[length];
+        int p = 0;
+        for (int[] f : facts) {
+            packed[p++] = f.length;
+            System.arraycopy(f, 0, packed, p, f.length);
+            p += f.length;
+        }
+        return packed;
+    }
+
+    /** Inverse of {@link #packFacts}; dimensions missing from a short array get no facts. */
+    public static int[][] unpackFacts(int[] packed, int dimensions) {
+        int[][] facts = new int[dimensions][];
+        int p = 0;
+        for (int i = 0; i < dimensions; i++) {
+            int length = packed != null && p < packed.length ? packed[p++] : 0;
+            if (length == 0 || p + length > packed.length) {
+                facts[i] = ScoringDimension.NO_FACTS;
+            } else {
+                facts[i] = new int[length];
+                System.arraycopy(packed, p, facts[i], 0, length);
+            }
+            p += length;
+        }
+        return facts;
+    }
+
+    // ── SQL array literals (bound as text and cast, e.g. {@code ?::smallint[]}) ──
+
+    public static String arrayLiteral(short[] values) {
+        StringBuilder sb = new StringBuilder(values.length * 6 + 2).append('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(values[i]);
+        }
+        return sb.append('}').toString();
+    }
+
+    public static String arrayLiteral(int[] values) {
+        StringBuilder sb = new StringBuilder(values.length * 4 + 2).append('{');
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(values[i]);
+        }
+        return sb.append('}').toString();
+    }
+}
@@ -0,0 +1,69 @@
+package com.carematchservice.service.scoring;
+
+import com.carematchservice.dto.PatientProfileDTO;
+import com.carematchservice.dto.ProviderProfileDTO;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Per-pair evaluation context shared by all {@link ScoringDimension}s of one pass.
+ *
+ * Values that more than one dimension (or the response enrichment) needs — most
+ * importantly the haversine distance — are computed lazily and at most once.
+ */
+public class MatchContext {
+
+    @Getter
+    private final PatientProfileDTO patient;
+
+    @Getter
+    private final ProviderProfileDTO provider;
+
+    private boolean distanceResolved;
+    private Double distanceKm;
+    private Map<String, Object> attributes;
+
+    public MatchContext(PatientProfileDTO patient, ProviderProfileDTO provider) {
+        this.patient = patient;
+        this.provider = provider;
+    }
+
+    public boolean hasBothLocations() {
+        return patient.getLatitude() != null && patient.getLongitude() != null
+                && provider.getLatitude() != null && provider.getLongitude() != null;
+    }
+
+    /** Distance in km between patient and provider, or {@code null} when either location is unknown. */
+    public Double distanceKm() {
+        if (!distanceResolved) {
+            distanceResolved = true;
+            if (hasBothLocations()) {
+                distanceKm = DistanceDimension.haversine(
+                        patient.getLatitude(), patient.getLongitude(),
+                        provider.getLatitude(), provider.getLongitude());
+            }
+        }
+        return distanceKm;
+    }
+
+    /**
+     * Memoizes an intermediate value under the given key, so a dimension can reuse
+     * in {@code explain} what it derived in {@code score}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T attribute(String key, Supplier<T> supplier) {
+        if (attributes == null) {
+            attributes = new HashMap<>();
+        }
+        // Not computeIfAbsent: suppliers may themselves read other attributes
+        Object value = attributes.get(key);
+        if (value == null) {
+            value = supplier.get();
+            attributes.put(key, value);
+        }
+        return (T) value;
+    }
+}
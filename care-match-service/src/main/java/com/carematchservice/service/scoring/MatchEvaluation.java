@@ -0,0 +1,142 @@
+package com.carematchservice.service.scoring;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Result of a single fused evaluation pass over all {@link ScoringDimension}s for one
+ * patient–provider pair. Total score, breakdown, explanation and distance are all
+ * derived from the same per-dimension scores, so nothing is computed twice. The
+ * explanation text is only rendered when asked for; what is persisted are the quantized
+ * scores and the explanation facts (see {@link MatchBreakdownCodec}).
+ */
+@Getter
+public class MatchEvaluation {
+
+    /**
+     * Lower score bounds of the explanation summaries, best first; {@code SUMMARIES[i]}
+     * applies from {@code SUMMARY_THRESHOLDS[i]}, the last summary below all of them.
+     */
+    public static final double[] SUMMARY_THRESHOLDS = {90, 75, 60, 50};
+    public static final String[] SUMMARIES = {
+            "Excellent match - highly recommended",
+            "Very good match - recommended",
+            "Good match - suitable",
+            "Moderate match - consider alternatives",
+            "Limited match - explore other options"
+    };
+
+    private final UUID patientId;
+    private final UUID providerId;
+
+    /** Evaluated dimensions, in evaluation order. */
+    private final List<ScoringDimension> dimensions;
+    /** Dimension keys, in evaluation order. */
+    private final String[] keys;
+    private final int[] weights;
+    private final double[] dimensionScores;
+    /** {@link ScoringDimension#explanationFacts} per dimension, in evaluation order. */
+    private final int[][] explanationFacts;
+    /** Id of the stored algorithm version (keys and weights); {@code null} outside the application context. */
+    private final Integer algorithmVersion;
+
+    /** Unrounded weighted total. */
+    private final double rawTotal;
+    /** Weighted total rounded to 2 decimals — the persisted score. */
+    private final BigDecimal score;
+    /** Haversine distance in km, or {@code null} when either location is unknown. */
+    private final Double distanceKm;
+
+    public MatchEvaluation(UUID patientId, UUID providerId, List<ScoringDimension> dimensions,
+                           String[] keys, int[] weights, double[] dimensionScores, int[][] explanationFacts,
+                           Integer algorithmVersion, double rawTotal, BigDecimal score, Double distanceKm) {
+        this.patientId = patientId;
+        this.providerId = providerId;
+        this.dimensions = dimensions;
+        this.keys = keys;
+        this.weights = weights;
+        this.dimensionScores = dimensionScores;
+        this.explanationFacts = explanationFacts;
+        this.algorithmVersion = algorithmVersion;
+        this.rawTotal = rawTotal;
+        this.score = score;
+        this.distanceKm = distanceKm;
+    }
+
+    /** Score of the given dimension, or {@code NaN} when no such dimension was evaluated. */
+    public double dimensionScore(String key) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) return dimensionScores[i];
+        }
+        return Double.NaN;
+    }
+
+    /** Distance rounded to one decimal, as shown in patient / provider summaries. */
+    public Double getRoundedDistanceKm() {
+        return distanceKm == null ? null : Math.round(distanceKm * 10.0) / 10.0;
+    }
+
+    /** Breakdown as persisted in {@code match_scores.score_breakdown}: {@code <key>Score} entries plus the weights. */
+    public Map<String, Object> getScoreBreakdown() {
+        Map<String, Object> breakdown = new HashMap<>();
+        Map<String, Object> weightMap = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            breakdown.put(keys[i] + "Score", dimensionScores[i]);
+            weightMap.put(keys[i], weights[i]);
+        }
+        breakdown.put("weights", weightMap);
+        return breakdown;
+    }
+
+    /** Explanation as returned by the API; rendered on every call, never stored as text. */
+    public Map<String, Object> getExplanation() {
+        return buildExplanation(score);
+    }
+
+    public Map<String, Object> buildExplanation(BigDecimal displayedScore) {
+        return renderExplanation(dimensions, dimensionScores, explanationFacts, displayedScore);
+    }
+
+    /** Dimension scores quantized for {@code match_scores.dimension_scores}. */
+    public short[] quantizedDimensionScores() {
+        return MatchBreakdownCodec.quantize(dimensionScores);
+    }
+
+    /** Explanation facts packed for {@code match_scores.explanation_facts}. */
+    public int[] packedExplanationFacts() {
+        return MatchBreakdownCodec.packFacts(explanationFacts);
+    }
+
+    /**
+     * Renders the explanation from per-dimension scores and facts, for a fresh evaluation
+     * as well as for a stored row. Dimensions that are {@code null} (no longer configured)
+     * contribute no lines.
+     */
+    public static Map<String, Object> renderExplanation(List<ScoringDimension> dimensions, double[] dimensionScores,
+                                                        int[][] explanationFacts, BigDecimal displayedScore) {
+        List<String> strengths  = new ArrayList<>();
+        List<String> weaknesses = new ArrayList<>();
+        for (int i = 0; i < dimensionScores.length; i++) {
+            ScoringDimension dimension = dimensions.get(i);
+            if (dimension != null) {
+                dimension.explain(explanationFacts[i], dimensionScores[i], strengths, weaknesses);
+            }
+        }
+        Map<String, Object> explanation = new HashMap<>();
+        explanation.put("score",      displayedScore);
+        explanation.put("strengths",  strengths);
+        explanation.put("weaknesses", weaknesses);
+        explanation.put("summary",    summaryFor(displayedScore));
+        return explanation;
+    }
+
+    public static String summaryFor(BigDecimal score) {
+        double v = score.doubleValue();
+        for (int i = 0; i < SUMMARY_THRESHOLDS.length; i++) {
+            if (v >= SUMMARY_THRESHOLDS[i]) return SUMMARIES[i];
+        }
+        return SUMMARIES[SUMMARY_THRESHOLDS.length];
+    }
+}
@@ -0,0 +1,82 @@
+package com.carematchservice.service.scoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Quality Indicators (5%).
+ *
+ * Reads qualityIndicators map from the provider profile:
+ *   "averageRating"  → Double 0–5, normalised to 0.0–1.0
+ *   "certifications" → any non-blank value adds 0.1 bonus (capped at 1.0)
+ */
+@Component
+@Order(7)
+public class QualityDimension implements ScoringDimension {
+
+    public static final String KEY = "quality";
+
+    /** Profile fields this dimension reads. */
+    private static final Set<String> INPUT_FIELDS = Set.of("qualityIndicators");
+
+    private final int weight;
+
+    public QualityDimension(@Value("${matching.weights.quality:5}") int weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String key() {
+        return KEY;
+    }
+
+    @Override
+    public int weight() {
+        return weight;
+    }
+
+    @Override
+    public boolean dependsOn(String profileField) {
+        return INPUT_FIELDS.contains(profileField);
+    }
+
+    @Override
+    public double score(MatchContext context) {
+        return qualityScore(context.getProvider().getQualityIndicators());
+    }
+
+    @Override
+    public void explain(int[] facts, double score, List<String> strengths, List<String> weaknesses) {
+        if (score >= 0.7) {
+            strengths.add("Provider has strong quality indicators");
+        }
+    }
+
+    public static double qualityScore(Map<String, Object> qualityIndicators) {
+        if (qualityIndicators == null || qualityIndicators.isEmpty()) {
+            return 0.5; // neutral when no data available
+        }
+
+        double score = 0.5; // base
+
+        Object ratingObj = qualityIndicators.get("averageRating");
+        if (ratingObj != null) {
+            try {
+                double rating = Double.parseDouble(ratingObj.toString());
+                score = Math.min(rating / 5.0, 1.0); // normalise 0–5 → 0.0–1.0
+            } catch (NumberFormatException ignored) {}
+        }
+
+        Object certObj = qualityIndicators.get("certifications");
+        if (certObj != null && !certObj.toString().isBlank()) {
+            score = Math.min(score + 0.1, 1.0);
+        }
+
+        return score;
+    }
+}
@@ -0,0 +1,55 @@
+package com.carematchservice.service.scoring;
+
+import java.util.List;
+
+/**
+ * SPI for one scoring dimension of the matching algorithm.
+ *
+ * Every Spring bean implementing this interface joins the single evaluation pass in
+ * {@link com.carematchservice.service.MatchingAlgorithmService#evaluate}: it is scored once
+ * per pair, weighted into the total, written to the breakdown as {@code <key>Score} and
+ * asked for the facts its explanation lines are rendered from. Beans are evaluated in
+ * {@code @Order} sequence; the built-in dimensions use orders 1–7, so new dimensions
+ * should use a higher order.
+ */
+public interface ScoringDimension {
+
+    int[] NO_FACTS = new int[0];
+
+    /** Breakdown / weight key, e.g. {@code "careLevel"}. Must be unique. */
+    String key();
+
+    /** Configured weight of this dimension; all weights together sum to 100. */
+    int weight();
+
+    /** Dimension score in the range 0.0–1.0. */
+    double score(MatchContext context);
+
+    /**
+     * The profile facts {@link #explain} needs besides the score, as a few small integers
+     * (e.g. the care level, the distance in tenths of a km, vocabulary term ids). They are
+     * stored with the match in {@code match_scores.explanation_facts}, so the explanation
+     * can be rendered on read instead of being stored as text.
+     */
+    default int[] explanationFacts(MatchContext context, double score) {
+        return NO_FACTS;
+    }
+
+    /**
+     * Adds human-readable strengths / weaknesses for an already computed score, from the
+     * facts returned by {@link #explanationFacts} only. Called when a match is rendered,
+     * possibly long after it was scored; must not depend on anything else.
+     */
+    default void explain(int[] facts, double score, List<String> strengths, List<String> weaknesses) {
+    }
+
+    /**
+     * Whether the score can change when the given profile field changes (field names as
+     * in {@code ProfileUpdatedEvent.changes}, e.g. {@code "specializations"}). Delta
+     * recalculations rescore only the dimensions that depend on a changed field, so the
+     * default is conservative.
+     */
+    default boolean dependsOn(String profileField) {
+        return true;
+    }
+}
@@ -0,0 +1,47 @@
+package com.carematchservice.service.scoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Social Compatibility (5%). Base score only — extended when richer provider
+ * social data is available.
+ */
+@Component
+@Order(6)
+public class SocialDimension implements ScoringDimension {
+
+    public static final String KEY = "social";
+
+    /** Profile fields this dimension reads. */
+    private static final Set<String> INPUT_FIELDS = Set.of("lifestyleAttributes");
+
+    private final int weight;
+
+    public SocialDimension(@Value("${matching.weights.social}") int weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String key() {
+        return KEY;
+    }
+
+    @Override
+    public int weight() {
+        return weight;
+    }
+
+    @Override
+    public boolean dependsOn(String profileField) {
+        return INPUT_FIELDS.contains(profileField);
+    }
+
+    @Override
+    public double score(MatchContext context) {
+        return context.getPatient().getLifestyleAttributes() == null ? 0.5 : 0.6;
+    }
+}
@@ -0,0 +1,106 @@
+package com.carematchservice.service.scoring;
+
+import com.carematchservice.dto.PatientProfileDTO;
+import com.carematchservice.dto.ProviderProfileDTO;
+import com.carematchservice.service.TermVocabulary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Specialization Match (20%): share of the patient's medical requirements
+ * (boolean flags in medicalRequirements) covered by the provider's specializations.
+ *
+ * Both sides are compared as TermVocabulary bitsets cached on the profiles,
+ * so the overlap is an AND plus popcount instead of per-pair string sets.
+ * Terms are only looked up here; a requirement the vocabulary does not know
+ * counts as a need no provider covers.
+ */
+@Component
+@Order(3)
+public class SpecializationDimension implements ScoringDimension {
+
+    public static final String KEY = "specialization";
+
+    /** Profile fields this dimension reads. */
+    private static final Set<String> INPUT_FIELDS = Set.of("medicalRequirements", "specializations");
+
+    private final int weight;
+    private final TermVocabulary vocabulary;
+
+    public SpecializationDimension(@Value("${matching.weights.specialization}") int weight,
+                                   TermVocabulary vocabulary) {
+        this.weight = weight;
+        this.vocabulary = vocabulary;
+    }
+
+    @Override
+    public String key() {
+        return KEY;
+    }
+
+    @Override
+    public int weight() {
+        return weight;
+    }
+
+    @Override
+    public boolean dependsOn(String profileField) {
+        return INPUT_FIELDS.contains(profileField);
+    }
+
+    @Override
+    public double score(MatchContext context) {
+        PatientProfileDTO patient = context.getPatient();
+        ProviderProfileDTO provider = context.getProvider();
+        if (patient.getMedicalRequirements() == null || patient.getMedicalRequirements().isEmpty() ||
+                provider.getSpecializations() == null || provider.getSpecializations().isEmpty()) {
+            return 0.5;
+        }
+        long[] needs = vocabulary.medicalRequirementBits(patient);
+        int needCount = vocabulary.medicalRequirementCount(patient);
+        if (needCount == 0) return 0.5;
+
+        return (double) TermVocabulary.overlap(needs, vocabulary.specializationBits(provider)) / needCount;
+    }
+
+    /** Facts: vocabulary ids of the requirements the provider is specialized in, ascending. */
+    @Override
+    public int[] explanationFacts(MatchContext context, double score) {
+        if (context.getPatient().getMedicalRequirements() == null || context.getProvider().getSpecializations() == null) {
+            return NO_FACTS;
+        }
+        long[] matches = TermVocabulary.and(
+                vocabulary.medicalRequirementBits(context.getPatient()),
+                vocabulary.specializationBits(context.getProvider()));
+        return TermVocabulary.ids(matches);
+    }
+
+    @Override
+    public void explain(int[] facts, double score, List<String> strengths, List<String> weaknesses) {
+        if (facts.length == 0) {
+            return;
+        }
+        List<String> terms = new ArrayList<>(facts.length);
+        for (int id : facts) {
+            terms.add(vocabulary.term(id));
+        }
+        strengths.add("Specialized in: " + String.join(", ", terms));
+    }
+
+    public static Set<String> extractMedicalRequirements(Map<String, Object> medicalRequirements) {
+        Set<String> requirements = new HashSet<>();
+        for (Map.Entry<String, Object> entry : medicalRequirements.entrySet()) {
+            if (entry.getValue() instanceof Boolean && (Boolean) entry.getValue()) {
+                requirements.add(entry.getKey().toLowerCase());
+            }
+        }
+        return requirements;
+    }
+}
@@ -0,0 +1,154 @@
+package com.carematchservice.service.scoring;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Care Service Tier Compatibility (15%).
+ *
+ * Tier compatibility matrix (patient tier × best provider tier offered):
+ *             STANDARD  COMFORT  PREMIUM
+ * STANDARD      1.0      0.7      0.2
+ * COMFORT        0.4      1.0      0.6
+ * PREMIUM        0.0      0.5      1.0
+ *
+ * When provider offers multiple tiers, the best (highest) score is used.
+ */
+@Component
+@Order(4)
+public class TierDimension implements ScoringDimension {
+
+    public static final String KEY = "tier";
+
+    /** Profile fields this dimension reads. */
+    private static final Set<String> INPUT_FIELDS = Set.of("careServiceTier", "offeredServiceTiers");
+
+    /** Known tiers; positions are stored in explanation facts and must not change. */
+    private static final List<String> TIERS = List.of("STANDARD", "COMFORT", "PREMIUM");
+
+    /** Spellings of a known tier kept for the explanation; the values are stored in explanation facts. */
+    private static final int UPPER_CASE  = 0;
+    private static final int LOWER_CASE  = 1;
+    private static final int CAPITALIZED = 2;
+
+    private final int weight;
+
+    public TierDimension(@Value("${matching.weights.tier:15}") int weight) {
+        this.weight = weight;
+    }
+
+    @Override
+    public String key() {
+        return KEY;
+    }
+
+    @Override
+    public int weight() {
+        return weight;
+    }
+
+    @Override
+    public boolean dependsOn(String profileField) {
+        return INPUT_FIELDS.contains(profileField);
+    }
+
+    @Override
+    public double score(MatchContext context) {
+        String patientTier = patientTier(context).toUpperCase();
+
+        Set<String> providerTiers = context.getProvider().getOfferedServiceTiers();
+        if (providerTiers == null || providerTiers.isEmpty()) {
+            // Provider has no tier data yet — treat as STANDARD, score neutrally
+            providerTiers = Set.of("STANDARD");
+        }
+
+        double bestScore = 0.0;
+        for (String pt : providerTiers) {
+            double s = compatibilityScore(patientTier, pt.toUpperCase());
+            if (s > bestScore) bestScore = s;
+        }
+        return bestScore;
+    }
+
+    /**
+     * Facts: the patient's tier as an index into {@link #TIERS} ({@code -1} for any other
+     * value, shown as OTHER) and its spelling — upper-case, lower-case or capitalized, any
+     * other mix is normalized to upper-case — so the explanation shows a known tier the way
+     * the patient's profile has it.
+     */
+    @Override
+    public int[] explanationFacts(MatchContext context, double score) {
+        String tier = patientTier(context);
+        int index = TIERS.indexOf(tier.toUpperCase());
+        if (index < 0) {
+            return new int[]{index};
+        }
+        String name = TIERS.get(index);
+        int spelling = tier.equals(name.toLowerCase()) ? LOWER_CASE
+                : tier.equals(capitalized(name)) ? CAPITALIZED
+                : UPPER_CASE;
+        return spelling == UPPER_CASE ? new int[]{index} : new int[]{index, spelling};
+    }
+
+    @Override
+    public void explain(int[] facts, double score, List<String> strengths, List<String> weaknesses) {
+        String patientTier = tierName(facts);
+        if (score >= 0.8) {
+            strengths.add("Care service tier (" + patientTier + "): excellent match");
+        } else if (score >= 0.5) {
+            strengths.add("Care service tier (" + patientTier + "): acceptable match");
+        } else {
+            weaknesses.add("Care service tier (" + patientTier + "): provider tier may not align with patient expectations");
+        }
+    }
+
+    private static String tierName(int[] facts) {
+        if (facts.length == 0 || facts[0] < 0 || facts[0] >= TIERS.size()) {
+            return "OTHER";
+        }
+        String name = TIERS.get(facts[0]);
+        int spelling = facts.length > 1 ? facts[1] : UPPER_CASE;
+        return switch (spelling) {
+            case LOWER_CASE -> name.toLowerCase();
+            case CAPITALIZED -> capitalized(name);
+            default -> name;
+        };
+    }
+
+    private static String capitalized(String name) {
+        return name.charAt(0) + name.substring(1).toLowerCase();
+    }
+
+    private static String patientTier(MatchContext context) {
+        String tier = context.getPatient().getCareServiceTier();
+        return tier != null ? tier : "STANDARD";
+    }
+
+    public static double compatibilityScore(String patientTier, String providerTier) {
+        return switch (patientTier) {
+            case "STANDARD" -> switch (providerTier) {
+                case "STANDARD" -> 1.0;
+                case "COMFORT"  -> 0.7;
+                case "PREMIUM"  -> 0.2;
+                default         -> 0.5;
+            };
+            case "COMFORT" -> switch (providerTier) {
+                case "STANDARD" -> 0.4;
+                case "COMFORT"  -> 1.0;
+                case "PREMIUM"  -> 0.6;
+                default         -> 0.5;
+            };
+            case "PREMIUM" -> switch (providerTier) {
+                case "STANDARD" -> 0.0;
+                case "COMFORT"  -> 0.5;
+                case "PREMIUM"  -> 1.0;
+                default         -> 0.5;
+            };
+            default -> 0.5;
+        };
+    }
+}
@@ -0,0 +1,78 @@
+-- ════════════════════════════════════════════════════════════════════════════
+--  match_scores → hash-partitioned by patient_id, step 1 of 3
+--
+--  Creates care_matching.match_scores_p (same columns as match_scores,
+--  16 hash partitions) with its ranking indexes, and a trigger that mirrors
+--  every write on match_scores into it from now on. The service keeps running
+--  against match_scores throughout; 02 backfills the existing rows, 03 swaps
+--  the tables.
+--
+--  Keys: every unique constraint of a partitioned table must contain the
+--  partition key, so the primary key becomes (id, patient_id). Ids stay unique
+--  on their own (UUIDs); the id-first order keeps keyset scans by id (re-weight
+--  slices, the backfill) on the primary key index.
+--
+--  Run with psql against care_match_db:  psql -v ON_ERROR_STOP=1 -f 01_create_partitioned_table.sql
+-- ════════════════════════════════════════════════════════════════════════════
+
+BEGIN;
+
+CREATE TABLE care_matching.match_scores_p (
+    LIKE care_matching.match_scores INCLUDING DEFAULTS INCLUDING CONSTRAINTS
+) PARTITION BY HASH (patient_id);
+
+ALTER TABLE care_matching.match_scores_p
+    ADD CONSTRAINT match_scores_p_pkey PRIMARY KEY (id, patient_id),
+    ADD CONSTRAINT match_scores_p_patient_provider_key UNIQUE (patient_id, provider_id);
+
+DO $$
+BEGIN
+    FOR i IN 0..15 LOOP
+        EXECUTE format(
+            'CREATE TABLE care_matching.match_scores_h%s PARTITION OF care_matching.match_scores_p
+                 FOR VALUES WITH (MODULUS 16, REMAINDER %s)',
+            lpad(i::text, 2, '0'), i);
+    END LOOP;
+END $$;
+
+-- ── Ranking indexes ─────────────────────────────────────────────────────────
+-- Leaderboard rebuilds (findRankedProviders / findRankedPatients) read only the
+-- counterpart id and the score: index-only scans. The scalar display columns are
+-- included as well; the jsonb / array columns are not, to keep index tuples small.
+
+CREATE INDEX idx_match_scores_patient_score
+    ON care_matching.match_scores_p (patient_id, score DESC)
+    INCLUDE (provider_id, provider_name, provider_type, provider_available, distance_km);
+
+CREATE INDEX idx_match_scores_provider_score
+    ON care_matching.match_scores_p (provider_id, score DESC)
+    INCLUDE (patient_id, patient_care_level, distance_km);
+
+-- Sub-floor compaction (MatchCompactionJob) and below-threshold reads
+CREATE INDEX idx_match_scores_score
+    ON care_matching.match_scores_p (score);
+
+-- ── Mirror trigger ──────────────────────────────────────────────────────────
+-- An update is applied as delete + insert, so the copy always equals the
+-- current row; the pair delete before an insert drops a stale copy, if any.
+
+CREATE OR REPLACE FUNCTION care_matching.match_scores_mirror() RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        DELETE FROM care_matching.match_scores_p
+        WHERE patient_id = OLD.patient_id AND id = OLD.id;
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        DELETE FROM care_matching.match_scores_p
+        WHERE patient_id = NEW.patient_id AND provider_id = NEW.provider_id;
+        INSERT INTO care_matching.match_scores_p SELECT (NEW).*;
+    END IF;
+    RETURN NULL;
+END $$;
+
+CREATE TRIGGER match_scores_mirror
+    AFTER INSERT OR UPDATE OR DELETE ON care_matching.match_scores
+    FOR EACH ROW EXECUTE FUNCTION care_matching.match_scores_mirror();
+
+COMMIT;
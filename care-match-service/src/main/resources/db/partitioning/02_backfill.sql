@@ -0,0 +1,56 @@
+-- ════════════════════════════════════════════════════════════════════════════
+--  match_scores → hash-partitioned by patient_id, step 2 of 3
+--
+--  Copies the existing rows into match_scores_p in id order, one committed
+--  batch at a time, while the mirror trigger from step 1 keeps new writes in
+--  sync. Each batch locks its source rows FOR SHARE, so a row cannot be deleted
+--  or updated between being read and being copied; rows the trigger already
+--  copied are left as they are (ON CONFLICT DO NOTHING).
+--
+--  Safe to interrupt: run it again, optionally passing the last id reported,
+--  e.g. CALL care_matching.backfill_match_scores_p(5000, '<last id>');
+--
+--  Must run outside an explicit transaction (the procedure commits per batch):
+--  psql -v ON_ERROR_STOP=1 -f 02_backfill.sql
+-- ════════════════════════════════════════════════════════════════════════════
+
+CREATE OR REPLACE PROCEDURE care_matching.backfill_match_scores_p(
+    batch_size integer DEFAULT 5000,
+    start_after uuid DEFAULT '00000000-0000-0000-0000-000000000000')
+LANGUAGE plpgsql AS $$
+DECLARE
+    after_id uuid := start_after;
+    last_id  uuid;
+    batch    integer;
+    copied   bigint := 0;
+BEGIN
+    LOOP
+        WITH source AS (
+            SELECT * FROM care_matching.match_scores
+            WHERE id > after_id
+            ORDER BY id
+            LIMIT batch_size
+            FOR SHARE
+        ), copy AS (
+            INSERT INTO care_matching.match_scores_p
+            SELECT * FROM source
+            ON CONFLICT DO NOTHING
+        )
+        SELECT count(*), (SELECT id FROM source ORDER BY id DESC LIMIT 1)
+        INTO batch, last_id
+        FROM source;
+
+        EXIT WHEN batch = 0;
+        copied := copied + batch;
+        after_id := last_id;
+        COMMIT;
+        RAISE NOTICE 'match_scores backfill: % rows, last id %', copied, after_id;
+    END LOOP;
+    RAISE NOTICE 'match_scores backfill finished: % rows', copied;
+END $$;
+
+CALL care_matching.backfill_match_scores_p();
+
+-- Both counts must match before step 3 (the trigger keeps them in step while writes go on)
+SELECT (SELECT count(*) FROM care_matching.match_scores)   AS source_rows,
+       (SELECT count(*) FROM care_matching.match_scores_p) AS partitioned_rows;
@@ -0,0 +1,25 @@
+-- ════════════════════════════════════════════════════════════════════════════
+--  match_scores → hash-partitioned by patient_id, step 3 of 3
+--
+--  Swaps the backfilled partitioned table in under the name match_scores.
+--  Renames only, so writes are blocked just for the lock wait; the old table
+--  is kept as match_scores_unpartitioned until it is dropped by hand:
+--      DROP TABLE care_matching.match_scores_unpartitioned;
+--
+--  psql -v ON_ERROR_STOP=1 -f 03_swap.sql
+-- ════════════════════════════════════════════════════════════════════════════
+
+BEGIN;
+
+SET LOCAL lock_timeout = '5s';
+LOCK TABLE care_matching.match_scores IN ACCESS EXCLUSIVE MODE;
+
+DROP TRIGGER match_scores_mirror ON care_matching.match_scores;
+DROP FUNCTION care_matching.match_scores_mirror();
+
+ALTER TABLE care_matching.match_scores   RENAME TO match_scores_unpartitioned;
+ALTER TABLE care_matching.match_scores_p RENAME TO match_scores;
+
+COMMIT;
+
+DROP PROCEDURE IF EXISTS care_matching.backfill_match_scores_p(integer, uuid);
@@ -143,4 +143,16 @@ public class PatientProfileController {
         List<PatientProfileResponse> patients = patientProfileService.getAllActivePatients();
         return ResponseEntity.ok(ApiResponse.success(patients, "Active patients retrieved"));
     }
-}
\ No newline at end of file
+
+    /**
+     * POST /api/v1/patients/batch
+     * Returns the patient profiles with the given ids (unknown ids are skipped).
+     * Internal use only – called service-to-service by the matching engine.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<PatientProfileResponse>>> getProfilesByIds(
+            @RequestBody List<UUID> profileIds) {
+        List<PatientProfileResponse> patients = patientProfileService.getProfilesByIds(profileIds);
+        return ResponseEntity.ok(ApiResponse.success(patients));
+    }
+}
@@ -34,6 +34,7 @@ import java.util.UUID;
  *  GET    /providers/documents
  *  DELETE /providers/documents/{documentId}
  *  GET    /providers/all   (internal – matching engine)
+ *  POST   /providers/batch (internal – matching engine: profiles by id list)
  */
 @RestController
 @RequestMapping("/api/v1/providers")
@@ -202,4 +203,11 @@ public class ProviderProfileController {
         List<ProviderProfileResponse> providers = providerProfileService.getAllActiveProviders();
         return ResponseEntity.ok(ApiResponse.success(providers, "Active providers retrieved"));
     }
-}
\ No newline at end of file
+
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<ProviderProfileResponse>>> getProfilesByIds(
+            @RequestBody List<UUID> profileIds) {
+        List<ProviderProfileResponse> providers = providerProfileService.getProfilesByIds(profileIds);
+        return ResponseEntity.ok(ApiResponse.success(providers));
+    }
+}
@@ -100,6 +100,19 @@ public class PatientProfileService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns the patient profiles with the given ids; unknown ids are skipped.
+     * Used by the matching engine to score one provider against a shortlist of patients
+     * with a single call.
+     */
+    @Transactional(readOnly = true)
+    public List<PatientProfileResponse> getProfilesByIds(List<UUID> profileIds) {
+        return patientProfileRepository.findAllById(profileIds)
+                .stream()
+                .map(patientProfileMapper::toResponse)
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     @CacheEvict(value = "patientProfiles", key = "#userId")
     public PatientProfileResponse updateProfile(UUID userId, UpdatePatientProfileRequest request) {
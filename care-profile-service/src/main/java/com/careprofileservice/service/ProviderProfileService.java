@@ -106,6 +106,19 @@ public class ProviderProfileService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Returns the provider profiles with the given ids; unknown ids are skipped.
+     * Used by the matching engine to score one patient against a shortlist of providers
+     * with a single call.
+     */
+    @Transactional(readOnly = true)
+    public List<ProviderProfileResponse> getProfilesByIds(List<UUID> profileIds) {
+        return providerProfileRepository.findAllById(profileIds)
+                .stream()
+                .map(providerProfileMapper::toResponse)
+                .collect(Collectors.toList());
+    }
+
     @Transactional
     @CacheEvict(value = "providerProfiles", key = "#userId")
     public ProviderProfileResponse updateProfile(UUID userId, UpdateProviderProfileRequest request) {